@@ -0,0 +1,472 @@
+package immu;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Functions for writing values into an {@link Appendable} without intermediate strings,
+ * used by the generated {@code appendTo} and {@code toString} methods.
+ * <p>
+ * Arrays, collections and maps are written in the same format as {@link java.util.Arrays#toString(Object[])}
+ * and {@link java.util.AbstractCollection#toString()}, but only up to a limit of elements. Elements
+ * above the limit are summarized as {@code ... (N more)}.
+ */
+public final class Appendables {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  Appendables() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Appends {@code @} and the 8-character hex value of {@link System#identityHashCode(Object)}.
+   * @param appendable the appendable, must not be null
+   * @param object the object, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void appendIdentity(Appendable appendable, Object object) throws IOException {
+    appendable.append('@');
+    appendHex(appendable, System.identityHashCode(object));
+  }
+
+  /**
+   * Appends the 8-character, zero-padded hex value.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void appendHex(Appendable appendable, int value) throws IOException {
+    for (int shift = 28; shift >= 0; shift -= 4) {
+      appendable.append(HEX[(value >>> shift) & 0xf]);
+    }
+  }
+
+  /**
+   * Appends the value like {@link StringBuilder#append(boolean)}.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void appendValue(Appendable appendable, boolean value) throws IOException {
+    appendable.append(value ? "true" : "false");
+  }
+
+  /**
+   * Appends the value like {@link StringBuilder#append(char)}.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void appendValue(Appendable appendable, char value) throws IOException {
+    appendable.append(value);
+  }
+
+  /**
+   * Appends the value like {@link StringBuilder#append(int)}.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void appendValue(Appendable appendable, int value) throws IOException {
+    if (appendable instanceof StringBuilder) {
+      ((StringBuilder) appendable).append(value);
+      return;
+    }
+
+    appendValue(appendable, (long) value);
+  }
+
+  /**
+   * Appends the value like {@link StringBuilder#append(long)}.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void appendValue(Appendable appendable, long value) throws IOException {
+    if (appendable instanceof StringBuilder) {
+      ((StringBuilder) appendable).append(value);
+      return;
+    }
+
+    if (Long.MIN_VALUE == value) {
+      appendable.append("-9223372036854775808");
+      return;
+    }
+
+    if (value < 0) {
+      appendable.append('-');
+      value = -value;
+    }
+
+    long divisor = 1;
+
+    while (value / divisor >= 10) {
+      divisor *= 10;
+    }
+
+    for (; divisor > 0; divisor /= 10) {
+      appendable.append((char) ('0' + (value / divisor) % 10));
+    }
+  }
+
+  /**
+   * Appends the value like {@link StringBuilder#append(float)}.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void appendValue(Appendable appendable, float value) throws IOException {
+    if (appendable instanceof StringBuilder) {
+      ((StringBuilder) appendable).append(value);
+      return;
+    }
+
+    appendable.append(String.valueOf(value));
+  }
+
+  /**
+   * Appends the value like {@link StringBuilder#append(double)}.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void appendValue(Appendable appendable, double value) throws IOException {
+    if (appendable instanceof StringBuilder) {
+      ((StringBuilder) appendable).append(value);
+      return;
+    }
+
+    appendable.append(String.valueOf(value));
+  }
+
+  /**
+   * Appends the string representation of the object.
+   * @param appendable the appendable, must not be null
+   * @param value the value, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void appendValue(Appendable appendable, Object value) throws IOException {
+    if (value instanceof CharSequence) {
+      appendable.append((CharSequence) value);
+    } else {
+      appendable.append(String.valueOf(value));
+    }
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(boolean[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, boolean[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(byte[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, byte[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(char[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, char[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(short[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, short[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(int[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, int[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(long[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, long[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(float[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, float[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(double[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, double[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the array like {@link java.util.Arrays#toString(Object[])}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendArray(Appendable appendable, Object[] array, int limit) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    final int n = Math.min(array.length, limit);
+
+    appendable.append('[');
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        appendable.append(", ");
+      }
+      appendValue(appendable, array[i]);
+    }
+    appendRemaining(appendable, n, array.length - n);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the elements of the collection like {@link java.util.AbstractCollection#toString()}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param collection the collection, may be null
+   * @param limit the maximal number of elements to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendCollection(Appendable appendable, Collection<?> collection, int limit) throws IOException {
+    if (null == collection) {
+      appendable.append("null");
+      return;
+    }
+
+    final Iterator<?> iterator = collection.iterator();
+
+    int n = 0;
+
+    appendable.append('[');
+    for (; n < limit && iterator.hasNext(); n++) {
+      if (n > 0) {
+        appendable.append(", ");
+      }
+
+      final Object element = iterator.next();
+      if (element == collection) {
+        appendable.append("(this Collection)");
+      } else {
+        appendValue(appendable, element);
+      }
+    }
+    appendRemaining(appendable, n, iterator.hasNext() ? collection.size() - n : 0);
+    appendable.append(']');
+  }
+
+  /**
+   * Appends the entries of the map like {@link java.util.AbstractMap#toString()}, up to the limit.
+   * @param appendable the appendable, must not be null
+   * @param map the map, may be null
+   * @param limit the maximal number of entries to append, must not be negative
+   * @throws IOException if the appendable throws
+   */
+  public static void appendMap(Appendable appendable, Map<?, ?> map, int limit) throws IOException {
+    if (null == map) {
+      appendable.append("null");
+      return;
+    }
+
+    final Iterator<? extends Map.Entry<?, ?>> iterator = map.entrySet().iterator();
+
+    int n = 0;
+
+    appendable.append('{');
+    for (; n < limit && iterator.hasNext(); n++) {
+      if (n > 0) {
+        appendable.append(", ");
+      }
+
+      final Map.Entry<?, ?> entry = iterator.next();
+      appendValue(appendable, entry.getKey() == map ? "(this Map)" : entry.getKey());
+      appendable.append('=');
+      appendValue(appendable, entry.getValue() == map ? "(this Map)" : entry.getValue());
+    }
+    appendRemaining(appendable, n, iterator.hasNext() ? map.size() - n : 0);
+    appendable.append('}');
+  }
+
+  private static void appendRemaining(Appendable appendable, int appended, int remaining) throws IOException {
+    if (remaining <= 0) {
+      return;
+    }
+
+    if (appended > 0) {
+      appendable.append(", ");
+    }
+
+    appendable.append("... (");
+    appendValue(appendable, remaining);
+    appendable.append(" more)");
+  }
+}
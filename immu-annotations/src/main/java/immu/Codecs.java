@@ -0,0 +1,591 @@
+package immu;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Encoding functions used by generated codecs of {@link Immu} interfaces with {@link Immu#codec()} enabled.
+ * <p>
+ * Values are written at the buffer's position in the buffer's byte order, and the position is advanced
+ * past them. Arrays and strings are prefixed by their length as an {@code int}, which is {@code -1}
+ * for null. Strings are encoded in UTF-8, with unpaired surrogates written as {@code '?'}.
+ * <p>
+ * None of the functions allocate, except for the returned values when reading. Strings read from
+ * buffers without an accessible array are decoded through one temporary {@code char} array.
+ * <p>
+ * Reading fails with a {@link BufferUnderflowException} if the buffer ends before a value, including when
+ * a length prefix exceeds the remaining bytes, and with an {@link IllegalArgumentException} if an enum
+ * ordinal does not belong to a constant. Neither allocates for the corrupt length.
+ */
+public final class Codecs {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  Codecs() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the string.
+   * @param value the string, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(String value) {
+    if (null == value) {
+      return 4;
+    }
+
+    return 4 + utf8Length(value);
+  }
+
+  /**
+   * Writes the string to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param value the string, may be null
+   */
+  public static void put(ByteBuffer buffer, String value) {
+    if (null == value) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(utf8Length(value));
+
+    final int length = value.length();
+
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+
+      if (c < 0x80) {
+        buffer.put((byte) c);
+      } else if (c < 0x800) {
+        buffer.put((byte) (0xc0 | (c >>> 6)));
+        buffer.put((byte) (0x80 | (c & 0x3f)));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+
+        buffer.put((byte) (0xf0 | (codePoint >>> 18)));
+        buffer.put((byte) (0x80 | ((codePoint >>> 12) & 0x3f)));
+        buffer.put((byte) (0x80 | ((codePoint >>> 6) & 0x3f)));
+        buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+      } else if (Character.isSurrogate(c)) {
+        buffer.put((byte) '?');
+      } else {
+        buffer.put((byte) (0xe0 | (c >>> 12)));
+        buffer.put((byte) (0x80 | ((c >>> 6) & 0x3f)));
+        buffer.put((byte) (0x80 | (c & 0x3f)));
+      }
+    }
+  }
+
+  /**
+   * Reads an enum constant from the buffer, written as its ordinal.
+   * @param buffer the buffer, must not be null
+   * @param values the constants of the enum in ordinal order, must not be null and must not be modified
+   * @param <E> the enum type
+   * @return the constant, may be null
+   * @throws IllegalArgumentException if the ordinal does not belong to a constant
+   */
+  public static <E extends Enum<E>> E getConstant(ByteBuffer buffer, E[] values) {
+    final int ordinal = buffer.getInt();
+
+    if (ordinal < 0) {
+      return null;
+    }
+
+    if (ordinal >= values.length) {
+      throw new IllegalArgumentException("Ordinal " + ordinal + " does not belong to a constant of " + values.getClass().getComponentType().getName());
+    }
+
+    return values[ordinal];
+  }
+
+  /**
+   * Reads a string from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the string, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the string's length
+   */
+  public static String getString(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, length);
+
+    if (buffer.hasArray()) {
+      final int position = buffer.position();
+      final String value = new String(buffer.array(), buffer.arrayOffset() + position, length, UTF_8);
+
+      buffer.position(position + length);
+
+      return value;
+    }
+
+    final char[] chars = new char[length];
+    final int end = buffer.position() + length;
+
+    int count = 0;
+
+    while (buffer.position() < end) {
+      final int b = buffer.get() & 0xff;
+
+      if (b < 0x80) {
+        chars[count++] = (char) b;
+      } else if (b < 0xe0) {
+        chars[count++] = (char) (((b & 0x1f) << 6) | (buffer.get() & 0x3f));
+      } else if (b < 0xf0) {
+        chars[count++] = (char) (((b & 0x0f) << 12) | ((buffer.get() & 0x3f) << 6) | (buffer.get() & 0x3f));
+      } else {
+        final int codePoint = ((b & 0x07) << 18) | ((buffer.get() & 0x3f) << 12) | ((buffer.get() & 0x3f) << 6) | (buffer.get() & 0x3f);
+
+        chars[count++] = Character.highSurrogate(codePoint);
+        chars[count++] = Character.lowSurrogate(codePoint);
+      }
+    }
+
+    return new String(chars, 0, count);
+  }
+
+  private static int utf8Length(String value) {
+    final int length = value.length();
+
+    int bytes = length;
+
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+
+      if (c < 0x80) {
+        continue;
+      }
+
+      if (c < 0x800) {
+        bytes += 1;
+      } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        // four bytes for two chars
+        bytes += 2;
+        i++;
+      } else if (!Character.isSurrogate(c)) {
+        bytes += 2;
+      }
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(boolean[] array) {
+    return 4 + (null == array ? 0 : array.length);
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(byte[] array) {
+    return 4 + (null == array ? 0 : array.length);
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(char[] array) {
+    return 4 + (null == array ? 0 : 2 * array.length);
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(short[] array) {
+    return 4 + (null == array ? 0 : 2 * array.length);
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(int[] array) {
+    return 4 + (null == array ? 0 : 4 * array.length);
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(long[] array) {
+    return 4 + (null == array ? 0 : 8 * array.length);
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(float[] array) {
+    return 4 + (null == array ? 0 : 4 * array.length);
+  }
+
+  /**
+   * Returns the number of bytes needed to encode the array.
+   * @param array the array, may be null
+   * @return the number of bytes
+   */
+  public static int sizeOf(double[] array) {
+    return 4 + (null == array ? 0 : 8 * array.length);
+  }
+
+  /**
+   * Writes the array to the buffer. Elements are written as one byte each, 1 for true and 0 for false.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, boolean[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+
+    for (boolean element : array) {
+      buffer.put((byte) (element ? 1 : 0));
+    }
+  }
+
+  /**
+   * Writes the array to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, byte[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+    buffer.put(array);
+  }
+
+  /**
+   * Writes the array to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, char[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+
+    for (char element : array) {
+      buffer.putChar(element);
+    }
+  }
+
+  /**
+   * Writes the array to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, short[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+
+    for (short element : array) {
+      buffer.putShort(element);
+    }
+  }
+
+  /**
+   * Writes the array to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, int[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+
+    for (int element : array) {
+      buffer.putInt(element);
+    }
+  }
+
+  /**
+   * Writes the array to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, long[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+
+    for (long element : array) {
+      buffer.putLong(element);
+    }
+  }
+
+  /**
+   * Writes the array to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, float[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+
+    for (float element : array) {
+      buffer.putFloat(element);
+    }
+  }
+
+  /**
+   * Writes the array to the buffer.
+   * @param buffer the buffer, must not be null
+   * @param array the array, may be null
+   */
+  public static void put(ByteBuffer buffer, double[] array) {
+    if (null == array) {
+      buffer.putInt(-1);
+      return;
+    }
+
+    buffer.putInt(array.length);
+
+    for (double element : array) {
+      buffer.putDouble(element);
+    }
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static boolean[] getBooleanArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, length);
+
+    final boolean[] array = new boolean[length];
+
+    for (int i = 0; i < length; i++) {
+      array[i] = 0 != buffer.get();
+    }
+
+    return array;
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static byte[] getByteArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, length);
+
+    final byte[] array = new byte[length];
+
+    buffer.get(array);
+
+    return array;
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static char[] getCharArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, 2 * (long) length);
+
+    final char[] array = new char[length];
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getChar();
+    }
+
+    return array;
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static short[] getShortArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, 2 * (long) length);
+
+    final short[] array = new short[length];
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getShort();
+    }
+
+    return array;
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static int[] getIntArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, 4 * (long) length);
+
+    final int[] array = new int[length];
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getInt();
+    }
+
+    return array;
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static long[] getLongArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, 8 * (long) length);
+
+    final long[] array = new long[length];
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getLong();
+    }
+
+    return array;
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static float[] getFloatArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, 4 * (long) length);
+
+    final float[] array = new float[length];
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getFloat();
+    }
+
+    return array;
+  }
+
+  /**
+   * Reads an array from the buffer.
+   * @param buffer the buffer, must not be null
+   * @return the array, may be null
+   * @throws BufferUnderflowException if fewer bytes remain than the array's length needs
+   */
+  public static double[] getDoubleArray(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    checkRemaining(buffer, 8 * (long) length);
+
+    final double[] array = new double[length];
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getDouble();
+    }
+
+    return array;
+  }
+
+  /**
+   * Checks that the bytes of a value remain in the buffer before the value is allocated, so that a corrupt
+   * length fails before a large array is created or bytes past the end are decoded.
+   */
+  private static void checkRemaining(ByteBuffer buffer, long bytes) {
+    if (bytes > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package immu;
+
+/**
+ * Functions for comparing property values, used by the generated {@code Comparators} classes and
+ * {@code compareTo} methods. Primitives are compared with the {@code compare} methods of their
+ * wrapper classes.
+ *
+ * @see Immu#comparators()
+ * @see Immu#comparableBy()
+ */
+public final class Comparisons {
+
+  Comparisons() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Compares two values, ordering null values first.
+   * @param a the first value, may be null
+   * @param b the second value, may be null
+   * @param <T> the type of the values
+   * @return a negative number, zero or a positive number if the first value is less than, equal to or
+   *         greater than the second one
+   */
+  public static <T extends Comparable<? super T>> int compare(T a, T b) {
+    if (a == b) {
+      return 0;
+    }
+
+    if (null == a) {
+      return -1;
+    }
+
+    if (null == b) {
+      return 1;
+    }
+
+    return a.compareTo(b);
+  }
+}
@@ -0,0 +1,661 @@
+package immu;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Functions for copying array and collection properties, used by the generated implementations for properties
+ * annotated with {@link Copy}.
+ * <p>
+ * Collections are copied into compact unmodifiable collections: the shared empty collections of
+ * {@link Collections}, its singletons for one element, dedicated classes for two elements, and array-backed
+ * collections for more, where sets and maps find elements through an open-addressing table of indexes. These
+ * keep the iteration order of the copied collection, and are returned as they are when copied again.
+ */
+public final class Copies {
+
+  private static final Class<?> SINGLETON_LIST = Collections.singletonList(null).getClass();
+  private static final Class<?> SINGLETON_SET = Collections.singleton(null).getClass();
+  private static final Class<?> SINGLETON_MAP = Collections.singletonMap(null, null).getClass();
+
+  Copies() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static boolean[] copy(boolean[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static byte[] copy(byte[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static char[] copy(char[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static short[] copy(short[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static int[] copy(int[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static long[] copy(long[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static float[] copy(float[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array.
+   * @param array the array, may be null
+   * @return the copy, or null if the array is null
+   */
+  public static double[] copy(double[] array) {
+    return null == array ? null : array.clone();
+  }
+
+  /**
+   * Returns a copy of the array, where elements that are arrays themselves are copied as well, so that
+   * nothing is shared with the original. Other elements are not copied.
+   * @param array the array, may be null
+   * @param <T> the component type
+   * @return the copy, or null if the array is null
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T[] copy(T[] array) {
+    if (null == array) {
+      return null;
+    }
+
+    final T[] copy = array.clone();
+
+    for (int i = 0; i < copy.length; i++) {
+      final Object element = copy[i];
+
+      if (null != element && element.getClass().isArray()) {
+        copy[i] = (T) copyArray(element);
+      }
+    }
+
+    return copy;
+  }
+
+  private static Object copyArray(Object array) {
+    if (array instanceof Object[]) {
+      return copy((Object[]) array);
+    }
+
+    if (array instanceof boolean[]) {
+      return ((boolean[]) array).clone();
+    }
+
+    if (array instanceof byte[]) {
+      return ((byte[]) array).clone();
+    }
+
+    if (array instanceof char[]) {
+      return ((char[]) array).clone();
+    }
+
+    if (array instanceof short[]) {
+      return ((short[]) array).clone();
+    }
+
+    if (array instanceof int[]) {
+      return ((int[]) array).clone();
+    }
+
+    if (array instanceof long[]) {
+      return ((long[]) array).clone();
+    }
+
+    if (array instanceof float[]) {
+      return ((float[]) array).clone();
+    }
+
+    return ((double[]) array).clone();
+  }
+
+  /**
+   * Returns an unmodifiable copy of the collection, which is a set if the collection is a set, and a list
+   * otherwise.
+   * @param collection the collection, may be null
+   * @param <E> the element type
+   * @return the copy, or null if the collection is null
+   */
+  public static <E> Collection<E> copy(Collection<E> collection) {
+    if (collection instanceof Set) {
+      return copy((Set<E>) collection);
+    }
+
+    if (collection instanceof List) {
+      return copy((List<E>) collection);
+    }
+
+    return null == collection ? null : Copies.<E>list(collection.toArray());
+  }
+
+  /**
+   * Returns an unmodifiable copy of the list, or the list itself if it was returned by this class.
+   * @param list the list, may be null
+   * @param <E> the element type
+   * @return the copy, or null if the list is null
+   */
+  public static <E> List<E> copy(List<E> list) {
+    if (null == list || list instanceof Compact || list == Collections.emptyList() || SINGLETON_LIST == list.getClass()) {
+      return list;
+    }
+
+    return list(list.toArray());
+  }
+
+  /**
+   * Returns an unmodifiable copy of the set, or the set itself if it was returned by this class.
+   * @param set the set, may be null
+   * @param <E> the element type
+   * @return the copy, or null if the set is null
+   */
+  public static <E> Set<E> copy(Set<E> set) {
+    if (null == set || set instanceof Compact || set == Collections.emptySet() || SINGLETON_SET == set.getClass()) {
+      return set;
+    }
+
+    return set(set.toArray());
+  }
+
+  /**
+   * Returns an unmodifiable copy of the map, or the map itself if it was returned by this class.
+   * @param map the map, may be null
+   * @param <K> the key type
+   * @param <V> the value type
+   * @return the copy, or null if the map is null
+   */
+  public static <K, V> Map<K, V> copy(Map<K, V> map) {
+    if (null == map || map instanceof Compact || map == Collections.emptyMap() || SINGLETON_MAP == map.getClass()) {
+      return map;
+    }
+
+    final Object[] keysAndValues = new Object[2 * map.size()];
+
+    int i = 0;
+
+    for (Map.Entry<K, V> entry : map.entrySet()) {
+      keysAndValues[i++] = entry.getKey();
+      keysAndValues[i++] = entry.getValue();
+    }
+
+    return map(keysAndValues, i / 2);
+  }
+
+  /**
+   * Returns an unmodifiable list backed by the array, which must not be changed afterwards.
+   * @param elements the elements, must not be null
+   * @param <E> the element type
+   * @return the list, never null
+   */
+  @SuppressWarnings("unchecked")
+  static <E> List<E> list(Object[] elements) {
+    switch (elements.length) {
+      case 0:
+        return Collections.emptyList();
+
+      case 1:
+        return Collections.singletonList((E) elements[0]);
+
+      case 2:
+        return new List2<E>((E) elements[0], (E) elements[1]);
+
+      default:
+        return new ListN<E>(elements);
+    }
+  }
+
+  /**
+   * Returns an unmodifiable set of the distinct elements of the array, in order, which must not be changed
+   * afterwards.
+   * @param elements the elements, must not be null
+   * @param <E> the element type
+   * @return the set, never null
+   */
+  @SuppressWarnings("unchecked")
+  static <E> Set<E> set(Object[] elements) {
+    final int[] table = new int[tableLength(elements.length)];
+
+    int size = 0;
+
+    for (Object element : elements) {
+      if (index(elements, 1, table, element, size) < 0) {
+        elements[size++] = element;
+      }
+    }
+
+    switch (size) {
+      case 0:
+        return Collections.emptySet();
+
+      case 1:
+        return Collections.singleton((E) elements[0]);
+
+      case 2:
+        return new Set2<E>((E) elements[0], (E) elements[1]);
+
+      default:
+        return new SetN<E>(trimmed(elements, size), table);
+    }
+  }
+
+  /**
+   * Returns an unmodifiable map of the keys and values that alternate in the array, with the first value of
+   * keys that occur more than once, in order. The array must not be changed afterwards.
+   * @param keysAndValues the keys and values, must not be null
+   * @param count the number of keys in the array
+   * @param <K> the key type
+   * @param <V> the value type
+   * @return the map, never null
+   */
+  @SuppressWarnings("unchecked")
+  static <K, V> Map<K, V> map(Object[] keysAndValues, int count) {
+    final int[] table = new int[tableLength(count)];
+
+    int size = 0;
+
+    for (int i = 0; i < count; i++) {
+      final Object key = keysAndValues[2 * i];
+
+      if (index(keysAndValues, 2, table, key, size) < 0) {
+        keysAndValues[2 * size] = key;
+        keysAndValues[2 * size + 1] = keysAndValues[2 * i + 1];
+        size++;
+      }
+    }
+
+    switch (size) {
+      case 0:
+        return Collections.emptyMap();
+
+      case 1:
+        return Collections.singletonMap((K) keysAndValues[0], (V) keysAndValues[1]);
+
+      case 2:
+        return new Map2<K, V>((K) keysAndValues[0], (V) keysAndValues[1], (K) keysAndValues[2], (V) keysAndValues[3]);
+
+      default:
+        return new MapN<K, V>(trimmed(keysAndValues, 2 * size), table);
+    }
+  }
+
+  private static Object[] trimmed(Object[] array, int length) {
+    if (length == array.length) {
+      return array;
+    }
+
+    final Object[] trimmed = new Object[length];
+    System.arraycopy(array, 0, trimmed, 0, length);
+    return trimmed;
+  }
+
+  /**
+   * Returns the length of a table for the number of elements, a power of two of at least twice the number,
+   * so that probe sequences stay short.
+   */
+  private static int tableLength(int count) {
+    return Math.max(4, Integer.highestOneBit(Math.max(1, count) * 2 - 1) << 1);
+  }
+
+  /**
+   * Looks up the element in the table, where slots hold one plus the index of an element in the array, and
+   * zero if empty. The elements are at multiples of the stride.
+   * @param next the index to insert the element with if it is missing
+   * @return the index of the element, or -1 if it was missing and has been inserted
+   */
+  private static int index(Object[] array, int stride, int[] table, Object element, int next) {
+    final int mask = table.length - 1;
+
+    for (int slot = spread(element) & mask; ; slot = (slot + 1) & mask) {
+      final int entry = table[slot];
+
+      if (0 == entry) {
+        table[slot] = next + 1;
+        return -1;
+      }
+
+      if (Objects.equals(element, array[stride * (entry - 1)])) {
+        return entry - 1;
+      }
+    }
+  }
+
+  /**
+   * Looks up the element in a full table.
+   * @return the index of the element, or -1 if it is missing
+   */
+  private static int find(Object[] array, int stride, int[] table, Object element) {
+    final int mask = table.length - 1;
+
+    for (int slot = spread(element) & mask; ; slot = (slot + 1) & mask) {
+      final int entry = table[slot];
+
+      if (0 == entry) {
+        return -1;
+      }
+
+      if (Objects.equals(element, array[stride * (entry - 1)])) {
+        return entry - 1;
+      }
+    }
+  }
+
+  private static int spread(Object element) {
+    final int hashCode = null == element ? 0 : element.hashCode();
+
+    return hashCode ^ (hashCode >>> 16);
+  }
+
+  /**
+   * Marks collections that need not be copied.
+   */
+  private interface Compact {
+  }
+
+  private static final class List2<E> extends AbstractList<E> implements RandomAccess, Serializable, Compact {
+    private static final long serialVersionUID = 1L;
+
+    private final E first;
+    private final E second;
+
+    private List2(E first, E second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public E get(int index) {
+      switch (index) {
+        case 0:
+          return first;
+
+        case 1:
+          return second;
+
+        default:
+          throw new IndexOutOfBoundsException("Index: " + index + ", Size: 2");
+      }
+    }
+
+    @Override
+    public int size() {
+      return 2;
+    }
+  }
+
+  private static final class ListN<E> extends AbstractList<E> implements RandomAccess, Serializable, Compact {
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] elements;
+
+    private ListN(Object[] elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+      return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+      return elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+      return elements.clone();
+    }
+  }
+
+  private static final class Set2<E> extends AbstractSet<E> implements Serializable, Compact {
+    private static final long serialVersionUID = 1L;
+
+    private final E first;
+    private final E second;
+
+    private Set2(E first, E second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+      return Objects.equals(object, first) || Objects.equals(object, second);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return new ArrayIterator<E>(new Object[] { first, second }, 1);
+    }
+
+    @Override
+    public int size() {
+      return 2;
+    }
+  }
+
+  private static final class SetN<E> extends AbstractSet<E> implements Serializable, Compact {
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] elements;
+    private final int[] table;
+
+    private SetN(Object[] elements, int[] table) {
+      this.elements = elements;
+      this.table = table;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+      return find(elements, 1, table, object) >= 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return new ArrayIterator<E>(elements, 1);
+    }
+
+    @Override
+    public int size() {
+      return elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+      return elements.clone();
+    }
+  }
+
+  private static final class Map2<K, V> extends AbstractMap<K, V> implements Serializable, Compact {
+    private static final long serialVersionUID = 1L;
+
+    private final K firstKey;
+    private final V firstValue;
+    private final K secondKey;
+    private final V secondValue;
+
+    private Map2(K firstKey, V firstValue, K secondKey, V secondValue) {
+      this.firstKey = firstKey;
+      this.firstValue = firstValue;
+      this.secondKey = secondKey;
+      this.secondValue = secondValue;
+    }
+
+    @Override
+    public V get(Object key) {
+      if (Objects.equals(key, firstKey)) {
+        return firstValue;
+      }
+
+      return Objects.equals(key, secondKey) ? secondValue : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return Objects.equals(key, firstKey) || Objects.equals(key, secondKey);
+    }
+
+    @Override
+    public int size() {
+      return 2;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new EntrySet<K, V>(new Object[] { firstKey, firstValue, secondKey, secondValue });
+    }
+  }
+
+  private static final class MapN<K, V> extends AbstractMap<K, V> implements Serializable, Compact {
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] keysAndValues;
+    private final int[] table;
+
+    private MapN(Object[] keysAndValues, int[] table) {
+      this.keysAndValues = keysAndValues;
+      this.table = table;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+      final int index = find(keysAndValues, 2, table, key);
+
+      return index < 0 ? null : (V) keysAndValues[2 * index + 1];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return find(keysAndValues, 2, table, key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return keysAndValues.length / 2;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new EntrySet<K, V>(keysAndValues);
+    }
+  }
+
+  private static final class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+    private final Object[] keysAndValues;
+
+    private EntrySet(Object[] keysAndValues) {
+      this.keysAndValues = keysAndValues;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+      return new ArrayIterator<Map.Entry<K, V>>(keysAndValues, 2);
+    }
+
+    @Override
+    public int size() {
+      return keysAndValues.length / 2;
+    }
+  }
+
+  /**
+   * Iterates over the elements of an array, or over entries of alternating keys and values with a stride of 2.
+   */
+  private static final class ArrayIterator<E> implements Iterator<E> {
+    private final Object[] array;
+    private final int stride;
+
+    private int index;
+
+    private ArrayIterator(Object[] array, int stride) {
+      this.array = array;
+      this.stride = stride;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < array.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+      if (index >= array.length) {
+        throw new NoSuchElementException();
+      }
+
+      final int i = index;
+      index += stride;
+
+      if (1 == stride) {
+        return (E) array[i];
+      }
+
+      return (E) new AbstractMap.SimpleImmutableEntry<Object, Object>(array[i], array[i + 1]);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
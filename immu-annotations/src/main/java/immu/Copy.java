@@ -0,0 +1,54 @@
+package immu;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * To be used on array properties in {@link Immu} and {@link SuperImmu} annotated interfaces to choose
+ * when the array is copied, so that changes to arrays the caller still holds can not change the object,
+ * nor make its cached hash code stale. Arrays of properties without this annotation are trusted.
+ * <p>
+ * Nested arrays are copied as well, see {@link Copies#copy(Object[])}.
+ * <p>
+ * Properties of type {@link java.util.List}, {@link java.util.Set}, {@link java.util.Map} or
+ * {@link java.util.Collection} can be annotated as well. Their values are copied into compact unmodifiable
+ * collections, see {@link Copies#copy(java.util.List)}, which need not be copied on access, and the builder
+ * gets methods that add elements, or put entries, without copying the collection more than once.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ ElementType.METHOD })
+public @interface Copy {
+
+  /**
+   * When an array property is copied.
+   */
+  enum Policy {
+    /**
+     * The array is never copied, and the caller promises not to change it after passing it in, nor
+     * after receiving it from the accessor. This is the behavior without the annotation.
+     */
+    TRUSTED,
+
+    /**
+     * The array is copied when the object is built, and the accessor returns the object's own array,
+     * which the caller must not change. Single-dimensional arrays of primitives other than
+     * {@code boolean} can be read through a read-only buffer view from the builder, without copying.
+     */
+    ON_CONSTRUCTION,
+
+    /**
+     * The array is copied when the object is built, and every call of the accessor returns a new copy.
+     * Single-dimensional arrays of primitives other than {@code boolean} can be read through a read-only
+     * buffer view from the builder, without copying.
+     */
+    ON_CONSTRUCTION_AND_ACCESS
+  }
+
+  /**
+   * The policy of the property.
+   * @return the policy, {@link Policy#ON_CONSTRUCTION} by default
+   */
+  Policy value() default Policy.ON_CONSTRUCTION;
+}
@@ -0,0 +1,334 @@
+package immu;
+
+/**
+ * Functions for computing 64-bit fingerprints of property values, used by the generated {@code Fingerprint}
+ * classes. Unlike {@link Object#hashCode()}, fingerprints only depend on the content of the values, and are the
+ * same on all JVMs and in all versions of this library, so that they can be used as keys across processes.
+ * <p>
+ * A fingerprint is computed by starting with {@link #SEED}, adding all values in order, and calling
+ * {@link #finish(long)}. Every value is turned into a sequence of 64-bit words, and each word is mixed into
+ * the state by {@link #add(long, long)}:
+ * <ul>
+ *   <li>{@code boolean} as {@code 1} or {@code 0}, other integral primitives sign-extended, and {@code char}
+ *   zero-extended;</li>
+ *   <li>{@code float} and {@code double} as the bits of {@link Float#floatToIntBits(float)} and
+ *   {@link Double#doubleToLongBits(double)}, except that {@code -0.0} is added as {@code 0.0};</li>
+ *   <li>strings as their UTF-8 bytes, eight per word in little-endian order with the last word padded with
+ *   zeros, followed by the number of bytes, and {@code -1} for null;</li>
+ *   <li>{@code byte} arrays like strings, and other arrays as their elements followed by their length, and
+ *   {@code -1} for null.</li>
+ * </ul>
+ * Enums are added as the string of their name, and nested objects as their fingerprint followed by
+ * {@code 1}, and {@code 0} for null. Lengths follow the values, so that the words of different values can
+ * not be confused.
+ *
+ * @see Immu#fingerprint()
+ */
+public final class Fingerprints {
+
+  /**
+   * The initial state.
+   */
+  public static final long SEED = 0x6a09e667f3bcc908L;
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  Fingerprints() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Mixes the word into the state, like a block of MurmurHash3: the word is multiplied by
+   * {@code 0x87c37b91114253d5}, rotated left by 31 bits and multiplied by {@code 0x4cf5ad432745937f}, then
+   * XOR-ed into the state, which is rotated left by 27 bits, multiplied by 5 and incremented by
+   * {@code 0x52dce729}.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param value the word
+   * @return the new state
+   */
+  public static long add(long state, long value) {
+    final long k = Long.rotateLeft(value * C1, 31) * C2;
+
+    return Long.rotateLeft(state ^ k, 27) * 5 + 0x52dce729L;
+  }
+
+  /**
+   * Adds the value as {@code 1} or {@code 0}.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param value the value
+   * @return the new state
+   */
+  public static long add(long state, boolean value) {
+    return add(state, value ? 1L : 0L);
+  }
+
+  /**
+   * Adds the value sign-extended, which also applies to {@code byte} and {@code short} values, and
+   * zero-extended for {@code char} values.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param value the value
+   * @return the new state
+   */
+  public static long add(long state, int value) {
+    return add(state, (long) value);
+  }
+
+  /**
+   * Adds the bits of the value, where {@code -0.0} is added as {@code 0.0}.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param value the value
+   * @return the new state
+   */
+  public static long add(long state, float value) {
+    return add(state, 0 == value ? 0L : (long) Float.floatToIntBits(value));
+  }
+
+  /**
+   * Adds the bits of the value, where {@code -0.0} is added as {@code 0.0}.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param value the value
+   * @return the new state
+   */
+  public static long add(long state, double value) {
+    return add(state, 0 == value ? 0L : Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Adds the UTF-8 bytes of the value, eight per word, followed by their number, or {@code -1} if the value
+   * is null. Unpaired surrogates are encoded as {@code '?'}, like {@link String#getBytes(java.nio.charset.Charset)}
+   * does. Nothing is allocated.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param value the value, may be null
+   * @return the new state
+   */
+  public static long add(long state, CharSequence value) {
+    if (null == value) {
+      return add(state, -1L);
+    }
+
+    final int length = value.length();
+
+    long word = 0;
+    int bytes = 0;
+
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+
+      final int codePoint;
+
+      if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+        codePoint = Character.toCodePoint(c, value.charAt(++i));
+      } else if (Character.isSurrogate(c)) {
+        codePoint = '?';
+      } else {
+        codePoint = c;
+      }
+
+      final int encoded;
+      final int count;
+
+      if (codePoint < 0x80) {
+        encoded = codePoint;
+        count = 1;
+      } else if (codePoint < 0x800) {
+        encoded = (0xc0 | (codePoint >> 6)) | ((0x80 | (codePoint & 0x3f)) << 8);
+        count = 2;
+      } else if (codePoint < 0x10000) {
+        encoded = (0xe0 | (codePoint >> 12)) | ((0x80 | ((codePoint >> 6) & 0x3f)) << 8) | ((0x80 | (codePoint & 0x3f)) << 16);
+        count = 3;
+      } else {
+        encoded = (0xf0 | (codePoint >> 18)) | ((0x80 | ((codePoint >> 12) & 0x3f)) << 8) | ((0x80 | ((codePoint >> 6) & 0x3f)) << 16) | ((0x80 | (codePoint & 0x3f)) << 24);
+        count = 4;
+      }
+
+      for (int b = 0; b < count; b++) {
+        word |= (long) ((encoded >>> (8 * b)) & 0xff) << (8 * (bytes & 7));
+        bytes++;
+
+        if (0 == (bytes & 7)) {
+          state = add(state, word);
+          word = 0;
+        }
+      }
+    }
+
+    if (0 != (bytes & 7)) {
+      state = add(state, word);
+    }
+
+    return add(state, (long) bytes);
+  }
+
+  /**
+   * Adds the bytes of the array eight per word, followed by their number, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, byte[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    long word = 0;
+
+    for (int i = 0; i < array.length; i++) {
+      word |= (array[i] & 0xffL) << (8 * (i & 7));
+
+      if (7 == (i & 7)) {
+        state = add(state, word);
+        word = 0;
+      }
+    }
+
+    if (0 != (array.length & 7)) {
+      state = add(state, word);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Adds the elements of the array, followed by its length, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, boolean[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    for (boolean value : array) {
+      state = add(state, value);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Adds the elements of the array, followed by its length, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, short[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    for (short value : array) {
+      state = add(state, value);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Adds the elements of the array, followed by its length, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, char[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    for (char value : array) {
+      state = add(state, value);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Adds the elements of the array, followed by its length, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, int[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    for (int value : array) {
+      state = add(state, value);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Adds the elements of the array, followed by its length, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, long[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    for (long value : array) {
+      state = add(state, value);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Adds the elements of the array, followed by its length, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, float[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    for (float value : array) {
+      state = add(state, value);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Adds the elements of the array, followed by its length, or {@code -1} if the array is null.
+   * @param state the state, from {@link #SEED} or a previous call
+   * @param array the array, may be null
+   * @return the new state
+   */
+  public static long add(long state, double[] array) {
+    if (null == array) {
+      return add(state, -1L);
+    }
+
+    for (double value : array) {
+      state = add(state, value);
+    }
+
+    return add(state, (long) array.length);
+  }
+
+  /**
+   * Returns the fingerprint of the state, after the finalization mix of MurmurHash3: XOR with the state shifted
+   * right by 33 bits, multiplication by {@code 0xff51afd7ed558ccd}, the same shift, multiplication by
+   * {@code 0xc4ceb9fe1a85ec53}, and the same shift again.
+   * @param state the state after adding all values
+   * @return the fingerprint
+   */
+  public static long finish(long state) {
+    state ^= state >>> 33;
+    state *= 0xff51afd7ed558ccdL;
+    state ^= state >>> 33;
+    state *= 0xc4ceb9fe1a85ec53L;
+    state ^= state >>> 33;
+
+    return state;
+  }
+}
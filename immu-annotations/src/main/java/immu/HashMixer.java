@@ -0,0 +1,72 @@
+package immu;
+
+/**
+ * Hash mixing functions used by generated implementations of {@link Immu} interfaces
+ * with {@link Immu.Hashing#MIXED} hashing.
+ * <p>
+ * The functions are the body and finalization steps of the 32-bit MurmurHash3.
+ * Custom implementations of such interfaces should compute their hash codes as:
+ * <pre>
+ * int hash = TheImmuInterface.class.getCanonicalName().hashCode();
+ * hash = HashMixer.mix(hash, firstPropertyHashCode);
+ * hash = HashMixer.mix(hash, secondPropertyHashCode);
+ * ...
+ * return HashMixer.finish(hash, numberOfProperties);
+ * </pre>
+ * Where a property's hash code is the same as used with {@link Immu.Hashing#XOR}, except
+ * for {@code long} and {@code double} properties which are mixed in as {@code long} values.
+ */
+public final class HashMixer {
+
+  HashMixer() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Mixes the value into the hash.
+   * @param hash the hash so far
+   * @param value the value to mix in
+   * @return the new hash
+   */
+  public static int mix(int hash, int value) {
+    int k = value * 0xcc9e2d51;
+    k = Integer.rotateLeft(k, 15);
+    k *= 0x1b873593;
+
+    hash ^= k;
+    hash = Integer.rotateLeft(hash, 13);
+
+    return hash * 5 + 0xe6546b64;
+  }
+
+  /**
+   * Mixes the value into the hash, lower 32 bits first.
+   * @param hash the hash so far
+   * @param value the value to mix in
+   * @return the new hash
+   */
+  public static int mix(int hash, long value) {
+    return mix(mix(hash, (int) value), (int) (value >>> 32));
+  }
+
+  /**
+   * Finalizes the hash so that all bits of it avalanche.
+   * <p>
+   * This function never returns {@code 0}, so the result can be cached in a field where
+   * {@code 0} means that the hash code was not computed.
+   * @param hash the hash so far
+   * @param count the number of values that were mixed in
+   * @return the finalized hash, never 0
+   */
+  public static int finish(int hash, int count) {
+    hash ^= count;
+
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+
+    return 0 == hash ? 1 : hash;
+  }
+}
@@ -17,4 +17,238 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.CLASS)
 @Target({ ElementType.TYPE })
 public @interface Immu {
+
+  /**
+   * Strategies for computing {@link Object#hashCode()} in the generated implementation.
+   */
+  enum Hashing {
+    /**
+     * XOR of the hash codes of all properties and the hash code of the interface's canonical name.
+     * This is the documented, default strategy.
+     */
+    XOR,
+
+    /**
+     * Mixes the hash codes of all properties in order, starting from the hash code of the interface's
+     * canonical name, and applies an avalanche finalizer on the result.
+     *
+     * @see HashMixer
+     */
+    MIXED
+  }
+
+  /**
+   * Strategies for caching the results of {@link Object#hashCode()} and {@link Object#toString()}
+   * in the generated implementation.
+   */
+  enum Caching {
+    /**
+     * Both values are computed on first use and cached in {@code volatile} fields. This is the default.
+     */
+    VOLATILE,
+
+    /**
+     * Both values are computed on first use and cached in plain fields, like {@link String#hashCode()}.
+     * Values may be computed more than once by different threads, but reading them costs no memory fence.
+     */
+    RACY,
+
+    /**
+     * The hash code is computed once in the constructor into a {@code final} field. The string
+     * representation is not cached.
+     */
+    EAGER,
+
+    /**
+     * Nothing is cached, and no memory is spent on cache fields.
+     */
+    NONE
+  }
+
+  /**
+   * Makes the generated builder return canonical instances from a weakly-referenced
+   * pool, so that equal values share a single instance. Interfaces without properties
+   * get a single static instance.
+   * <p>
+   * Interned instances are only equal to themselves when compared to other instances of
+   * the generated implementation, which makes {@link Object#equals(Object)} cheap.
+   *
+   * @see Interner
+   * @return if instances should be interned, false by default
+   */
+  boolean intern() default false;
+
+  /**
+   * The strategy used for computing hash codes in the generated implementation.
+   * <p>
+   * Use {@link Hashing#MIXED} for interfaces whose instances are used as keys in hashed collections
+   * and have properties with skewed or repeating values.
+   *
+   * @return the strategy, {@link Hashing#XOR} by default
+   */
+  Hashing hashing() default Hashing.XOR;
+
+  /**
+   * The strategy used for caching computed values in the generated implementation.
+   * {@link Immutable#clear()} only clears values that are cached with this strategy.
+   *
+   * @return the strategy, {@link Caching#VOLATILE} by default
+   */
+  Caching caching() default Caching.VOLATILE;
+
+  /**
+   * The maximal number of elements of array, collection or map properties that will be written by the
+   * generated {@code toString()} and {@code appendTo(...)} methods. Elements above the limit are
+   * summarized as {@code ... (N more)}.
+   * <p>
+   * A negative value means that the {@code immu.toStringLimit} processor option is used, and if it
+   * is not provided, that all elements will be written.
+   *
+   * @return the limit, -1 by default
+   */
+  int toStringLimit() default -1;
+
+  /**
+   * Generates a companion {@code Codec} class that writes instances to and reads them from
+   * {@link java.nio.ByteBuffer}s, without reflection and without allocating anything beyond the
+   * decoded object.
+   * <p>
+   * All properties must be primitives, {@link String}s, enums, {@link Immu} interfaces that also have
+   * a codec, or arrays of these.
+   *
+   * @see Codecs
+   * @return if a codec should be generated, false by default
+   */
+  boolean codec() default false;
+
+  /**
+   * Generates a companion {@code Flyweight} class that implements the interface by reading each property
+   * at a fixed offset of a {@link java.nio.ByteBuffer}. One flyweight can be moved over many records,
+   * so that records in direct memory can be read without creating an object for each of them.
+   * <p>
+   * All properties must be primitives.
+   *
+   * @return if a flyweight should be generated, false by default
+   */
+  boolean flyweight() default false;
+
+  /**
+   * Generates a companion {@code Columns} class that stores many instances as one array per property,
+   * instead of one object per instance. Instances can be appended to it, and read back either as
+   * objects, through a reusable cursor, or one column at a time.
+   * <p>
+   * The interface must not declare type variables, and no property may be named {@code index}.
+   *
+   * @return if a columns class should be generated, false by default
+   */
+  boolean columns() default false;
+
+  /**
+   * Generates a companion {@code Json} class that writes instances as JSON to an {@link Appendable},
+   * and reads them from a {@link java.io.Reader} or {@link CharSequence}, one token at a time and
+   * without reflection.
+   * <p>
+   * All properties must be primitives, {@link String}s, enums, {@link Immu} interfaces that also have
+   * a JSON class, or arrays of these.
+   *
+   * @see Json
+   * @see JsonReader
+   * @return if a JSON class should be generated, false by default
+   */
+  boolean json() default false;
+
+  /**
+   * Generates a static {@code threadLocal()} method on the builder that returns a reset builder kept
+   * per thread, so that loops building many objects do not allocate a builder for each of them. Such a
+   * builder must only be used on its thread, and only to build one object at a time.
+   *
+   * @return if a thread-local builder should be generated, false by default
+   */
+  boolean threadLocalBuilder() default false;
+
+  /**
+   * Packs the {@code boolean}, {@code byte}, {@code short} and {@code char} properties of the generated
+   * implementation into the bit ranges of as few {@code long} or {@code int} fields as possible, instead of
+   * one field each. Their accessors shift and mask the packed value. The javadoc of the implementation
+   * shows the estimated bytes per instance with and without packing.
+   *
+   * @return if small primitive properties should be packed, false by default
+   */
+  boolean packed() default false;
+
+  /**
+   * Generates a companion {@code Comparators} class with a {@link java.util.Comparator} for each property
+   * that is a primitive or {@link Comparable}. Primitives are compared without boxing, and comparators
+   * can be chained, e.g. {@code byPrice(byQuantity())}. Null values are ordered first.
+   *
+   * @see Comparisons
+   * @return if a comparators class should be generated, false by default
+   */
+  boolean comparators() default false;
+
+  /**
+   * Makes the implementation {@link Comparable}, ordered by the named properties in the given order.
+   * Each of them must be a primitive or {@link Comparable}.
+   * <p>
+   * The ordering is only consistent with {@link Object#equals(Object)} if all properties are named and
+   * the orderings of the {@link Comparable} ones are consistent with their {@code equals}. Floating-point
+   * values are ordered by {@link Double#compare} and compared by their bits in {@code equals}, under both
+   * of which {@code NaN} equals itself and {@code -0.0} differs from {@code 0.0}.
+   *
+   * @see Comparisons
+   * @return the names of the properties to order by, empty by default, in which case the
+   *         implementation is not comparable
+   */
+  String[] comparableBy() default {};
+
+  /**
+   * Generates a companion {@code Diff} class, whose {@code mask} method returns which properties differ
+   * between two objects, as a bit per property, and whose {@code apply} method copies exactly those
+   * properties from one object onto another. Properties are compared like in {@link Object#equals(Object)}.
+   *
+   * @return if a diff class should be generated, false by default
+   */
+  boolean diff() default false;
+
+  /**
+   * Generates a companion {@code Meta} class that describes the properties by index, with their names,
+   * {@link PropertyKind kinds}, types and {@link Required} flags, and reads them without reflection, either
+   * one at a time with a getter per primitive type, or all at once with a {@link PropertyVisitor}, without
+   * boxing primitives.
+   *
+   * @return if a meta class should be generated, false by default
+   */
+  boolean meta() default false;
+
+  /**
+   * Generates a companion {@code Fingerprint} class, whose {@code fingerprint64} method returns a 64-bit
+   * hash of the content of an object that, unlike {@link Object#hashCode()}, is the same on all JVMs and
+   * can be persisted. It is cached by the implementation like the hash code. All properties must be
+   * primitives, strings, enums, arrays of them, or other objects which generate a fingerprint too.
+   *
+   * @see Fingerprints
+   * @return if a fingerprint class should be generated, false by default
+   */
+  boolean fingerprint() default false;
+
+  /**
+   * Makes the implementation {@link java.io.Serializable} through a generated serialization proxy, which writes
+   * the property values in the order of declaration without field names or cached values, and constructs
+   * the object anew when read. The {@link Required} checks run again, so that a stream can not produce
+   * invalid objects, and interned objects are read as their canonical instance. Nested {@code @Immu}
+   * properties must be serializable too.
+   *
+   * @return if the implementation should be serializable, false by default
+   */
+  boolean serializable() default false;
+
+  /**
+   * Throws {@link ValueNotProvidedException}s for missing {@link Required} values without a stack trace, and
+   * with a message that is only built from the property names when it is requested. This makes rejecting
+   * incomplete input cheap, e.g. when untrusted messages are validated by building them. The builder's
+   * {@code tryBuild} method avoids the exception altogether.
+   *
+   * @return if exceptions for missing values should not fill in a stack trace, false by default
+   */
+  boolean stacklessExceptions() default false;
 }
@@ -0,0 +1,124 @@
+package immu;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A concurrent, weakly-referenced pool of canonical instances. Generated
+ * implementations of {@link Immu} interfaces with {@link Immu#intern()} enabled
+ * use this class to make equal values share one instance.
+ * <p>
+ * Canonical instances are only weakly held by the pool, so they will be
+ * collected once no one else references them.
+ *
+ * @param <T> the type of the pooled instances
+ */
+public abstract class Interner<T> {
+
+  private final class Entry extends WeakReference<T> {
+    private final int hashCode;
+
+    private Entry(T referent) {
+      super(referent, queue);
+      this.hashCode = referent.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object object) {
+      if (this == object) {
+        return true;
+      }
+
+      if (!(object instanceof Interner.Entry)) {
+        return false;
+      }
+
+      final Entry entry = (Entry) object;
+
+      if (hashCode != entry.hashCode) {
+        return false;
+      }
+
+      final T a = get();
+      final T b = entry.get();
+
+      // cleared entries are only ever equal to themselves
+      return null != a && null != b && equivalent(a, b);
+    }
+  }
+
+  private final ConcurrentMap<Entry, Entry> pool = new ConcurrentHashMap<Entry, Entry>();
+  private final ReferenceQueue<T> queue = new ReferenceQueue<T>();
+
+  /**
+   * Construct a new, empty pool.
+   */
+  protected Interner() {
+  }
+
+  /**
+   * Checks whether the two instances hold equal values. This is called only
+   * for instances with equal hash codes.
+   * @param a the first instance, never null
+   * @param b the second instance, never null
+   * @return if the instances are equivalent
+   */
+  protected abstract boolean equivalent(T a, T b);
+
+  /**
+   * Returns the canonical instance that is equivalent to the provided instance.
+   * If there is no such instance in the pool, the provided instance becomes the
+   * canonical one.
+   * @param instance the instance, must not be null
+   * @return the canonical instance, never null
+   */
+  public final T intern(T instance) {
+    expunge();
+
+    final Entry entry = new Entry(instance);
+
+    for (;;) {
+      final Entry existing = pool.putIfAbsent(entry, entry);
+
+      if (null == existing) {
+        return instance;
+      }
+
+      final T canonical = existing.get();
+
+      if (null != canonical) {
+        return canonical;
+      }
+
+      // the canonical instance was collected in the meantime
+      pool.remove(existing, existing);
+    }
+  }
+
+  /**
+   * Returns the number of canonical instances currently held in this pool.
+   * @return the size, an estimate under concurrent use
+   */
+  public final int size() {
+    expunge();
+
+    return pool.size();
+  }
+
+  private void expunge() {
+    Reference<? extends T> reference;
+
+    while (null != (reference = queue.poll())) {
+      pool.remove(reference, reference);
+    }
+  }
+}
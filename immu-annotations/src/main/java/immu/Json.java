@@ -0,0 +1,319 @@
+package immu;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * Functions for writing JSON values into an {@link Appendable} without intermediate strings,
+ * used by the generated {@code Json} classes.
+ * <p>
+ * Non-finite floating point numbers are not valid JSON numbers, and are written as the strings
+ * {@code "NaN"}, {@code "Infinity"} and {@code "-Infinity"}, which {@link JsonReader#nextDouble()} accepts.
+ * Character arrays are written as a string.
+ *
+ * @see JsonReader
+ */
+public final class Json {
+
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  Json() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Writes the value as a quoted and escaped JSON string, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param value the value, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeString(Appendable appendable, CharSequence value) throws IOException {
+    if (null == value) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('"');
+
+    final int length = value.length();
+
+    int start = 0;
+
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+
+      if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+        continue;
+      }
+
+      appendable.append(value, start, i);
+      writeEscaped(appendable, c);
+      start = i + 1;
+    }
+
+    appendable.append(value, start, length);
+    appendable.append('"');
+  }
+
+  /**
+   * Writes the character as a quoted and escaped JSON string of length 1.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void writeString(Appendable appendable, char value) throws IOException {
+    appendable.append('"');
+
+    if (value >= 0x20 && value != '"' && value != '\\' && value != '\u2028' && value != '\u2029') {
+      appendable.append(value);
+    } else {
+      writeEscaped(appendable, value);
+    }
+
+    appendable.append('"');
+  }
+
+  private static void writeEscaped(Appendable appendable, char c) throws IOException {
+    switch (c) {
+      case '"':
+        appendable.append("\\\"");
+        break;
+
+      case '\\':
+        appendable.append("\\\\");
+        break;
+
+      case '\n':
+        appendable.append("\\n");
+        break;
+
+      case '\r':
+        appendable.append("\\r");
+        break;
+
+      case '\t':
+        appendable.append("\\t");
+        break;
+
+      case '\b':
+        appendable.append("\\b");
+        break;
+
+      case '\f':
+        appendable.append("\\f");
+        break;
+
+      default:
+        appendable
+            .append("\\u")
+            .append(HEX[(c >> 12) & 0xf])
+            .append(HEX[(c >> 8) & 0xf])
+            .append(HEX[(c >> 4) & 0xf])
+            .append(HEX[c & 0xf]);
+    }
+  }
+
+  /**
+   * Writes the value as a JSON number, or as a string if it is not finite.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void writeNumber(Appendable appendable, float value) throws IOException {
+    if (Float.isNaN(value) || Float.isInfinite(value)) {
+      writeNonFinite(appendable, value);
+      return;
+    }
+
+    Appendables.appendValue(appendable, value);
+  }
+
+  /**
+   * Writes the value as a JSON number, or as a string if it is not finite.
+   * @param appendable the appendable, must not be null
+   * @param value the value
+   * @throws IOException if the appendable throws
+   */
+  public static void writeNumber(Appendable appendable, double value) throws IOException {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      writeNonFinite(appendable, value);
+      return;
+    }
+
+    Appendables.appendValue(appendable, value);
+  }
+
+  private static void writeNonFinite(Appendable appendable, double value) throws IOException {
+    if (Double.isNaN(value)) {
+      appendable.append("\"NaN\"");
+    } else if (value > 0) {
+      appendable.append("\"Infinity\"");
+    } else {
+      appendable.append("\"-Infinity\"");
+    }
+  }
+
+  /**
+   * Writes the array as a JSON array, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, boolean[] array) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('[');
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        appendable.append(',');
+      }
+      Appendables.appendValue(appendable, array[i]);
+    }
+    appendable.append(']');
+  }
+
+  /**
+   * Writes the array as a JSON array, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, byte[] array) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('[');
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        appendable.append(',');
+      }
+      Appendables.appendValue(appendable, array[i]);
+    }
+    appendable.append(']');
+  }
+
+  /**
+   * Writes the array as a JSON string, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, char[] array) throws IOException {
+    writeString(appendable, null == array ? null : CharBuffer.wrap(array));
+  }
+
+  /**
+   * Writes the array as a JSON array, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, short[] array) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('[');
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        appendable.append(',');
+      }
+      Appendables.appendValue(appendable, array[i]);
+    }
+    appendable.append(']');
+  }
+
+  /**
+   * Writes the array as a JSON array, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, int[] array) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('[');
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        appendable.append(',');
+      }
+      Appendables.appendValue(appendable, array[i]);
+    }
+    appendable.append(']');
+  }
+
+  /**
+   * Writes the array as a JSON array, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, long[] array) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('[');
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        appendable.append(',');
+      }
+      Appendables.appendValue(appendable, array[i]);
+    }
+    appendable.append(']');
+  }
+
+  /**
+   * Writes the array as a JSON array, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, float[] array) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('[');
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        appendable.append(',');
+      }
+      writeNumber(appendable, array[i]);
+    }
+    appendable.append(']');
+  }
+
+  /**
+   * Writes the array as a JSON array, or {@code null}.
+   * @param appendable the appendable, must not be null
+   * @param array the array, may be null
+   * @throws IOException if the appendable throws
+   */
+  public static void writeArray(Appendable appendable, double[] array) throws IOException {
+    if (null == array) {
+      appendable.append("null");
+      return;
+    }
+
+    appendable.append('[');
+    for (int i = 0; i < array.length; i++) {
+      if (i > 0) {
+        appendable.append(',');
+      }
+      writeNumber(appendable, array[i]);
+    }
+    appendable.append(']');
+  }
+}
@@ -0,0 +1,816 @@
+package immu;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A streaming pull parser for JSON, used by the generated {@code Json} classes. It reads one token
+ * at a time from a {@link Reader} or {@link CharSequence}, without building a tree of the document.
+ * <p>
+ * The elements of arrays and the members of objects are iterated with {@link #hasNext()}, which
+ * consumes the separating comma and must be followed by reading exactly one element, or one name
+ * and one value:
+ * <pre>
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *   final String name = reader.nextName();
+ *   // read the value, or reader.skipValue()
+ * }
+ * reader.endObject();
+ * </pre>
+ * Malformed input is reported as an {@link IOException} with the offset of the offending character.
+ *
+ * @see Json
+ */
+public final class JsonReader {
+
+  private static final int EOF = -1;
+
+  private final CharSequence sequence;
+  private final Reader reader;
+  private final char[] buffer;
+
+  private int limit;
+  private int position;
+  private int consumed;
+
+  private boolean[] expectsFirst = new boolean[16];
+  private int depth;
+
+  private final StringBuilder scratch = new StringBuilder();
+
+  /**
+   * Creates a parser reading from the sequence.
+   * @param json the JSON text, must not be null
+   */
+  public JsonReader(CharSequence json) {
+    if (null == json) {
+      throw new NullPointerException("json");
+    }
+
+    this.sequence = json;
+    this.reader = null;
+    this.buffer = null;
+    this.limit = json.length();
+  }
+
+  /**
+   * Creates a parser reading from the reader, through an internal buffer. The reader is not closed.
+   * @param reader the reader, must not be null
+   */
+  public JsonReader(Reader reader) {
+    if (null == reader) {
+      throw new NullPointerException("reader");
+    }
+
+    this.sequence = null;
+    this.reader = reader;
+    this.buffer = new char[1024];
+  }
+
+  /**
+   * Consumes the start of an object.
+   * @throws IOException if the next token is not the start of an object, or reading fails
+   */
+  public void beginObject() throws IOException {
+    begin('{');
+  }
+
+  /**
+   * Consumes the end of an object.
+   * @throws IOException if the next token is not the end of an object, or reading fails
+   */
+  public void endObject() throws IOException {
+    end('}');
+  }
+
+  /**
+   * Consumes the start of an array.
+   * @throws IOException if the next token is not the start of an array, or reading fails
+   */
+  public void beginArray() throws IOException {
+    begin('[');
+  }
+
+  /**
+   * Consumes the end of an array.
+   * @throws IOException if the next token is not the end of an array, or reading fails
+   */
+  public void endArray() throws IOException {
+    end(']');
+  }
+
+  /**
+   * Checks whether the current array or object has another element, and consumes the comma before it.
+   * @return if there is another element
+   * @throws IOException if the input is malformed, or reading fails
+   */
+  public boolean hasNext() throws IOException {
+    if (0 == depth) {
+      throw malformed("array or object");
+    }
+
+    final int c = peekToken();
+
+    if ('}' == c || ']' == c) {
+      return false;
+    }
+
+    if (!expectsFirst[depth - 1]) {
+      if (',' != c) {
+        throw malformed("','");
+      }
+
+      position++;
+      expectsFirst[depth - 1] = true;
+      peekToken();
+    }
+
+    return true;
+  }
+
+  /**
+   * Consumes the name of an object member and the following colon.
+   * @return the name, never null
+   * @throws IOException if the next token is not a name, or reading fails
+   */
+  public String nextName() throws IOException {
+    final String name = nextString();
+
+    if (null == name) {
+      throw malformed("name");
+    }
+
+    if (':' != peekToken()) {
+      throw malformed("':'");
+    }
+
+    position++;
+
+    return name;
+  }
+
+  /**
+   * Consumes a {@code null} literal if it is the next token.
+   * @return if a {@code null} was consumed
+   * @throws IOException if reading fails
+   */
+  public boolean nextNull() throws IOException {
+    if ('n' != peekToken()) {
+      return false;
+    }
+
+    value();
+    literal("null");
+
+    return true;
+  }
+
+  /**
+   * Consumes a string.
+   * @return the string, or null if the next token is {@code null}
+   * @throws IOException if the next token is not a string or {@code null}, or reading fails
+   */
+  public String nextString() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    if ('"' != peekToken()) {
+      throw malformed("string");
+    }
+
+    value();
+    string();
+
+    return scratch.toString();
+  }
+
+  /**
+   * Consumes a string with the name of an enum constant.
+   * @param type the enum type, must not be null
+   * @param <E> the enum type
+   * @return the constant, or null if the next token is {@code null}
+   * @throws IOException if the next token is not a string or {@code null}, the string is not the name of a
+   *                     constant, or reading fails
+   */
+  public <E extends Enum<E>> E nextEnum(Class<E> type) throws IOException {
+    final String name = nextString();
+
+    if (null == name) {
+      return null;
+    }
+
+    try {
+      return Enum.valueOf(type, name);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(String.format((Locale) null, "String \"%s\" at %d is not a constant of %s", name, consumed + position, type.getName()));
+    }
+  }
+
+  /**
+   * Consumes a string of exactly one character.
+   * @return the character
+   * @throws IOException if the next token is not a string of length 1, or reading fails
+   */
+  public char nextChar() throws IOException {
+    if ('"' != peekToken()) {
+      throw malformed("string");
+    }
+
+    value();
+    string();
+
+    if (1 != scratch.length()) {
+      throw malformed("string of one character");
+    }
+
+    return scratch.charAt(0);
+  }
+
+  /**
+   * Consumes a {@code true} or {@code false} literal.
+   * @return the value
+   * @throws IOException if the next token is not a boolean, or reading fails
+   */
+  public boolean nextBoolean() throws IOException {
+    final int c = peekToken();
+
+    if ('t' == c) {
+      value();
+      literal("true");
+      return true;
+    }
+
+    if ('f' == c) {
+      value();
+      literal("false");
+      return false;
+    }
+
+    throw malformed("boolean");
+  }
+
+  /**
+   * Consumes an integral number that fits into a {@code byte}.
+   * @return the value
+   * @throws IOException if the next token is not such a number, or reading fails
+   */
+  public byte nextByte() throws IOException {
+    final long value = nextLong();
+
+    if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+      throw new IOException(String.format((Locale) null, "Number %d at %d does not fit into a byte", value, consumed + position));
+    }
+
+    return (byte) value;
+  }
+
+  /**
+   * Consumes an integral number that fits into a {@code short}.
+   * @return the value
+   * @throws IOException if the next token is not such a number, or reading fails
+   */
+  public short nextShort() throws IOException {
+    final long value = nextLong();
+
+    if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+      throw new IOException(String.format((Locale) null, "Number %d at %d does not fit into a short", value, consumed + position));
+    }
+
+    return (short) value;
+  }
+
+  /**
+   * Consumes an integral number that fits into an {@code int}.
+   * @return the value
+   * @throws IOException if the next token is not such a number, or reading fails
+   */
+  public int nextInt() throws IOException {
+    final long value = nextLong();
+
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw new IOException(String.format((Locale) null, "Number %d at %d does not fit into an int", value, consumed + position));
+    }
+
+    return (int) value;
+  }
+
+  /**
+   * Consumes an integral number that fits into a {@code long}.
+   * @return the value
+   * @throws IOException if the next token is not such a number, or reading fails
+   */
+  public long nextLong() throws IOException {
+    int c = peekToken();
+
+    value();
+
+    final boolean negative = '-' == c;
+
+    if (negative) {
+      position++;
+      c = peek();
+    }
+
+    if (c < '0' || c > '9') {
+      throw malformed("digit");
+    }
+
+    long value = 0;
+
+    do {
+      final int digit = c - '0';
+
+      // accumulate negatively, since the negative range is larger
+      if (value < (Long.MIN_VALUE + digit) / 10) {
+        throw malformed("number within the range of long");
+      }
+
+      value = value * 10 - digit;
+      position++;
+      c = peek();
+    } while (c >= '0' && c <= '9');
+
+    if ('.' == c || 'e' == c || 'E' == c) {
+      throw malformed("integral number");
+    }
+
+    if (!negative) {
+      if (Long.MIN_VALUE == value) {
+        throw malformed("number within the range of long");
+      }
+
+      value = -value;
+    }
+
+    return value;
+  }
+
+  /**
+   * Consumes a number, or one of the strings {@code "NaN"}, {@code "Infinity"} and {@code "-Infinity"}.
+   * @return the value
+   * @throws IOException if the next token is not a number, or reading fails
+   */
+  public double nextDouble() throws IOException {
+    int c = peekToken();
+
+    value();
+
+    if ('"' == c) {
+      string();
+
+      final String text = scratch.toString();
+
+      if ("NaN".equals(text)) {
+        return Double.NaN;
+      }
+
+      if ("Infinity".equals(text)) {
+        return Double.POSITIVE_INFINITY;
+      }
+
+      if ("-Infinity".equals(text)) {
+        return Double.NEGATIVE_INFINITY;
+      }
+
+      throw malformed("number");
+    }
+
+    scratch.setLength(0);
+
+    while (('0' <= c && c <= '9') || '-' == c || '+' == c || '.' == c || 'e' == c || 'E' == c) {
+      scratch.append((char) c);
+      position++;
+      c = peek();
+    }
+
+    if (0 == scratch.length()) {
+      throw malformed("number");
+    }
+
+    try {
+      return Double.parseDouble(scratch.toString());
+    } catch (NumberFormatException e) {
+      throw malformed("number");
+    }
+  }
+
+  /**
+   * Consumes an array of booleans.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not such an array, or reading fails
+   */
+  public boolean[] nextBooleanArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    boolean[] array = new boolean[8];
+    int length = 0;
+
+    beginArray();
+    while (hasNext()) {
+      if (length == array.length) {
+        array = Arrays.copyOf(array, length * 2);
+      }
+      array[length++] = nextBoolean();
+    }
+    endArray();
+
+    return Arrays.copyOf(array, length);
+  }
+
+  /**
+   * Consumes an array of numbers that fit into a {@code byte}.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not such an array, or reading fails
+   */
+  public byte[] nextByteArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    byte[] array = new byte[8];
+    int length = 0;
+
+    beginArray();
+    while (hasNext()) {
+      if (length == array.length) {
+        array = Arrays.copyOf(array, length * 2);
+      }
+      array[length++] = nextByte();
+    }
+    endArray();
+
+    return Arrays.copyOf(array, length);
+  }
+
+  /**
+   * Consumes a string as an array of characters.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not a string, or reading fails
+   */
+  public char[] nextCharArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    if ('"' != peekToken()) {
+      throw malformed("string");
+    }
+
+    value();
+    string();
+
+    final char[] array = new char[scratch.length()];
+    scratch.getChars(0, array.length, array, 0);
+
+    return array;
+  }
+
+  /**
+   * Consumes an array of numbers that fit into a {@code short}.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not such an array, or reading fails
+   */
+  public short[] nextShortArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    short[] array = new short[8];
+    int length = 0;
+
+    beginArray();
+    while (hasNext()) {
+      if (length == array.length) {
+        array = Arrays.copyOf(array, length * 2);
+      }
+      array[length++] = nextShort();
+    }
+    endArray();
+
+    return Arrays.copyOf(array, length);
+  }
+
+  /**
+   * Consumes an array of numbers that fit into an {@code int}.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not such an array, or reading fails
+   */
+  public int[] nextIntArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    int[] array = new int[8];
+    int length = 0;
+
+    beginArray();
+    while (hasNext()) {
+      if (length == array.length) {
+        array = Arrays.copyOf(array, length * 2);
+      }
+      array[length++] = nextInt();
+    }
+    endArray();
+
+    return Arrays.copyOf(array, length);
+  }
+
+  /**
+   * Consumes an array of numbers that fit into a {@code long}.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not such an array, or reading fails
+   */
+  public long[] nextLongArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    long[] array = new long[8];
+    int length = 0;
+
+    beginArray();
+    while (hasNext()) {
+      if (length == array.length) {
+        array = Arrays.copyOf(array, length * 2);
+      }
+      array[length++] = nextLong();
+    }
+    endArray();
+
+    return Arrays.copyOf(array, length);
+  }
+
+  /**
+   * Consumes an array of numbers as {@code float}s.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not such an array, or reading fails
+   */
+  public float[] nextFloatArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    float[] array = new float[8];
+    int length = 0;
+
+    beginArray();
+    while (hasNext()) {
+      if (length == array.length) {
+        array = Arrays.copyOf(array, length * 2);
+      }
+      array[length++] = (float) nextDouble();
+    }
+    endArray();
+
+    return Arrays.copyOf(array, length);
+  }
+
+  /**
+   * Consumes an array of numbers as {@code double}s.
+   * @return the array, or null if the next token is {@code null}
+   * @throws IOException if the next token is not such an array, or reading fails
+   */
+  public double[] nextDoubleArray() throws IOException {
+    if (nextNull()) {
+      return null;
+    }
+
+    double[] array = new double[8];
+    int length = 0;
+
+    beginArray();
+    while (hasNext()) {
+      if (length == array.length) {
+        array = Arrays.copyOf(array, length * 2);
+      }
+      array[length++] = nextDouble();
+    }
+    endArray();
+
+    return Arrays.copyOf(array, length);
+  }
+
+  /**
+   * Consumes the next value, including all nested values if it is an array or object.
+   * @throws IOException if the input is malformed, or reading fails
+   */
+  public void skipValue() throws IOException {
+    final int c = peekToken();
+
+    switch (c) {
+      case '{':
+        beginObject();
+        while (hasNext()) {
+          nextName();
+          skipValue();
+        }
+        endObject();
+        break;
+
+      case '[':
+        beginArray();
+        while (hasNext()) {
+          skipValue();
+        }
+        endArray();
+        break;
+
+      case '"':
+        value();
+        string();
+        break;
+
+      case 't':
+      case 'f':
+        nextBoolean();
+        break;
+
+      case 'n':
+        nextNull();
+        break;
+
+      default:
+        nextDouble();
+    }
+  }
+
+  /**
+   * Checks that only whitespace remains in the input.
+   * @throws IOException if there is more input, or reading fails
+   */
+  public void endDocument() throws IOException {
+    if (EOF != peekToken()) {
+      throw malformed("end of input");
+    }
+  }
+
+  private void begin(char c) throws IOException {
+    if (c != peekToken()) {
+      throw malformed("'" + c + "'");
+    }
+
+    value();
+    position++;
+
+    if (depth == expectsFirst.length) {
+      expectsFirst = Arrays.copyOf(expectsFirst, depth * 2);
+    }
+
+    expectsFirst[depth++] = true;
+  }
+
+  private void end(char c) throws IOException {
+    if (0 == depth || c != peekToken()) {
+      throw malformed("'" + c + "'");
+    }
+
+    position++;
+    depth--;
+  }
+
+  /**
+   * Marks that a value of the current array or object was read, so that the next one needs a comma.
+   */
+  private void value() {
+    if (depth > 0) {
+      expectsFirst[depth - 1] = false;
+    }
+  }
+
+  private void literal(String literal) throws IOException {
+    for (int i = 0; i < literal.length(); i++) {
+      if (literal.charAt(i) != peek()) {
+        throw malformed(literal);
+      }
+
+      position++;
+    }
+  }
+
+  /**
+   * Reads a string with the opening quote at the position into the scratch builder.
+   */
+  private void string() throws IOException {
+    scratch.setLength(0);
+    position++;
+
+    while (true) {
+      final int c = peek();
+
+      if (EOF == c || c < 0x20) {
+        throw malformed("'\"'");
+      }
+
+      position++;
+
+      if ('"' == c) {
+        return;
+      }
+
+      if ('\\' != c) {
+        scratch.append((char) c);
+        continue;
+      }
+
+      final int escaped = peek();
+
+      position++;
+
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          scratch.append((char) escaped);
+          break;
+
+        case 'n':
+          scratch.append('\n');
+          break;
+
+        case 'r':
+          scratch.append('\r');
+          break;
+
+        case 't':
+          scratch.append('\t');
+          break;
+
+        case 'b':
+          scratch.append('\b');
+          break;
+
+        case 'f':
+          scratch.append('\f');
+          break;
+
+        case 'u':
+          int value = 0;
+
+          for (int i = 0; i < 4; i++) {
+            final int digit = Character.digit(peek(), 16);
+
+            if (digit < 0) {
+              throw malformed("hex digit");
+            }
+
+            value = (value << 4) | digit;
+            position++;
+          }
+
+          scratch.append((char) value);
+          break;
+
+        default:
+          position--;
+          throw malformed("escape sequence");
+      }
+    }
+  }
+
+  /**
+   * Skips whitespace and returns the next character without consuming it.
+   */
+  private int peekToken() throws IOException {
+    while (true) {
+      final int c = peek();
+
+      if (' ' != c && '\n' != c && '\r' != c && '\t' != c) {
+        return c;
+      }
+
+      position++;
+    }
+  }
+
+  /**
+   * Returns the character at the position without consuming it, or {@link #EOF}.
+   */
+  private int peek() throws IOException {
+    if (position < limit) {
+      return null == buffer ? sequence.charAt(position) : buffer[position];
+    }
+
+    if (null == reader) {
+      return EOF;
+    }
+
+    consumed += limit;
+    position = 0;
+    limit = Math.max(0, reader.read(buffer, 0, buffer.length));
+
+    return 0 == limit ? EOF : buffer[0];
+  }
+
+  private IOException malformed(String expected) throws IOException {
+    final int c = peek();
+
+    return new IOException(String.format((Locale) null, "Expected %s at %d but found %s",
+        expected, consumed + position, EOF == c ? "end of input" : "'" + (char) c + "'"));
+  }
+}
@@ -0,0 +1,25 @@
+package immu;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * To be used on {@code default} methods in {@link Immu} and {@link SuperImmu} annotated interfaces
+ * to denote a derived value, that is computed from the properties at most once per object and then
+ * cached in a transient field of the generated implementation. Other {@code default} methods are
+ * neither properties nor cached.
+ * <p>
+ * The method must not have parameters, type variables or exceptions, and must not return void.
+ * Since it may be called from several threads, it should only depend on the properties.
+ * <p>
+ * With {@link Immu.Caching#RACY} caching, the value is initialized with a racy single-check, like
+ * {@link String#hashCode()}: it may be computed more than once, and results that are {@code null},
+ * zero or {@code false} are computed on every call. Otherwise it is initialized with double-checked
+ * locking. Cached objects are released by {@link Immutable#clear()}.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ ElementType.METHOD })
+public @interface Lazy {
+}
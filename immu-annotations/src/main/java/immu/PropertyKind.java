@@ -0,0 +1,20 @@
+package immu;
+
+/**
+ * The kinds of properties that generated {@code Meta} classes distinguish: one for each primitive type, and
+ * one for all other types.
+ *
+ * @see Immu#meta()
+ * @see PropertyVisitor
+ */
+public enum PropertyKind {
+  BOOLEAN,
+  BYTE,
+  SHORT,
+  CHAR,
+  INT,
+  LONG,
+  FLOAT,
+  DOUBLE,
+  OBJECT
+}
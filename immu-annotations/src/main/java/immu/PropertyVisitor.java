@@ -0,0 +1,84 @@
+package immu;
+
+/**
+ * Receives the values of the properties of an object from the {@code accept} method of a generated
+ * {@code Meta} class, one call per property in declaration order, with a method for each primitive type
+ * so that no values are boxed.
+ *
+ * @see Immu#meta()
+ * @see PropertyKind
+ */
+public interface PropertyVisitor {
+
+  /**
+   * Visits a {@code boolean} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitBoolean(int index, String name, boolean value);
+
+  /**
+   * Visits a {@code byte} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitByte(int index, String name, byte value);
+
+  /**
+   * Visits a {@code short} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitShort(int index, String name, short value);
+
+  /**
+   * Visits a {@code char} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitChar(int index, String name, char value);
+
+  /**
+   * Visits an {@code int} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitInt(int index, String name, int value);
+
+  /**
+   * Visits a {@code long} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitLong(int index, String name, long value);
+
+  /**
+   * Visits a {@code float} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitFloat(int index, String name, float value);
+
+  /**
+   * Visits a {@code double} property.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value
+   */
+  void visitDouble(int index, String name, double value);
+
+  /**
+   * Visits a property that is not a primitive.
+   * @param index the index of the property
+   * @param name the name of the property, never null
+   * @param value the value, may be null unless the property is {@link Required}
+   */
+  void visitObject(int index, String name, Object value);
+}
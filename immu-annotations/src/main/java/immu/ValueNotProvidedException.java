@@ -8,6 +8,11 @@ import java.util.Locale;
  */
 public class ValueNotProvidedException extends RuntimeException {
 
+  private final String[] properties;
+  private final long missing;
+
+  private String message;
+
   /**
    * Create an exception for the provided property.
    * @param property the property, must not be null
@@ -26,11 +31,84 @@ public class ValueNotProvidedException extends RuntimeException {
     return new ValueNotProvidedException(String.format((Locale) null, "Not all values for the properties %s were provided", propertyList));
   }
 
+  /**
+   * Create an exception for the provided property without a stack trace, whose message is only built when
+   * it is requested.
+   * @param property the property, must not be null
+   * @return the exception, should be thrown
+   */
+  public static ValueNotProvidedException stacklessForProperty(String property) {
+    return new ValueNotProvidedException(new String[] { property }, 1L);
+  }
+
+  /**
+   * Create an exception for the missing ones of the provided properties without a stack trace, whose message
+   * is only built when it is requested.
+   * @param properties the names of up to 64 properties, must not be null and must not be modified
+   * @param missing the bits of the missing properties, bit {@code i} for the property at index {@code i}
+   * @return the exception, should be thrown
+   */
+  public static ValueNotProvidedException stacklessForProperties(String[] properties, long missing) {
+    return new ValueNotProvidedException(properties, missing);
+  }
+
   /**
    * Construct a new exception for the provided property name.
    * @param name the property name, must not be null
    */
   ValueNotProvidedException(String message) {
     super(message);
+
+    this.properties = null;
+    this.missing = 0L;
+  }
+
+  private ValueNotProvidedException(String[] properties, long missing) {
+    super(null, null, false, false);
+
+    this.properties = properties;
+    this.missing = missing;
+  }
+
+  /**
+   * Returns the missing properties, as a bit per property in the order of the names the exception was
+   * created with. Only exceptions without a stack trace know the missing properties.
+   * @return the bits of the missing properties, or 0 if they are not known
+   */
+  public long missing() {
+    return missing;
+  }
+
+  @Override
+  public String getMessage() {
+    if (null == properties) {
+      return super.getMessage();
+    }
+
+    if (null == message) {
+      message = missingMessage();
+    }
+
+    return message;
+  }
+
+  private String missingMessage() {
+    final StringBuilder builder = new StringBuilder();
+
+    for (int i = 0; i < properties.length && i < 64; i++) {
+      if (0L != (missing & (1L << i))) {
+        if (builder.length() > 0) {
+          builder.append(", ");
+        }
+
+        builder.append(properties[i]);
+      }
+    }
+
+    if (1 == Long.bitCount(missing)) {
+      return String.format((Locale) null, "Value for property %s was not provided", builder);
+    }
+
+    return String.format((Locale) null, "Not all values for the properties %s were provided", builder);
   }
 }
@@ -0,0 +1,76 @@
+package immu;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+public class AppendablesTest {
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void constructor() throws Exception {
+    new Appendables();
+  }
+
+  @Test
+  public void appendIdentity() throws Exception {
+    final Object object = new Object();
+    final StringBuilder builder = new StringBuilder();
+
+    Appendables.appendIdentity(builder, object);
+
+    assertEquals(String.format((Locale) null, "@%08x", System.identityHashCode(object)), builder.toString());
+  }
+
+  @Test
+  public void appendValueWithoutStringBuilder() throws Exception {
+    for (long value : new long[] { 0, 7, -7, 10, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE }) {
+      final StringWriter writer = new StringWriter();
+      Appendables.appendValue(writer, value);
+      assertEquals(Long.toString(value), writer.toString());
+    }
+
+    for (int value : new int[] { 0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE }) {
+      final StringWriter writer = new StringWriter();
+      Appendables.appendValue(writer, value);
+      assertEquals(Integer.toString(value), writer.toString());
+    }
+  }
+
+  @Test
+  public void appendArrayLikeArraysToString() throws Exception {
+    final StringBuilder builder = new StringBuilder();
+
+    Appendables.appendArray(builder, new double[] { 1.5, -2 }, Integer.MAX_VALUE);
+    Appendables.appendArray(builder, new Object[0], Integer.MAX_VALUE);
+    Appendables.appendArray(builder, (int[]) null, Integer.MAX_VALUE);
+
+    assertEquals(Arrays.toString(new double[] { 1.5, -2 }) + "[]null", builder.toString());
+  }
+
+  @Test
+  public void appendArrayWithLimit() throws Exception {
+    final StringBuilder builder = new StringBuilder();
+
+    Appendables.appendArray(builder, new char[] { 'a', 'b', 'c' }, 0);
+    Appendables.appendArray(builder, new char[] { 'a', 'b', 'c' }, 2);
+    Appendables.appendArray(builder, new char[] { 'a', 'b', 'c' }, 3);
+
+    assertEquals("[... (3 more)][a, b, ... (1 more)][a, b, c]", builder.toString());
+  }
+
+  @Test
+  public void appendCollectionWithLimit() throws Exception {
+    final StringBuilder builder = new StringBuilder();
+
+    Appendables.appendCollection(builder, Arrays.asList(1, 2, 3), 2);
+    Appendables.appendCollection(builder, Collections.singleton("a"), 2);
+    Appendables.appendMap(builder, Collections.singletonMap("a", 1), 0);
+
+    assertEquals("[1, 2, ... (1 more)][a]{... (1 more)}", builder.toString());
+  }
+}
@@ -0,0 +1,177 @@
+package immu;
+
+import org.junit.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CodecsTest {
+
+  private static final String TEXT = "a\u00e9\u20ac\ud83d\ude00z";
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void constructor() throws Exception {
+    new Codecs();
+  }
+
+  @Test
+  public void stringIsUtf8() throws Exception {
+    final byte[] utf8 = TEXT.getBytes(Charset.forName("UTF-8"));
+
+    final ByteBuffer buffer = ByteBuffer.allocate(Codecs.sizeOf(TEXT));
+    Codecs.put(buffer, TEXT);
+
+    assertEquals(0, buffer.remaining());
+    assertEquals(4 + utf8.length, Codecs.sizeOf(TEXT));
+
+    buffer.flip();
+    assertEquals(utf8.length, buffer.getInt());
+
+    final byte[] written = new byte[utf8.length];
+    buffer.get(written);
+    assertArrayEquals(utf8, written);
+  }
+
+  @Test
+  public void stringRoundTripHeap() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.position(3);
+
+    Codecs.put(buffer, TEXT);
+    Codecs.put(buffer, (String) null);
+    Codecs.put(buffer, "");
+
+    buffer.flip();
+    buffer.position(3);
+
+    assertEquals(TEXT, Codecs.getString(buffer));
+    assertNull(Codecs.getString(buffer));
+    assertEquals("", Codecs.getString(buffer));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void stringRoundTripDirect() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+
+    Codecs.put(buffer, TEXT);
+    Codecs.put(buffer, (String) null);
+
+    buffer.flip();
+
+    assertEquals(TEXT, Codecs.getString(buffer));
+    assertNull(Codecs.getString(buffer));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test(expected = BufferUnderflowException.class)
+  public void truncatedStringHeap() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(8);
+    buffer.putInt(5).put((byte) 'a').put((byte) 'b');
+
+    buffer.flip();
+
+    Codecs.getString(buffer);
+  }
+
+  @Test(expected = BufferUnderflowException.class)
+  public void truncatedStringDirect() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+    buffer.putInt(Integer.MAX_VALUE).put((byte) 'a');
+
+    buffer.flip();
+
+    Codecs.getString(buffer);
+  }
+
+  @Test(expected = BufferUnderflowException.class)
+  public void truncatedArray() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(16);
+    buffer.putInt(Integer.MAX_VALUE).putLong(1L);
+
+    buffer.flip();
+
+    Codecs.getLongArray(buffer);
+  }
+
+  @Test
+  public void constants() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(8);
+    buffer.putInt(1).putInt(-1);
+
+    buffer.flip();
+
+    assertEquals(Thread.State.RUNNABLE, Codecs.getConstant(buffer, Thread.State.values()));
+    assertNull(Codecs.getConstant(buffer, Thread.State.values()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownConstant() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(4);
+    buffer.putInt(Thread.State.values().length);
+
+    buffer.flip();
+
+    Codecs.getConstant(buffer, Thread.State.values());
+  }
+
+  @Test
+  public void unpairedSurrogateIsQuestionMark() throws Exception {
+    final String value = "a\ud800b";
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(Codecs.sizeOf(value));
+    Codecs.put(buffer, value);
+
+    buffer.flip();
+
+    assertEquals("a?b", Codecs.getString(buffer));
+  }
+
+  @Test
+  public void arraysRoundTrip() throws Exception {
+    final boolean[] booleans = { true, false, true };
+    final byte[] bytes = { 1, -2, 3 };
+    final char[] chars = { 'a', '\u20ac' };
+    final short[] shorts = { -1, 300 };
+    final int[] ints = { Integer.MIN_VALUE, 0, 7 };
+    final long[] longs = { Long.MAX_VALUE, -8 };
+    final float[] floats = { 1.5f, Float.NaN };
+    final double[] doubles = { -0.0, Double.MIN_VALUE };
+
+    final int size = Codecs.sizeOf(booleans) + Codecs.sizeOf(bytes) + Codecs.sizeOf(chars) + Codecs.sizeOf(shorts)
+        + Codecs.sizeOf(ints) + Codecs.sizeOf(longs) + Codecs.sizeOf(floats) + Codecs.sizeOf(doubles) + Codecs.sizeOf((int[]) null);
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+
+    Codecs.put(buffer, booleans);
+    Codecs.put(buffer, bytes);
+    Codecs.put(buffer, chars);
+    Codecs.put(buffer, shorts);
+    Codecs.put(buffer, ints);
+    Codecs.put(buffer, longs);
+    Codecs.put(buffer, floats);
+    Codecs.put(buffer, doubles);
+    Codecs.put(buffer, (int[]) null);
+
+    assertEquals(0, buffer.remaining());
+
+    buffer.flip();
+
+    assertTrue(Arrays.equals(booleans, Codecs.getBooleanArray(buffer)));
+    assertArrayEquals(bytes, Codecs.getByteArray(buffer));
+    assertArrayEquals(chars, Codecs.getCharArray(buffer));
+    assertArrayEquals(shorts, Codecs.getShortArray(buffer));
+    assertArrayEquals(ints, Codecs.getIntArray(buffer));
+    assertArrayEquals(longs, Codecs.getLongArray(buffer));
+    assertArrayEquals(floats, Codecs.getFloatArray(buffer), 0f);
+    assertArrayEquals(doubles, Codecs.getDoubleArray(buffer), 0.0);
+    assertNull(Codecs.getIntArray(buffer));
+  }
+}
@@ -0,0 +1,24 @@
+package immu;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ComparisonsTest {
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void constructor() throws Exception {
+    new Comparisons();
+  }
+
+  @Test
+  public void compare() throws Exception {
+    assertEquals(0, Comparisons.compare((String) null, null));
+    assertEquals(0, Comparisons.compare("a", new String("a")));
+    assertTrue(Comparisons.compare(null, "a") < 0);
+    assertTrue(Comparisons.compare("a", null) > 0);
+    assertTrue(Comparisons.compare("a", "b") < 0);
+    assertTrue(Comparisons.compare("b", "a") > 0);
+  }
+}
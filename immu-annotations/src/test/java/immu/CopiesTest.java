@@ -0,0 +1,171 @@
+package immu;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CopiesTest {
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void constructor() throws Exception {
+    new Copies();
+  }
+
+  @Test
+  public void copyPrimitives() throws Exception {
+    final int[] ints = new int[] { 1, 2, 3 };
+    final int[] copy = Copies.copy(ints);
+
+    assertNotSame(ints, copy);
+    assertArrayEquals(ints, copy);
+    assertTrue(Arrays.equals(new boolean[] { true }, Copies.copy(new boolean[] { true })));
+    assertArrayEquals(new double[] { 1.5 }, Copies.copy(new double[] { 1.5 }), 0);
+    assertNull(Copies.copy((long[]) null));
+  }
+
+  @Test
+  public void copyNested() throws Exception {
+    final String hello = "hello";
+    final Object[][] nested = new Object[][] { { new int[] { 1 }, hello }, null };
+    final Object[][] copy = Copies.copy(nested);
+
+    assertNotSame(nested, copy);
+    assertNotSame(nested[0], copy[0]);
+    assertNotSame(nested[0][0], copy[0][0]);
+    assertArrayEquals((int[]) nested[0][0], (int[]) copy[0][0]);
+    assertSame(hello, copy[0][1]);
+    assertNull(copy[1]);
+    assertEquals(2, copy.length);
+    assertNull(Copies.copy((String[]) null));
+  }
+
+  @Test
+  public void copyLists() throws Exception {
+    assertSame(Collections.emptyList(), Copies.copy(new ArrayList<String>()));
+    assertEquals(Collections.singletonList("a"), Copies.copy(new ArrayList<String>(Arrays.asList("a"))));
+    assertEquals(Arrays.asList("a", null), Copies.copy(new ArrayList<String>(Arrays.asList("a", null))));
+    assertEquals(Arrays.asList("a", "b", "c"), Copies.copy(new LinkedList<String>(Arrays.asList("a", "b", "c"))));
+    assertNull(Copies.copy((List<String>) null));
+
+    for (int size = 0; size < 5; size++) {
+      final List<Integer> list = new ArrayList<Integer>();
+
+      for (int i = 0; i < size; i++) {
+        list.add(i);
+      }
+
+      final List<Integer> copy = Copies.copy(list);
+
+      assertEquals(list, copy);
+      assertEquals(list.hashCode(), copy.hashCode());
+      assertEquals(list.toString(), copy.toString());
+      assertSame(copy, Copies.copy(copy));
+    }
+  }
+
+  @Test
+  public void copySets() throws Exception {
+    for (int size = 0; size < 40; size++) {
+      final Set<Integer> set = new LinkedHashSet<Integer>();
+
+      for (int i = size - 1; i >= 0; i--) {
+        set.add(i * 31);
+      }
+
+      final Set<Integer> copy = Copies.copy(set);
+
+      assertEquals(set, copy);
+      assertEquals(copy, set);
+      assertEquals(set.hashCode(), copy.hashCode());
+      assertEquals(new ArrayList<Integer>(set), new ArrayList<Integer>(copy));
+      assertSame(copy, Copies.copy(copy));
+
+      for (int i = 0; i < size; i++) {
+        assertTrue(copy.contains(i * 31));
+        assertFalse(copy.contains(i * 31 + 1));
+      }
+
+      assertFalse(copy.contains(null));
+    }
+
+    assertTrue(Copies.copy(new HashSet<String>(Arrays.asList("a", null, "b"))).contains(null));
+  }
+
+  @Test
+  public void copySetsWithEqualElements() throws Exception {
+    final Set<String> set = Collections.newSetFromMap(new IdentityHashMap<String, Boolean>());
+    set.add(new String("a"));
+    set.add(new String("a"));
+    set.add(new String("b"));
+    set.add(new String("c"));
+
+    final Set<String> copy = Copies.copy(set);
+
+    assertEquals(3, copy.size());
+    assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")), copy);
+  }
+
+  @Test
+  public void copyMaps() throws Exception {
+    for (int size = 0; size < 40; size++) {
+      final Map<String, Integer> map = new LinkedHashMap<String, Integer>();
+
+      for (int i = size - 1; i >= 0; i--) {
+        map.put("key" + i, i);
+      }
+
+      final Map<String, Integer> copy = Copies.copy(map);
+
+      assertEquals(map, copy);
+      assertEquals(copy, map);
+      assertEquals(map.hashCode(), copy.hashCode());
+      assertEquals(map.toString(), copy.toString());
+      assertSame(copy, Copies.copy(copy));
+
+      for (int i = 0; i < size; i++) {
+        assertEquals(Integer.valueOf(i), copy.get("key" + i));
+        assertTrue(copy.containsKey("key" + i));
+      }
+
+      assertNull(copy.get("missing"));
+      assertFalse(copy.containsKey(null));
+    }
+
+    assertNull(Copies.copy((Map<String, String>) null));
+  }
+
+  @Test
+  public void copyCollections() throws Exception {
+    final Collection<String> set = Copies.copy((Collection<String>) new HashSet<String>(Arrays.asList("a", "b", "c")));
+    final Collection<String> queue = Copies.copy((Collection<String>) new ArrayDeque<String>(Arrays.asList("a", "b", "c")));
+
+    assertTrue(set instanceof Set);
+    assertEquals(Arrays.asList("a", "b", "c"), queue);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void copiesAreUnmodifiable() throws Exception {
+    Copies.copy(new HashMap<String, String>(Collections.singletonMap("a", "b"))).entrySet().clear();
+  }
+}
@@ -0,0 +1,84 @@
+package immu;
+
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FingerprintsTest {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void constructor() throws Exception {
+    new Fingerprints();
+  }
+
+  @Test
+  public void stringsAreAddedAsUtf8Bytes() throws Exception {
+    final String[] strings = new String[] {
+        "",
+        "a",
+        "abcdefgh",
+        "abcdefghi",
+        "caf\u00e9 au lait",
+        "\u20ac100",
+        "\ud83d\ude00 smile \ud83d\ude00",
+        "unpaired \ud83d and \ude00",
+    };
+
+    for (String string : strings) {
+      assertEquals(string, Fingerprints.add(Fingerprints.SEED, string.getBytes(UTF_8)), Fingerprints.add(Fingerprints.SEED, string));
+      assertEquals(string, Fingerprints.add(Fingerprints.SEED, string), Fingerprints.add(Fingerprints.SEED, new StringBuilder(string)));
+    }
+  }
+
+  @Test
+  public void nullIsNotEmpty() throws Exception {
+    assertFalse(Fingerprints.add(Fingerprints.SEED, (String) null) == Fingerprints.add(Fingerprints.SEED, ""));
+    assertFalse(Fingerprints.add(Fingerprints.SEED, (int[]) null) == Fingerprints.add(Fingerprints.SEED, new int[0]));
+    assertFalse(Fingerprints.add(Fingerprints.SEED, (byte[]) null) == Fingerprints.add(Fingerprints.SEED, new byte[0]));
+  }
+
+  @Test
+  public void lengthsSeparateValues() throws Exception {
+    final long ab = Fingerprints.add(Fingerprints.add(Fingerprints.SEED, "a"), "b");
+    final long a = Fingerprints.add(Fingerprints.add(Fingerprints.SEED, "ab"), "");
+
+    assertFalse(ab == a);
+
+    final long split = Fingerprints.add(Fingerprints.add(Fingerprints.SEED, new int[] { 1 }), new int[] { 2, 3 });
+    final long joined = Fingerprints.add(Fingerprints.add(Fingerprints.SEED, new int[] { 1, 2 }), new int[] { 3 });
+
+    assertFalse(split == joined);
+  }
+
+  @Test
+  public void negativeZero() throws Exception {
+    assertEquals(Fingerprints.add(Fingerprints.SEED, 0.0), Fingerprints.add(Fingerprints.SEED, -0.0));
+    assertEquals(Fingerprints.add(Fingerprints.SEED, 0.0f), Fingerprints.add(Fingerprints.SEED, -0.0f));
+    assertEquals(Fingerprints.add(Fingerprints.SEED, Double.NaN), Fingerprints.add(Fingerprints.SEED, Double.longBitsToDouble(0x7ff8000000000001L)));
+  }
+
+  @Test
+  public void primitivesAreWidened() throws Exception {
+    assertEquals(Fingerprints.add(Fingerprints.SEED, -1L), Fingerprints.add(Fingerprints.SEED, (byte) -1));
+    assertEquals(Fingerprints.add(Fingerprints.SEED, 65535L), Fingerprints.add(Fingerprints.SEED, '\uffff'));
+    assertEquals(Fingerprints.add(Fingerprints.SEED, 1L), Fingerprints.add(Fingerprints.SEED, true));
+    assertEquals(
+        Fingerprints.add(Fingerprints.add(Fingerprints.add(Fingerprints.SEED, 1L), 2L), 2L),
+        Fingerprints.add(Fingerprints.SEED, new short[] { 1, 2 }));
+  }
+
+  @Test
+  public void stable() throws Exception {
+    // fingerprints are persisted, so the algorithm must never change
+    final long state = Fingerprints.add(Fingerprints.add(Fingerprints.add(Fingerprints.SEED, "immu"), 42), 1.5);
+
+    assertEquals(STABLE, Fingerprints.finish(state));
+  }
+
+  private static final long STABLE = 0xc6f9d54d59bbbee6L;
+}
@@ -0,0 +1,33 @@
+package immu;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class HashMixerTest {
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void constructor() throws Exception {
+    new HashMixer();
+  }
+
+  @Test
+  public void mixIsPositional() throws Exception {
+    assertNotEquals(HashMixer.mix(HashMixer.mix(0, 1), 2), HashMixer.mix(HashMixer.mix(0, 2), 1));
+  }
+
+  @Test
+  public void mixLongIsLowerThenUpper() throws Exception {
+    final long value = 0x0123456789abcdefL;
+
+    assertEquals(HashMixer.mix(HashMixer.mix(7, 0x89abcdef), 0x01234567), HashMixer.mix(7, value));
+  }
+
+  @Test
+  public void finishNeverReturnsZero() throws Exception {
+    // 0 is a fixed point of the avalanche steps
+    assertEquals(1, HashMixer.finish(0, 0));
+    assertNotEquals(0, HashMixer.finish(1, 0));
+  }
+}
@@ -0,0 +1,43 @@
+package immu;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class InternerTest {
+
+  private static final class StringInterner extends Interner<String> {
+    @Override
+    protected boolean equivalent(String a, String b) {
+      return a.equals(b);
+    }
+  }
+
+  @Test
+  public void internReturnsCanonical() throws Exception {
+    final Interner<String> interner = new StringInterner();
+
+    final String a = new String("value");
+    final String b = new String("value");
+
+    assertNotSame(a, b);
+    assertSame(a, interner.intern(a));
+    assertSame(a, interner.intern(b));
+    assertEquals(1, interner.size());
+  }
+
+  @Test
+  public void internDistinguishesValues() throws Exception {
+    final Interner<String> interner = new StringInterner();
+
+    // "Aa" and "BB" have the same hash code
+    final String a = interner.intern("Aa");
+    final String b = interner.intern("BB");
+
+    assertSame("Aa", a);
+    assertSame("BB", b);
+    assertEquals(2, interner.size());
+  }
+}
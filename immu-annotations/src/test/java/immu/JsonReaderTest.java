@@ -0,0 +1,213 @@
+package immu;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JsonReaderTest {
+
+  private static final String DOCUMENT =
+      " { \"name\" : \"a\\\"\\u00e9\\n\", \"skipped\": {\"x\": [1, {\"y\": null}, \"]\"], \"z\": -1.5e3},"
+          + " \"count\": -42, \"big\": 9223372036854775807, \"flag\": true,"
+          + " \"ratio\": \"NaN\", \"ints\": [1, 2, 3], \"none\": null } ";
+
+  @Test
+  public void readObjectFromSequence() throws Exception {
+    readDocument(new JsonReader(DOCUMENT));
+  }
+
+  @Test
+  public void readObjectFromReader() throws Exception {
+    // one character at a time, to exercise the buffer refills
+    final Reader reader = new StringReader(DOCUMENT) {
+      @Override
+      public int read(char[] buffer, int offset, int length) throws IOException {
+        return super.read(buffer, offset, Math.min(1, length));
+      }
+    };
+
+    readDocument(new JsonReader(reader));
+  }
+
+  private static void readDocument(JsonReader reader) throws Exception {
+    reader.beginObject();
+
+    assertTrue(reader.hasNext());
+    assertTrue(reader.hasNext());
+    assertEquals("name", reader.nextName());
+    assertEquals("a\"\u00e9\n", reader.nextString());
+
+    assertTrue(reader.hasNext());
+    assertEquals("skipped", reader.nextName());
+    reader.skipValue();
+
+    assertTrue(reader.hasNext());
+    assertEquals("count", reader.nextName());
+    assertEquals(-42, reader.nextInt());
+
+    assertTrue(reader.hasNext());
+    assertEquals("big", reader.nextName());
+    assertEquals(Long.MAX_VALUE, reader.nextLong());
+
+    assertTrue(reader.hasNext());
+    assertEquals("flag", reader.nextName());
+    assertTrue(reader.nextBoolean());
+
+    assertTrue(reader.hasNext());
+    assertEquals("ratio", reader.nextName());
+    assertTrue(Double.isNaN(reader.nextDouble()));
+
+    assertTrue(reader.hasNext());
+    assertEquals("ints", reader.nextName());
+    assertArrayEquals(new int[] { 1, 2, 3 }, reader.nextIntArray());
+
+    assertTrue(reader.hasNext());
+    assertEquals("none", reader.nextName());
+    assertNull(reader.nextIntArray());
+
+    assertFalse(reader.hasNext());
+    reader.endObject();
+    reader.endDocument();
+  }
+
+  @Test
+  public void readArrays() throws Exception {
+    final JsonReader reader = new JsonReader("[[true,false],[-1],\"ab\",[],[-9223372036854775808],[1.5],[\"-Infinity\",2]]");
+
+    reader.beginArray();
+    assertTrue(reader.hasNext());
+    assertTrue(Arrays.equals(new boolean[] { true, false }, reader.nextBooleanArray()));
+    assertTrue(reader.hasNext());
+    assertArrayEquals(new byte[] { -1 }, reader.nextByteArray());
+    assertTrue(reader.hasNext());
+    assertArrayEquals(new char[] { 'a', 'b' }, reader.nextCharArray());
+    assertTrue(reader.hasNext());
+    assertArrayEquals(new short[0], reader.nextShortArray());
+    assertTrue(reader.hasNext());
+    assertArrayEquals(new long[] { Long.MIN_VALUE }, reader.nextLongArray());
+    assertTrue(reader.hasNext());
+    assertArrayEquals(new float[] { 1.5f }, reader.nextFloatArray(), 0f);
+    assertTrue(reader.hasNext());
+    assertArrayEquals(new double[] { Double.NEGATIVE_INFINITY, 2 }, reader.nextDoubleArray(), 0.0);
+    assertFalse(reader.hasNext());
+    reader.endArray();
+    reader.endDocument();
+  }
+
+  @Test
+  public void readsWhatJsonWrites() throws Exception {
+    final String text = "\u0000\u001f\"\\/\u2029\ud83d\ude00";
+    final StringBuilder builder = new StringBuilder();
+
+    Json.writeString(builder, text);
+
+    assertEquals(text, new JsonReader(builder).nextString());
+  }
+
+  @Test(expected = IOException.class)
+  public void missingComma() throws Exception {
+    final JsonReader reader = new JsonReader("[1 2]");
+
+    reader.beginArray();
+    reader.hasNext();
+    reader.nextInt();
+    reader.hasNext();
+  }
+
+  @Test(expected = IOException.class)
+  public void longOverflow() throws Exception {
+    new JsonReader("9223372036854775808").nextLong();
+  }
+
+  @Test(expected = IOException.class)
+  public void intOverflow() throws Exception {
+    new JsonReader("2147483648").nextInt();
+  }
+
+  @Test
+  public void byteAndShortRanges() throws Exception {
+    assertEquals(-128, new JsonReader("-128").nextByte());
+    assertEquals(127, new JsonReader("127").nextByte());
+    assertEquals(-32768, new JsonReader("-32768").nextShort());
+    assertEquals(32767, new JsonReader("32767").nextShort());
+  }
+
+  @Test(expected = IOException.class)
+  public void byteOverflow() throws Exception {
+    new JsonReader("300").nextByte();
+  }
+
+  @Test(expected = IOException.class)
+  public void shortOverflow() throws Exception {
+    new JsonReader("-32769").nextShort();
+  }
+
+  @Test(expected = IOException.class)
+  public void byteArrayOverflow() throws Exception {
+    new JsonReader("[1, 128]").nextByteArray();
+  }
+
+  @Test(expected = IOException.class)
+  public void shortArrayOverflow() throws Exception {
+    new JsonReader("[1, 32768]").nextShortArray();
+  }
+
+  @Test
+  public void nextEnum() throws Exception {
+    assertEquals(TimeUnit.SECONDS, new JsonReader("\"SECONDS\"").nextEnum(TimeUnit.class));
+    assertNull(new JsonReader("null").nextEnum(TimeUnit.class));
+  }
+
+  @Test
+  public void unknownEnumConstant() throws Exception {
+    try {
+      new JsonReader(" \"WEEKS\"").nextEnum(TimeUnit.class);
+    } catch (IOException e) {
+      assertEquals("String \"WEEKS\" at 8 is not a constant of java.util.concurrent.TimeUnit", e.getMessage());
+      return;
+    }
+
+    throw new AssertionError();
+  }
+
+  @Test(expected = IOException.class)
+  public void fractionIsNotIntegral() throws Exception {
+    new JsonReader("1.5").nextLong();
+  }
+
+  @Test(expected = IOException.class)
+  public void unterminatedString() throws Exception {
+    new JsonReader("\"abc").nextString();
+  }
+
+  @Test(expected = IOException.class)
+  public void trailingInput() throws Exception {
+    final JsonReader reader = new JsonReader("{} {}");
+
+    reader.beginObject();
+    reader.endObject();
+    reader.endDocument();
+  }
+
+  @Test
+  public void malformedMessage() throws Exception {
+    try {
+      new JsonReader("  x").beginObject();
+    } catch (IOException e) {
+      assertEquals("Expected '{' at 2 but found 'x'", e.getMessage());
+      return;
+    }
+
+    throw new AssertionError();
+  }
+}
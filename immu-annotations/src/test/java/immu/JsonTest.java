@@ -0,0 +1,64 @@
+package immu;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonTest {
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void constructor() throws Exception {
+    new Json();
+  }
+
+  @Test
+  public void writeString() throws Exception {
+    final StringWriter writer = new StringWriter();
+
+    Json.writeString(writer, "a\"b\\c\n\t\u0001\u2028\u00e9");
+    writer.append(' ');
+    Json.writeString(writer, (String) null);
+    writer.append(' ');
+    Json.writeString(writer, '"');
+    writer.append(' ');
+    Json.writeString(writer, 'x');
+
+    assertEquals("\"a\\\"b\\\\c\\n\\t\\u0001\\u2028\u00e9\" null \"\\\"\" \"x\"", writer.toString());
+  }
+
+  @Test
+  public void writeNumber() throws Exception {
+    final StringBuilder builder = new StringBuilder();
+
+    Json.writeNumber(builder, 0.25f);
+    builder.append(' ');
+    Json.writeNumber(builder, Float.NaN);
+    builder.append(' ');
+    Json.writeNumber(builder, Double.POSITIVE_INFINITY);
+    builder.append(' ');
+    Json.writeNumber(builder, Double.NEGATIVE_INFINITY);
+    builder.append(' ');
+    Json.writeNumber(builder, 1e-7);
+
+    assertEquals("0.25 \"NaN\" \"Infinity\" \"-Infinity\" 1.0E-7", builder.toString());
+  }
+
+  @Test
+  public void writeArray() throws Exception {
+    final StringWriter writer = new StringWriter();
+
+    Json.writeArray(writer, new boolean[] { true, false });
+    Json.writeArray(writer, new byte[] { -1 });
+    Json.writeArray(writer, new char[] { 'a', '"' });
+    Json.writeArray(writer, new short[0]);
+    Json.writeArray(writer, new int[] { 1, 2, 3 });
+    Json.writeArray(writer, new long[] { Long.MIN_VALUE });
+    Json.writeArray(writer, new float[] { 1.5f });
+    Json.writeArray(writer, new double[] { Double.NaN, 2 });
+    Json.writeArray(writer, (int[]) null);
+
+    assertEquals("[true,false][-1]\"a\\\"\"[][1,2,3][-9223372036854775808][1.5][\"NaN\",2.0]null", writer.toString());
+  }
+}
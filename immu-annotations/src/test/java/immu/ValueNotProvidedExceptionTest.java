@@ -30,6 +30,37 @@ public class ValueNotProvidedExceptionTest {
     assertTrue(exception.getLocalizedMessage().contains("name1, name2"));
   }
 
+  @Test
+  public void stacklessForProperty() throws Exception {
+    final ValueNotProvidedException exception = ValueNotProvidedException.stacklessForProperty("name");
+
+    assertEquals(0, exception.getStackTrace().length);
+    assertEquals("Value for property name was not provided", exception.getMessage());
+    assertSame(exception.getMessage(), exception.getLocalizedMessage());
+    assertEquals(1L, exception.missing());
+  }
+
+  @Test
+  public void stacklessForProperties() throws Exception {
+    final String[] properties = { "name1", "name2", "name3" };
+    final ValueNotProvidedException exception = ValueNotProvidedException.stacklessForProperties(properties, 5L);
+
+    assertEquals(0, exception.getStackTrace().length);
+    assertEquals("Not all values for the properties name1, name3 were provided", exception.getMessage());
+    assertEquals(5L, exception.missing());
+
+    exception.fillInStackTrace();
+    assertEquals(0, exception.getStackTrace().length);
+  }
+
+  @Test
+  public void withStackTrace() throws Exception {
+    final ValueNotProvidedException exception = ValueNotProvidedException.forProperty("name");
+
+    assertTrue(exception.getStackTrace().length > 0);
+    assertEquals(0L, exception.missing());
+  }
+
   @Test
   public void name() throws Exception {
     final ValueNotProvidedException exception = new ValueNotProvidedException("name");
@@ -1,8 +1,17 @@
 package immu;
 
 import com.google.auto.service.AutoService;
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.JavaFile;
 import immu.classer.ImmuBuilderClasser;
+import immu.classer.ImmuCodecClasser;
+import immu.classer.ImmuComparatorsClasser;
+import immu.classer.ImmuColumnsClasser;
+import immu.classer.ImmuDiffClasser;
+import immu.classer.ImmuFingerprintClasser;
+import immu.classer.ImmuFlyweightClasser;
+import immu.classer.ImmuJsonClasser;
+import immu.classer.ImmuMetaClasser;
 import immu.classer.ImmuObjectClasser;
 import immu.element.ImmuElement;
 import immu.element.ImmuObjectElement;
@@ -19,6 +28,7 @@ import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -54,7 +64,7 @@ public class ImmuCompiler implements Processor {
 
   @Override
   public Set<String> getSupportedOptions() {
-    return Collections.emptySet();
+    return ImmuOptions.ALL;
   }
 
   @Override
@@ -131,9 +141,28 @@ public class ImmuCompiler implements Processor {
       return false;
     }
 
+    final boolean records = ImmuOptions.records(env);
+
+    final List<ImmuObjectClasser> recordClassers = objectElements
+        .stream()
+        .map(ImmuObjectClasser::from)
+        .filter((c) -> c.isRecord(env, records))
+        .collect(Collectors.toList());
+
+    if (records && ImmuOptions.recordsRequested(env)) {
+      objectElements.forEach((e) -> {
+        final String reason = ImmuObjectClasser.from(e).classReason(env);
+
+        if (null != reason) {
+          env.getMessager().printMessage(Diagnostic.Kind.NOTE, String.format((Locale) null, "Implementation of %s is generated as a class instead of a record, since %s", e.name(), reason), e.element());
+        }
+      });
+    }
+
     final Stream<JavaFile> objectClassers = objectElements
         .stream()
         .map(ImmuObjectClasser::from)
+        .filter((c) -> !c.isRecord(env, records))
         .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
 
     final Stream<JavaFile> builderClassers = objectElements
@@ -141,10 +170,61 @@ public class ImmuCompiler implements Processor {
         .map(ImmuBuilderClasser::from)
         .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
 
-    Stream.concat(objectClassers, builderClassers)
+    final Stream<JavaFile> codecClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasCodec)
+        .map(ImmuCodecClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    final Stream<JavaFile> flyweightClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasFlyweight)
+        .map(ImmuFlyweightClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    final Stream<JavaFile> columnsClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasColumns)
+        .map(ImmuColumnsClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    final Stream<JavaFile> jsonClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasJson)
+        .map(ImmuJsonClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    final Stream<JavaFile> comparatorsClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasComparators)
+        .map(ImmuComparatorsClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    final Stream<JavaFile> diffClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasDiff)
+        .map(ImmuDiffClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    final Stream<JavaFile> metaClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasMeta)
+        .map(ImmuMetaClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    final Stream<JavaFile> fingerprintClassers = objectElements
+        .stream()
+        .filter(ImmuObjectElement::hasFingerprint)
+        .map(ImmuFingerprintClasser::from)
+        .map((c) -> JavaFile.builder(c.className().packageName(), c.generate(env)).build());
+
+    Stream.of(objectClassers, builderClassers, codecClassers, flyweightClassers, columnsClassers, jsonClassers, comparatorsClassers, diffClassers, metaClassers, fingerprintClassers)
+        .flatMap((s) -> s)
         .collect(Collectors.toList())
         .forEach(this::writeSource);
 
+    recordClassers.forEach((c) -> writeSource(c.objectClass(), c.generateRecord(env)));
+
     return true;
   }
 
@@ -160,4 +240,12 @@ public class ImmuCompiler implements Processor {
       env.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage());
     }
   }
+
+  void writeSource(ClassName type, String source) {
+    try (Writer writer = env.getFiler().createSourceFile(type.toString()).openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      env.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage());
+    }
+  }
 }
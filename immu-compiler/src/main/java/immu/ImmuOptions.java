@@ -0,0 +1,110 @@
+package immu;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.tools.Diagnostic;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Processor options, provided to {@code javac} as {@code -Aname=value}. Options apply to all
+ * elements processed in a compilation, unless an element overrides them.
+ */
+public final class ImmuOptions {
+
+  /**
+   * The default limit of elements of array, collection or map properties written in string
+   * representations.
+   * @see Immu#toStringLimit()
+   */
+  public static final String TO_STRING_LIMIT = "immu.toStringLimit";
+
+  /**
+   * Whether implementations are generated as records where possible, {@code true} or {@code false}. By default
+   * they are when the source version is 16 or later. Records are never generated for earlier source versions.
+   */
+  public static final String RECORDS = "immu.records";
+
+  /** All supported options. */
+  public static final Set<String> ALL = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+      TO_STRING_LIMIT,
+      RECORDS)));
+
+  ImmuOptions() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns the value of {@link #TO_STRING_LIMIT}.
+   * @param env the environment, must not be null
+   * @return the limit, negative if not provided
+   */
+  public static int toStringLimit(ProcessingEnvironment env) {
+    return intOption(env, TO_STRING_LIMIT, -1);
+  }
+
+  /**
+   * Returns the value of {@link #RECORDS}.
+   * @param env the environment, must not be null
+   * @return if implementations should be generated as records where possible
+   */
+  public static boolean records(ProcessingEnvironment env) {
+    // compared by ordinal, since SourceVersion.RELEASE_16 does not exist in the JDK the compiler is built with
+    final boolean supported = env.getSourceVersion().ordinal() >= 16;
+    final boolean records = booleanOption(env, RECORDS, supported);
+
+    if (records && !supported) {
+      env.getMessager().printMessage(Diagnostic.Kind.WARNING, "Option " + RECORDS + " requires source version 16 or later, ignoring it for source version " + env.getSourceVersion());
+      return false;
+    }
+
+    return records;
+  }
+
+  /**
+   * Checks if {@link #RECORDS} is explicitly {@code true}, rather than by default.
+   * @param env the environment, must not be null
+   * @return if records were requested
+   */
+  public static boolean recordsRequested(ProcessingEnvironment env) {
+    final String value = env.getOptions().get(RECORDS);
+
+    return null != value && "true".equals(value.trim());
+  }
+
+  private static boolean booleanOption(ProcessingEnvironment env, String name, boolean defaultValue) {
+    final String value = env.getOptions().get(name);
+
+    if (null == value) {
+      return defaultValue;
+    }
+
+    switch (value.trim()) {
+      case "true":
+        return true;
+
+      case "false":
+        return false;
+
+      default:
+        env.getMessager().printMessage(Diagnostic.Kind.WARNING, "Option " + name + " must be true or false, ignoring value " + value);
+        return defaultValue;
+    }
+  }
+
+  private static int intOption(ProcessingEnvironment env, String name, int defaultValue) {
+    final String value = env.getOptions().get(name);
+
+    if (null == value) {
+      return defaultValue;
+    }
+
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      env.getMessager().printMessage(Diagnostic.Kind.WARNING, "Option " + name + " must be an integer, ignoring value " + value);
+      return defaultValue;
+    }
+  }
+}
@@ -1,19 +1,29 @@
 package immu.classer;
 
 import com.squareup.javapoet.*;
+import immu.Copy;
 import immu.Required;
 import immu.ValueNotProvidedException;
-import immu.element.ImmuElement;
 import immu.element.ImmuObjectElement;
 import immu.element.ImmuProperty;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -46,14 +56,35 @@ public class ImmuBuilderClasser extends ImmuClasser {
     private final List<ImmuProperty> nonIndexedProperties;
     private final List<PropertyWithIndex> indexedProperties;
 
-    private final int checkerInts;
+    private final int checkerLongs;
 
-    private AnalyzedProperties(List<ImmuProperty> properties, List<ImmuProperty> requiredProperties, List<ImmuProperty> nonIndexedProperties, List<PropertyWithIndex> indexedProperties, int checkerInts) {
+    /** The names of the fields for the source of {@code from}, which must not be the names of properties. */
+    private final String source;
+    private final String sourceHashCode;
+
+    private AnalyzedProperties(List<ImmuProperty> properties, List<ImmuProperty> requiredProperties, List<ImmuProperty> nonIndexedProperties, List<PropertyWithIndex> indexedProperties, int checkerLongs) {
       this.properties = properties;
       this.requiredProperties = requiredProperties;
       this.nonIndexedProperties = nonIndexedProperties;
       this.indexedProperties = indexedProperties;
-      this.checkerInts = checkerInts;
+      this.checkerLongs = checkerLongs;
+      this.source = internalName("source", properties);
+      this.sourceHashCode = internalName("sourceHashCode", properties);
+    }
+
+    private static String internalName(String name, List<ImmuProperty> properties) {
+      final Set<String> names = properties
+          .stream()
+          .map((p) -> p.name().toString())
+          .collect(Collectors.toSet());
+
+      String internal = name;
+
+      while (names.contains(internal)) {
+        internal += "_";
+      }
+
+      return internal;
     }
   }
 
@@ -76,25 +107,27 @@ public class ImmuBuilderClasser extends ImmuClasser {
     final ClassName objectClass = objectClass();
     final ClassName builderClass = builderClass();
 
-    final List<ImmuProperty> declaredProperties = element.properties();
-    final List<ImmuProperty> inheritedProperties = element.superProperties(env);
-
-    final List<ImmuProperty> properties = new ArrayList<>(declaredProperties.size() + inheritedProperties.size());
-
-    properties.addAll(declaredProperties);
-    properties.addAll(inheritedProperties);
+    final List<ImmuProperty> properties = properties(env);
 
     final AnalyzedProperties analyzedProperties = analyzeProperties(properties);
 
     return TypeSpec.classBuilder(builderClass)
         .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
         .addTypeVariables(typeVariables())
+        .addFields(threadLocalField())
         .addFields(fields(analyzedProperties))
         .addMethods(creators(analyzedProperties))
+        .addMethods(threadLocalStatic())
         .addMethod(copierStatic(analyzedProperties))
+        .addMethods(withers(analyzedProperties))
+        .addMethods(views(analyzedProperties))
         .addMethod(constructor(analyzedProperties))
         .addMethods(setters(analyzedProperties))
+        .addMethod(reset(analyzedProperties))
         .addMethod(build(analyzedProperties))
+        .addMethod(tryBuild(analyzedProperties))
+        .addMethods(missingRequired(analyzedProperties))
+        .addMethod(unchangedFrom(analyzedProperties))
         .addJavadoc(CodeBlock.builder()
             .add("A builder for immutable instances of {@link $T}.\n", immuClass)
             .add("<p>\nUnder the hood uses {@link $T}.\n", objectClass)
@@ -127,9 +160,9 @@ public class ImmuBuilderClasser extends ImmuClasser {
         .collect(Collectors.toList());
 
     final int reqSize = requiredPrimitiveProperties.size();
-    final int checkerInts = reqSize / 32 + ((reqSize % 32) > 0 ? 1 : 0);
+    final int checkerLongs = reqSize / 64 + ((reqSize % 64) > 0 ? 1 : 0);
 
-    return new AnalyzedProperties(properties, requiredProperties, nonIndexedProperties, indexedProperties, checkerInts);
+    return new AnalyzedProperties(properties, requiredProperties, nonIndexedProperties, indexedProperties, checkerLongs);
   }
 
   private Iterable<TypeVariableName> typeVariables() {
@@ -139,6 +172,22 @@ public class ImmuBuilderClasser extends ImmuClasser {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the type parameterized with the type variables of the interface.
+   * @param type the generic type, must not be null
+   * @return the parameterized type, or the type itself if the interface is not generic
+   */
+  private TypeName parameterized(ClassName type) {
+    final List<TypeVariableName> typeVariables = new ArrayList<>();
+    typeVariables().forEach(typeVariables::add);
+
+    if (typeVariables.isEmpty()) {
+      return type;
+    }
+
+    return ParameterizedTypeName.get(type, typeVariables.toArray(new TypeName[typeVariables.size()]));
+  }
+
   private Iterable<FieldSpec> fields(AnalyzedProperties analyzedProperties) {
     final ClassName immuClass = className();
 
@@ -151,15 +200,55 @@ public class ImmuBuilderClasser extends ImmuClasser {
             .build())
         .collect(Collectors.toList());
 
-    if (analyzedProperties.checkerInts > 0) {
-      final FieldSpec checkedField = FieldSpec.builder(TypeName.get(int[].class), "checked", Modifier.PRIVATE, Modifier.FINAL, Modifier.TRANSIENT)
-          .initializer("new int[" + analyzedProperties.checkerInts + "]")
-          .build();
+    final List<FieldSpec> accumulatorFields = analyzedProperties.properties
+        .stream()
+        .filter((p) -> null != accumulatorType(p))
+        .map((p) -> FieldSpec.builder(accumulatorType(p), accumulatorName(p), Modifier.TRANSIENT, Modifier.PRIVATE)
+            .addJavadoc(CodeBlock.builder()
+                .add("The collection that elements of {@link $T#" + p.name().toString() + "()} are added to, or null if none were\n", immuClass)
+                .add("added since the value was last set.\n")
+                .build())
+            .build())
+        .collect(Collectors.toList());
+
+    propertyFields.addAll(accumulatorFields);
+
+    propertyFields.add(FieldSpec.builder(objectClass(), analyzedProperties.source, Modifier.TRANSIENT, Modifier.PRIVATE)
+        .addJavadoc(CodeBlock.builder()
+            .add("The object this builder was created from by {@link #from($T)}, or null. It is returned by\n", immuClass)
+            .add("{@link #build()} if none of the values changed.\n")
+            .build())
+        .build());
+
+    if (isHashCodeIncremental(analyzedProperties.properties)) {
+      propertyFields.add(FieldSpec.builder(int.class, analyzedProperties.sourceHashCode, Modifier.TRANSIENT, Modifier.PRIVATE)
+          .addJavadoc(CodeBlock.builder()
+              .add("The cached hash code of {@link #" + analyzedProperties.source + "}, or 0 if there is none.\n")
+              .build())
+          .build());
+    }
+
+    if (element.hasStacklessExceptions() && analyzedProperties.indexedProperties.size() > 1) {
+      for (int i = 0; i < analyzedProperties.checkerLongs; i++) {
+        final String names = analyzedProperties.indexedProperties.subList(64 * i, Math.min(64 * (i + 1), analyzedProperties.indexedProperties.size()))
+            .stream()
+            .map((p) -> "\"" + p.property.name() + "\"")
+            .collect(Collectors.joining(", "));
 
-      return Stream.concat(Stream.of(checkedField), propertyFields.stream()).collect(Collectors.toList());
+        propertyFields.add(FieldSpec.builder(String[].class, "CHECKED_PROPERTIES" + i, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("{ $L }", names)
+            .addJavadoc(CodeBlock.builder()
+                .add("The names of the properties checked by {@code checked" + i + "}, by bit.\n")
+                .build())
+            .build());
+      }
     }
 
-    return propertyFields;
+    // plain long fields instead of an array, so that a builder that does not escape can be scalar-replaced
+    final Stream<FieldSpec> checkedFields = IntStream.range(0, analyzedProperties.checkerLongs)
+        .mapToObj((i) -> FieldSpec.builder(long.class, "checked" + i, Modifier.PRIVATE, Modifier.TRANSIENT).build());
+
+    return Stream.concat(checkedFields, propertyFields.stream()).collect(Collectors.toList());
   }
 
   private Iterable<MethodSpec> setters(AnalyzedProperties analyzedProperties) {
@@ -171,11 +260,164 @@ public class ImmuBuilderClasser extends ImmuClasser {
         .stream()
         .map((pi) -> propertySetter(pi.property).addCode(propertySetterCodeBlock(pi)));
 
-    return Stream.concat(regular, indexed)
+    final Stream<MethodSpec.Builder> accumulators = analyzedProperties.properties
+        .stream()
+        .filter((p) -> null != accumulatorType(p))
+        .flatMap(this::accumulatorMethods);
+
+    return Stream.concat(Stream.concat(regular, indexed), accumulators)
         .map(MethodSpec.Builder::build)
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the type of the mutable collection that accumulates the elements of a copied collection property
+   * in {@code addX} or {@code putX}, before {@link #build(AnalyzedProperties)} copies it once.
+   * @return the type, or null if the property has no accumulator
+   */
+  private static TypeName accumulatorType(ImmuProperty property) {
+    if (Copy.Policy.TRUSTED.equals(property.copyPolicy()) || !property.isCopyableCollection()) {
+      return null;
+    }
+
+    final TypeName[] types = elementTypes(property);
+
+    if (isMap(property)) {
+      return ParameterizedTypeName.get(ClassName.get(LinkedHashMap.class), types);
+    }
+
+    if (isSet(property)) {
+      return ParameterizedTypeName.get(ClassName.get(LinkedHashSet.class), types);
+    }
+
+    return ParameterizedTypeName.get(ClassName.get(ArrayList.class), types);
+  }
+
+  private static String accumulatorName(ImmuProperty property) {
+    return property.name() + "Accumulator";
+  }
+
+  private static boolean isMap(ImmuProperty property) {
+    return qualifiedName(property).equals(Map.class.getName());
+  }
+
+  private static boolean isSet(ImmuProperty property) {
+    return qualifiedName(property).equals(Set.class.getName());
+  }
+
+  private static String qualifiedName(ImmuProperty property) {
+    return ((TypeElement) ((DeclaredType) property.returnType()).asElement()).getQualifiedName().toString();
+  }
+
+  /**
+   * Returns the types of the elements, or of the keys and values, that can be added to a collection property.
+   * These are the upper bounds of wildcards, and {@link Object} for raw types.
+   */
+  private static TypeName[] elementTypes(ImmuProperty property) {
+    final List<? extends TypeMirror> arguments = ((DeclaredType) property.returnType()).getTypeArguments();
+
+    if (arguments.isEmpty()) {
+      return isMap(property) ? new TypeName[] { TypeName.OBJECT, TypeName.OBJECT } : new TypeName[] { TypeName.OBJECT };
+    }
+
+    return arguments
+        .stream()
+        .map((a) -> {
+          if (!TypeKind.WILDCARD.equals(a.getKind())) {
+            return TypeName.get(a);
+          }
+
+          final WildcardType wildcard = (WildcardType) a;
+
+          if (null != wildcard.getExtendsBound()) {
+            return TypeName.get(wildcard.getExtendsBound());
+          }
+
+          return null != wildcard.getSuperBound() ? TypeName.get(wildcard.getSuperBound()) : TypeName.OBJECT;
+        })
+        .toArray(TypeName[]::new);
+  }
+
+  private Stream<MethodSpec.Builder> accumulatorMethods(ImmuProperty property) {
+    final String name = property.name().toString();
+    final String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    final String accumulator = accumulatorName(property);
+    final ClassName immuClass = className();
+    final ClassName builderClass = builderClass();
+    final TypeName accumulatorType = accumulatorType(property);
+    final TypeName[] types = elementTypes(property);
+
+    final MethodSpec.Builder accumulatorGetter = MethodSpec.methodBuilder(accumulator)
+        .addModifiers(Modifier.PRIVATE)
+        .returns(accumulatorType)
+        .beginControlFlow("if (null == this.$L)", accumulator)
+        .addComment("the value that was set is never changed, but copied once before adding to it")
+        .addStatement("this.$L = null == this.$L ? new $T() : new $T(this.$L)", accumulator, name, accumulatorType, accumulatorType, name)
+        .addStatement("this.$L = this.$L", name, accumulator)
+        .endControlFlow()
+        .addStatement("return this.$L", accumulator);
+
+    if (isMap(property)) {
+      final TypeName entries = ParameterizedTypeName.get(ClassName.get(Map.class), WildcardTypeName.subtypeOf(types[0]), WildcardTypeName.subtypeOf(types[1]));
+
+      return Stream.of(
+          MethodSpec.methodBuilder("put" + capitalized)
+              .addModifiers(Modifier.PUBLIC)
+              .returns(builderClass)
+              .addParameter(types[0], "key", Modifier.FINAL)
+              .addParameter(types[1], "value", Modifier.FINAL)
+              .addStatement("$L().put(key, value)", accumulator)
+              .addStatement("return this")
+              .addJavadoc(CodeBlock.builder()
+                  .add("Puts an entry into the value for {@link $T#" + name + "()}, after the entries that were set or put\n", immuClass)
+                  .add("before. The value is copied once, in {@link #build()}.\n")
+                  .add("@param key the key\n")
+                  .add("@param value the value\n")
+                  .add("@return the builder for chaining, never null\n")
+                  .build()),
+          MethodSpec.methodBuilder("putAll" + capitalized)
+              .addModifiers(Modifier.PUBLIC)
+              .returns(builderClass)
+              .addParameter(entries, "entries", Modifier.FINAL)
+              .addStatement("$L().putAll(entries)", accumulator)
+              .addStatement("return this")
+              .addJavadoc(CodeBlock.builder()
+                  .add("Puts all entries into the value for {@link $T#" + name + "()}, see {@link #put" + capitalized + "}.\n", immuClass)
+                  .add("@param entries the entries, must not be null\n")
+                  .add("@return the builder for chaining, never null\n")
+                  .build()),
+          accumulatorGetter);
+    }
+
+    final TypeName elements = ParameterizedTypeName.get(ClassName.get(Collection.class), WildcardTypeName.subtypeOf(types[0]));
+
+    return Stream.of(
+        MethodSpec.methodBuilder("add" + capitalized)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(builderClass)
+            .addParameter(types[0], "element", Modifier.FINAL)
+            .addStatement("$L().add(element)", accumulator)
+            .addStatement("return this")
+            .addJavadoc(CodeBlock.builder()
+                .add("Adds an element to the value for {@link $T#" + name + "()}, after the elements that were set or\n", immuClass)
+                .add("added before. The value is copied once, in {@link #build()}.\n")
+                .add("@param element the element\n")
+                .add("@return the builder for chaining, never null\n")
+                .build()),
+        MethodSpec.methodBuilder("addAll" + capitalized)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(builderClass)
+            .addParameter(elements, "elements", Modifier.FINAL)
+            .addStatement("$L().addAll(elements)", accumulator)
+            .addStatement("return this")
+            .addJavadoc(CodeBlock.builder()
+                .add("Adds all elements to the value for {@link $T#" + name + "()}, see {@link #add" + capitalized + "}.\n", immuClass)
+                .add("@param elements the elements, must not be null\n")
+                .add("@return the builder for chaining, never null\n")
+                .build()),
+        accumulatorGetter);
+  }
+
   private MethodSpec.Builder propertySetter(ImmuProperty property) {
     final String name = property.name().toString();
     final ClassName builderClass = builderClass();
@@ -218,6 +460,10 @@ public class ImmuBuilderClasser extends ImmuClasser {
     final CodeBlock.Builder builder = CodeBlock.builder();
 
     builder.addStatement("this." + name + " = " + name);
+
+    if (null != accumulatorType(property)) {
+      builder.addStatement("this." + accumulatorName(property) + " = null");
+    }
     builder.addStatement("return this");
 
     return builder.build();
@@ -228,11 +474,11 @@ public class ImmuBuilderClasser extends ImmuClasser {
 
     final CodeBlock.Builder builder = CodeBlock.builder();
 
-    final int propertyIntIndex = propertyWithIndex.index / 32;
-    final int propertyBitIndex = propertyWithIndex.index % 32;
+    final int propertyLongIndex = propertyWithIndex.index / 64;
+    final int propertyBitIndex = propertyWithIndex.index % 64;
 
     builder.addStatement("this." + name + " = " + name);
-    builder.addStatement("this.checked[" + propertyIntIndex + "] |= 1 << " + propertyBitIndex);
+    builder.addStatement("this.checked" + propertyLongIndex + " |= 1L << " + propertyBitIndex);
 
     builder.addStatement("return this");
 
@@ -243,17 +489,8 @@ public class ImmuBuilderClasser extends ImmuClasser {
     final ClassName immuClass = className();
 
     final MethodSpec.Builder builder = MethodSpec.constructorBuilder()
-        .addModifiers(Modifier.PRIVATE);
-
-    if (analyzedProperties.checkerInts > 0) {
-      final int unusedBitsN = analyzedProperties.indexedProperties.size() % 32;
-
-      if (unusedBitsN > 0) {
-        final int unusedBits = (~0) << unusedBitsN;
-
-        builder.addStatement("this.checked[this.checked.length - 1] = 0x" + Integer.toHexString(unusedBits));
-      }
-    }
+        .addModifiers(Modifier.PRIVATE)
+        .addCode(checkedInitializer(analyzedProperties, false));
 
     return builder
         .addJavadoc(CodeBlock.builder()
@@ -265,6 +502,141 @@ public class ImmuBuilderClasser extends ImmuClasser {
         .build();
   }
 
+  /**
+   * Marks all required primitive properties as not provided. The bits that do not belong to a property
+   * are set, so that a fully provided long equals {@code ~0L}.
+   * @param clear whether the longs need to be cleared first, since they are not freshly allocated
+   */
+  private static CodeBlock checkedInitializer(AnalyzedProperties analyzedProperties, boolean clear) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    if (0 == analyzedProperties.checkerLongs) {
+      return builder.build();
+    }
+
+    final int last = analyzedProperties.checkerLongs - 1;
+
+    if (clear) {
+      for (int i = 0; i < last; i++) {
+        builder.addStatement("this.checked" + i + " = 0L");
+      }
+    }
+
+    final int unusedBitsN = analyzedProperties.indexedProperties.size() % 64;
+
+    if (unusedBitsN > 0) {
+      final long unusedBits = (~0L) << unusedBitsN;
+
+      builder.addStatement("this.checked" + last + " = 0x" + Long.toHexString(unusedBits) + "L");
+    } else if (clear) {
+      builder.addStatement("this.checked" + last + " = 0L");
+    }
+
+    return builder.build();
+  }
+
+  private MethodSpec reset(AnalyzedProperties analyzedProperties) {
+    final ClassName builderClass = builderClass();
+
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    analyzedProperties.properties.forEach((p) -> builder.addStatement("this.$L = $L", p.name(), defaultValue(p)));
+
+    analyzedProperties.properties
+        .stream()
+        .filter((p) -> null != accumulatorType(p))
+        .forEach((p) -> builder.addStatement("this.$L = null", accumulatorName(p)));
+
+    return MethodSpec.methodBuilder("reset")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(builderClass)
+        .addCode(builder.build())
+        .addCode(checkedInitializer(analyzedProperties, true))
+        .addCode(sourceReset(analyzedProperties))
+        .addStatement("return this")
+        .addJavadoc(CodeBlock.builder()
+            .add("Clears all values and marks all {@link $T} properties as not provided, so that this builder is\n", Required.class)
+            .add("in the same state as one from {@link #create()} and can be reused to build another object.\n")
+            .add("@return the builder for chaining, never null\n")
+            .build())
+        .build();
+  }
+
+  private CodeBlock sourceReset(AnalyzedProperties analyzedProperties) {
+    final CodeBlock.Builder builder = CodeBlock.builder()
+        .addStatement("this.$L = null", analyzedProperties.source);
+
+    if (isHashCodeIncremental(analyzedProperties.properties)) {
+      builder.addStatement("this.$L = 0", analyzedProperties.sourceHashCode);
+    }
+
+    return builder.build();
+  }
+
+  private static String defaultValue(ImmuProperty property) {
+    switch (property.returnType().getKind()) {
+      case BOOLEAN:
+        return "false";
+
+      case BYTE:
+      case SHORT:
+      case CHAR:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return "0";
+
+      default:
+        return "null";
+    }
+  }
+
+  private List<FieldSpec> threadLocalField() {
+    if (!element.hasThreadLocalBuilder()) {
+      return Collections.emptyList();
+    }
+
+    final ClassName builderClass = builderClass();
+    final ParameterizedTypeName threadLocalClass = ParameterizedTypeName.get(ClassName.get(ThreadLocal.class), builderClass);
+
+    final TypeSpec initializer = TypeSpec.anonymousClassBuilder("")
+        .superclass(threadLocalClass)
+        .addMethod(MethodSpec.methodBuilder("initialValue")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .returns(builderClass)
+            .addStatement("return new $T()", builderClass)
+            .build())
+        .build();
+
+    return Collections.singletonList(FieldSpec.builder(threadLocalClass, "THREAD_LOCAL", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer("$L", initializer)
+        .build());
+  }
+
+  private List<MethodSpec> threadLocalStatic() {
+    if (!element.hasThreadLocalBuilder()) {
+      return Collections.emptyList();
+    }
+
+    final ClassName immuClass = className();
+    final ClassName builderClass = builderClass();
+
+    return Collections.singletonList(MethodSpec.methodBuilder("threadLocal")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(builderClass)
+        .addStatement("return THREAD_LOCAL.get().reset()")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns this thread's builder, after {@link #reset()}, so that no builder is allocated per object.\n")
+            .add("<p>\nThe builder is shared by all callers on the same thread: it must be used to build one object right\n")
+            .add("away, and must not be kept, passed to other threads, or used while building another {@link $T}.\n", immuClass)
+            .add("@see #create()\n")
+            .add("@return the reset thread-local builder, never null\n")
+            .build())
+        .build());
+  }
+
   private Iterable<MethodSpec> creators(AnalyzedProperties analyzedProperties) {
     return Collections.singletonList(creatorStatic());
   }
@@ -294,9 +666,11 @@ public class ImmuBuilderClasser extends ImmuClasser {
         .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
         .returns(builderClass)
         .addParameter(immuClass, "immutable")
-        .addCode(copierCodeBlock(builderClass, analyzedProperties.properties))
+        .addCode(copierCodeBlock(builderClass, analyzedProperties))
         .addJavadoc(CodeBlock.builder()
             .add("Creates a new builder with values initialized from the provided immutable object instance.\n")
+            .add("<p>\nIf the instance was created by this builder and none of its values are changed, {@link #build()}\nreturns the instance itself.\n")
+            .add(isHashCodeIncremental(analyzedProperties.properties) ? "<p>\nIf the hash code of the instance was computed, {@link #build()} updates it for the changed values instead\nof hashing all values again.\n" : "")
             .add("@see #create()\n")
             .add("@see #build()\n")
             .add("@param immutable the immutable object instance, must not be null\n")
@@ -305,14 +679,79 @@ public class ImmuBuilderClasser extends ImmuClasser {
         .build();
   }
 
-  private MethodSpec build(AnalyzedProperties analyzedProperties) {
+  private Iterable<MethodSpec> withers(AnalyzedProperties analyzedProperties) {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
+    final TypeName immuType = parameterized(immuClass);
+
+    return analyzedProperties.properties
+        .stream()
+        .map((p) -> {
+          final String name = p.name().toString();
+          final String witherName = ImmuObjectClasser.witherName(p);
+
+          // static, so the type variables of the builder class are not in scope and are declared again
+          return MethodSpec.methodBuilder(witherName)
+              .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+              .addTypeVariables(typeVariables())
+              .returns(immuType)
+              .addParameter(immuType, "immutable")
+              .addParameter(TypeName.get(p.returnType()), name, Modifier.FINAL)
+              .beginControlFlow("if (immutable instanceof $T)", objectClass)
+              .addStatement("return (($T) immutable).$L($L)", objectClass, witherName, name)
+              .endControlFlow()
+              .addStatement("return from(immutable).$L($L).build()", name, name)
+              .addJavadoc(CodeBlock.builder()
+                  .add("Returns an object with the provided value for {@link $T#" + name + "()}, and the values of the\n", immuClass)
+                  .add("provided object for all other properties. Objects created by this builder are copied directly, and\n")
+                  .add("are returned as they are if the value is the same, so that no builder is allocated.\n")
+                  .add("@see #from($T)\n", immuClass)
+                  .add("@param immutable the immutable object instance, must not be null\n")
+                  .add("@param " + name + " the new value\n")
+                  .add("@return an object with the value, never null\n")
+                  .build())
+              .build();
+        })
+        .collect(Collectors.toList());
+  }
+
+  private Iterable<MethodSpec> views(AnalyzedProperties analyzedProperties) {
     final ClassName immuClass = className();
     final ClassName objectClass = objectClass();
 
+    return analyzedProperties.properties
+        .stream()
+        .filter((p) -> null != viewType(p))
+        .map((p) -> {
+          final String name = p.name().toString();
+          final Class<?> viewType = viewType(p);
+
+          return MethodSpec.methodBuilder(viewName(p))
+              .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+              .returns(viewType)
+              .addParameter(immuClass, "immutable")
+              .beginControlFlow("if (immutable instanceof $T)", objectClass)
+              .addStatement("return (($T) immutable).$L()", objectClass, viewName(p))
+              .endControlFlow()
+              .addStatement("final $T $L = immutable.$L()", TypeName.get(p.returnType()), name, name)
+              .addStatement("return null == $L ? null : $T.wrap($L).asReadOnlyBuffer()", name, viewType, name)
+              .addJavadoc(CodeBlock.builder()
+                  .add("Returns a read-only view of {@link $T#" + name + "()} of the provided object. Objects created by this\n", immuClass)
+                  .add("builder are viewed directly, without copying the array.\n")
+                  .add("@param immutable the immutable object instance, must not be null\n")
+                  .add("@return the view, or null if the value is null\n")
+                  .build())
+              .build();
+        })
+        .collect(Collectors.toList());
+  }
+
+  private MethodSpec build(AnalyzedProperties analyzedProperties) {
+    final ClassName immuClass = className();
+
     final String statementList = analyzedProperties.properties
         .stream()
-        .map(ImmuElement::name)
-        .map(Name::toString)
+        .map((p) -> copied(p, p.name().toString()))
         .collect(Collectors.joining(", "));
 
     final MethodSpec.Builder builder = MethodSpec.methodBuilder("build")
@@ -321,18 +760,24 @@ public class ImmuBuilderClasser extends ImmuClasser {
         .addJavadoc(CodeBlock.builder()
             .add("Builds a new immutable object instance from the values in this builder.\n")
             .add("@throws $T if this builder did not receive a value for an {@link $T} annotated property\n", ValueNotProvidedException.class, Required.class)
-            .add("@return a new immutable object instance, never null\n")
+            .add(element.isInterned() ? "@return the canonical immutable object instance, never null\n" : "@return a new immutable object instance, never null\n")
             .build());
 
     final List<PropertyWithIndex> indexedProperties = analyzedProperties.indexedProperties;
 
-    for (int i = 0; i < analyzedProperties.checkerInts; i++) {
+    for (int i = 0; i < analyzedProperties.checkerLongs; i++) {
       final CodeBlock.Builder checkerBuilder = CodeBlock.builder();
 
-      checkerBuilder.beginControlFlow("if ((~0) != this.checked[" + i + "])");
+      checkerBuilder.beginControlFlow("if ((~0L) != this.checked" + i + ")");
 
-      if (indexedProperties.size() > 1) {
-        final String props = indexedProperties.subList(32 * i, Math.min(32 * (i + 1), indexedProperties.size()))
+      if (element.hasStacklessExceptions()) {
+        if (indexedProperties.size() > 1) {
+          checkerBuilder.addStatement("throw $T.stacklessForProperties(CHECKED_PROPERTIES$L, ~this.checked$L)", ValueNotProvidedException.class, i, i);
+        } else {
+          checkerBuilder.addStatement("throw $T.stacklessForProperty($S)", ValueNotProvidedException.class, indexedProperties.get(0).property.name().toString());
+        }
+      } else if (indexedProperties.size() > 1) {
+        final String props = indexedProperties.subList(64 * i, Math.min(64 * (i + 1), indexedProperties.size()))
             .stream()
             .map((p) -> p.property)
             .map(ImmuProperty::name)
@@ -351,22 +796,244 @@ public class ImmuBuilderClasser extends ImmuClasser {
       builder.addCode(checkerBuilder.build());
     }
 
+    builder.addCode(sourceBuild(analyzedProperties));
+
     return builder
         .addCode(CodeBlock.builder()
-            .addStatement("return new $T(" + statementList + ")", objectClass)
+            .addStatement("return $L", newObject(statementList))
             .build())
         .build();
   }
 
-  private CodeBlock copierCodeBlock(ClassName builderClass, List<ImmuProperty> properties) {
-    final CodeBlock.Builder copierBlockBuilder = CodeBlock.builder();
+  private MethodSpec tryBuild(AnalyzedProperties analyzedProperties) {
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("tryBuild")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(className());
 
-    copierBlockBuilder.addStatement("final $T builder = new $T()", builderClass, builderClass);
+    for (int i = 0; i < analyzedProperties.checkerLongs; i++) {
+      builder.beginControlFlow("if ((~0L) != this.checked" + i + ")")
+          .addStatement("return null")
+          .endControlFlow();
+    }
 
-    properties
+    analyzedProperties.requiredProperties
+        .stream()
+        .filter((p) -> !p.isPrimitive())
+        .forEach((p) -> builder.beginControlFlow("if (null == this.$L)", p.name())
+            .addStatement("return null")
+            .endControlFlow());
+
+    return builder
+        .addStatement("return build()")
+        .addJavadoc(CodeBlock.builder()
+            .add("Builds an object like {@link #build()}, but returns null instead of throwing an exception if this\n")
+            .add("builder did not receive a value for an {@link $T} annotated property, so that incomplete input is\n", Required.class)
+            .add("rejected without the cost of an exception.\n")
+            .add(analyzedProperties.requiredProperties.size() <= 64 && !analyzedProperties.requiredProperties.isEmpty() ? "@see #missingRequired()\n" : "")
+            .add("@return the object, or null if a required value is missing\n")
+            .build())
+        .build();
+  }
+
+  private List<MethodSpec> missingRequired(AnalyzedProperties analyzedProperties) {
+    final List<ImmuProperty> requiredProperties = analyzedProperties.requiredProperties;
+
+    if (requiredProperties.isEmpty() || requiredProperties.size() > 64) {
+      return Collections.emptyList();
+    }
+
+    final Map<ImmuProperty, PropertyWithIndex> indexes = new LinkedHashMap<>();
+    analyzedProperties.indexedProperties.forEach((p) -> indexes.put(p.property, p));
+
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("missingRequired")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(long.class)
+        .addStatement("long missing = 0L");
+
+    final CodeBlock.Builder bits = CodeBlock.builder();
+
+    for (int i = 0; i < requiredProperties.size(); i++) {
+      final ImmuProperty property = requiredProperties.get(i);
+      final String bit = "0x" + Long.toHexString(1L << i) + "L";
+      final PropertyWithIndex indexed = indexes.get(property);
+
+      if (null != indexed) {
+        builder.beginControlFlow("if (0L == (this.checked$L & (1L << $L)))", indexed.index / 64, indexed.index % 64);
+      } else {
+        builder.beginControlFlow("if (null == this.$L)", property.name());
+      }
+
+      builder.addStatement("missing |= $L", bit)
+          .endControlFlow();
+
+      bits.add("<li>bit " + i + ": {@link $T#" + property.name() + "()}</li>\n", className());
+    }
+
+    return Collections.singletonList(builder
+        .addStatement("return missing")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns which {@link $T} annotated properties did not receive a value, as a bit per property in\n", Required.class)
+            .add("the order of declaration:\n")
+            .add("<ul>\n")
+            .add(bits.build())
+            .add("</ul>\n")
+            .add("@see #tryBuild()\n")
+            .add("@return the bits of the missing properties, 0 if all were provided\n")
+            .build())
+        .build());
+  }
+
+  private MethodSpec unchangedFrom(AnalyzedProperties analyzedProperties) {
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("isUnchangedFrom")
+        .addModifiers(Modifier.PRIVATE)
+        .returns(boolean.class)
+        .addParameter(objectClass(), analyzedProperties.source, Modifier.FINAL);
+
+    // compared with the same semantics as the withers, so that equal values keep the identity of the source
+    for (ImmuProperty property : analyzedProperties.properties) {
+      builder.beginControlFlow("if (!($L))", unchanged(property, analyzedProperties.source))
+          .addStatement("return false")
+          .endControlFlow();
+    }
+
+    return builder
+        .addStatement("return true")
+        .addJavadoc(CodeBlock.builder()
+            .add("Checks whether all values of this builder are the ones of the object it was created from.\n")
+            .add("@param " + analyzedProperties.source + " the object this builder was created from, must not be null\n")
+            .add("@return true if no value changed\n")
+            .build())
+        .build();
+  }
+
+  private static String unchanged(ImmuProperty property, String source) {
+    final String name = "this." + property.name();
+    final String sourceValue = sourceValue(property, source);
+
+    switch (property.returnType().getKind()) {
+      case FLOAT:
+        return "Float.floatToIntBits(" + name + ") == Float.floatToIntBits(" + sourceValue + ")";
+
+      case DOUBLE:
+        return "Double.doubleToLongBits(" + name + ") == Double.doubleToLongBits(" + sourceValue + ")";
+
+      case DECLARED:
+      case TYPEVAR:
+        return name + " == " + sourceValue + " || (null != " + name + " && " + name + ".equals(" + sourceValue + "))";
+
+      default:
+        return name + " == " + sourceValue;
+    }
+  }
+
+  /**
+   * Builds an object from a builder created by {@code from}: the source itself if no value changed, otherwise
+   * a new object whose hash code is updated from the one of the source, if that is incremental.
+   */
+  private CodeBlock sourceBuild(AnalyzedProperties analyzedProperties) {
+    final String source = analyzedProperties.source;
+
+    final CodeBlock.Builder builder = CodeBlock.builder()
+        .addStatement("final $T $L = this.$L", objectClass(), source, source)
+        .beginControlFlow("if (null != $L)", source)
+        .beginControlFlow("if (isUnchangedFrom($L))", source)
+        .addStatement("return $L", source)
+        .endControlFlow();
+
+    if (isHashCodeIncremental(analyzedProperties.properties)) {
+      builder.add(incrementalBuild(analyzedProperties));
+    }
+
+    return builder
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Builds an object from a builder created by {@code from}, whose source had a cached hash code, by updating
+   * that hash code only for the properties whose values are no longer the ones of the source. Primitives are
+   * always updated, which is as cheap as comparing them.
+   */
+  private CodeBlock incrementalBuild(AnalyzedProperties analyzedProperties) {
+    final List<ImmuProperty> properties = analyzedProperties.properties;
+
+    final CodeBlock.Builder builder = CodeBlock.builder()
+        .beginControlFlow("if (0 != this.$L)", analyzedProperties.sourceHashCode);
+
+    // values are hashed after copying, since a copied collection may hash differently than the original
+    for (ImmuProperty property : properties) {
+      final String name = property.name().toString();
+      final String copy = copied(property, "this." + name);
+
+      if (!copy.equals("this." + name)) {
+        builder.addStatement("final $T $L = $L", TypeName.get(property.returnType()), name, copy);
+      }
+    }
+
+    builder.addStatement("int hashCode = this.$L", analyzedProperties.sourceHashCode);
+
+    for (ImmuProperty property : properties) {
+      final String name = property.name().toString();
+      final String value = copied(property, "this." + name).equals("this." + name) ? "this." + name : name;
+      final String sourceValue = sourceValue(property, analyzedProperties.source);
+
+      if (property.isPrimitive()) {
+        builder.add(hashCodeUpdate(property, sourceValue, value));
+      } else {
+        builder.beginControlFlow("if (this.$L != $L)", name, sourceValue)
+            .add(hashCodeUpdate(property, sourceValue, value))
+            .endControlFlow();
+      }
+    }
+
+    final String arguments = properties
         .stream()
         .map((p) -> p.name().toString())
-        .forEach((n) -> copierBlockBuilder.addStatement("builder." + n + "(" + "immutable." + n + "())"));
+        .collect(Collectors.joining(", "));
+
+    return builder
+        .addStatement("return $L", newObject(arguments + ", hashCode"))
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Returns the expression with the value of the property of the source, which is not copied for properties
+   * copied on access, so that it can be compared by identity with the value of the builder.
+   */
+  private static String sourceValue(ImmuProperty property, String source) {
+    return source + "." + (isCopiedOnAccess(property) ? rawName(property) : property.name()) + "()";
+  }
+
+  private CodeBlock copierCodeBlock(ClassName builderClass, AnalyzedProperties analyzedProperties) {
+    final List<ImmuProperty> properties = analyzedProperties.properties;
+
+    final CodeBlock.Builder copierBlockBuilder = CodeBlock.builder();
+
+    copierBlockBuilder.addStatement("final $T builder = new $T()", builderClass, builderClass);
+
+    final ClassName objectClass = objectClass();
+
+    // arrays copied on access are taken from the implementation without copying, so that the builder holds the
+    // same array as its source until it is replaced; they are still copied when building a new object
+    for (ImmuProperty property : properties) {
+      final String name = property.name().toString();
+
+      if (isCopiedOnAccess(property)) {
+        copierBlockBuilder.addStatement("builder.$L(immutable instanceof $T ? (($T) immutable).$L() : immutable.$L())", name, objectClass, parameterized(objectClass), rawName(property), name);
+      } else {
+        copierBlockBuilder.addStatement("builder.$L(immutable.$L())", name, name);
+      }
+    }
+
+    copierBlockBuilder.beginControlFlow("if (immutable instanceof $T)", objectClass)
+        .addStatement("builder.$L = ($T) immutable", analyzedProperties.source, objectClass);
+
+    if (isHashCodeIncremental(properties)) {
+      copierBlockBuilder.addStatement("builder.$L = builder.$L.cachedHashCode()", analyzedProperties.sourceHashCode, analyzedProperties.source);
+    }
+
+    copierBlockBuilder.endControlFlow();
 
     copierBlockBuilder.addStatement("return builder");
 
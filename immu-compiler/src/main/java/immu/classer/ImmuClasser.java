@@ -1,10 +1,39 @@
 package immu.classer;
 
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import immu.Appendables;
+import immu.Comparisons;
+import immu.Copy;
+import immu.HashMixer;
+import immu.Immu;
+import immu.ImmuOptions;
 import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
 
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -55,10 +84,697 @@ public abstract class ImmuClasser {
    * @return the name, never null
    */
   public final ClassName builderClass() {
-    return ClassName.get(className.packageName(),
-        className.simpleNames()
+    return companionClass(className, "Builder");
+  }
+
+  /**
+   * Returns the class name for the binary codec.
+   * @return the name, never null
+   */
+  public final ClassName codecClass() {
+    return companionClass(className, "Codec");
+  }
+
+  /**
+   * Returns the class name for the flyweight.
+   * @return the name, never null
+   */
+  public final ClassName flyweightClass() {
+    return companionClass(className, "Flyweight");
+  }
+
+  /**
+   * Returns the class name for the columns.
+   * @return the name, never null
+   */
+  public final ClassName columnsClass() {
+    return companionClass(className, "Columns");
+  }
+
+  /**
+   * Returns the class name for the JSON writer and reader.
+   * @return the name, never null
+   */
+  public final ClassName jsonClass() {
+    return companionClass(className, "Json");
+  }
+
+  /**
+   * Returns the class name for the comparators.
+   * @return the name, never null
+   */
+  public final ClassName comparatorsClass() {
+    return companionClass(className, "Comparators");
+  }
+
+  /**
+   * Returns the class name for the diff.
+   * @return the name, never null
+   */
+  public final ClassName diffClass() {
+    return companionClass(className, "Diff");
+  }
+
+  /**
+   * Returns the class name for the meta class.
+   * @return the name, never null
+   */
+  public final ClassName metaClass() {
+    return companionClass(className, "Meta");
+  }
+
+  /**
+   * Returns the class name for the fingerprint class.
+   * @return the name, never null
+   */
+  public final ClassName fingerprintClass() {
+    return companionClass(className, "Fingerprint");
+  }
+
+  /**
+   * Returns the class name for a generated companion class of an {@link immu.Immu} interface.
+   * @param immuClass the interface's class name, must not be null
+   * @param suffix the suffix of the companion, must not be null
+   * @return the name, never null
+   */
+  protected static ClassName companionClass(ClassName immuClass, String suffix) {
+    return ClassName.get(immuClass.packageName(),
+        immuClass.simpleNames()
             .stream()
-            .collect(Collectors.joining()) + "Builder");
+            .collect(Collectors.joining()) + suffix);
   }
-}
 
+  /**
+   * Returns all properties of the element: the declared ones first, followed by the inherited ones.
+   * This is the order of the properties in all generated classes.
+   * @param env the environment, must not be null
+   * @return the properties, never null
+   */
+  protected final List<ImmuProperty> properties(ProcessingEnvironment env) {
+    final List<ImmuProperty> declaredProperties = element.properties();
+    final List<ImmuProperty> inheritedProperties = element.superProperties(env);
+
+    final List<ImmuProperty> properties = new ArrayList<>(declaredProperties.size() + inheritedProperties.size());
+
+    properties.addAll(declaredProperties);
+    properties.addAll(inheritedProperties);
+
+    return properties;
+  }
+
+  /**
+   * Returns an expression that evaluates to an immutable object instance for the provided
+   * constructor arguments. For interned elements this is the canonical instance.
+   * @param arguments the comma-separated constructor arguments, must not be null
+   * @return the expression, never null
+   */
+  protected final CodeBlock newObject(String arguments) {
+    return newObject(arguments.isEmpty() ? CodeBlock.builder().build() : CodeBlock.of("$L", arguments));
+  }
+
+  /**
+   * Returns an expression that evaluates to an immutable object instance for the provided
+   * constructor arguments. For interned elements this is the canonical instance.
+   * @param arguments the comma-separated constructor arguments, must not be null
+   * @return the expression, never null
+   */
+  protected final CodeBlock newObject(CodeBlock arguments) {
+    final ClassName objectClass = objectClass();
+
+    if (!element.isInterned()) {
+      return CodeBlock.of("new $T($L)", objectClass, arguments);
+    }
+
+    if (arguments.isEmpty()) {
+      return CodeBlock.of("$T.INSTANCE", objectClass);
+    }
+
+    return CodeBlock.of("$T.intern(new $T($L))", objectClass, objectClass, arguments);
+  }
+
+  /**
+   * Returns the javadoc for the generated {@code hashCode()} method, according to the element's hashing strategy.
+   * @return the javadoc, never null
+   */
+  protected final CodeBlock hashCodeJavadoc() {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    switch (element.hashing()) {
+      case MIXED:
+        builder
+            .add("Computes the hash code for this object. The hash codes of all properties in {@link $T} ", className)
+            .add("are mixed in order into {@code $T.class.getCanonicalName().hashCode()} ", className)
+            .add("and the result is finalized with {@link $T}.\n", HashMixer.class);
+        break;
+
+      default:
+        builder
+            .add("Computes the hash code for this object. This is an XOR operation of the hash codes of all properties")
+            .add("in {@link $T} as well as {@code $T.class.getCanonicalName().hashCode()}.\n", className, className);
+    }
+
+    return builder
+        .add("@return the hash code\n")
+        .build();
+  }
+
+  /**
+   * Computes the hash code of the properties into a local variable {@code hashCode}, according to the element's
+   * hashing strategy. All implementations of the interface must compute the same hash code for the same values.
+   * @param properties the properties, must not be null
+   * @param accessor returns an expression with the value of a property, must not be null
+   * @return the statements, never null
+   */
+  protected final CodeBlock hashCodeComputation(List<ImmuProperty> properties, Function<ImmuProperty, String> accessor) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    final String seed = "0x" + Integer.toHexString(element.typeElement().getQualifiedName().toString().hashCode());
+
+    builder.add("// $T.class.getCanonicalName().hashCode()\n", className);
+
+    if (properties.isEmpty() && Immu.Hashing.XOR.equals(element.hashing())) {
+      return builder
+          .addStatement("final int hashCode = " + seed)
+          .build();
+    }
+
+    builder.addStatement("int hashCode = " + seed);
+
+    for (ImmuProperty property : properties) {
+      hashCodeInvocation(property, accessor.apply(property), builder, false);
+    }
+
+    if (Immu.Hashing.MIXED.equals(element.hashing())) {
+      builder.addStatement("hashCode = $T.finish(hashCode, " + properties.size() + ")", HashMixer.class);
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Checks if the hash code of an object built from another one can be updated from the cached hash code
+   * of the other one, which requires XOR hashing and a cache to carry it in.
+   * @param properties the properties, must not be null
+   * @return if the hash code can be updated
+   */
+  protected final boolean isHashCodeIncremental(List<ImmuProperty> properties) {
+    return !properties.isEmpty()
+        && Immu.Hashing.XOR.equals(element.hashing())
+        && !Immu.Caching.NONE.equals(element.caching());
+  }
+
+  /**
+   * Updates a local variable {@code hashCode} with XOR hashing, for a property whose value changed. Since the
+   * contributions are XOR-ed, adding the one of the old value again removes it, and the one of the new value is
+   * added after. The new value may be null even for a {@link immu.Required} property, which the constructor
+   * rejects afterwards.
+   * @param property the property, must not be null
+   * @param oldValue the expression with the old value, must not be null
+   * @param newValue the expression with the new value, must not be null
+   * @return the statements, never null
+   */
+  protected final CodeBlock hashCodeUpdate(ImmuProperty property, String oldValue, String newValue) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    hashCodeInvocation(property, oldValue, builder, false);
+    hashCodeInvocation(property, newValue, builder, true);
+
+    return builder.build();
+  }
+
+  private void hashCodeInvocation(ImmuProperty property, String value, CodeBlock.Builder builder, boolean nullable) {
+    final TypeKind kind = property.returnType().getKind();
+    final CodeBlock hashValue = hashValue(property, value, nullable);
+
+    if (Immu.Hashing.MIXED.equals(element.hashing())) {
+      builder.addStatement("hashCode = $T.mix(hashCode, $L)", HashMixer.class, hashValue);
+      return;
+    }
+
+    switch (kind) {
+      case LONG:
+      case DOUBLE:
+        builder.addStatement("hashCode ^= (int) ($L >> 32)", hashValue);
+        builder.addStatement("hashCode ^= (int) $L", hashValue);
+        return;
+
+      default:
+        builder.addStatement("hashCode ^= $L", hashValue);
+        return;
+    }
+  }
+
+  /**
+   * Returns an expression with the hash value of the property. This is an {@code int}
+   * for all kinds of properties except {@code long} and {@code double}, where it is a {@code long}.
+   */
+  private static CodeBlock hashValue(ImmuProperty property, String value, boolean nullable) {
+    final TypeKind kind = property.returnType().getKind();
+
+    switch (kind) {
+      case ARRAY:
+        if (isNestedArray(property)) {
+          return CodeBlock.of("$T.deepHashCode(" + value + ")", Arrays.class);
+        }
+
+        return CodeBlock.of("$T.hashCode(" + value + ")", Arrays.class);
+
+      case INT:
+      case CHAR:
+      case BYTE:
+      case SHORT:
+      case LONG:
+        return CodeBlock.of(value);
+
+      case BOOLEAN:
+        return CodeBlock.of("(" + value + "? 1 : 0)");
+
+      case FLOAT:
+        return CodeBlock.of("$T.floatToIntBits(" + value + ")", Float.class);
+
+      case DOUBLE:
+        return CodeBlock.of("$T.doubleToLongBits(" + value + ")", Double.class);
+
+      default:
+        if (property.isRequired() && !nullable) {
+          return CodeBlock.of(value + ".hashCode()");
+        }
+
+        return CodeBlock.of("$T.hashCode(" + value + ")", Objects.class);
+    }
+  }
+
+  /**
+   * Compares the properties with the ones of a local variable {@code immuObject} of the interface's type,
+   * and returns whether they are all equal.
+   * @param properties the properties, must not be null
+   * @param accessor returns an expression with the value of a property, must not be null
+   * @return the statements, never null
+   */
+  protected final CodeBlock propertiesEqualBlock(List<ImmuProperty> properties, Function<ImmuProperty, String> accessor) {
+    return propertiesEqualBlock(properties, accessor, (p) -> "immuObject." + p.name() + "()");
+  }
+
+  /**
+   * Compares the properties of two objects in the provided order, and returns whether they are all equal.
+   * @param properties the properties, in the order they should be compared, must not be null
+   * @param accessor returns an expression with the value of a property, must not be null
+   * @param otherAccessor returns an expression with the value of a property of the other object, must not be null
+   * @return the statements, never null
+   */
+  protected final CodeBlock propertiesEqualBlock(List<ImmuProperty> properties, Function<ImmuProperty, String> accessor, Function<ImmuProperty, String> otherAccessor) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    properties.forEach((p) -> {
+      final String equalsInvocation = notEqualsInvocation(p, accessor.apply(p), otherAccessor.apply(p));
+
+      builder.beginControlFlow("if (" + equalsInvocation + ")");
+      builder.addStatement("return false");
+      builder.endControlFlow();
+    });
+
+    builder.addStatement("return true");
+
+    return builder.build();
+  }
+
+  /**
+   * Checks if the property is an array of arrays, which are compared and hashed by content with
+   * {@link Arrays#deepEquals(Object[], Object[])} and {@link Arrays#deepHashCode(Object[])}.
+   */
+  private static boolean isNestedArray(ImmuProperty property) {
+    return TypeKind.ARRAY.equals(((ArrayType) property.returnType()).getComponentType().getKind());
+  }
+
+  /**
+   * Returns the name of the property in upper case with underscores between words, for constants such as
+   * {@code UNIT_PRICE}.
+   * @param property the property, must not be null
+   * @return the name, never null
+   */
+  protected static String upperCaseName(ImmuProperty property) {
+    return property.name().toString().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * Checks if the accessor of the property returns a copy. Copies of collections are unmodifiable, so only
+   * arrays are copied on access.
+   * @param property the property, must not be null
+   * @return if the property is copied on access
+   */
+  protected static boolean isCopiedOnAccess(ImmuProperty property) {
+    return Copy.Policy.ON_CONSTRUCTION_AND_ACCESS.equals(property.copyPolicy()) && TypeKind.ARRAY.equals(property.returnType().getKind());
+  }
+
+  /**
+   * Returns an expression with a copy of the value of an array or collection property whose {@link Copy.Policy}
+   * is not {@link Copy.Policy#TRUSTED}, and the value itself otherwise.
+   * @param property the property, must not be null
+   * @param value the expression with the value, must not be null
+   * @return the expression, never null
+   */
+  protected static String copied(ImmuProperty property, String value) {
+    if (Copy.Policy.TRUSTED.equals(property.copyPolicy())) {
+      return value;
+    }
+
+    return "immu.Copies.copy(" + value + ")";
+  }
+
+  /**
+   * Returns the read-only buffer type through which the property can be viewed without copying. These are
+   * single-dimensional arrays of primitives other than {@code boolean} that are copied on construction.
+   * @param property the property, must not be null
+   * @return the buffer type, or null if the property has no view
+   */
+  protected static Class<? extends Buffer> viewType(ImmuProperty property) {
+    if (Copy.Policy.TRUSTED.equals(property.copyPolicy()) || !TypeKind.ARRAY.equals(property.returnType().getKind())) {
+      return null;
+    }
+
+    switch (((ArrayType) property.returnType()).getComponentType().getKind()) {
+      case BYTE:
+        return ByteBuffer.class;
+
+      case CHAR:
+        return CharBuffer.class;
+
+      case SHORT:
+        return ShortBuffer.class;
+
+      case INT:
+        return IntBuffer.class;
+
+      case LONG:
+        return LongBuffer.class;
+
+      case FLOAT:
+        return FloatBuffer.class;
+
+      case DOUBLE:
+        return DoubleBuffer.class;
+
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Returns the name of the method with the read-only view of the property, such as {@code valuesView}.
+   * @param property the property, must not be null
+   * @return the method name, never null
+   */
+  protected static String viewName(ImmuProperty property) {
+    return property.name() + "View";
+  }
+
+  /**
+   * Returns the name of the package-private method of the implementation that returns the array of a
+   * property copied on access without copying it.
+   * @see #isCopiedOnAccess(ImmuProperty)
+   * @param property the property, must not be null
+   * @return the method name, never null
+   */
+  protected static String rawName(ImmuProperty property) {
+    return property.name() + "Raw";
+  }
+
+  /**
+   * Returns a condition that holds if the values of the property differ, in the sense of {@link Object#equals(Object)}
+   * of the generated implementation.
+   * @param property the property, must not be null
+   * @param a the expression with one value, must not be null
+   * @param b the expression with the other value, must not be null
+   * @return the condition, never null
+   */
+  protected static String notEqualsInvocation(ImmuProperty property, String a, String b) {
+    switch (property.returnType().getKind()) {
+      case DECLARED:
+        if (property.isRequired()) {
+          return "!" + a + ".equals(" + b + ")";
+        }
+
+        return "!java.util.Objects.equals(" + a + ", " + b + ")";
+
+      case ARRAY:
+        if (isNestedArray(property)) {
+          return "!java.util.Arrays.deepEquals(" + a + ", " + b + ")";
+        }
+
+        return "!java.util.Arrays.equals(" + a + ", " + b + ")";
+
+      // by bits like the hash code, so that 0.0 and -0.0 differ and NaN equals itself
+      case FLOAT:
+        return "Float.floatToIntBits(" + a + ") != Float.floatToIntBits(" + b + ")";
+
+      case DOUBLE:
+        return "Double.doubleToLongBits(" + a + ") != Double.doubleToLongBits(" + b + ")";
+
+      default:
+        return a + " != " + b;
+    }
+  }
+
+  /**
+   * Compares the properties of two objects in the provided order, and returns the first result that is
+   * not zero. The properties must be primitives or {@link Comparable}.
+   * @param properties the properties, in the order they should be compared, must not be null
+   * @param accessor returns an expression with the value of a property, must not be null
+   * @param otherAccessor returns an expression with the value of a property of the other object, must not be null
+   * @return the statements, never null
+   */
+  protected static CodeBlock propertiesCompareBlock(List<ImmuProperty> properties, Function<ImmuProperty, String> accessor, Function<ImmuProperty, String> otherAccessor) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    if (properties.isEmpty()) {
+      return builder.addStatement("return 0").build();
+    }
+
+    for (int i = 0; i < properties.size() - 1; i++) {
+      final ImmuProperty property = properties.get(i);
+
+      builder.addStatement((0 == i ? "int " : "") + "comparison = $L", compareInvocation(property, accessor.apply(property), otherAccessor.apply(property)));
+      builder.beginControlFlow("if (0 != comparison)");
+      builder.addStatement("return comparison");
+      builder.endControlFlow();
+    }
+
+    final ImmuProperty last = properties.get(properties.size() - 1);
+
+    return builder
+        .addStatement("return $L", compareInvocation(last, accessor.apply(last), otherAccessor.apply(last)))
+        .build();
+  }
+
+  private static CodeBlock compareInvocation(ImmuProperty property, String a, String b) {
+    final TypeMirror type = property.returnType();
+
+    if (type.getKind().isPrimitive()) {
+      return CodeBlock.of("$T.compare(" + a + ", " + b + ")", TypeName.get(type).box());
+    }
+
+    return CodeBlock.of("$T.compare(" + a + ", " + b + ")", Comparisons.class);
+  }
+
+  /**
+   * Estimates the length of the string representation, so that the buffer is not resized in the
+   * common case.
+   * @param properties the properties, must not be null
+   * @return the estimated length
+   */
+  protected final int toStringCapacity(List<ImmuProperty> properties) {
+    // Name@@0abcdefa{  }
+    int capacity = className().simpleName().length() + 14;
+
+    for (ImmuProperty property : properties) {
+      // name = <...>, 
+      capacity += property.name().length() + 7;
+
+      switch (property.returnType().getKind()) {
+        case BOOLEAN:
+          capacity += 5;
+          break;
+
+        case CHAR:
+          capacity += 1;
+          break;
+
+        case BYTE:
+        case SHORT:
+          capacity += 6;
+          break;
+
+        case INT:
+        case FLOAT:
+          capacity += 11;
+          break;
+
+        case LONG:
+        case DOUBLE:
+          capacity += 20;
+          break;
+
+        default:
+          // value and @0abcdefa
+          capacity += 32 + 9;
+      }
+    }
+
+    return capacity;
+  }
+
+  /**
+   * Appends the string representation of the object to a local variable {@code appendable}.
+   * @param env the environment, must not be null
+   * @param properties the properties, must not be null
+   * @param accessor returns an expression with the value of a property, must not be null
+   * @return the statements, never null
+   */
+  protected final CodeBlock appendToBlock(ProcessingEnvironment env, List<ImmuProperty> properties, Function<ImmuProperty, String> accessor) {
+    final CodeBlock.Builder builder = CodeBlock.builder()
+          .addStatement("appendable.append(\"$T@\")", className)
+          .addStatement("$T.appendIdentity(appendable, this)", Appendables.class);
+
+    if (properties.isEmpty()) {
+      builder.addStatement("appendable.append($S)", "{  }");
+    } else {
+      builder.addStatement("appendable.append($S)", "{ ");
+      appendToInvocation(env, builder, properties.get(0), accessor.apply(properties.get(0)));
+
+      properties
+          .stream()
+          .skip(1)
+          .forEach((p) -> {
+            builder.addStatement("appendable.append($S)", ", ");
+            appendToInvocation(env, builder, p, accessor.apply(p));
+          });
+
+      builder.addStatement("appendable.append($S)", " }");
+    }
+
+    return builder.build();
+  }
+
+  private void appendToInvocation(ProcessingEnvironment env, CodeBlock.Builder builder, ImmuProperty p, String value) {
+    final String name = p.name().toString();
+
+    builder.addStatement("appendable.append($S)", name + " = ");
+
+    if (p.isPrimitive()) {
+      builder.addStatement("appendable.append('<')");
+      builder.addStatement("$T.appendValue(appendable, " + value + ")", Appendables.class);
+      builder.addStatement("appendable.append('>')");
+      return;
+    }
+
+    if (!p.isRequired()) {
+      builder.beginControlFlow("if (null != " + value + ")");
+    }
+
+    builder.addStatement("appendable.append('<')");
+
+    final CodeBlock limit = toStringLimit(env) < 0 ? CodeBlock.of("$T.MAX_VALUE", Integer.class) : CodeBlock.of(Integer.toString(toStringLimit(env)));
+
+    if (TypeKind.ARRAY.equals(p.returnType().getKind())) {
+      builder.addStatement("$T.appendArray(appendable, " + value + ", $L)", Appendables.class, limit);
+    } else if (p.isCollection(env)) {
+      builder.addStatement("$T.appendCollection(appendable, " + value + ", $L)", Appendables.class, limit);
+    } else if (p.isMap(env)) {
+      builder.addStatement("$T.appendMap(appendable, " + value + ", $L)", Appendables.class, limit);
+    } else {
+      builder.addStatement("$T.appendValue(appendable, " + value + ")", Appendables.class);
+    }
+
+    builder.addStatement("appendable.append('>')");
+    builder.addStatement("$T.appendIdentity(appendable, " + value + ")", Appendables.class);
+
+    if (!p.isRequired()) {
+      builder.nextControlFlow("else");
+      builder.addStatement("appendable.append($S)", "@null");
+      builder.endControlFlow();
+    }
+  }
+
+  /**
+   * Returns the maximal number of elements of array, collection or map properties in string representations.
+   * @param env the environment, must not be null
+   * @return the limit, negative if there is none
+   */
+  protected final int toStringLimit(ProcessingEnvironment env) {
+    final int limit = element.toStringLimit();
+
+    return limit >= 0 ? limit : ImmuOptions.toStringLimit(env);
+  }
+
+  /**
+   * The kinds of property values that generated encoders distinguish.
+   */
+  protected enum Kind {
+    PRIMITIVE,
+    PRIMITIVE_ARRAY,
+    STRING,
+    ENUM,
+    IMMU,
+    ARRAY
+  }
+
+  /**
+   * Returns the kind of a type that passed {@link ImmuObjectElement#isCodecSupported(ProcessingEnvironment, TypeMirror)}
+   * or a similar check.
+   * @param type the type, must not be null
+   * @return the kind, never null
+   */
+  protected static Kind kind(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return Kind.PRIMITIVE;
+    }
+
+    if (TypeKind.ARRAY.equals(type.getKind())) {
+      return ((ArrayType) type).getComponentType().getKind().isPrimitive() ? Kind.PRIMITIVE_ARRAY : Kind.ARRAY;
+    }
+
+    final TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+
+    if (ElementKind.ENUM.equals(typeElement.getKind())) {
+      return Kind.ENUM;
+    }
+
+    if (ElementKind.INTERFACE.equals(typeElement.getKind())) {
+      return Kind.IMMU;
+    }
+
+    return Kind.STRING;
+  }
+
+  /**
+   * Returns an array creation expression, such as {@code new String[length][]}.
+   * @param env the environment, must not be null
+   * @param type the array type, must not be null
+   * @param length the expression for the length, must not be null
+   * @return the expression, never null
+   */
+  protected static CodeBlock newArray(ProcessingEnvironment env, TypeMirror type, String length) {
+    final StringBuilder dimensions = new StringBuilder();
+
+    TypeMirror elementType = ((ArrayType) type).getComponentType();
+
+    while (TypeKind.ARRAY.equals(elementType.getKind())) {
+      dimensions.append("[]");
+      elementType = ((ArrayType) elementType).getComponentType();
+    }
+
+    final TypeName elementTypeName = elementType.getKind().isPrimitive() ? TypeName.get(elementType) : erasure(env, elementType);
+
+    return CodeBlock.of("new $T[$L]$L", elementTypeName, length, dimensions);
+  }
+
+  /**
+   * Returns the name of the erasure of the type.
+   * @param env the environment, must not be null
+   * @param type the type, must not be null
+   * @return the name, never null
+   */
+  protected static TypeName erasure(ProcessingEnvironment env, TypeMirror type) {
+    return TypeName.get(env.getTypeUtils().erasure(type));
+  }
+}
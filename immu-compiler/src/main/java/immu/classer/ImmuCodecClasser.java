@@ -0,0 +1,479 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.Codecs;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the class for the binary codec.
+ *
+ * @see #codecClass()
+ */
+public class ImmuCodecClasser extends ImmuClasser {
+
+  /**
+   * Per-generation state: the names of local variables and the enum constant caches.
+   */
+  private static final class Context {
+    private final ProcessingEnvironment env;
+    private final Map<TypeName, String> enumValues = new LinkedHashMap<>();
+    private final Set<String> locals = new HashSet<>();
+
+    private int count;
+
+    private Context(ProcessingEnvironment env) {
+      this.env = env;
+    }
+
+    private String local(String prefix) {
+      String local;
+
+      do {
+        local = prefix + (count++);
+      } while (!locals.add(local));
+
+      return local;
+    }
+
+    private String enumValues(TypeName enumType) {
+      return enumValues.computeIfAbsent(enumType, (t) -> {
+        final String simpleName = ((ClassName) t).simpleNames()
+            .stream()
+            .map((n) -> n.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT))
+            .collect(Collectors.joining("_"));
+
+        final String name = simpleName + "_VALUES";
+
+        return enumValues.containsValue(name) ? name + "_" + enumValues.size() : name;
+      });
+    }
+  }
+
+  /**
+   * Create a codec classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuCodecClasser from(ImmuObjectElement element) {
+    return new ImmuCodecClasser(element);
+  }
+
+  ImmuCodecClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+    final ClassName codecClass = codecClass();
+
+    final List<ImmuProperty> properties = properties(env);
+
+    final Context context = new Context(env);
+
+    final MethodSpec encodedSize = encodedSize(context, properties);
+    final MethodSpec writeTo = writeTo(context, properties);
+    final MethodSpec readFrom = readFrom(context, properties);
+
+    final List<FieldSpec> enumValues = context.enumValues.entrySet()
+        .stream()
+        .map((e) -> FieldSpec.builder(ArrayTypeName.of(e.getKey()), e.getValue(), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$T.values()", e.getKey())
+            .build())
+        .collect(Collectors.toList());
+
+    return TypeSpec.classBuilder(codecClass)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addFields(enumValues)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .build())
+        .addMethod(encodedSize)
+        .addMethod(writeTo)
+        .addMethod(readFrom)
+        .addJavadoc(CodeBlock.builder()
+            .add("A binary codec for {@link $T}.\n", immuClass)
+            .add("<p>\nProperties are written in declaration order, followed by the inherited properties. Primitives are\n")
+            .add("written in the buffer's byte order, enums as their ordinal, strings and arrays as in {@link $T}, and\n", Codecs.class)
+            .add("nested objects with their own codec, prefixed by a presence byte unless the property is required.\n")
+            .add("<p>\nThe encoding depends on the order of properties and enum constants, so both ends must use the same\n")
+            .add("version of {@link $T}.\n", immuClass)
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private MethodSpec encodedSize(Context context, List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    int fixed = 0;
+
+    for (ImmuProperty property : properties) {
+      final TypeMirror type = property.returnType();
+      final String getter = "immutable." + property.name() + "()";
+
+      switch (kind(type)) {
+        case PRIMITIVE:
+          fixed += primitiveSize(type.getKind());
+          break;
+
+        case ENUM:
+          fixed += 4;
+          break;
+
+        default:
+          sizeOf(context, builder, type, getter, !property.isRequired());
+      }
+    }
+
+    final CodeBlock variable = builder.build();
+
+    final MethodSpec.Builder method = MethodSpec.methodBuilder("encodedSize")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(TypeName.INT)
+        .addParameter(immuClass, "immutable")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the exact number of bytes that {@link #writeTo($T, $T)} will write.\n", immuClass, ByteBuffer.class)
+            .add("@param immutable the object, must not be null\n")
+            .add("@return the number of bytes\n")
+            .build());
+
+    if (variable.isEmpty()) {
+      return method
+          .addStatement("return " + fixed)
+          .build();
+    }
+
+    return method
+        .addStatement("int size = " + fixed)
+        .addCode(variable)
+        .addStatement("return size")
+        .build();
+  }
+
+  private MethodSpec writeTo(Context context, List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    for (ImmuProperty property : properties) {
+      write(context, builder, property.returnType(), "immutable." + property.name() + "()", !property.isRequired());
+    }
+
+    return MethodSpec.methodBuilder("writeTo")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .addParameter(immuClass, "immutable")
+        .addParameter(ByteBuffer.class, "buffer")
+        .addCode(builder.build())
+        .addJavadoc(CodeBlock.builder()
+            .add("Writes the object at the buffer's position, and advances the position past it.\n")
+            .add("@see #encodedSize($T)\n", immuClass)
+            .add("@param immutable the object, must not be null\n")
+            .add("@param buffer the buffer, must have at least {@link #encodedSize($T)} bytes remaining\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private MethodSpec readFrom(Context context, List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+
+    final CodeBlock.Builder builder = CodeBlock.builder();
+    final List<String> locals = new ArrayList<>();
+
+    for (ImmuProperty property : properties) {
+      final TypeMirror type = property.returnType();
+      final CodeBlock value = read(context, builder, type, !property.isRequired());
+      // numbered like the other locals, so that it clashes neither with them nor with the parameter
+      final String local = context.local(property.name().toString());
+
+      builder.addStatement("final $T $L = $L", TypeName.get(type), local, value);
+      locals.add(local);
+    }
+
+    final String arguments = String.join(", ", locals);
+
+    return MethodSpec.methodBuilder("readFrom")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(immuClass)
+        .addParameter(ByteBuffer.class, "buffer")
+        .addCode(builder.build())
+        .addStatement("return $L", newObject(arguments))
+        .addJavadoc(CodeBlock.builder()
+            .add("Reads an object at the buffer's position, and advances the position past it.\n")
+            .add("@param buffer the buffer, must not be null\n")
+            .add(element.isInterned() ? "@return the canonical immutable object instance, never null\n" : "@return a new immutable object instance, never null\n")
+            .add("@throws $T if the buffer ends before the object\n", BufferUnderflowException.class)
+            .add("@throws $T if an enum ordinal does not belong to a constant\n", IllegalArgumentException.class)
+            .build())
+        .build();
+  }
+
+  private void sizeOf(Context context, CodeBlock.Builder builder, TypeMirror type, String value, boolean nullable) {
+    switch (kind(type)) {
+      case PRIMITIVE:
+        builder.addStatement("size += " + primitiveSize(type.getKind()));
+        break;
+
+      case ENUM:
+        builder.addStatement("size += 4");
+        break;
+
+      case PRIMITIVE_ARRAY:
+      case STRING:
+        builder.addStatement("size += $T.sizeOf($L)", Codecs.class, value);
+        break;
+
+      case IMMU:
+        if (nullable) {
+          final String nested = local(context, builder, type, value, "nested");
+
+          builder.addStatement("size += null == $L ? 1 : 1 + $T.encodedSize($L)", nested, nestedCodecClass(type), nested);
+        } else {
+          builder.addStatement("size += $T.encodedSize($L)", nestedCodecClass(type), value);
+        }
+        break;
+
+      case ARRAY:
+        final TypeMirror componentType = ((ArrayType) type).getComponentType();
+        final String array = context.local("array");
+        final String component = context.local("component");
+
+        builder.addStatement("final $T $L = $L", TypeName.get(type), array, value);
+        builder.addStatement("size += 4");
+        builder.beginControlFlow("if (null != $L)", array);
+
+        if (Kind.ENUM.equals(kind(componentType))) {
+          builder.addStatement("size += 4 * $L.length", array);
+        } else {
+          builder.beginControlFlow("for ($T $L : $L)", TypeName.get(componentType), component, array);
+          sizeOf(context, builder, componentType, component, true);
+          builder.endControlFlow();
+        }
+
+        builder.endControlFlow();
+        break;
+    }
+  }
+
+  private void write(Context context, CodeBlock.Builder builder, TypeMirror type, String value, boolean nullable) {
+    switch (kind(type)) {
+      case PRIMITIVE:
+        builder.addStatement(primitivePut(type.getKind()), value);
+        break;
+
+      case ENUM:
+        if (nullable) {
+          final String constant = local(context, builder, type, value, "constant");
+
+          builder.addStatement("buffer.putInt(null == $L ? -1 : $L.ordinal())", constant, constant);
+        } else {
+          builder.addStatement("buffer.putInt($L.ordinal())", value);
+        }
+        break;
+
+      case PRIMITIVE_ARRAY:
+      case STRING:
+        builder.addStatement("$T.put(buffer, $L)", Codecs.class, value);
+        break;
+
+      case IMMU:
+        if (nullable) {
+          final String nested = local(context, builder, type, value, "nested");
+
+          builder.beginControlFlow("if (null == $L)", nested);
+          builder.addStatement("buffer.put((byte) 0)");
+          builder.nextControlFlow("else");
+          builder.addStatement("buffer.put((byte) 1)");
+          builder.addStatement("$T.writeTo($L, buffer)", nestedCodecClass(type), nested);
+          builder.endControlFlow();
+        } else {
+          builder.addStatement("$T.writeTo($L, buffer)", nestedCodecClass(type), value);
+        }
+        break;
+
+      case ARRAY:
+        final TypeMirror componentType = ((ArrayType) type).getComponentType();
+        final String array = context.local("array");
+        final String component = context.local("component");
+
+        builder.addStatement("final $T $L = $L", TypeName.get(type), array, value);
+        builder.beginControlFlow("if (null == $L)", array);
+        builder.addStatement("buffer.putInt(-1)");
+        builder.nextControlFlow("else");
+        builder.addStatement("buffer.putInt($L.length)", array);
+        builder.beginControlFlow("for ($T $L : $L)", TypeName.get(componentType), component, array);
+        write(context, builder, componentType, component, true);
+        builder.endControlFlow();
+        builder.endControlFlow();
+        break;
+    }
+  }
+
+  /**
+   * Stores the value in a local variable if it is a property getter invocation.
+   * @return the name of the variable holding the value
+   */
+  private static String local(Context context, CodeBlock.Builder builder, TypeMirror type, String value, String prefix) {
+    if (!value.endsWith("()")) {
+      return value;
+    }
+
+    final String local = context.local(prefix);
+
+    builder.addStatement("final $T $L = $L", TypeName.get(type), local, value);
+
+    return local;
+  }
+
+  /**
+   * Adds the statements needed to read a value of the type to the builder.
+   * @return an expression for the value, valid after the added statements
+   */
+  private CodeBlock read(Context context, CodeBlock.Builder builder, TypeMirror type, boolean nullable) {
+    switch (kind(type)) {
+      case PRIMITIVE:
+        return CodeBlock.of(primitiveGet(type.getKind()));
+
+      case ENUM:
+        return CodeBlock.of("$T.getConstant(buffer, $L)", Codecs.class, context.enumValues(erasure(context.env, type)));
+
+      case PRIMITIVE_ARRAY:
+        final String componentName = ((ArrayType) type).getComponentType().getKind().name();
+
+        return CodeBlock.of("$T.get$L$LArray(buffer)", Codecs.class, componentName.charAt(0), componentName.substring(1).toLowerCase());
+
+      case STRING:
+        return CodeBlock.of("$T.getString(buffer)", Codecs.class);
+
+      case IMMU:
+        if (nullable) {
+          return CodeBlock.of("0 == buffer.get() ? null : $T.readFrom(buffer)", nestedCodecClass(type));
+        }
+
+        return CodeBlock.of("$T.readFrom(buffer)", nestedCodecClass(type));
+
+      case ARRAY:
+        final TypeMirror componentType = ((ArrayType) type).getComponentType();
+        final String array = context.local("array");
+        final String length = context.local("length");
+        final String index = context.local("index");
+
+        builder.addStatement("final int $L = buffer.getInt()", length);
+        // every element takes at least one byte, so a longer array can not be in the buffer
+        builder.beginControlFlow("if ($L > buffer.remaining())", length)
+            .addStatement("throw new $T()", BufferUnderflowException.class)
+            .endControlFlow();
+        builder.addStatement("final $T $L = $L < 0 ? null : $L", TypeName.get(type), array, length, newArray(context.env, type, length));
+        builder.beginControlFlow("for (int $L = 0; $L < $L; $L++)", index, index, length, index);
+
+        final CodeBlock component = read(context, builder, componentType, true);
+
+        builder.addStatement("$L[$L] = $L", array, index, component);
+        builder.endControlFlow();
+
+        return CodeBlock.of("$L", array);
+    }
+
+    throw new IllegalArgumentException(type.toString());
+  }
+
+  private static ClassName nestedCodecClass(TypeMirror type) {
+    return companionClass(ClassName.get((TypeElement) ((DeclaredType) type).asElement()), "Codec");
+  }
+
+  private static int primitiveSize(TypeKind kind) {
+    switch (kind) {
+      case BOOLEAN:
+      case BYTE:
+        return 1;
+
+      case SHORT:
+      case CHAR:
+        return 2;
+
+      case INT:
+      case FLOAT:
+        return 4;
+
+      default:
+        return 8;
+    }
+  }
+
+  private static String primitivePut(TypeKind kind) {
+    switch (kind) {
+      case BOOLEAN:
+        return "buffer.put((byte) ($L ? 1 : 0))";
+
+      case BYTE:
+        return "buffer.put($L)";
+
+      case SHORT:
+        return "buffer.putShort($L)";
+
+      case CHAR:
+        return "buffer.putChar($L)";
+
+      case INT:
+        return "buffer.putInt($L)";
+
+      case LONG:
+        return "buffer.putLong($L)";
+
+      case FLOAT:
+        return "buffer.putFloat($L)";
+
+      default:
+        return "buffer.putDouble($L)";
+    }
+  }
+
+  private static String primitiveGet(TypeKind kind) {
+    switch (kind) {
+      case BOOLEAN:
+        return "0 != buffer.get()";
+
+      case BYTE:
+        return "buffer.get()";
+
+      case SHORT:
+        return "buffer.getShort()";
+
+      case CHAR:
+        return "buffer.getChar()";
+
+      case INT:
+        return "buffer.getInt()";
+
+      case LONG:
+        return "buffer.getLong()";
+
+      case FLOAT:
+        return "buffer.getFloat()";
+
+      default:
+        return "buffer.getDouble()";
+    }
+  }
+}
@@ -0,0 +1,472 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the class for the columns.
+ *
+ * @see #columnsClass()
+ */
+public class ImmuColumnsClasser extends ImmuClasser {
+
+  /** Accesses the values of properties through the getters of the cursor. */
+  private static final Function<ImmuProperty, String> THIS_GETTER = (p) -> "this." + p.name() + "()";
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * Create a columns classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuColumnsClasser from(ImmuObjectElement element) {
+    return new ImmuColumnsClasser(element);
+  }
+
+  ImmuColumnsClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+    final ClassName columnsClass = columnsClass();
+    final ClassName cursorClass = columnsClass.nestedClass("Cursor");
+
+    final List<ImmuProperty> properties = properties(env);
+
+    final List<FieldSpec> columns = properties
+        .stream()
+        .map((p) -> FieldSpec.builder(columnType(env, p.returnType()), column(p), Modifier.PRIVATE).build())
+        .collect(Collectors.toList());
+
+    final List<MethodSpec> columnAccessors = new ArrayList<>();
+
+    for (ImmuProperty property : properties) {
+      final String name = property.name().toString();
+
+      columnAccessors.add(MethodSpec.methodBuilder(name + "At")
+          .addModifiers(Modifier.PUBLIC)
+          .addAnnotations(uncheckedSuppression(env, Collections.singletonList(property)))
+          .returns(TypeName.get(property.returnType()))
+          .addParameter(int.class, "index")
+          .addStatement("checkIndex(index)")
+          .addStatement("return $L", accessed(env, property, "this", "index"))
+          .addJavadoc(CodeBlock.builder()
+              .add("Returns the value of {@link $T#" + name + "()} of the instance at the index.\n", immuClass)
+              .add("@param index the index, must be less than {@link #size()}\n")
+              .add("@return the value\n")
+              .add("@throws $T if the index is out of bounds\n", IndexOutOfBoundsException.class)
+              .build())
+          .build());
+
+      columnAccessors.add(MethodSpec.methodBuilder(name + "Column")
+          .addModifiers(Modifier.PUBLIC)
+          .returns(columnType(env, property.returnType()))
+          .addStatement("return this." + column(property))
+          .addJavadoc(CodeBlock.builder()
+              .add("Returns the column that holds the values of {@link $T#" + name + "()}, for scanning many instances.\n", immuClass)
+              .add("<p>\nThis is the array backing this object, not a copy. Only the first {@link #size()} elements are\n")
+              .add("valid, it must not be modified, and it is replaced when this object grows or is trimmed.\n")
+              .add("@return the column, never null\n")
+              .build())
+          .build());
+    }
+
+    return TypeSpec.classBuilder(columnsClass)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addField(int.class, "size", Modifier.PRIVATE)
+        .addField(int.class, "capacity", Modifier.PRIVATE)
+        .addFields(columns)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addStatement("this(" + DEFAULT_CAPACITY + ")")
+            .addJavadoc("Creates empty columns.\n")
+            .build())
+        .addMethod(constructor(env, properties))
+        .addMethod(MethodSpec.methodBuilder("from")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(columnsClass)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class), WildcardTypeName.subtypeOf(immuClass)), "immutables")
+            .addStatement("final $T columns = new $T(immutables instanceof $T ? (($T<?>) immutables).size() : " + DEFAULT_CAPACITY + ")", columnsClass, columnsClass, Collection.class, Collection.class)
+            .addStatement("return columns.appendAll(immutables)")
+            .addJavadoc(CodeBlock.builder()
+                .add("Creates columns that hold all of the provided instances, in iteration order.\n")
+                .add("@param immutables the instances, must not be null and must not contain null\n")
+                .add("@return the columns, never null\n")
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("size")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addStatement("return this.size")
+            .addJavadoc(CodeBlock.builder()
+                .add("Returns the number of instances held.\n")
+                .add("@return the number of instances\n")
+                .build())
+            .build())
+        .addMethod(append(properties))
+        .addMethod(MethodSpec.methodBuilder("appendAll")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(columnsClass)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class), WildcardTypeName.subtypeOf(immuClass)), "immutables")
+            .beginControlFlow("if (immutables instanceof $T)", Collection.class)
+            .addStatement("ensureCapacity(this.size + (($T<?>) immutables).size())", Collection.class)
+            .endControlFlow()
+            .beginControlFlow("for ($T immutable : immutables)", immuClass)
+            .addStatement("append(immutable)")
+            .endControlFlow()
+            .addStatement("return this")
+            .addJavadoc(CodeBlock.builder()
+                .add("Appends all of the provided instances, in iteration order.\n")
+                .add("@param immutables the instances, must not be null and must not contain null\n")
+                .add("@return these columns, for chaining\n")
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("get")
+            .addModifiers(Modifier.PUBLIC)
+            .addAnnotations(uncheckedSuppression(env, properties))
+            .returns(immuClass)
+            .addParameter(int.class, "index")
+            .addStatement("checkIndex(index)")
+            .addStatement("return $L", newObject(arguments(env, properties)))
+            .addJavadoc(CodeBlock.builder()
+                .add("Returns the instance at the index as an immutable object.\n")
+                .add("@see #cursor()\n")
+                .add("@param index the index, must be less than {@link #size()}\n")
+                .add(element.isInterned() ? "@return the canonical immutable object instance, never null\n" : "@return a new immutable object instance, never null\n")
+                .add("@throws $T if the index is out of bounds\n", IndexOutOfBoundsException.class)
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("cursor")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(cursorClass)
+            .addStatement("return new $T(this)", cursorClass)
+            .addJavadoc(CodeBlock.builder()
+                .add("Returns a new cursor at index 0. The cursor can be moved over all instances, without creating\n")
+                .add("an object for each of them.\n")
+                .add("@return the cursor, never null\n")
+                .build())
+            .build())
+        .addMethods(columnAccessors)
+        .addMethod(trimToSize(properties))
+        .addMethod(ensureCapacity(properties))
+        .addMethod(MethodSpec.methodBuilder("checkIndex")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(int.class, "index")
+            .beginControlFlow("if (index < 0 || index >= this.size)")
+            .addStatement("throw new $T(\"Index \" + index + \" is out of bounds for size \" + this.size)", IndexOutOfBoundsException.class)
+            .endControlFlow()
+            .build())
+        .addType(cursor(env, properties))
+        .addJavadoc(CodeBlock.builder()
+            .add("Holds many instances of {@link $T} as one array per property.\n", immuClass)
+            .add("<p>\nCompared to a collection of {@link $T} objects, this saves the object headers and cached values\n", objectClass())
+            .add("of every instance, and keeps the values of each property next to each other in memory. Use the\n")
+            .add("{@code Column()} methods to scan a property of all instances.\n")
+            .add("<p>\nThis class is not thread-safe.\n")
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private MethodSpec constructor(ProcessingEnvironment env, List<ImmuProperty> properties) {
+    final MethodSpec.Builder builder = MethodSpec.constructorBuilder()
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(int.class, "capacity")
+        .beginControlFlow("if (capacity < 0)")
+        .addStatement("throw new $T(\"Capacity must not be negative: \" + capacity)", IllegalArgumentException.class)
+        .endControlFlow()
+        .addStatement("this.capacity = capacity");
+
+    properties.forEach((p) -> builder.addStatement("this.$L = $L", column(p), newColumn(env, p.returnType(), "capacity")));
+
+    return builder
+        .addJavadoc(CodeBlock.builder()
+            .add("Creates empty columns with room for some instances.\n")
+            .add("@param capacity the number of instances to make room for, must not be negative\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec append(List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("append")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(columnsClass())
+        .addParameter(immuClass, "immutable")
+        .beginControlFlow("if (this.size == this.capacity)")
+        .addStatement("ensureCapacity(this.size + 1)")
+        .endControlFlow()
+        .addStatement("final int index = this.size");
+
+    properties.forEach((p) -> builder.addStatement("this.$L[index] = immutable.$L()", column(p), p.name()));
+
+    return builder
+        .addStatement("this.size = index + 1")
+        .addStatement("return this")
+        .addJavadoc(CodeBlock.builder()
+            .add("Appends the values of the instance.\n")
+            .add("@param immutable the instance, must not be null\n")
+            .add("@return these columns, for chaining\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec trimToSize(List<ImmuProperty> properties) {
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("trimToSize")
+        .addModifiers(Modifier.PUBLIC)
+        .beginControlFlow("if (this.size == this.capacity)")
+        .addStatement("return")
+        .endControlFlow();
+
+    properties.forEach((p) -> builder.addStatement("this.$L = $T.copyOf(this.$L, this.size)", column(p), Arrays.class, column(p)));
+
+    return builder
+        .addStatement("this.capacity = this.size")
+        .addJavadoc("Releases the memory held for instances that have not been appended yet.\n")
+        .build();
+  }
+
+  private MethodSpec ensureCapacity(List<ImmuProperty> properties) {
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("ensureCapacity")
+        .addModifiers(Modifier.PRIVATE)
+        .addParameter(int.class, "minimum")
+        .beginControlFlow("if (minimum <= this.capacity)")
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("final int capacity = $T.max(minimum, this.capacity + (this.capacity >> 1) + 1)", Math.class);
+
+    properties.forEach((p) -> builder.addStatement("this.$L = $T.copyOf(this.$L, capacity)", column(p), Arrays.class, column(p)));
+
+    return builder
+        .addStatement("this.capacity = capacity")
+        .build();
+  }
+
+  private TypeSpec cursor(ProcessingEnvironment env, List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+    final ClassName columnsClass = columnsClass();
+    final ClassName cursorClass = columnsClass.nestedClass("Cursor");
+
+    final List<MethodSpec> getters = properties
+        .stream()
+        .map((p) -> MethodSpec.methodBuilder(p.name().toString())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.get(p.returnType()))
+            .addAnnotation(Override.class)
+            .addAnnotations(uncheckedSuppression(env, Collections.singletonList(p)))
+            .addStatement("return $L", accessed(env, p, "this.columns", "this.index"))
+            .build())
+        .collect(Collectors.toList());
+
+    return TypeSpec.classBuilder(cursorClass)
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+        .addSuperinterface(immuClass)
+        .addField(columnsClass, "columns", Modifier.PRIVATE, Modifier.FINAL)
+        .addField(int.class, "index", Modifier.PRIVATE)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(columnsClass, "columns")
+            .addStatement("this.columns = columns")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("moveTo")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(cursorClass)
+            .addParameter(int.class, "index")
+            .addStatement("this.columns.checkIndex(index)")
+            .addStatement("this.index = index")
+            .addStatement("return this")
+            .addJavadoc(CodeBlock.builder()
+                .add("Moves this cursor to the instance at the index.\n")
+                .add("@param index the index, must be less than {@link $T#size()}\n", columnsClass)
+                .add("@return this cursor, for chaining\n")
+                .add("@throws $T if the index is out of bounds\n", IndexOutOfBoundsException.class)
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("index")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addStatement("return this.index")
+            .addJavadoc(CodeBlock.builder()
+                .add("Returns the index of the instance this cursor is at.\n")
+                .add("@return the index\n")
+                .build())
+            .build())
+        .addMethods(getters)
+        .addMethod(MethodSpec.methodBuilder("hashCode")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addAnnotation(Override.class)
+            .addCode(hashCodeComputation(properties, THIS_GETTER))
+            .addStatement("return hashCode")
+            .addJavadoc(hashCodeJavadoc())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("equals")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(boolean.class)
+            .addAnnotation(Override.class)
+            .addParameter(Object.class, "object")
+            .beginControlFlow("if (this == object)")
+            .addStatement("return true")
+            .endControlFlow()
+            .beginControlFlow("if (!(object instanceof $T))", immuClass)
+            .addStatement("return false")
+            .endControlFlow()
+            .addStatement("final $T immuObject = ($T) object", immuClass, immuClass)
+            .addCode(propertiesEqualBlock(properties, THIS_GETTER))
+            .addJavadoc(CodeBlock.builder()
+                .add("Checks whether the provided object is an instance of {@link $T} with values equal to the\n", immuClass)
+                .add("instance this cursor is at.\n")
+                .add("@return if the objects are equal\n")
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("toString")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(String.class)
+            .addAnnotation(Override.class)
+            .addStatement("final $T appendable = new $T(" + toStringCapacity(properties) + ")", StringBuilder.class, StringBuilder.class)
+            .beginControlFlow("try")
+            .addCode(appendToBlock(env, properties, THIS_GETTER))
+            .nextControlFlow("catch ($T e)", IOException.class)
+            .addCode("// $T never throws\n", StringBuilder.class)
+            .addStatement("throw new $T(e)", AssertionError.class)
+            .endControlFlow()
+            .addStatement("return appendable.toString()")
+            .addJavadoc(CodeBlock.builder()
+                .add("Constructs a string representing the instance this cursor is at, in the same format as {@link $T}.\n", objectClass())
+                .add("@return the string representation, never null\n")
+                .build())
+            .build())
+        .addJavadoc(CodeBlock.builder()
+            .add("A view of {@link $T} that reads the instance at its index from the columns.\n", immuClass)
+            .add("<p>\nSince the values change when the cursor is moved, it must not be kept in hashed collections;\n")
+            .add("use {@link $T#get(int)} instead.\n", columnsClass)
+            .build())
+        .build();
+  }
+
+  private static String column(ImmuProperty property) {
+    return property.name() + "Column";
+  }
+
+  /**
+   * Returns an expression that reads the value of the property at the index, cast to the property's type if
+   * the column holds its erasure.
+   */
+  private static CodeBlock read(ProcessingEnvironment env, ImmuProperty property, String columns, String index) {
+    if (isGeneric(env, property)) {
+      return CodeBlock.of("($T) $L.$L[$L]", TypeName.get(property.returnType()), columns, column(property), index);
+    }
+
+    return CodeBlock.of("$L.$L[$L]", columns, column(property), index);
+  }
+
+  /**
+   * Returns the constructor arguments with the values of all properties at the index.
+   */
+  private static CodeBlock arguments(ProcessingEnvironment env, List<ImmuProperty> properties) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    for (int i = 0; i < properties.size(); i++) {
+      builder.add(0 == i ? "$L" : ", $L", read(env, properties.get(i), "this", "index"));
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Returns an expression with the value of the property that is handed out by an accessor, which is a copy
+   * for properties copied on access. The columns of such properties hold the copies made by the accessors
+   * when appending, which are never handed out, so objects returned by {@code get} can share them.
+   */
+  private static CodeBlock accessed(ProcessingEnvironment env, ImmuProperty property, String columns, String index) {
+    final CodeBlock value = read(env, property, columns, index);
+
+    return isCopiedOnAccess(property) ? CodeBlock.of(copied(property, "$L"), value) : value;
+  }
+
+  /**
+   * Returns the {@code unchecked} suppression for methods that read any of the properties from columns that
+   * hold wildcard types, which have to be cast.
+   */
+  private static List<AnnotationSpec> uncheckedSuppression(ProcessingEnvironment env, List<ImmuProperty> properties) {
+    if (properties.stream().noneMatch((p) -> isGeneric(env, p))) {
+      return Collections.emptyList();
+    }
+
+    return Collections.singletonList(AnnotationSpec.builder(SuppressWarnings.class)
+        .addMember("value", "$S", "unchecked")
+        .build());
+  }
+
+  private static boolean isGeneric(ProcessingEnvironment env, ImmuProperty property) {
+    final TypeMirror type = property.returnType();
+
+    return !TypeName.get(type).equals(columnElementType(env, type));
+  }
+
+  private static TypeName columnType(ProcessingEnvironment env, TypeMirror type) {
+    return ArrayTypeName.of(columnElementType(env, type));
+  }
+
+  /**
+   * Returns the type a column holds for values of the type, which replaces all type arguments by unbounded
+   * wildcards, such as {@code List<?>[]} for {@code List<String>[]}. Arrays of these types can be created.
+   */
+  private static TypeName columnElementType(ProcessingEnvironment env, TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return ArrayTypeName.of(columnElementType(env, ((ArrayType) type).getComponentType()));
+
+      case DECLARED:
+        final ClassName rawType = ClassName.get((TypeElement) ((DeclaredType) type).asElement());
+        final int typeArguments = ((DeclaredType) type).getTypeArguments().size();
+
+        if (0 == typeArguments) {
+          return rawType;
+        }
+
+        return ParameterizedTypeName.get(rawType, Collections.nCopies(typeArguments, WildcardTypeName.subtypeOf(Object.class)).toArray(new TypeName[typeArguments]));
+
+      default:
+        return TypeName.get(env.getTypeUtils().erasure(type));
+    }
+  }
+
+  /**
+   * Returns an array creation expression for a column of the type, such as {@code new int[capacity][]} or
+   * {@code new List<?>[capacity]}.
+   */
+  private static CodeBlock newColumn(ProcessingEnvironment env, TypeMirror type, String capacity) {
+    final StringBuilder dimensions = new StringBuilder();
+
+    TypeMirror elementType = type;
+
+    while (TypeKind.ARRAY.equals(elementType.getKind())) {
+      dimensions.append("[]");
+      elementType = ((ArrayType) elementType).getComponentType();
+    }
+
+    return CodeBlock.of("new $T[$L]$L", columnElementType(env, elementType), capacity, dimensions);
+  }
+}
@@ -0,0 +1,179 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.Comparisons;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the class with a comparator for each property that can be ordered.
+ *
+ * @see #comparatorsClass()
+ */
+public class ImmuComparatorsClasser extends ImmuClasser {
+
+  /**
+   * Create a comparators classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuComparatorsClasser from(ImmuObjectElement element) {
+    return new ImmuComparatorsClasser(element);
+  }
+
+  ImmuComparatorsClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+
+    final List<ImmuProperty> properties = properties(env)
+        .stream()
+        .filter((p) -> ImmuObjectElement.isComparable(env, p.returnType()))
+        .collect(Collectors.toList());
+
+    final List<FieldSpec> fields = new ArrayList<>();
+    final List<MethodSpec> methods = new ArrayList<>();
+
+    for (ImmuProperty property : properties) {
+      fields.add(comparatorField(property));
+      methods.add(comparator(property));
+      methods.add(chainedComparator(property));
+    }
+
+    for (ImmuProperty property : properties) {
+      methods.add(compare(property));
+    }
+
+    return TypeSpec.classBuilder(comparatorsClass())
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addFields(fields)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .build())
+        .addMethods(methods)
+        .addJavadoc(CodeBlock.builder()
+            .add("Comparators for each property of {@link $T} that is a primitive or {@link $T}.\n", immuClass, Comparable.class)
+            .add("<p>\nPrimitives are compared with the {@code compare} methods of their wrapper classes, without boxing,\n")
+            .add("and other values with {@link $T#compare(Comparable, Comparable)}, which orders null values first.\n", Comparisons.class)
+            .add("Instances of the generated implementation are read directly, without the megamorphic accessor calls\n")
+            .add("of the interface.\n")
+            .add("<p>\nComparators for several properties are built by chaining, e.g. {@code byA(byB())}.\n")
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private static String capitalized(ImmuProperty property) {
+    final String name = property.name().toString();
+
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private static String constantName(ImmuProperty property) {
+    return "BY_" + upperCaseName(property);
+  }
+
+  private ParameterizedTypeName comparatorType() {
+    return ParameterizedTypeName.get(ClassName.get(Comparator.class), className());
+  }
+
+  private FieldSpec comparatorField(ImmuProperty property) {
+    final ClassName immuClass = className();
+
+    final TypeSpec comparator = TypeSpec.anonymousClassBuilder("")
+        .addSuperinterface(comparatorType())
+        .addMethod(MethodSpec.methodBuilder("compare")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addParameter(immuClass, "a")
+            .addParameter(immuClass, "b")
+            .addStatement("return compare" + capitalized(property) + "(a, b)")
+            .build())
+        .build();
+
+    return FieldSpec.builder(comparatorType(), constantName(property), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer("$L", comparator)
+        .build();
+  }
+
+  private MethodSpec comparator(ImmuProperty property) {
+    return MethodSpec.methodBuilder("by" + capitalized(property))
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(comparatorType())
+        .addStatement("return " + constantName(property))
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns a comparator that orders by {@link $T#" + property.name() + "()}.\n", className())
+            .add("@return the comparator, never null\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec chainedComparator(ImmuProperty property) {
+    final ClassName immuClass = className();
+
+    final ParameterizedTypeName thenType = ParameterizedTypeName.get(ClassName.get(Comparator.class), WildcardTypeName.supertypeOf(immuClass));
+
+    final TypeSpec comparator = TypeSpec.anonymousClassBuilder("")
+        .addSuperinterface(comparatorType())
+        .addMethod(MethodSpec.methodBuilder("compare")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addParameter(immuClass, "a")
+            .addParameter(immuClass, "b")
+            .addStatement("final int comparison = compare" + capitalized(property) + "(a, b)")
+            .addStatement("return 0 != comparison ? comparison : then.compare(a, b)")
+            .build())
+        .build();
+
+    return MethodSpec.methodBuilder("by" + capitalized(property))
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(comparatorType())
+        .addParameter(ParameterSpec.builder(thenType, "then", Modifier.FINAL).build())
+        .beginControlFlow("if (null == then)")
+        .addStatement("throw new $T($S)", IllegalArgumentException.class, "Argument then must not be null")
+        .endControlFlow()
+        .addStatement("return $L", comparator)
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns a comparator that orders by {@link $T#" + property.name() + "()}, and objects with equal values by\n", immuClass)
+            .add("the provided comparator.\n")
+            .add("@param then the comparator for objects with equal values, must not be null\n")
+            .add("@return the comparator, never null\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec compare(ImmuProperty property) {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
+    final String name = property.name().toString();
+
+    final List<ImmuProperty> key = Collections.singletonList(property);
+
+    return MethodSpec.methodBuilder("compare" + capitalized(property))
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(int.class)
+        .addParameter(immuClass, "a")
+        .addParameter(immuClass, "b")
+        .beginControlFlow("if (a instanceof $T && b instanceof $T)", objectClass, objectClass)
+        .addComment("a final class, so the accessors are bound statically and inlined to field reads")
+        .addStatement("final $T immutableA = ($T) a", objectClass, objectClass)
+        .addStatement("final $T immutableB = ($T) b", objectClass, objectClass)
+        .addCode(propertiesCompareBlock(key, (p) -> "immutableA." + name + "()", (p) -> "immutableB." + name + "()"))
+        .endControlFlow()
+        .addCode(propertiesCompareBlock(key, (p) -> "a." + name + "()", (p) -> "b." + name + "()"))
+        .build();
+  }
+}
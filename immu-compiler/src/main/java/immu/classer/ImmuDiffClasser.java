@@ -0,0 +1,206 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the class that finds and copies the properties that differ between two objects. Up to 64
+ * properties are represented by the bits of a {@code long}, more by a {@link BitSet}.
+ *
+ * @see #diffClass()
+ */
+public class ImmuDiffClasser extends ImmuClasser {
+
+  /**
+   * Create a diff classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuDiffClasser from(ImmuObjectElement element) {
+    return new ImmuDiffClasser(element);
+  }
+
+  ImmuDiffClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+
+    final List<ImmuProperty> properties = properties(env);
+    final boolean isLong = properties.size() <= 64;
+
+    final List<FieldSpec> fields = IntStream.range(0, properties.size())
+        .mapToObj((i) -> bitField(properties.get(i), i, isLong))
+        .collect(Collectors.toList());
+
+    final List<MethodSpec> methods = new ArrayList<>();
+
+    methods.add(mask(properties, isLong));
+    methods.add(immutableMask(properties, isLong));
+    methods.add(apply(properties, isLong));
+
+    return TypeSpec.classBuilder(diffClass())
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addFields(fields)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .build())
+        .addMethods(methods)
+        .addJavadoc(CodeBlock.builder()
+            .add("Finds the properties of {@link $T} that differ between two objects, and copies them from one object\n", immuClass)
+            .add("onto another.\n")
+            .add("<p>\nThe properties are represented by " + (isLong ? "the bits of a {@code long} mask" : "the bits of a {@link $T}") + ", see the constants\n", BitSet.class)
+            .add("of this class. Values are compared like in {@link $T#equals(Object)} of the generated implementation, and\n", Object.class)
+            .add("instances of it are read without the megamorphic accessor calls of the interface.\n")
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private FieldSpec bitField(ImmuProperty property, int index, boolean isLong) {
+    final ClassName immuClass = className();
+
+    if (isLong) {
+      return FieldSpec.builder(long.class, upperCaseName(property), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+          .initializer("0x$LL", Long.toHexString(1L << index))
+          .addJavadoc("The bit of {@link $T#" + property.name() + "()} in masks.\n", immuClass)
+          .build();
+    }
+
+    return FieldSpec.builder(int.class, upperCaseName(property), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+        .initializer("$L", index)
+        .addJavadoc("The index of the bit of {@link $T#" + property.name() + "()} in masks.\n", immuClass)
+        .build();
+  }
+
+  private TypeName maskType(boolean isLong) {
+    return isLong ? TypeName.LONG : ClassName.get(BitSet.class);
+  }
+
+  private MethodSpec mask(List<ImmuProperty> properties, boolean isLong) {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
+
+    return MethodSpec.methodBuilder("mask")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(maskType(isLong))
+        .addParameter(immuClass, "a")
+        .addParameter(immuClass, "b")
+        .beginControlFlow("if (a instanceof $T && b instanceof $T)", objectClass, objectClass)
+        .addStatement("return mask(($T) a, ($T) b)", objectClass, objectClass)
+        .endControlFlow()
+        .addCode(maskBlock(properties, isLong, (p) -> "a." + p.name() + "()", (p) -> "b." + p.name() + "()"))
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the properties that differ between the objects.\n")
+            .add("@param a one object, must not be null\n")
+            .add("@param b the other object, must not be null\n")
+            .add("@return the mask with the bits of the properties that differ, " + (isLong ? "zero if the objects are equal\n" : "empty if the objects are equal, never null\n"))
+            .build())
+        .build();
+  }
+
+  private MethodSpec immutableMask(List<ImmuProperty> properties, boolean isLong) {
+    final ClassName objectClass = objectClass();
+
+    return MethodSpec.methodBuilder("mask")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(maskType(isLong))
+        .addParameter(objectClass, "a")
+        .addParameter(objectClass, "b")
+        .addComment("a final class, so the accessors are bound statically and inlined to field reads")
+        .addCode(maskBlock(properties, isLong, (p) -> "a." + p.name() + "()", (p) -> "b." + p.name() + "()"))
+        .build();
+  }
+
+  private static CodeBlock maskBlock(List<ImmuProperty> properties, boolean isLong, Function<ImmuProperty, String> accessor, Function<ImmuProperty, String> otherAccessor) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    if (isLong) {
+      builder.addStatement("long mask = 0L");
+    } else {
+      builder.addStatement("final $T mask = new $T($L)", BitSet.class, BitSet.class, properties.size());
+    }
+
+    builder.beginControlFlow("if (a == b)");
+    builder.addStatement("return mask");
+    builder.endControlFlow();
+
+    for (ImmuProperty property : properties) {
+      builder.beginControlFlow("if (" + notEqualsInvocation(property, accessor.apply(property), otherAccessor.apply(property)) + ")");
+
+      if (isLong) {
+        builder.addStatement("mask |= " + upperCaseName(property));
+      } else {
+        builder.addStatement("mask.set(" + upperCaseName(property) + ")");
+      }
+
+      builder.endControlFlow();
+    }
+
+    builder.addStatement("return mask");
+
+    return builder.build();
+  }
+
+  private MethodSpec apply(List<ImmuProperty> properties, boolean isLong) {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
+
+    final Function<ImmuProperty, String> isSet = isLong
+        ? (p) -> "0L != (mask & " + upperCaseName(p) + ")"
+        : (p) -> "mask.get(" + upperCaseName(p) + ")";
+
+    final String arguments = properties
+        .stream()
+        .map((p) -> copied(p, isSet.apply(p) + " ? source." + p.name() + "() : base." + p.name() + "()"))
+        .collect(Collectors.joining(", "));
+
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("apply")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(immuClass)
+        .addParameter(immuClass, "base")
+        .addParameter(maskType(isLong), "mask")
+        .addParameter(immuClass, "source");
+
+    if (isLong) {
+      final long all = properties.size() == 64 ? ~0L : (1L << properties.size()) - 1;
+
+      builder
+          .beginControlFlow("if (0L == (mask & 0x$LL))", Long.toHexString(all))
+          .addStatement("return base")
+          .endControlFlow()
+          .beginControlFlow("if (0x$LL == (mask & 0x$LL) && source instanceof $T)", Long.toHexString(all), Long.toHexString(all), objectClass)
+          .addStatement("return source")
+          .endControlFlow();
+    } else {
+      builder
+          .beginControlFlow("if (mask.isEmpty())")
+          .addStatement("return base")
+          .endControlFlow();
+    }
+
+    return builder
+        .addStatement("return $L", newObject(arguments))
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns an object with the values of the source for the properties in the mask, and the values of the\n")
+            .add("base for all other properties. If the mask has none of the properties, the base is returned as it is.\n")
+            .add("@param base the object with the other values, must not be null\n")
+            .add("@param mask the properties to copy from the source" + (isLong ? "\n" : ", must not be null\n"))
+            .add("@param source the object with the values to copy, must not be null\n")
+            .add(element.isInterned() ? "@return the canonical object with the values, never null\n" : "@return an object with the values, never null\n")
+            .build())
+        .build();
+  }
+}
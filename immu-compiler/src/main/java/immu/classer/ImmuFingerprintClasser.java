@@ -0,0 +1,175 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.Fingerprints;
+import immu.Immu;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+
+/**
+ * Generates the class that computes a stable 64-bit fingerprint of the properties with {@link Fingerprints}.
+ *
+ * @see #fingerprintClass()
+ */
+public class ImmuFingerprintClasser extends ImmuClasser {
+
+  /**
+   * Create a fingerprint classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuFingerprintClasser from(ImmuObjectElement element) {
+    return new ImmuFingerprintClasser(element);
+  }
+
+  ImmuFingerprintClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
+
+    final List<ImmuProperty> properties = properties(env);
+
+    return TypeSpec.classBuilder(fingerprintClass())
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .build())
+        .addMethod(fingerprint64())
+        .addMethod(compute(objectClass, properties)
+            .build())
+        .addMethod(compute(immuClass, properties)
+            .addModifiers(Modifier.PRIVATE)
+            .build())
+        .addJavadoc(CodeBlock.builder()
+            .add("Computes stable 64-bit fingerprints of {@link $T} objects, which only depend on the values of the\n", immuClass)
+            .add("properties in the order of declaration, and not on the JVM or the implementation class, so that they can be\n")
+            .add("persisted or compared across processes. Property names are not part of the fingerprint.\n")
+            .add("<p>\nThe values are added with {@link $T}, and nested objects by their own fingerprint.\n", Fingerprints.class)
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private MethodSpec fingerprint64() {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
+
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("fingerprint64")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(long.class)
+        .addParameter(ParameterSpec.builder(immuClass, "immutable", Modifier.FINAL).build())
+        .beginControlFlow("if (null == immutable)")
+        .addStatement("throw new $T($S)", IllegalArgumentException.class, "Argument immutable must not be null")
+        .endControlFlow()
+        .beginControlFlow("if (immutable instanceof $T)", objectClass);
+
+    if (Immu.Caching.NONE.equals(element.caching())) {
+      builder
+          .addComment("a final class, so the accessors are bound statically and inlined to field reads")
+          .addStatement("return compute(($T) immutable)", objectClass);
+    } else {
+      builder.addStatement("return (($T) immutable).fingerprint64()", objectClass);
+    }
+
+    return builder
+        .endControlFlow()
+        .addStatement("return compute(immutable)")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the fingerprint of the object" + (Immu.Caching.NONE.equals(element.caching()) ? "" : ", which the generated implementation caches") + ".\n")
+            .add("@param immutable the object, must not be null\n")
+            .add("@return the fingerprint\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec.Builder compute(ClassName type, List<ImmuProperty> properties) {
+    final CodeBlock.Builder code = CodeBlock.builder()
+        .addStatement("long state = $T.SEED", Fingerprints.class);
+
+    final int[] locals = new int[1];
+
+    for (ImmuProperty property : properties) {
+      add(code, property.returnType(), "immutable." + property.name() + "()", locals);
+    }
+
+    return MethodSpec.methodBuilder("compute")
+        .addModifiers(Modifier.STATIC)
+        .returns(long.class)
+        .addParameter(ParameterSpec.builder(type, "immutable", Modifier.FINAL).build())
+        .addCode(code.build())
+        .addStatement("return $T.finish(state)", Fingerprints.class);
+  }
+
+  /**
+   * Adds the statements that add a value of the type to {@code state}. Enums are added by name, nested
+   * objects by their fingerprint and a presence marker, and other arrays by their elements and length,
+   * like {@link Fingerprints} does for primitive arrays.
+   */
+  private void add(CodeBlock.Builder builder, TypeMirror type, String value, int[] locals) {
+    switch (kind(type)) {
+      case PRIMITIVE:
+      case PRIMITIVE_ARRAY:
+      case STRING:
+        builder.addStatement("state = $T.add(state, $L)", Fingerprints.class, value);
+        break;
+
+      case ENUM:
+        final String constant = local(builder, type, value, "constant", locals);
+
+        builder.addStatement("state = $T.add(state, null == $L ? null : $L.name())", Fingerprints.class, constant, constant);
+        break;
+
+      case IMMU:
+        final String nested = local(builder, type, value, "nested", locals);
+        final ClassName nestedFingerprintClass = companionClass(ClassName.get((TypeElement) ((DeclaredType) type).asElement()), "Fingerprint");
+
+        builder.beginControlFlow("if (null == $L)", nested);
+        builder.addStatement("state = $T.add(state, 0L)", Fingerprints.class);
+        builder.nextControlFlow("else");
+        builder.addStatement("state = $T.add(state, $T.fingerprint64($L))", Fingerprints.class, nestedFingerprintClass, nested);
+        builder.addStatement("state = $T.add(state, 1L)", Fingerprints.class);
+        builder.endControlFlow();
+        break;
+
+      case ARRAY:
+        final TypeMirror componentType = ((ArrayType) type).getComponentType();
+        final String array = "array" + (locals[0]++);
+        final String component = "component" + (locals[0]++);
+
+        builder.addStatement("final $T $L = $L", TypeName.get(type), array, value);
+        builder.beginControlFlow("if (null == $L)", array);
+        builder.addStatement("state = $T.add(state, -1L)", Fingerprints.class);
+        builder.nextControlFlow("else");
+        builder.beginControlFlow("for ($T $L : $L)", TypeName.get(componentType), component, array);
+        add(builder, componentType, component, locals);
+        builder.endControlFlow();
+        builder.addStatement("state = $T.add(state, (long) $L.length)", Fingerprints.class, array);
+        builder.endControlFlow();
+        break;
+    }
+  }
+
+  private static String local(CodeBlock.Builder builder, TypeMirror type, String value, String prefix, int[] locals) {
+    if (!value.endsWith("()")) {
+      return value;
+    }
+
+    final String local = prefix + (locals[0]++);
+
+    builder.addStatement("final $T $L = $L", TypeName.get(type), local, value);
+
+    return local;
+  }
+}
@@ -0,0 +1,290 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeKind;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the class for the flyweight.
+ *
+ * @see #flyweightClass()
+ */
+public class ImmuFlyweightClasser extends ImmuClasser {
+
+  /** Accesses the values of properties through the getters of the flyweight. */
+  private static final Function<ImmuProperty, String> THIS_GETTER = (p) -> "this." + p.name() + "()";
+
+  private static final class PropertyWithOffset {
+    private final ImmuProperty property;
+    private final int offset;
+
+    private PropertyWithOffset(ImmuProperty property, int offset) {
+      this.property = property;
+      this.offset = offset;
+    }
+  }
+
+  /**
+   * Create a flyweight classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuFlyweightClasser from(ImmuObjectElement element) {
+    return new ImmuFlyweightClasser(element);
+  }
+
+  ImmuFlyweightClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+    final ClassName flyweightClass = flyweightClass();
+
+    final List<ImmuProperty> properties = properties(env);
+    final List<PropertyWithOffset> layout = layout(properties);
+
+    final int size = layout.isEmpty() ? 0 : layout.get(layout.size() - 1).offset + size(layout.get(layout.size() - 1).property.returnType().getKind());
+
+    final List<MethodSpec> getters = layout
+        .stream()
+        .sorted(Comparator.comparingInt((p) -> properties.indexOf(p.property)))
+        .map((p) -> MethodSpec.methodBuilder(p.property.name().toString())
+            .addModifiers(Modifier.PUBLIC)
+            .returns(TypeName.get(p.property.returnType()))
+            .addAnnotation(Override.class)
+            .addStatement("return " + get(p.property.returnType().getKind()), "this.offset + " + p.offset)
+            .build())
+        .collect(Collectors.toList());
+
+    final CodeBlock.Builder putter = CodeBlock.builder();
+
+    layout.forEach((p) -> putter.addStatement(put(p.property.returnType().getKind()), "offset + " + p.offset, "immutable." + p.property.name() + "()"));
+
+    return TypeSpec.classBuilder(flyweightClass)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addSuperinterface(immuClass)
+        .addField(FieldSpec.builder(int.class, "SIZE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .initializer(Integer.toString(size))
+            .addJavadoc("The number of bytes of one record.\n")
+            .build())
+        .addField(ByteBuffer.class, "buffer", Modifier.PRIVATE)
+        .addField(int.class, "offset", Modifier.PRIVATE)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addJavadoc(CodeBlock.builder()
+                .add("Creates a flyweight that must be wrapped around a record before use.\n")
+                .add("@see #wrap($T, int)\n", ByteBuffer.class)
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("wrap")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(flyweightClass)
+            .addParameter(ByteBuffer.class, "buffer")
+            .addParameter(int.class, "offset")
+            .beginControlFlow("if (offset < 0 || offset > buffer.limit() - SIZE)")
+            .addStatement("throw new $T(\"Record at \" + offset + \" does not fit within limit \" + buffer.limit())", IndexOutOfBoundsException.class)
+            .endControlFlow()
+            .addStatement("this.buffer = buffer")
+            .addStatement("this.offset = offset")
+            .addStatement("return this")
+            .addJavadoc(CodeBlock.builder()
+                .add("Moves this flyweight to the record at the offset of the buffer. The buffer's position and byte order\n")
+                .add("are not changed, and the byte order must be the same as the one the record was written with.\n")
+                .add("@param buffer the buffer, must not be null\n")
+                .add("@param offset the absolute offset of the record in the buffer\n")
+                .add("@return this flyweight, for chaining\n")
+                .add("@throws $T if the record does not fit within the buffer's limit\n", IndexOutOfBoundsException.class)
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("put")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(immuClass, "immutable")
+            .addParameter(ByteBuffer.class, "buffer")
+            .addParameter(int.class, "offset")
+            .addCode(putter.build())
+            .addJavadoc(CodeBlock.builder()
+                .add("Writes the object as a record at the offset of the buffer, in the layout read by this flyweight.\n")
+                .add("The buffer's position is not changed.\n")
+                .add("@param immutable the object, must not be null\n")
+                .add("@param buffer the buffer, must not be null\n")
+                .add("@param offset the absolute offset of the record in the buffer, must leave at least {@link #SIZE} bytes\n")
+                .build())
+            .build())
+        .addMethods(getters)
+        .addMethod(MethodSpec.methodBuilder("hashCode")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(int.class)
+            .addAnnotation(Override.class)
+            .addCode(hashCodeComputation(properties, THIS_GETTER))
+            .addStatement("return hashCode")
+            .addJavadoc(hashCodeJavadoc())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("equals")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(boolean.class)
+            .addAnnotation(Override.class)
+            .addParameter(Object.class, "object")
+            .beginControlFlow("if (this == object)")
+            .addStatement("return true")
+            .endControlFlow()
+            .beginControlFlow("if (!(object instanceof $T))", immuClass)
+            .addStatement("return false")
+            .endControlFlow()
+            .addStatement("final $T immuObject = ($T) object", immuClass, immuClass)
+            .addCode(propertiesEqualBlock(properties, THIS_GETTER))
+            .addJavadoc(CodeBlock.builder()
+                .add("Checks whether the provided object is an instance of {@link $T} with values equal to the\n", immuClass)
+                .add("current record.\n")
+                .add("@return if the objects are equal\n")
+                .build())
+            .build())
+        .addMethod(MethodSpec.methodBuilder("toString")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(String.class)
+            .addAnnotation(Override.class)
+            .addStatement("final $T appendable = new $T(" + toStringCapacity(properties) + ")", StringBuilder.class, StringBuilder.class)
+            .beginControlFlow("try")
+            .addCode(appendToBlock(env, properties, THIS_GETTER))
+            .nextControlFlow("catch ($T e)", IOException.class)
+            .addCode("// $T never throws\n", StringBuilder.class)
+            .addStatement("throw new $T(e)", AssertionError.class)
+            .endControlFlow()
+            .addStatement("return appendable.toString()")
+            .addJavadoc(CodeBlock.builder()
+                .add("Constructs a string representing the current record, in the same format as {@link $T}.\n", objectClass())
+                .add("@return the string representation, never null\n")
+                .build())
+            .build())
+        .addJavadoc(CodeBlock.builder()
+            .add("A flyweight implementation of {@link $T} that reads its properties from a record in a {@link $T}.\n", immuClass, ByteBuffer.class)
+            .add("<p>\nOne flyweight can be moved over many records with {@link #wrap($T, int)}, which makes it suitable for\n", ByteBuffer.class)
+            .add("scanning records in direct memory without creating an object per record. Since the values change when\n")
+            .add("the flyweight is moved, it must not be kept in hashed collections; copy it with\n")
+            .add("{@link $T#from($T)} instead.\n", builderClass(), immuClass)
+            .add("<p>\nA record is {@link #SIZE} bytes long, and the properties are laid out, largest first, as:\n")
+            .add(layoutJavadoc(layout))
+            .add("@see #put($T, $T, int)\n", immuClass, ByteBuffer.class)
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  /**
+   * Orders the properties by decreasing size, so that each is aligned to its size within the record.
+   */
+  private static List<PropertyWithOffset> layout(List<ImmuProperty> properties) {
+    final List<ImmuProperty> sorted = new ArrayList<>(properties);
+
+    sorted.sort(Comparator.comparingInt((ImmuProperty p) -> size(p.returnType().getKind())).reversed());
+
+    final List<PropertyWithOffset> layout = new ArrayList<>(sorted.size());
+
+    int offset = 0;
+
+    for (ImmuProperty property : sorted) {
+      layout.add(new PropertyWithOffset(property, offset));
+      offset += size(property.returnType().getKind());
+    }
+
+    return layout;
+  }
+
+  private static CodeBlock layoutJavadoc(List<PropertyWithOffset> layout) {
+    final CodeBlock.Builder builder = CodeBlock.builder()
+        .add("<pre>\n");
+
+    layout.forEach((p) -> builder.add(p.offset + ": " + p.property.returnType() + " " + p.property.name() + "\n"));
+
+    return builder
+        .add("</pre>\n")
+        .build();
+  }
+
+  private static int size(TypeKind kind) {
+    switch (kind) {
+      case BOOLEAN:
+      case BYTE:
+        return 1;
+
+      case SHORT:
+      case CHAR:
+        return 2;
+
+      case INT:
+      case FLOAT:
+        return 4;
+
+      default:
+        return 8;
+    }
+  }
+
+  private static String get(TypeKind kind) {
+    switch (kind) {
+      case BOOLEAN:
+        return "0 != this.buffer.get($L)";
+
+      case BYTE:
+        return "this.buffer.get($L)";
+
+      case SHORT:
+        return "this.buffer.getShort($L)";
+
+      case CHAR:
+        return "this.buffer.getChar($L)";
+
+      case INT:
+        return "this.buffer.getInt($L)";
+
+      case LONG:
+        return "this.buffer.getLong($L)";
+
+      case FLOAT:
+        return "this.buffer.getFloat($L)";
+
+      default:
+        return "this.buffer.getDouble($L)";
+    }
+  }
+
+  private static String put(TypeKind kind) {
+    switch (kind) {
+      case BOOLEAN:
+        return "buffer.put($L, (byte) ($L ? 1 : 0))";
+
+      case BYTE:
+        return "buffer.put($L, $L)";
+
+      case SHORT:
+        return "buffer.putShort($L, $L)";
+
+      case CHAR:
+        return "buffer.putChar($L, $L)";
+
+      case INT:
+        return "buffer.putInt($L, $L)";
+
+      case LONG:
+        return "buffer.putLong($L, $L)";
+
+      case FLOAT:
+        return "buffer.putFloat($L, $L)";
+
+      default:
+        return "buffer.putDouble($L, $L)";
+    }
+  }
+}
@@ -0,0 +1,467 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.Appendables;
+import immu.Json;
+import immu.JsonReader;
+import immu.ValueNotProvidedException;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the class for the JSON writer and reader.
+ *
+ * @see #jsonClass()
+ */
+public class ImmuJsonClasser extends ImmuClasser {
+
+  /**
+   * Per-generation state: the names of local variables and the helper methods for arrays of objects.
+   */
+  private static final class Context {
+    private final ProcessingEnvironment env;
+    private final Map<TypeName, String> arrayHelpers = new LinkedHashMap<>();
+    private final List<MethodSpec> methods = new ArrayList<>();
+
+    private int locals;
+
+    private Context(ProcessingEnvironment env) {
+      this.env = env;
+    }
+
+    private String local(String prefix) {
+      return prefix + (locals++);
+    }
+  }
+
+  /**
+   * Create a JSON classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuJsonClasser from(ImmuObjectElement element) {
+    return new ImmuJsonClasser(element);
+  }
+
+  ImmuJsonClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+    final ClassName jsonClass = jsonClass();
+
+    final List<ImmuProperty> properties = properties(env);
+
+    final Context context = new Context(env);
+
+    final MethodSpec write = write(context, properties);
+    final MethodSpec read = read(context, properties);
+
+    return TypeSpec.classBuilder(jsonClass)
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .build())
+        .addMethod(toJson(properties))
+        .addMethod(write)
+        .addMethod(fromJson())
+        .addMethod(readDocument())
+        .addMethod(read)
+        .addMethods(context.methods)
+        .addJavadoc(CodeBlock.builder()
+            .add("Writes {@link $T} as JSON and reads it back, one token at a time and without reflection.\n", immuClass)
+            .add("<p>\nAn object is written with one member per property, in declaration order followed by the inherited\n")
+            .add("properties. Enums are written as their name, nested objects with their own JSON class, and other values\n")
+            .add("as in {@link $T}. When reading, members may be in any order, unknown members are skipped and missing\n", Json.class)
+            .add("members keep the default value of {@link $T}.\n", builderClass())
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private MethodSpec toJson(List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+
+    return MethodSpec.methodBuilder("toJson")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(String.class)
+        .addParameter(immuClass, "immutable")
+        .beginControlFlow("try")
+        .addStatement("return write(immutable, new $T(" + toStringCapacity(properties) + ")).toString()", StringBuilder.class)
+        .nextControlFlow("catch ($T e)", IOException.class)
+        .addCode("// $T never throws\n", StringBuilder.class)
+        .addStatement("throw new $T(e)", AssertionError.class)
+        .endControlFlow()
+        .addJavadoc(CodeBlock.builder()
+            .add("Writes the object as a JSON string.\n")
+            .add("@param immutable the object, must not be null\n")
+            .add("@return the JSON text, never null\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec write(Context context, List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+    final TypeVariableName appendableType = TypeVariableName.get("A", Appendable.class);
+
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    if (properties.isEmpty()) {
+      builder.addStatement("appendable.append($S)", "{}");
+    }
+
+    for (int i = 0; i < properties.size(); i++) {
+      final ImmuProperty property = properties.get(i);
+
+      builder.addStatement("appendable.append($S)", (0 == i ? "{" : ",") + "\"" + property.name() + "\":");
+      write(context, builder, property.returnType(), "immutable." + property.name() + "()");
+    }
+
+    if (!properties.isEmpty()) {
+      builder.addStatement("appendable.append('}')");
+    }
+
+    return MethodSpec.methodBuilder("write")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .addTypeVariable(appendableType)
+        .returns(appendableType)
+        .addParameter(immuClass, "immutable")
+        .addParameter(appendableType, "appendable")
+        .addException(IOException.class)
+        .addCode(builder.build())
+        .addStatement("return appendable")
+        .addJavadoc(CodeBlock.builder()
+            .add("Writes the object as a JSON object to the appendable, without intermediate strings.\n")
+            .add("@param immutable the object, must not be null\n")
+            .add("@param appendable the appendable, must not be null\n")
+            .add("@return the appendable, for chaining\n")
+            .add("@throws $T if the appendable throws\n", IOException.class)
+            .build())
+        .build();
+  }
+
+  private MethodSpec fromJson() {
+    final ClassName immuClass = className();
+
+    return MethodSpec.methodBuilder("fromJson")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(immuClass)
+        .addParameter(CharSequence.class, "json")
+        .addException(IOException.class)
+        .addStatement("final $T reader = new $T(json)", JsonReader.class, JsonReader.class)
+        .addStatement("final $T immutable = read(reader)", immuClass)
+        .addStatement("reader.endDocument()")
+        .addStatement("return immutable")
+        .addJavadoc(CodeBlock.builder()
+            .add("Reads an object from JSON text that contains only that object.\n")
+            .add("@param json the JSON text, must not be null\n")
+            .add("@return the object, never null\n")
+            .add("@throws $T if the text is malformed\n", IOException.class)
+            .build())
+        .build();
+  }
+
+  private MethodSpec readDocument() {
+    final ClassName immuClass = className();
+
+    return MethodSpec.methodBuilder("read")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(immuClass)
+        .addParameter(Reader.class, "reader")
+        .addException(IOException.class)
+        .addStatement("final $T jsonReader = new $T(reader)", JsonReader.class, JsonReader.class)
+        .addStatement("final $T immutable = read(jsonReader)", immuClass)
+        .addStatement("jsonReader.endDocument()")
+        .addStatement("return immutable")
+        .addJavadoc(CodeBlock.builder()
+            .add("Reads an object from a reader that contains only that object, up to its end. The reader is not closed.\n")
+            .add("@param reader the reader, must not be null\n")
+            .add("@return the object, never null\n")
+            .add("@throws $T if the input is malformed, or the reader throws\n", IOException.class)
+            .build())
+        .build();
+  }
+
+  private MethodSpec read(Context context, List<ImmuProperty> properties) {
+    final ClassName immuClass = className();
+    final ClassName builderClass = builderClass();
+
+    // properties are dispatched on the hash code of their name, since generated code may not switch on strings
+    final Map<Integer, List<ImmuProperty>> byHashCode = new LinkedHashMap<>();
+
+    properties.forEach((p) -> byHashCode.computeIfAbsent(p.name().toString().hashCode(), (h) -> new ArrayList<>()).add(p));
+
+    final CodeBlock.Builder builder = CodeBlock.builder()
+        .addStatement("final $T builder = $T.create()", builderClass, builderClass)
+        .addStatement("reader.beginObject()")
+        .beginControlFlow("while (reader.hasNext())")
+        .addStatement("final $T name = reader.nextName()", String.class);
+
+    if (!properties.isEmpty()) {
+      builder.beginControlFlow("switch (name.hashCode())");
+
+      byHashCode.forEach((hashCode, named) -> {
+        builder.add("case $L:\n", hashCode).indent();
+
+        for (ImmuProperty property : named) {
+          builder.beginControlFlow("if ($S.equals(name))", property.name().toString())
+              .addStatement("builder.$L($L)", property.name(), read(context, property.returnType()))
+              .addStatement("continue")
+              .endControlFlow();
+        }
+
+        builder.addStatement("break").unindent();
+      });
+
+      builder.endControlFlow();
+    }
+
+    builder.addStatement("reader.skipValue()")
+        .endControlFlow()
+        .addStatement("reader.endObject()");
+
+    return MethodSpec.methodBuilder("read")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(immuClass)
+        .addParameter(JsonReader.class, "reader")
+        .addException(IOException.class)
+        .addCode(builder.build())
+        .addStatement("return builder.build()")
+        .addJavadoc(CodeBlock.builder()
+            .add("Reads the next JSON object from the reader.\n")
+            .add("@param reader the reader, must not be null\n")
+            .add(element.isInterned() ? "@return the canonical immutable object instance, never null\n" : "@return a new immutable object instance, never null\n")
+            .add("@throws $T if the input is malformed, or the reader throws\n", IOException.class)
+            .add("@throws $T if a required property is missing\n", ValueNotProvidedException.class)
+            .build())
+        .build();
+  }
+
+  private void write(Context context, CodeBlock.Builder builder, TypeMirror type, String value) {
+    switch (kind(type)) {
+      case PRIMITIVE:
+        switch (type.getKind()) {
+          case CHAR:
+            builder.addStatement("$T.writeString(appendable, $L)", Json.class, value);
+            break;
+
+          case FLOAT:
+          case DOUBLE:
+            builder.addStatement("$T.writeNumber(appendable, $L)", Json.class, value);
+            break;
+
+          default:
+            builder.addStatement("$T.appendValue(appendable, $L)", Appendables.class, value);
+        }
+        break;
+
+      case STRING:
+        builder.addStatement("$T.writeString(appendable, $L)", Json.class, value);
+        break;
+
+      case ENUM:
+        final String constant = local(context, builder, type, value, "constant");
+
+        builder.addStatement("$T.writeString(appendable, null == $L ? null : $L.name())", Json.class, constant, constant);
+        break;
+
+      case PRIMITIVE_ARRAY:
+        builder.addStatement("$T.writeArray(appendable, $L)", Json.class, value);
+        break;
+
+      case IMMU:
+        final String nested = local(context, builder, type, value, "nested");
+
+        builder.beginControlFlow("if (null == $L)", nested)
+            .addStatement("appendable.append($S)", "null")
+            .nextControlFlow("else")
+            .addStatement("$T.write($L, appendable)", nestedJsonClass(type), nested)
+            .endControlFlow();
+        break;
+
+      case ARRAY:
+        builder.addStatement("write$L($L, appendable)", arrayHelpers(context, type), value);
+        break;
+    }
+  }
+
+  /**
+   * Returns an expression that reads a value of the type from the local {@code reader}.
+   */
+  private CodeBlock read(Context context, TypeMirror type) {
+    switch (kind(type)) {
+      case PRIMITIVE:
+        switch (type.getKind()) {
+          case BOOLEAN:
+            return CodeBlock.of("reader.nextBoolean()");
+
+          case BYTE:
+            return CodeBlock.of("reader.nextByte()");
+
+          case SHORT:
+            return CodeBlock.of("reader.nextShort()");
+
+          case CHAR:
+            return CodeBlock.of("reader.nextChar()");
+
+          case INT:
+            return CodeBlock.of("reader.nextInt()");
+
+          case LONG:
+            return CodeBlock.of("reader.nextLong()");
+
+          case FLOAT:
+            return CodeBlock.of("(float) reader.nextDouble()");
+
+          default:
+            return CodeBlock.of("reader.nextDouble()");
+        }
+
+      case STRING:
+        return CodeBlock.of("reader.nextString()");
+
+      case ENUM:
+        return CodeBlock.of("reader.nextEnum($T.class)", erasure(context.env, type));
+
+      case PRIMITIVE_ARRAY:
+        final String componentName = ((ArrayType) type).getComponentType().getKind().name();
+
+        return CodeBlock.of("reader.next$L$LArray()", componentName.charAt(0), componentName.substring(1).toLowerCase());
+
+      case IMMU:
+        return CodeBlock.of("reader.nextNull() ? null : $T.read(reader)", nestedJsonClass(type));
+
+      case ARRAY:
+        return CodeBlock.of("read$L(reader)", arrayHelpers(context, type));
+    }
+
+    throw new IllegalArgumentException(type.toString());
+  }
+
+  /**
+   * Adds the helper methods that write and read arrays of the type, unless they were already added.
+   * @return the suffix of the helper methods' names
+   */
+  private String arrayHelpers(Context context, TypeMirror type) {
+    final TypeName typeName = TypeName.get(type);
+    final String existing = context.arrayHelpers.get(typeName);
+
+    if (null != existing) {
+      return existing;
+    }
+
+    final String simpleName = helperName(type);
+    final String name = context.arrayHelpers.containsValue(simpleName) ? simpleName + context.arrayHelpers.size() : simpleName;
+
+    context.arrayHelpers.put(typeName, name);
+
+    final TypeMirror componentType = ((ArrayType) type).getComponentType();
+    final TypeName componentName = TypeName.get(context.env.getTypeUtils().erasure(componentType));
+
+    final CodeBlock.Builder writer = CodeBlock.builder()
+        .beginControlFlow("if (null == array)")
+        .addStatement("appendable.append($S)", "null")
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("appendable.append('[')")
+        .beginControlFlow("for (int i = 0; i < array.length; i++)")
+        .beginControlFlow("if (i > 0)")
+        .addStatement("appendable.append(',')")
+        .endControlFlow();
+
+    write(context, writer, componentType, "array[i]");
+
+    writer.endControlFlow()
+        .addStatement("appendable.append(']')");
+
+    final CodeBlock component = read(context, componentType);
+
+    final CodeBlock reader = CodeBlock.builder()
+        .beginControlFlow("if (reader.nextNull())")
+        .addStatement("return null")
+        .endControlFlow()
+        .addStatement("final $T<$T> values = new $T<$T>()", List.class, componentName.box(), ArrayList.class, componentName.box())
+        .addStatement("reader.beginArray()")
+        .beginControlFlow("while (reader.hasNext())")
+        .addStatement("values.add($L)", component)
+        .endControlFlow()
+        .addStatement("reader.endArray()")
+        .addStatement("return values.toArray($L)", newArray(context.env, type, "values.size()"))
+        .build();
+
+    context.methods.add(MethodSpec.methodBuilder("write" + name)
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .addParameter(TypeName.get(context.env.getTypeUtils().erasure(type)), "array")
+        .addParameter(Appendable.class, "appendable")
+        .addException(IOException.class)
+        .addCode(writer.build())
+        .build());
+
+    context.methods.add(MethodSpec.methodBuilder("read" + name)
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(TypeName.get(context.env.getTypeUtils().erasure(type)))
+        .addParameter(JsonReader.class, "reader")
+        .addException(IOException.class)
+        .addCode(reader)
+        .build());
+
+    return name;
+  }
+
+  /**
+   * Returns a name for the array type, such as {@code StringArray} or {@code IntArrayArray}.
+   */
+  private static String helperName(TypeMirror type) {
+    if (TypeKind.ARRAY.equals(type.getKind())) {
+      return helperName(((ArrayType) type).getComponentType()) + "Array";
+    }
+
+    if (type.getKind().isPrimitive()) {
+      final String name = type.getKind().name();
+
+      return name.charAt(0) + name.substring(1).toLowerCase();
+    }
+
+    return ClassName.get((TypeElement) ((DeclaredType) type).asElement())
+        .simpleNames()
+        .stream()
+        .collect(Collectors.joining());
+  }
+
+  /**
+   * Stores the value in a local variable if it is a property getter invocation.
+   * @return the name of the variable holding the value
+   */
+  private static String local(Context context, CodeBlock.Builder builder, TypeMirror type, String value, String prefix) {
+    if (!value.endsWith("()")) {
+      return value;
+    }
+
+    final String local = context.local(prefix);
+
+    builder.addStatement("final $T $L = $L", TypeName.get(type), local, value);
+
+    return local;
+  }
+
+  private static ClassName nestedJsonClass(TypeMirror type) {
+    return companionClass(ClassName.get((TypeElement) ((DeclaredType) type).asElement()), "Json");
+  }
+}
@@ -0,0 +1,314 @@
+package immu.classer;
+
+import com.squareup.javapoet.*;
+import immu.PropertyKind;
+import immu.PropertyVisitor;
+import immu.Required;
+import immu.element.ImmuObjectElement;
+import immu.element.ImmuProperty;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.type.TypeKind;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the class that describes the properties by index, and reads their values without reflection.
+ *
+ * @see #metaClass()
+ */
+public class ImmuMetaClasser extends ImmuClasser {
+
+  /**
+   * Create a meta classer from the element.
+   * @param element the element, must not be null
+   * @return the classer, never null
+   */
+  public static ImmuMetaClasser from(ImmuObjectElement element) {
+    return new ImmuMetaClasser(element);
+  }
+
+  ImmuMetaClasser(ImmuObjectElement element) {
+    super(element);
+  }
+
+  @Override
+  public TypeSpec generate(ProcessingEnvironment env) {
+    final ClassName immuClass = className();
+
+    final List<ImmuProperty> properties = properties(env);
+
+    final List<FieldSpec> fields = new ArrayList<>();
+
+    IntStream.range(0, properties.size())
+        .mapToObj((i) -> FieldSpec.builder(int.class, upperCaseName(properties.get(i)), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$L", i)
+            .addJavadoc("The index of {@link $T#" + properties.get(i).name() + "()}.\n", immuClass)
+            .build())
+        .forEach(fields::add);
+
+    fields.add(FieldSpec.builder(String[].class, "NAMES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer(arrayInitializer(properties.stream()
+            .map((p) -> CodeBlock.of("$S", p.name().toString()))
+            .collect(Collectors.toList())))
+        .build());
+
+    fields.add(FieldSpec.builder(PropertyKind[].class, "KINDS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer(arrayInitializer(properties.stream()
+            .map((p) -> CodeBlock.of("$T.$L", PropertyKind.class, propertyKind(p)))
+            .collect(Collectors.toList())))
+        .build());
+
+    final TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+
+    fields.add(FieldSpec.builder(ArrayTypeName.of(classType), "TYPES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer(arrayInitializer(properties.stream()
+            .map((p) -> CodeBlock.of("$T.class", erasure(env, p.returnType())))
+            .collect(Collectors.toList())))
+        .build());
+
+    fields.add(FieldSpec.builder(boolean[].class, "REQUIRED", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer(arrayInitializer(properties.stream()
+            .map((p) -> CodeBlock.of("$L", p.isRequired()))
+            .collect(Collectors.toList())))
+        .build());
+
+    final List<MethodSpec> methods = new ArrayList<>();
+
+    methods.add(MethodSpec.methodBuilder("size")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(int.class)
+        .addStatement("return $L", properties.size())
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the number of properties, whose indexes are {@code 0} up to, and excluding, this number.\n")
+            .add("@return the number of properties\n")
+            .build())
+        .build());
+
+    methods.add(MethodSpec.methodBuilder("name")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(String.class)
+        .addParameter(int.class, "index")
+        .addStatement("return NAMES[index]")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the name of the property.\n")
+            .add("@param index the index of the property\n")
+            .add("@return the name, never null\n")
+            .add("@throws $T if there is no property with the index\n", IndexOutOfBoundsException.class)
+            .build())
+        .build());
+
+    methods.add(MethodSpec.methodBuilder("indexOf")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(int.class)
+        .addParameter(String.class, "name")
+        .beginControlFlow("for (int i = 0; i < NAMES.length; i++)")
+        .beginControlFlow("if (NAMES[i].equals(name))")
+        .addStatement("return i")
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return -1")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the index of the property with the name.\n")
+            .add("@param name the name of the property, may be null\n")
+            .add("@return the index, or {@code -1} if there is no property with the name\n")
+            .build())
+        .build());
+
+    methods.add(MethodSpec.methodBuilder("kind")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(PropertyKind.class)
+        .addParameter(int.class, "index")
+        .addStatement("return KINDS[index]")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the kind of the property, which selects the getter and the method of {@link $T} for its values.\n", PropertyVisitor.class)
+            .add("@param index the index of the property\n")
+            .add("@return the kind, never null\n")
+            .add("@throws $T if there is no property with the index\n", IndexOutOfBoundsException.class)
+            .build())
+        .build());
+
+    methods.add(MethodSpec.methodBuilder("type")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(classType)
+        .addParameter(int.class, "index")
+        .addStatement("return TYPES[index]")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the erasure of the type of the property.\n")
+            .add("@param index the index of the property\n")
+            .add("@return the type, never null\n")
+            .add("@throws $T if there is no property with the index\n", IndexOutOfBoundsException.class)
+            .build())
+        .build());
+
+    methods.add(MethodSpec.methodBuilder("isRequired")
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(boolean.class)
+        .addParameter(int.class, "index")
+        .addStatement("return REQUIRED[index]")
+        .addJavadoc(CodeBlock.builder()
+            .add("Checks if the property is marked as {@link $T}.\n", Required.class)
+            .add("@param index the index of the property\n")
+            .add("@return if it is required\n")
+            .add("@throws $T if there is no property with the index\n", IndexOutOfBoundsException.class)
+            .build())
+        .build());
+
+    for (PropertyKind kind : PropertyKind.values()) {
+      methods.add(getter(properties, kind));
+    }
+
+    methods.add(accept(properties, immuClass, true));
+    methods.add(accept(properties, objectClass(), false));
+
+    return TypeSpec.classBuilder(metaClass())
+        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+        .addFields(fields)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PRIVATE)
+            .build())
+        .addMethods(methods)
+        .addJavadoc(CodeBlock.builder()
+            .add("Describes the properties of {@link $T} by index, in declaration order, and reads their values without\n", immuClass)
+            .add("reflection, see the constants of this class for the indexes.\n")
+            .add("<p>\nValues are read one at a time with the getter for the {@link $T} of the property, such as\n", PropertyKind.class)
+            .add("{@link #getInt($T, int)}, or all at once with {@link #accept($T, $T)}. Neither boxes primitives, except\n", immuClass, immuClass, PropertyVisitor.class)
+            .add("{@link #getObject($T, int)}.\n", immuClass)
+            .add("@see $T\n", immuClass)
+            .build())
+        .build();
+  }
+
+  private static CodeBlock arrayInitializer(List<CodeBlock> elements) {
+    final CodeBlock.Builder builder = CodeBlock.builder().add("{ ");
+
+    for (int i = 0; i < elements.size(); i++) {
+      builder.add(i > 0 ? ", $L" : "$L", elements.get(i));
+    }
+
+    return builder.add(" }").build();
+  }
+
+  private static PropertyKind propertyKind(ImmuProperty property) {
+    final TypeKind kind = property.returnType().getKind();
+
+    return kind.isPrimitive() ? PropertyKind.valueOf(kind.name()) : PropertyKind.OBJECT;
+  }
+
+  private static String typeName(PropertyKind kind) {
+    return kind.name().toLowerCase(Locale.ROOT);
+  }
+
+  private static String capitalized(PropertyKind kind) {
+    final String name = typeName(kind);
+
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private MethodSpec getter(List<ImmuProperty> properties, PropertyKind kind) {
+    final ClassName immuClass = className();
+    final boolean isObject = PropertyKind.OBJECT.equals(kind);
+
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("get" + capitalized(kind))
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+        .returns(isObject ? TypeName.OBJECT : TypeName.get(primitiveClass(kind)))
+        .addParameter(immuClass, "immutable")
+        .addParameter(int.class, "index");
+
+    final List<ImmuProperty> matching = properties
+        .stream()
+        .filter((p) -> isObject || kind.equals(propertyKind(p)))
+        .collect(Collectors.toList());
+
+    if (!matching.isEmpty()) {
+      builder.beginControlFlow("switch (index)");
+
+      for (ImmuProperty property : matching) {
+        builder.addCode("case $L:\n", upperCaseName(property));
+        builder.addStatement("$>return immutable.$L()$<", property.name());
+      }
+
+      builder.endControlFlow();
+    }
+
+    final String description = isObject ? "a property" : "an {@code " + typeName(kind) + "} property";
+
+    return builder
+        .addStatement("throw new $T($S + index + $S)", IllegalArgumentException.class, "Property ", " of " + immuClass.simpleName() + (isObject ? " does not exist" : " is not " + (PropertyKind.INT.equals(kind) ? "an " : "a ") + typeName(kind)))
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the value of " + description + (isObject ? ", where primitives are boxed.\n" : ".\n"))
+            .add("@param immutable the object, must not be null\n")
+            .add("@param index the index of the property\n")
+            .add("@return the value\n")
+            .add("@throws $T if " + (isObject ? "there is no property with the index\n" : "the property with the index is not " + description + "\n"), IllegalArgumentException.class)
+            .build())
+        .build();
+  }
+
+  private static Class<?> primitiveClass(PropertyKind kind) {
+    switch (kind) {
+      case BOOLEAN:
+        return boolean.class;
+
+      case BYTE:
+        return byte.class;
+
+      case SHORT:
+        return short.class;
+
+      case CHAR:
+        return char.class;
+
+      case INT:
+        return int.class;
+
+      case LONG:
+        return long.class;
+
+      case FLOAT:
+        return float.class;
+
+      case DOUBLE:
+        return double.class;
+
+      default:
+        return Object.class;
+    }
+  }
+
+  private MethodSpec accept(List<ImmuProperty> properties, ClassName type, boolean isPublic) {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
+
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("accept")
+        .addModifiers(isPublic ? Modifier.PUBLIC : Modifier.PRIVATE, Modifier.STATIC)
+        .addParameter(type, "immutable")
+        .addParameter(PropertyVisitor.class, "visitor");
+
+    if (isPublic) {
+      builder
+          .beginControlFlow("if (immutable instanceof $T)", objectClass)
+          .addStatement("accept(($T) immutable, visitor)", objectClass)
+          .addStatement("return")
+          .endControlFlow()
+          .addJavadoc(CodeBlock.builder()
+              .add("Visits all properties of the object in declaration order, with the method of the visitor for the\n")
+              .add("{@link $T} of each property.\n", PropertyKind.class)
+              .add("@param immutable the object, must not be null\n")
+              .add("@param visitor the visitor, must not be null\n")
+              .build());
+    } else {
+      builder.addComment("a final class, so the accessors are bound statically and inlined to field reads");
+    }
+
+    for (ImmuProperty property : properties) {
+      builder.addStatement("visitor.visit$L($L, $S, immutable.$L())", capitalized(propertyKind(property)), upperCaseName(property), property.name().toString(), property.name());
+    }
+
+    return builder.build();
+  }
+}
@@ -1,16 +1,33 @@
 package immu.classer;
 
 import com.squareup.javapoet.*;
+import immu.Comparisons;
+import immu.Immu;
+import immu.ImmuOptions;
 import immu.Required;
 import immu.Immutable;
+import immu.Interner;
+import immu.Lazy;
 import immu.ValueNotProvidedException;
 import immu.element.ImmuObjectElement;
 import immu.element.ImmuProperty;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.Serializable;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -21,6 +38,32 @@ import java.util.stream.Collectors;
  */
 public class ImmuObjectClasser extends ImmuClasser {
 
+  /**
+   * The bit ranges of packed properties in {@code long} or {@code int} fields.
+   *
+   * @see Immu#packed()
+   */
+  private static final class Packing {
+    private final Map<String, Integer> words = new HashMap<>();
+    private final Map<String, Integer> offsets = new HashMap<>();
+    private final List<Integer> used = new ArrayList<>();
+    private final List<List<ImmuProperty>> contents = new ArrayList<>();
+
+    private boolean isPacked(ImmuProperty property) {
+      return words.containsKey(property.name().toString());
+    }
+
+    private boolean isWide(int word) {
+      return used.get(word) > 32;
+    }
+  }
+
+  /** The packing of the properties currently generated, empty unless {@link Immu#packed()} is set. */
+  private Packing packing = new Packing();
+
+  /** Accesses the values of properties through the fields of the object, or the accessors of packed ones. */
+  private final Function<ImmuProperty, String> thisField = (p) -> field("this", p);
+
   /**
    * Create an object classer from the element.
    * @param element the element, must not be null
@@ -36,22 +79,92 @@ public class ImmuObjectClasser extends ImmuClasser {
 
   @Override
   public TypeSpec generate(ProcessingEnvironment env) {
-    final ClassName immuClass = className();
+    return generate(env, false);
+  }
+
+  /**
+   * Checks if the implementation is generated as a record, which is the case if {@link ImmuOptions#records}
+   * allows it and the object has no state besides the values of the properties, i.e. no cached values and no
+   * packed fields.
+   * @param env the environment, must not be null
+   * @param records the value of {@link ImmuOptions#records}
+   * @return if {@link #generateRecord(ProcessingEnvironment)} should be used instead of {@link #generate(ProcessingEnvironment)}
+   */
+  public boolean isRecord(ProcessingEnvironment env, boolean records) {
+    return records && null == classReason(env);
+  }
+
+  /**
+   * Returns why the implementation can not be a record, since it has state besides the values of the
+   * properties.
+   * @param env the environment, must not be null
+   * @return the reason, or null if the implementation can be a record
+   */
+  public String classReason(ProcessingEnvironment env) {
+    if (!Immu.Caching.NONE.equals(element.caching())) {
+      return "its caching is " + element.caching() + ", which needs fields for the cached values";
+    }
+
+    if (element.isPacked()) {
+      return "it is packed, which stores properties in shared fields";
+    }
+
+    if (!element.allLazyProperties(env).isEmpty()) {
+      return "it has @Lazy methods, whose values are memoized in fields";
+    }
+
+    return null;
+  }
+
+  /**
+   * Generates the source of the implementation as a record, with the properties as components and the same
+   * members as the class otherwise. The record is written from the rendered class, since JavaPoet can not
+   * declare records.
+   * @param env the environment, must not be null
+   * @return the source of the record, never null
+   */
+  public String generateRecord(ProcessingEnvironment env) {
     final ClassName objectClass = objectClass();
 
-    final List<ImmuProperty> declaredProperties = element.properties();
-    final List<ImmuProperty> inheritedProperties = element.superProperties(env);
+    final String source = JavaFile.builder(objectClass.packageName(), generate(env, true))
+        .build()
+        .toString();
+
+    // fully qualified types, since the imports of the file are chosen for the class without fields
+    final String components = properties(env)
+        .stream()
+        .map((p) -> TypeName.get(p.returnType()) + " " + p.name())
+        .collect(Collectors.joining(", "));
+
+    final String declaration = "\nfinal class " + objectClass.simpleName();
+
+    final int start = source.indexOf(declaration);
+    final int typeVariablesStart = start + declaration.length();
+    final int typeVariablesEnd = source.indexOf(" implements ", typeVariablesStart);
+
+    return source.substring(0, start)
+        + "\nrecord " + objectClass.simpleName()
+        + source.substring(typeVariablesStart, typeVariablesEnd)
+        + "(" + components + ")"
+        + source.substring(typeVariablesEnd);
+  }
+
+  private TypeSpec generate(ProcessingEnvironment env, boolean record) {
+    final ClassName immuClass = className();
+    final ClassName objectClass = objectClass();
 
-    final List<ImmuProperty> properties = new ArrayList<>(declaredProperties.size() + inheritedProperties.size());
+    final List<ImmuProperty> properties = properties(env);
 
-    properties.addAll(declaredProperties);
-    properties.addAll(inheritedProperties);
+    packing = element.isPacked() ? pack(properties) : new Packing();
 
     final List<FieldSpec> fields = properties
         .stream()
+        .filter((p) -> !packing.isPacked(p))
         .map((p) -> FieldSpec.builder(TypeName.get(p.returnType()), p.name().toString(), Modifier.PRIVATE, Modifier.FINAL).build())
         .collect(Collectors.toList());
 
+    fields.addAll(packedFields());
+
     final List<ParameterSpec> parameters = properties
         .stream()
         .map((p) -> ParameterSpec.builder(TypeName.get(p.returnType()), p.name().toString()).build())
@@ -64,22 +177,33 @@ public class ImmuObjectClasser extends ImmuClasser {
         .map((p) -> p.name().toString())
         .map((name) -> CodeBlock.builder()
             .beginControlFlow("if (null == " + name + ")")
-            .addStatement("throw $T.forProperty($S)", ValueNotProvidedException.class, name)
+            .addStatement("throw $T.$L($S)", ValueNotProvidedException.class, element.hasStacklessExceptions() ? "stacklessForProperty" : "forProperty", name)
             .endControlFlow())
         .reduce(CodeBlock.builder(), (cba, cbb) -> cba.add(cbb.build()))
         .build();
 
     final CodeBlock constructorInitializer = properties
         .stream()
+        .filter((p) -> !packing.isPacked(p))
         .map((p) -> p.name().toString())
         .map((p) -> CodeBlock.builder().addStatement("this." + p + " = " + p))
         .reduce(CodeBlock.builder(), (cba, cbb) -> cba.add(cbb.build()))
+        .add(packedInitializer())
         .build();
 
+    final CodeBlock.Builder constructorCacheInitializer = CodeBlock.builder();
+
+    if (Immu.Caching.EAGER.equals(element.caching())) {
+      constructorCacheInitializer
+          .add(hashCodeComputation(properties, thisField))
+          .addStatement("this.computedHashCode = hashCode");
+    }
+
     final MethodSpec constructor = MethodSpec.constructorBuilder()
         .addParameters(parameters)
         .addCode(constructorDeclaredRequiredChecker)
         .addCode(constructorInitializer)
+        .addCode(constructorCacheInitializer.build())
         .addJavadoc(CodeBlock.builder()
             .add("Construct a new immutable object. Only copies and checks for null values of the provided arguments.\n")
             .add("@see $T#build()\n", builderClass())
@@ -87,33 +211,93 @@ public class ImmuObjectClasser extends ImmuClasser {
             .build())
         .build();
 
+    final List<MethodSpec> hashCodeCarriers = new ArrayList<>();
+
+    if (isHashCodeIncremental(properties)) {
+      hashCodeCarriers.add(MethodSpec.constructorBuilder()
+          .addParameters(parameters)
+          .addParameter(int.class, "computedHashCode")
+          .addCode(constructorDeclaredRequiredChecker)
+          .addCode(constructorInitializer)
+          .addStatement("this.computedHashCode = computedHashCode")
+          .addJavadoc(CodeBlock.builder()
+              .add("Construct a new immutable object with a hash code that was updated from the one of another object,\n")
+              .add("instead of computing it from all values.\n")
+              .add("@see $T#build()\n", builderClass())
+              .add("@throws $T if a property is annotated as {@link $T} but has been given a value of null\n", ValueNotProvidedException.class, Required.class)
+              .build())
+          .build());
+
+      hashCodeCarriers.add(MethodSpec.methodBuilder("cachedHashCode")
+          .returns(int.class)
+          .addStatement("return this.computedHashCode")
+          .addJavadoc(CodeBlock.builder()
+              .add("Returns the cached hash code, so that objects built from this one can update it.\n")
+              .add("@return the hash code, or 0 if it was not computed yet\n")
+              .build())
+          .build());
+    }
+
     final MethodSpec hashCode = MethodSpec.methodBuilder("hashCode")
         .addModifiers(Modifier.PUBLIC)
         .returns(int.class)
         .addAnnotation(Override.class)
         .addCode(hashCodeBlock(immuClass, properties))
-        .addJavadoc(CodeBlock.builder()
-            .add("Computes the hash code for this object. This is an XOR operation of the hash codes of all properties")
-            .add("in {@link $T} as well as {@code $T.class.getCanonicalName().hashCode()}.\n", immuClass, immuClass)
-            .add("@return the hash code\n")
-            .build())
+        .addJavadoc(hashCodeJavadoc())
         .build();
 
     final MethodSpec toString = MethodSpec.methodBuilder("toString")
         .addModifiers(Modifier.PUBLIC)
         .returns(String.class)
         .addAnnotation(Override.class)
-        .addCode(toStringBlock(immuClass, properties))
+        .addCode(toStringBlock(properties))
         .addJavadoc(CodeBlock.builder()
             .add("Constructs a string representing the immutable object described in {@link $T}.\n", immuClass)
             .add("<p>\nThe format of the string will be:\n")
             .add("<pre>$T@0abcdefa{ propertyName = &lt;VALUE&gt;, propertyName = @null }</pre>\n", immuClass)
             .add("<p>\nThe order of the properties will be the same as defined in {@link $T}.\n", immuClass)
             .add("<p>\n{@code @null} means the value was null, and {@code <null>} means that there was an object who's toString evaluated to {@code \"null\"}.\n")
+            .add("@see #appendTo(Appendable)\n")
             .add("@return the string representation, never null\n")
             .build())
         .build();
 
+    final TypeVariableName appendableType = TypeVariableName.get("A", Appendable.class);
+
+    final MethodSpec appendTo = MethodSpec.methodBuilder("appendTo")
+        .addModifiers(Modifier.PUBLIC)
+        .addTypeVariable(appendableType)
+        .returns(appendableType)
+        .addParameter(appendableType, "appendable")
+        .addException(IOException.class)
+        .addCode(appendToBlock(env, properties, thisField))
+        .addStatement("return appendable")
+        .addJavadoc(appendToJavadoc(env)
+            .add("@param appendable the appendable, must not be null\n")
+            .add("@return the provided appendable, for chaining\n")
+            .add("@throws $T if the appendable throws\n", IOException.class)
+            .build())
+        .build();
+
+    final MethodSpec appendToBuilder = MethodSpec.methodBuilder("appendTo")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(StringBuilder.class)
+        .addParameter(StringBuilder.class, "builder")
+        .addCode(CodeBlock.builder()
+            .beginControlFlow("try")
+            .addStatement("appendTo(($T) builder)", Appendable.class)
+            .nextControlFlow("catch ($T e)", IOException.class)
+            .add("// $T never throws\n", StringBuilder.class)
+            .addStatement("throw new $T(e)", AssertionError.class)
+            .endControlFlow()
+            .addStatement("return builder")
+            .build())
+        .addJavadoc(appendToJavadoc(env)
+            .add("@param builder the builder, must not be null\n")
+            .add("@return the provided builder, for chaining\n")
+            .build())
+        .build();
+
     final MethodSpec equals = MethodSpec.methodBuilder("equals")
         .addModifiers(Modifier.PUBLIC)
         .returns(boolean.class)
@@ -124,11 +308,20 @@ public class ImmuObjectClasser extends ImmuClasser {
             .add("Checks whether the provided object is equal to this object.\n")
             .add("<p>\nDiffers slightly from the normal Java convention in that it will consider the provided object")
             .add("as equal if and only if it is an instance of {@link $T}.\n", immuClass)
-            .add("<p>\nAfterwards, all properties are being compared for equality.\n")
+            .add("<p>\nAfterwards, all properties are being compared for equality. Instances of this class are compared\n")
+            .add("field by field, without calling the accessors, see {@link #equalFields($T)}.\n", objectClass)
             .add("@return if the objects are equal\n")
             .build())
         .build();
 
+    final MethodSpec equalFields = equalFields(objectClass, properties);
+
+    final List<MethodSpec> comparable = new ArrayList<>();
+
+    if (!element.comparableBy().isEmpty()) {
+      comparable.add(compareTo(immuClass, objectClass, properties));
+    }
+
     final List<MethodSpec> methods = properties
         .stream()
         .map((p) -> MethodSpec.methodBuilder(p.name().toString())
@@ -136,192 +329,890 @@ public class ImmuObjectClasser extends ImmuClasser {
                       .returns(TypeName.get(p.returnType()))
                       .addAnnotation(Override.class)
                       .addCode(CodeBlock.builder()
-                          .addStatement("return this." + p.name().toString())
+                          .addStatement("return " + (packing.isPacked(p) ? unpacked(p) : accessed(p)))
                           .build())
                       .build())
         .collect(Collectors.toList());
 
+    final List<MethodSpec> views = properties
+        .stream()
+        .filter((p) -> null != viewType(p))
+        .map(this::view)
+        .collect(Collectors.toList());
+
+    final List<MethodSpec> raws = properties
+        .stream()
+        .filter(ImmuClasser::isCopiedOnAccess)
+        .map(this::raw)
+        .collect(Collectors.toList());
+
+    final List<MethodSpec> withers = properties
+        .stream()
+        .map((p) -> wither(properties, p))
+        .collect(Collectors.toList());
+
     final List<TypeVariableName> typeVariables = element.typeElement().getTypeParameters()
         .stream()
         .map(TypeVariableName::get)
         .collect(Collectors.toList());
 
-    final MethodSpec clear = MethodSpec.methodBuilder("clear")
-        .addModifiers(Modifier.PUBLIC)
-        .addAnnotation(Override.class)
-        .addCode(CodeBlock.builder()
-            .addStatement("this.computedToString = null")
-            .build())
-        .returns(void.class)
-        .addJavadoc(CodeBlock.builder()
-            .add("Clears the cached computed {@link #toString()} value.\n")
-            .build())
-        .build();
+    final List<ImmuProperty> lazies = element.allLazyProperties(env);
+
+    final List<FieldSpec> lazyFields = new ArrayList<>();
+    lazies.forEach((l) -> lazyFields.addAll(lazyFields(env, l)));
+
+    final List<MethodSpec> lazyMethods = lazies
+        .stream()
+        .map((l) -> lazyMethod(env, l))
+        .collect(Collectors.toList());
+
+    final MethodSpec clear = clear(env, lazies);
 
-    return TypeSpec.classBuilder(objectClass)
+    final List<MethodSpec> fingerprintMethods = new ArrayList<>();
+
+    if (element.hasFingerprint() && !Immu.Caching.NONE.equals(element.caching())) {
+      // computed lazily like the lazy properties, and counted with them in the footprint
+      lazyFields.add(FieldSpec.builder(long.class, "computedFingerprint", Modifier.PRIVATE, Modifier.TRANSIENT, Modifier.VOLATILE).build());
+      fingerprintMethods.add(fingerprint64());
+    }
+
+    final TypeSpec.Builder builder = TypeSpec.classBuilder(objectClass)
         .addModifiers(Modifier.FINAL)
         .addTypeVariables(typeVariables)
         .addSuperinterface(immuClass)
-        .addSuperinterface(Immutable.class)
-        .addFields(fields)
-        .addField(FieldSpec.builder(int.class, "computedHashCode", Modifier.PRIVATE, Modifier.TRANSIENT, Modifier.VOLATILE).build())
-        .addField(FieldSpec.builder(String.class, "computedToString", Modifier.PRIVATE, Modifier.TRANSIENT, Modifier.VOLATILE).build())
+        .addSuperinterface(Immutable.class);
+
+    if (element.isInterned()) {
+      interning(builder, immuClass, objectClass, properties);
+    }
+
+    if (element.isSerializable()) {
+      serialization(env, builder, objectClass, properties);
+    }
+
+    if (!comparable.isEmpty()) {
+      builder.addSuperinterface(ParameterizedTypeName.get(ClassName.get(Comparable.class), immuClass));
+    }
+
+    return builder
+        .addFields(record ? Collections.<FieldSpec>emptyList() : fields)
+        .addFields(cacheFields())
+        .addFields(lazyFields)
         .addMethod(constructor)
+        .addMethods(hashCodeCarriers)
         .addMethods(methods)
+        .addMethods(views)
+        .addMethods(raws)
+        .addMethods(lazyMethods)
+        .addMethods(withers)
         .addMethod(hashCode)
         .addMethod(equals)
+        .addMethod(equalFields)
+        .addMethods(comparable)
         .addMethod(toString)
+        .addMethod(appendTo)
+        .addMethod(appendToBuilder)
         .addMethod(clear)
+        .addMethods(fingerprintMethods)
         .addJavadoc(CodeBlock.builder()
             .add("An immutable implementation of {@link $T}.\n", immuClass)
             .add("<p>\nYou should avoid usage of this class, and instead prefer using the {@link $T}.\n", builderClass())
+            .add(footprintJavadoc(properties, cacheFields(), lazyFields))
+            .add(record ? "<p>\nA record, so that the JIT trusts its fields to be final and can constant-fold values read\nfrom objects in {@code static final} fields.\n" : "")
             .add("@see $T\n", immuClass)
             .build())
         .build();
   }
 
-  private CodeBlock toStringBlock(ClassName immuClass, List<ImmuProperty> properties) {
-    final CodeBlock.Builder builder = CodeBlock.builder()
-          .addStatement("final $T existingToString = this.computedToString", String.class)
-          .beginControlFlow("if (null != existingToString)")
-          .addStatement("return existingToString")
-          .endControlFlow()
-          .addStatement("final $T builder = new $T()", StringBuilder.class, StringBuilder.class)
-          .addStatement("builder.append(\"$T@\")", immuClass)
-          .addStatement("builder.append($T.format(($T) null, $S, $T.identityHashCode(this)))", String.class, Locale.class, "@%08x", System.class);
+  /**
+   * Returns an expression with the value of the property of an instance of this class.
+   * @param target the expression for the instance, must not be null
+   * @param property the property, must not be null
+   * @return the field, or the accessor for packed properties
+   */
+  private String field(String target, ImmuProperty property) {
+    return target + "." + property.name() + (packing.isPacked(property) ? "()" : "");
+  }
 
-    if (properties.isEmpty()) {
-      builder.addStatement("builder.append($S)", "{  }");
-    } else {
-      builder.addStatement("builder.append($S)", "{ ");
-      toStringInvocation(builder, properties.get(0));
+  private static int bits(ImmuProperty property) {
+    switch (property.returnType().getKind()) {
+      case BOOLEAN:
+        return 1;
+
+      case BYTE:
+        return 8;
+
+      case SHORT:
+      case CHAR:
+        return 16;
+
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Assigns the boolean, byte, short and char properties to bit ranges, widest first, each into the first
+   * word that has room for it. Words with at most 32 used bits become {@code int} fields.
+   */
+  private static Packing pack(List<ImmuProperty> properties) {
+    final Packing packing = new Packing();
+
+    final List<ImmuProperty> packable = properties
+        .stream()
+        .filter((p) -> bits(p) > 0)
+        .sorted(Comparator.comparingInt((ImmuProperty p) -> bits(p)).reversed())
+        .collect(Collectors.toList());
+
+    for (ImmuProperty property : packable) {
+      final int bits = bits(property);
+
+      int word = 0;
+
+      while (word < packing.used.size() && packing.used.get(word) + bits > 64) {
+        word++;
+      }
+
+      if (word == packing.used.size()) {
+        packing.used.add(0);
+        packing.contents.add(new ArrayList<>());
+      }
+
+      packing.words.put(property.name().toString(), word);
+      packing.offsets.put(property.name().toString(), packing.used.get(word));
+      packing.used.set(word, packing.used.get(word) + bits);
+      packing.contents.get(word).add(property);
+    }
+
+    return packing;
+  }
+
+  private List<FieldSpec> packedFields() {
+    final ClassName immuClass = className();
+
+    final List<FieldSpec> fields = new ArrayList<>();
+
+    for (int word = 0; word < packing.used.size(); word++) {
+      final CodeBlock.Builder javadoc = CodeBlock.builder()
+          .add("Holds the packed values of:\n<ul>\n");
+
+      for (ImmuProperty property : packing.contents.get(word)) {
+        final int offset = packing.offsets.get(property.name().toString());
+
+        javadoc.add("<li>bits " + offset + " to " + (offset + bits(property) - 1) + ": {@link $T#" + property.name() + "()}</li>\n", immuClass);
+      }
+
+      fields.add(FieldSpec.builder(packing.isWide(word) ? long.class : int.class, "packed" + word, Modifier.PRIVATE, Modifier.FINAL)
+          .addJavadoc(javadoc.add("</ul>\n").build())
+          .build());
+    }
+
+    return fields;
+  }
 
-      properties
+  private CodeBlock packedInitializer() {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    for (int word = 0; word < packing.used.size(); word++) {
+      final String suffix = packing.isWide(word) ? "L" : "";
+
+      final String value = packing.contents.get(word)
           .stream()
-          .skip(1)
-          .forEach((p) -> {
-            builder.addStatement("builder.append($S)", ", ");
-            toStringInvocation(builder, p);
-          });
+          .map((p) -> {
+            final String name = p.name().toString();
+            final int offset = packing.offsets.get(name);
+            final String masked;
+
+            switch (p.returnType().getKind()) {
+              case BOOLEAN:
+                return "(" + name + " ? 0x" + Long.toHexString(1L << offset) + suffix + " : 0" + suffix + ")";
+
+              case BYTE:
+                masked = "(" + name + " & 0xff" + suffix + ")";
+                break;
+
+              default:
+                masked = "(" + name + " & 0xffff" + suffix + ")";
+            }
+
+            return 0 == offset ? masked : "(" + masked + " << " + offset + ")";
+          })
+          .collect(Collectors.joining(" | "));
 
-      builder.addStatement("builder.append($S)", " }");
+      builder.addStatement("this.packed" + word + " = " + value);
     }
 
-    builder.addStatement("final $T generatedToString = builder.toString()", String.class);
-    builder.addStatement("this.computedToString = generatedToString");
+    return builder.build();
+  }
 
-    return builder.addStatement("return generatedToString")
-        .build();
+  private String unpacked(ImmuProperty property) {
+    final String name = property.name().toString();
+    final int word = packing.words.get(name);
+    final int offset = packing.offsets.get(name);
+    final String field = "this.packed" + word;
+    final String shifted = 0 == offset ? field : "(" + field + " >>> " + offset + ")";
+
+    switch (property.returnType().getKind()) {
+      case BOOLEAN:
+        return "0 != (" + field + " & 0x" + Long.toHexString(1L << offset) + (packing.isWide(word) ? "L" : "") + ")";
+
+      default:
+        return "(" + property.returnType() + ") " + shifted;
+    }
   }
 
-  private void toStringInvocation(CodeBlock.Builder builder, ImmuProperty p) {
-    final String name = p.name().toString();
+  /**
+   * Estimates the bytes per instance with compressed references: a 12 byte header, each field at its size,
+   * rounded up to a multiple of 8.
+   */
+  private static int footprint(List<FieldSpec> fields) {
+    int size = 12;
 
-    builder.addStatement("builder.append($S)", name + " = ");
+    for (FieldSpec field : fields) {
+      if (field.modifiers.contains(Modifier.STATIC)) {
+        continue;
+      }
 
-    if (p.isRequired() || p.isPrimitive()) {
-      builder.addStatement("builder.append('<')");
-      if (p.isPrimitive()) {
-        builder.addStatement("builder.append(this." + name + ")");
+      if (TypeName.BOOLEAN.equals(field.type) || TypeName.BYTE.equals(field.type)) {
+        size += 1;
+      } else if (TypeName.SHORT.equals(field.type) || TypeName.CHAR.equals(field.type)) {
+        size += 2;
+      } else if (TypeName.LONG.equals(field.type) || TypeName.DOUBLE.equals(field.type)) {
+        size += 8;
       } else {
-        if (TypeKind.ARRAY.equals(p.returnType().getKind())) {
-          builder.addStatement("builder.append($T.toString(this." + name + "))", Arrays.class);
-        } else {
-          builder.addStatement("builder.append(this." + name + ")");
-        }
+        size += 4;
       }
-      builder.addStatement("builder.append('>')");
+    }
 
-      if (!p.isPrimitive()) {
-        builder.addStatement("builder.append($T.format(($T) null, $S, $T.identityHashCode(this." + name + ")))", String.class, Locale.class, "@%08x", System.class);
-      }
-    } else {
-      builder.beginControlFlow("if (null != this." + name + ")");
-      builder.addStatement("builder.append('<')");
-      if (TypeKind.ARRAY.equals(p.returnType().getKind())) {
-        builder.addStatement("builder.append($T.toString(this." + name + "))", Arrays.class);
+    return (size + 7) & ~7;
+  }
+
+  private CodeBlock footprintJavadoc(List<ImmuProperty> properties, List<FieldSpec> cacheFields, List<FieldSpec> lazyFields) {
+    if (!element.isPacked()) {
+      return CodeBlock.builder().build();
+    }
+
+    final List<FieldSpec> unpacked = properties
+        .stream()
+        .map((p) -> FieldSpec.builder(TypeName.get(p.returnType()), p.name().toString()).build())
+        .collect(Collectors.toList());
+
+    final List<FieldSpec> packed = properties
+        .stream()
+        .filter((p) -> !packing.isPacked(p))
+        .map((p) -> FieldSpec.builder(TypeName.get(p.returnType()), p.name().toString()).build())
+        .collect(Collectors.toList());
+
+    packed.addAll(packedFields());
+
+    for (List<FieldSpec> fields : Arrays.asList(unpacked, packed)) {
+      fields.addAll(cacheFields);
+      fields.addAll(lazyFields);
+    }
+
+    return CodeBlock.builder()
+        .add("<p>\nThe boolean, byte, short and char properties are packed into " + packing.used.size() + " field(s). An instance\n")
+        .add("is estimated to take " + footprint(packed) + " bytes instead of " + footprint(unpacked) + " bytes, with compressed references and\n")
+        .add("a 12 byte header.\n")
+        .build();
+  }
+
+  private MethodSpec wither(List<ImmuProperty> properties, ImmuProperty property) {
+    final ClassName immuClass = className();
+    final String name = property.name().toString();
+
+    final String arguments = properties
+        .stream()
+        .map((p) -> p == property ? copied(p, name) : field("this", p))
+        .collect(Collectors.joining(", "));
+
+    final CodeBlock.Builder javadoc = CodeBlock.builder()
+        .add("Returns an object with the provided value for {@link $T#" + name + "()}, and the values of this object\n", immuClass)
+        .add("for all other properties. The object is constructed directly, without going through a builder.\n")
+        .add("<p>\nIf the value is the same as the current one, this object is returned and nothing is allocated.\n");
+
+    if (isHashCodeIncremental(properties)) {
+      javadoc.add("If the hash code of this object was computed, the one of the new object is updated from it, without\n")
+          .add("hashing the other values.\n");
+    }
+
+    if (property.isRequired() && !property.isPrimitive()) {
+      javadoc.add("@throws $T if the value is null\n", ValueNotProvidedException.class);
+    }
+
+    final CodeBlock.Builder code = CodeBlock.builder()
+        .beginControlFlow("if (" + unchanged(property) + ")")
+        .addStatement("return this")
+        .endControlFlow();
+
+    if (isHashCodeIncremental(properties)) {
+      code.addStatement("final int existingHashCode = this.computedHashCode")
+          .beginControlFlow("if (0 != existingHashCode)");
+
+      final String value;
+
+      if (copied(property, name).equals(name)) {
+        value = name;
       } else {
-        builder.addStatement("builder.append(this." + name + ")");
+        value = name + "Copy";
+        code.addStatement("final $T $L = $L", TypeName.get(property.returnType()), value, copied(property, name));
       }
-      builder.addStatement("builder.append('>')");
-      builder.addStatement("builder.append($T.format(($T) null, $S, $T.identityHashCode(this." + name + ")))", String.class, Locale.class, "@%08x", System.class);
-      builder.nextControlFlow("else");
-      builder.addStatement("builder.append($S)", "@null");
-      builder.endControlFlow();
+
+      final String updatedArguments = properties
+          .stream()
+          .map((p) -> p == property ? value : field("this", p))
+          .collect(Collectors.joining(", "));
+
+      code.addStatement("int hashCode = existingHashCode")
+          .add(hashCodeUpdate(property, field("this", property), value))
+          .addStatement("return $L", newObject(updatedArguments + ", hashCode"))
+          .endControlFlow();
     }
+
+    code.addStatement("return $L", newObject(arguments));
+
+    return MethodSpec.methodBuilder(witherName(property))
+        .addModifiers(Modifier.PUBLIC)
+        .returns(objectClass())
+        .addParameter(TypeName.get(property.returnType()), name, Modifier.FINAL)
+        .addCode(code.build())
+        .addJavadoc(javadoc
+            .add("@param " + name + " the new value\n")
+            .add(element.isInterned() ? "@return the canonical object with the value, never null\n" : "@return this or a new object with the value, never null\n")
+            .build())
+        .build();
   }
 
-  private CodeBlock hashCodeBlock(ClassName immuClass, List<ImmuProperty> properties) {
-    final CodeBlock.Builder builder = CodeBlock.builder();
+  /**
+   * Returns the expression the accessor of the property returns, which is a copy of the field for
+   * properties copied on access.
+   */
+  private static String accessed(ImmuProperty property) {
+    final String field = "this." + property.name();
 
-    builder.addStatement("final int existingHashCode = this.computedHashCode");
-    builder.beginControlFlow("if (0 != existingHashCode)");
-    builder.addStatement("return existingHashCode");
-    builder.endControlFlow();
+    return isCopiedOnAccess(property) ? copied(property, field) : field;
+  }
 
-    if (properties.isEmpty()) {
-      builder.addStatement("final int hashCode = $T.class.getCanonicalName().hashCode()", immuClass);
-      builder.addStatement("this.computedHashCode = hashCode");
-      builder.addStatement("return hashCode");
+  private MethodSpec raw(ImmuProperty property) {
+    final String name = property.name().toString();
 
-      return builder.build();
+    return MethodSpec.methodBuilder(rawName(property))
+        .returns(TypeName.get(property.returnType()))
+        .addStatement("return this.$L", name)
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the array of {@link #" + name + "()} without copying it, so that builders can compare it by\n")
+            .add("identity. It must neither be modified nor handed out.\n")
+            .add("@return the array, may be null\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec view(ImmuProperty property) {
+    final String name = property.name().toString();
+
+    return MethodSpec.methodBuilder(viewName(property))
+        .returns(viewType(property))
+        .addStatement("return null == this.$L ? null : $T.wrap(this.$L).asReadOnlyBuffer()", name, viewType(property), name)
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns a read-only view of the array of {@link #" + name + "()}, without copying it.\n")
+            .add("@return the view, or null if the value is null\n")
+            .build())
+        .build();
+  }
+
+  /**
+   * Returns the name of the copy-on-write method for the property, such as {@code withName}.
+   * @param property the property, must not be null
+   * @return the method name, never null
+   */
+  static String witherName(ImmuProperty property) {
+    final String name = property.name().toString();
+
+    return "with" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * Returns a condition that holds if the parameter for the property is the same as the field. Floating
+   * point values are compared by their bits, so that {@code -0.0} and {@code NaN} are handled exactly.
+   */
+  private String unchanged(ImmuProperty property) {
+    final String name = property.name().toString();
+
+    switch (property.returnType().getKind()) {
+      case FLOAT:
+        return "Float.floatToIntBits(" + name + ") == Float.floatToIntBits(this." + name + ")";
+
+      case DOUBLE:
+        return "Double.doubleToLongBits(" + name + ") == Double.doubleToLongBits(this." + name + ")";
+
+      case DECLARED:
+      case TYPEVAR:
+        return name + " == this." + name + " || (null != " + name + " && " + name + ".equals(this." + name + "))";
+
+      default:
+        return name + " == " + field("this", property);
+    }
+  }
+
+  private List<FieldSpec> cacheFields() {
+    switch (element.caching()) {
+      case EAGER:
+        return Collections.singletonList(
+            FieldSpec.builder(int.class, "computedHashCode", Modifier.PRIVATE, Modifier.FINAL, Modifier.TRANSIENT).build());
+
+      case RACY:
+        return Arrays.asList(
+            FieldSpec.builder(int.class, "computedHashCode", Modifier.PRIVATE, Modifier.TRANSIENT).build(),
+            FieldSpec.builder(String.class, "computedToString", Modifier.PRIVATE, Modifier.TRANSIENT).build());
+
+      case NONE:
+        return Collections.emptyList();
+
+      default:
+        return Arrays.asList(
+            FieldSpec.builder(int.class, "computedHashCode", Modifier.PRIVATE, Modifier.TRANSIENT, Modifier.VOLATILE).build(),
+            FieldSpec.builder(String.class, "computedToString", Modifier.PRIVATE, Modifier.TRANSIENT, Modifier.VOLATILE).build());
     }
+  }
+
+  /**
+   * Caches the fingerprint with racy single-check, where 0 is the sentinel like for the hash code. The field
+   * is volatile so that it can not be read half-written.
+   */
+  private MethodSpec fingerprint64() {
+    return MethodSpec.methodBuilder("fingerprint64")
+        .returns(long.class)
+        .addStatement("long fingerprint = this.computedFingerprint")
+        .beginControlFlow("if (0L == fingerprint)")
+        .addStatement("fingerprint = $T.compute(this)", fingerprintClass())
+        .addStatement("this.computedFingerprint = fingerprint")
+        .endControlFlow()
+        .addStatement("return fingerprint")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the cached fingerprint of this object.\n")
+            .add("@see $T#fingerprint64($T)\n", fingerprintClass(), className())
+            .add("@return the fingerprint\n")
+            .build())
+        .build();
+  }
+
+  private MethodSpec clear(ProcessingEnvironment env, List<ImmuProperty> lazies) {
+    final MethodSpec.Builder builder = MethodSpec.methodBuilder("clear")
+        .addModifiers(Modifier.PUBLIC)
+        .addAnnotation(Override.class)
+        .returns(void.class);
+
+    final List<ImmuProperty> releasable = lazies
+        .stream()
+        .filter((l) -> !lazyType(env, l).getKind().isPrimitive())
+        .collect(Collectors.toList());
 
-    builder.addStatement("int hashCode = $T.class.getCanonicalName().hashCode()", immuClass);
+    final boolean cachesToString;
 
-    for (ImmuProperty property : properties) {
-      hashCodeInvocation(property, builder);
+    switch (element.caching()) {
+      case EAGER:
+      case NONE:
+        cachesToString = false;
+        break;
+
+      default:
+        cachesToString = true;
     }
 
-    builder.addStatement("this.computedHashCode = hashCode");
+    if (!cachesToString && releasable.isEmpty()) {
+      return builder
+          .addJavadoc(CodeBlock.builder()
+              .add("Does nothing, since no values that can be cleared are cached.\n")
+              .build())
+          .build();
+    }
+
+    if (cachesToString) {
+      builder.addStatement("this.computedToString = null");
+      builder.addJavadoc("Clears the cached computed {@link #toString()} value.\n");
+    }
 
-    builder.addStatement("return hashCode");
+    if (!releasable.isEmpty()) {
+      releasable.forEach((l) -> builder.addStatement("this." + lazyFieldName(l) + " = null"));
+      builder.addJavadoc("Releases the cached values of {@link $T} methods, which are computed again on next use.\n", Lazy.class);
+    }
 
     return builder.build();
   }
 
-  private void hashCodeInvocation(ImmuProperty property, CodeBlock.Builder builder) {
-    final String value = "this." + property.name();
-    final TypeKind kind = property.returnType().getKind();
+  private static String lazyFieldName(ImmuProperty lazy) {
+    final String name = lazy.name().toString();
 
-    switch (kind) {
-      case ARRAY:
-        builder.addStatement("hashCode ^= $T.hashCode(" + value + ")", Arrays.class);
-        return;
+    return "computed" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
 
-      case INT:
-      case CHAR:
-      case BYTE:
-      case SHORT:
-        builder.addStatement("hashCode ^= " + value);
-        return;
+  private static String lazyFlagName(ImmuProperty lazy) {
+    final String name = lazy.name().toString();
+
+    return "hasComputed" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * Returns the type of the lazy method as a member of the interface, so that type variables of generic
+   * super-interfaces are resolved.
+   */
+  private TypeMirror lazyType(ProcessingEnvironment env, ImmuProperty lazy) {
+    final ExecutableType type = (ExecutableType) env.getTypeUtils().asMemberOf((DeclaredType) element.typeElement().asType(), lazy.element());
+
+    return type.getReturnType();
+  }
 
+  /**
+   * With racy single-check, the value is its own sentinel, and {@code long} and {@code double} fields are
+   * volatile so that they can not be read half-written. With double-checked locking, references are
+   * their own sentinel in a volatile field, and primitives are published through a volatile flag.
+   */
+  private List<FieldSpec> lazyFields(ProcessingEnvironment env, ImmuProperty lazy) {
+    final TypeMirror type = lazyType(env, lazy);
+    final TypeName typeName = TypeName.get(type);
+
+    if (Immu.Caching.RACY.equals(element.caching())) {
+      final boolean wide = TypeKind.LONG.equals(type.getKind()) || TypeKind.DOUBLE.equals(type.getKind());
+
+      final FieldSpec.Builder field = FieldSpec.builder(typeName, lazyFieldName(lazy), Modifier.PRIVATE, Modifier.TRANSIENT);
+
+      if (wide) {
+        field.addModifiers(Modifier.VOLATILE);
+      }
+
+      return Collections.singletonList(field.build());
+    }
+
+    if (!type.getKind().isPrimitive()) {
+      return Collections.singletonList(
+          FieldSpec.builder(typeName, lazyFieldName(lazy), Modifier.PRIVATE, Modifier.TRANSIENT, Modifier.VOLATILE).build());
+    }
+
+    return Arrays.asList(
+        FieldSpec.builder(typeName, lazyFieldName(lazy), Modifier.PRIVATE, Modifier.TRANSIENT).build(),
+        FieldSpec.builder(boolean.class, lazyFlagName(lazy), Modifier.PRIVATE, Modifier.TRANSIENT, Modifier.VOLATILE).build());
+  }
+
+  private MethodSpec lazyMethod(ProcessingEnvironment env, ImmuProperty lazy) {
+    final ClassName immuClass = className();
+    final TypeMirror type = lazyType(env, lazy);
+    final TypeName typeName = TypeName.get(type);
+    final String name = lazy.name().toString();
+    final String field = "this." + lazyFieldName(lazy);
+
+    final String unset;
+
+    switch (type.getKind()) {
       case BOOLEAN:
-        builder.addStatement("hashCode ^= (" + value + "? 1 : 0)");
-        return;
+        unset = "!value";
+        break;
 
+      case BYTE:
+      case SHORT:
+      case CHAR:
+      case INT:
       case LONG:
-        builder.addStatement("hashCode ^= (int) (" + value + " >> 32)");
-        builder.addStatement("hashCode ^= (int) " + value);
-        return;
-
       case FLOAT:
-        builder.addStatement("hashCode ^= $T.floatToIntBits(" + value + ")", Float.class);
-        return;
-
       case DOUBLE:
-        builder.addStatement("hashCode ^= (int) ($T.doubleToLongBits(" + value + ") >> 32)", Double.class);
-        builder.addStatement("hashCode ^= (int) $T.doubleToLongBits(" + value + ")", Double.class);
-        return;
+        unset = "0 == value";
+        break;
 
       default:
-        if (property.isRequired()) {
-          builder.addStatement("hashCode ^= " + value + ".hashCode()");
-          return;
-        }
+        unset = "null == value";
+    }
 
-        builder.addStatement("hashCode ^= $T.hashCode(" + value + ")", Objects.class);
-        return;
+    final CodeBlock.Builder code = CodeBlock.builder();
+
+    if (Immu.Caching.RACY.equals(element.caching())) {
+      code.addStatement("$T value = " + field, typeName)
+          .beginControlFlow("if (" + unset + ")")
+          .addStatement("value = $T.super." + name + "()", immuClass)
+          .addStatement(field + " = value")
+          .endControlFlow()
+          .addStatement("return value");
+    } else if (!type.getKind().isPrimitive()) {
+      code.addStatement("$T value = " + field, typeName)
+          .beginControlFlow("if (" + unset + ")")
+          .beginControlFlow("synchronized (this)")
+          .addStatement("value = " + field)
+          .beginControlFlow("if (" + unset + ")")
+          .addStatement("value = $T.super." + name + "()", immuClass)
+          .addStatement(field + " = value")
+          .endControlFlow()
+          .endControlFlow()
+          .endControlFlow()
+          .addStatement("return value");
+    } else {
+      final String flag = "this." + lazyFlagName(lazy);
+
+      code.beginControlFlow("if (!" + flag + ")")
+          .beginControlFlow("synchronized (this)")
+          .beginControlFlow("if (!" + flag + ")")
+          .addStatement(field + " = $T.super." + name + "()", immuClass)
+          .addStatement(flag + " = true")
+          .endControlFlow()
+          .endControlFlow()
+          .endControlFlow()
+          .addStatement("return " + field);
+    }
+
+    return MethodSpec.methodBuilder(name)
+        .addModifiers(Modifier.PUBLIC)
+        .returns(typeName)
+        .addAnnotation(Override.class)
+        .addCode(code.build())
+        .addJavadoc(CodeBlock.builder()
+            .add("Computes {@link $T#" + name + "()} at most once, and returns the cached value afterwards.\n", immuClass)
+            .add("@see $T\n", Lazy.class)
+            .build())
+        .build();
+  }
+
+  private void interning(TypeSpec.Builder builder, ClassName immuClass, ClassName objectClass, List<ImmuProperty> properties) {
+    if (properties.isEmpty()) {
+      builder.addField(FieldSpec.builder(objectClass, "INSTANCE", Modifier.STATIC, Modifier.FINAL)
+          .initializer("new $T()", objectClass)
+          .addJavadoc(CodeBlock.builder()
+              .add("The single instance of {@link $T}, since it has no properties.\n", immuClass)
+              .build())
+          .build());
+
+      return;
+    }
+
+    final ParameterizedTypeName internerClass = ParameterizedTypeName.get(ClassName.get(Interner.class), objectClass);
+
+    final TypeSpec interner = TypeSpec.anonymousClassBuilder("")
+        .superclass(internerClass)
+        .addMethod(MethodSpec.methodBuilder("equivalent")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PROTECTED)
+            .returns(boolean.class)
+            .addParameter(objectClass, "a")
+            .addParameter(objectClass, "b")
+            .addStatement("return a.equalFields(b)")
+            .build())
+        .build();
+
+    builder.addField(FieldSpec.builder(internerClass, "INTERNER", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+        .initializer("$L", interner)
+        .build());
+
+    builder.addMethod(MethodSpec.methodBuilder("intern")
+        .addModifiers(Modifier.STATIC)
+        .returns(objectClass)
+        .addParameter(objectClass, "instance")
+        .addStatement("return INTERNER.intern(instance)")
+        .addJavadoc(CodeBlock.builder()
+            .add("Returns the canonical instance equal to the provided instance.\n")
+            .add("<p>\nAll instances must pass through this method before being handed out, since {@link #equals(Object)} ")
+            .add("considers two different instances of this class as not equal.\n")
+            .add("@param instance the instance, must not be null\n")
+            .add("@return the canonical instance, never null\n")
+            .build())
+        .build());
+
+    builder.addMethod(MethodSpec.methodBuilder("equalProperties")
+        .addModifiers(Modifier.PRIVATE)
+        .returns(boolean.class)
+        .addParameter(immuClass, "immuObject")
+        .addCode(propertiesEqualBlock(properties, thisField))
+        .build());
+  }
+
+  /**
+   * Makes the implementation serializable through a nested serialization proxy, so that the stream holds
+   * the property values in a fixed order instead of the fields, whose layout depends on packing and caching,
+   * and objects are always read through the constructor.
+   */
+  private void serialization(ProcessingEnvironment env, TypeSpec.Builder builder, ClassName objectClass, List<ImmuProperty> properties) {
+    final ClassName proxyClass = objectClass.nestedClass("SerializationProxy");
+
+    final CodeBlock.Builder write = CodeBlock.builder();
+    final CodeBlock.Builder arguments = CodeBlock.builder();
+
+    // the proxy is static, so it can not refer to the type variables of a generic object, which it holds raw
+    final boolean raw = !element.typeElement().getTypeParameters().isEmpty();
+
+    boolean unchecked = false;
+
+    // the values are read in the constructor arguments, which are evaluated in order, so that no local variable
+    // is named after a property and could clash with the parameter
+    for (int i = 0; i < properties.size(); i++) {
+      final ImmuProperty property = properties.get(i);
+      final TypeMirror type = property.returnType();
+      final String name = property.name().toString();
+      final CodeBlock value;
+
+      if (type.getKind().isPrimitive()) {
+        final String method = dataMethodSuffix(type.getKind());
+
+        write.addStatement("out.write$L(this.immutable.$L())", method, name);
+        value = CodeBlock.of("in.read$L()", method);
+      } else {
+        // the arguments of generic types can not be checked anyway
+        final TypeName erasure = erasure(env, type);
+        final TypeName cast = raw ? erasure : TypeName.get(type);
+
+        unchecked |= !erasure.equals(cast);
+
+        write.addStatement("out.writeObject(this.immutable.$L())", name);
+        value = CodeBlock.of(copied(property, "$L"), CodeBlock.of("($T) in.readObject()", cast));
+      }
+
+      arguments.add(0 == i ? "$L" : ", $L", value);
+    }
+
+    final CodeBlock.Builder read = CodeBlock.builder()
+        .beginControlFlow("try")
+        .addStatement("this.immutable = $L", newObject(arguments.build()))
+        .nextControlFlow("catch ($T e)", ValueNotProvidedException.class)
+        .addStatement("final $T exception = new $T(e.getMessage())", InvalidObjectException.class, InvalidObjectException.class)
+        .addStatement("exception.initCause(e)")
+        .addStatement("throw exception")
+        .endControlFlow();
+
+    final MethodSpec.Builder readExternal = MethodSpec.methodBuilder("readExternal")
+        .addAnnotation(Override.class)
+        .addModifiers(Modifier.PUBLIC)
+        .addParameter(ObjectInput.class, "in")
+        .addException(IOException.class)
+        .addException(ClassNotFoundException.class)
+        .addCode(read.build());
+
+    if (unchecked) {
+      readExternal.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+          .addMember("value", "$S", "unchecked")
+          .build());
+    }
+
+    final TypeSpec proxy = TypeSpec.classBuilder(proxyClass)
+        .addModifiers(Modifier.STATIC, Modifier.FINAL)
+        .addSuperinterface(Externalizable.class)
+        .addField(FieldSpec.builder(long.class, "serialVersionUID", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("1L")
+            .build())
+        .addField(objectClass, "immutable", Modifier.PRIVATE)
+        .addMethod(MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addJavadoc(CodeBlock.builder()
+                .add("Construct an empty proxy, to be read by {@link #readExternal($T)}.\n", ObjectInput.class)
+                .build())
+            .build())
+        .addMethod(MethodSpec.constructorBuilder()
+            .addParameter(objectClass, "immutable")
+            .addStatement("this.immutable = immutable")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeExternal")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ObjectOutput.class, "out")
+            .addException(IOException.class)
+            .addCode(write.build())
+            .build())
+        .addMethod(readExternal.build())
+        .addMethod(MethodSpec.methodBuilder("readResolve")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(Object.class)
+            .addStatement("return this.immutable")
+            .build())
+        .addJavadoc(CodeBlock.builder()
+            .add("The serialized form of {@link $T}: the property values in the order of declaration, primitives without\n", objectClass)
+            .add("boxing. Reading constructs the object anew, which checks the {@link $T} properties" + (element.isInterned() ? " and returns the\ncanonical instance" : "") + ".\n", Required.class)
+            .build())
+        .build();
+
+    builder
+        .addSuperinterface(Serializable.class)
+        .addField(FieldSpec.builder(long.class, "serialVersionUID", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("1L")
+            .build())
+        .addMethod(MethodSpec.methodBuilder("writeReplace")
+            .addModifiers(Modifier.PRIVATE)
+            .returns(Object.class)
+            .addStatement("return new $T(this)", proxyClass)
+            .build())
+        .addMethod(MethodSpec.methodBuilder("readObject")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(ObjectInputStream.class, "stream")
+            .addException(InvalidObjectException.class)
+            .addStatement("throw new $T($S)", InvalidObjectException.class, "Serialization proxy required")
+            .addJavadoc(CodeBlock.builder()
+                .add("Rejects streams that contain the fields instead of the {@link $T}, which would bypass the constructor.\n", proxyClass)
+                .add("@param stream the stream\n")
+                .add("@throws $T always\n", InvalidObjectException.class)
+                .build())
+            .build())
+        .addType(proxy);
+  }
+
+  private static String dataMethodSuffix(TypeKind kind) {
+    final String name = kind.name().toLowerCase(Locale.ROOT);
+
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private CodeBlock.Builder appendToJavadoc(ProcessingEnvironment env) {
+    final CodeBlock.Builder builder = CodeBlock.builder()
+        .add("Appends the string representation of this object, without creating intermediate strings.\n");
+
+    if (toStringLimit(env) >= 0) {
+      builder.add("<p>\nOnly the first " + toStringLimit(env) + " elements of array, collection or map properties are appended.\n");
+    }
+
+    return builder.add("@see #toString()\n");
+  }
+
+  private CodeBlock toStringBlock(List<ImmuProperty> properties) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    final String capacity = Integer.toString(toStringCapacity(properties));
+
+    switch (element.caching()) {
+      case EAGER:
+      case NONE:
+        return builder
+            .addStatement("return appendTo(new $T(" + capacity + ")).toString()", StringBuilder.class)
+            .build();
+
+      default:
+        return builder
+            .addStatement("final $T existingToString = this.computedToString", String.class)
+            .beginControlFlow("if (null != existingToString)")
+            .addStatement("return existingToString")
+            .endControlFlow()
+            .addStatement("final $T generatedToString = appendTo(new $T(" + capacity + ")).toString()", String.class, StringBuilder.class)
+            .addStatement("this.computedToString = generatedToString")
+            .addStatement("return generatedToString")
+            .build();
+    }
+  }
+
+  private CodeBlock hashCodeBlock(ClassName immuClass, List<ImmuProperty> properties) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
+
+    switch (element.caching()) {
+      case EAGER:
+        return builder
+            .addStatement("return this.computedHashCode")
+            .build();
+
+      case NONE:
+        return builder
+            .add(hashCodeComputation(properties, thisField))
+            .addStatement("return hashCode")
+            .build();
+
+      default:
+        return builder
+            .addStatement("final int existingHashCode = this.computedHashCode")
+            .beginControlFlow("if (0 != existingHashCode)")
+            .addStatement("return existingHashCode")
+            .endControlFlow()
+            .add(hashCodeComputation(properties, thisField))
+            .addStatement("this.computedHashCode = hashCode")
+            .addStatement("return hashCode")
+            .build();
     }
   }
 
@@ -336,43 +1227,141 @@ public class ImmuObjectClasser extends ImmuClasser {
     builder.addStatement("return false");
     builder.endControlFlow();
 
+    if (element.isInterned()) {
+      // all instances of the implementation are canonical, so they can only be equal if identical
+      builder.beginControlFlow("if (object instanceof $T)", objectClass());
+      builder.addStatement("return false");
+      builder.endControlFlow();
+    } else {
+      builder.beginControlFlow("if (object instanceof $T)", objectClass());
+      builder.addStatement("return equalFields(($T) object)", objectType());
+      builder.endControlFlow();
+    }
+
     builder.beginControlFlow("if (!(object instanceof $T))", immuClass);
     builder.addStatement("return false");
     builder.endControlFlow();
 
+    if (element.isInterned() && !properties.isEmpty()) {
+      return builder
+          .addStatement("return equalProperties(($T) object)", immuClass)
+          .build();
+    }
+
     builder.addStatement("final $T immuObject = ($T) object", immuClass, immuClass);
 
-    properties.forEach((p) -> {
-      final String equalsInvocation = notEqualsInvocation(p);
+    return builder
+        .add(propertiesEqualBlock(properties, thisField))
+        .build();
+  }
+
+  private MethodSpec equalFields(ClassName objectClass, List<ImmuProperty> properties) {
+    final CodeBlock.Builder builder = CodeBlock.builder();
 
-      builder.beginControlFlow("if (" + equalsInvocation + ")");
-      builder.addStatement("return false");
-      builder.endControlFlow();
-    });
+    switch (element.caching()) {
+      case EAGER:
+        builder.beginControlFlow("if (this.computedHashCode != immutable.computedHashCode)");
+        builder.addStatement("return false");
+        builder.endControlFlow();
+        break;
 
-    builder.addStatement("return true");
+      case NONE:
+        break;
 
-    return builder.build();
+      default:
+        // zero means not yet computed, in which case it is cheaper to compare the fields than to compute it
+        builder.addStatement("final int hashCode = this.computedHashCode");
+        builder.addStatement("final int otherHashCode = immutable.computedHashCode");
+        builder.beginControlFlow("if (0 != hashCode && 0 != otherHashCode && hashCode != otherHashCode)");
+        builder.addStatement("return false");
+        builder.endControlFlow();
+    }
+
+    builder.add(propertiesEqualBlock(cheapestFirst(properties), thisField, (p) -> field("immutable", p)));
+
+    return MethodSpec.methodBuilder("equalFields")
+        .addModifiers(Modifier.PRIVATE)
+        .returns(boolean.class)
+        .addParameter(objectType(), "immutable")
+        .addCode(builder.build())
+        .addJavadoc(CodeBlock.builder()
+            .add("Compares the fields of this object with the ones of another instance of {@link $T}, without the\n", objectClass)
+            .add("megamorphic accessor calls of {@link #equals(Object)}.\n")
+            .add("<p>\nPrimitives are compared first, then references and finally arrays, so that the cheap comparisons\n")
+            .add("decide the result before the expensive ones are made. Objects whose hash codes are known to differ\n")
+            .add("are not compared at all.\n")
+            .add("@param immutable the other instance, must not be null\n")
+            .add("@return if all fields are equal\n")
+            .build())
+        .build();
   }
 
-  private String notEqualsInvocation(ImmuProperty property) {
-    final String name = property.name().toString();
-    final String a = "this." + name;
-    final String b = "immuObject." + name + "()";
+  private MethodSpec compareTo(ClassName immuClass, ClassName objectClass, List<ImmuProperty> properties) {
+    final List<ImmuProperty> keys = element.comparableBy()
+        .stream()
+        .map((name) -> properties
+            .stream()
+            .filter((p) -> name.equals(p.name().toString()))
+            .findFirst()
+            .get())
+        .collect(Collectors.toList());
 
-    switch (property.returnType().getKind()) {
-      case DECLARED:
-        if (property.isRequired()) {
-          return "!" + a + ".equals(" + b + ")";
-        }
+    final String order = keys
+        .stream()
+        .map((p) -> "{@link $T#" + p.name() + "()}")
+        .collect(Collectors.joining(", "));
 
-        return "!java.util.Objects.equals(" + a + ", " + b + ")";
+    return MethodSpec.methodBuilder("compareTo")
+        .addModifiers(Modifier.PUBLIC)
+        .returns(int.class)
+        .addAnnotation(Override.class)
+        .addParameter(immuClass, "other")
+        .beginControlFlow("if (other instanceof $T)", objectClass)
+        .addStatement("final $T immutable = ($T) other", objectType(), objectType())
+        .addCode(propertiesCompareBlock(keys, thisField, (p) -> field("immutable", p)))
+        .endControlFlow()
+        .addCode(propertiesCompareBlock(keys, thisField, (p) -> "other." + p.name() + "()"))
+        .addJavadoc(CodeBlock.builder()
+            .add("Compares this object with the provided one by " + order + ", in this order.\n", keys.stream().map((p) -> immuClass).toArray())
+            .add("Primitives are compared with the {@code compare} methods of their wrapper classes, and other values\n")
+            .add("with {@link $T#compare(Comparable, Comparable)}, which orders null values first. Floating-point\n", Comparisons.class)
+            .add("values are thus ordered with {@code NaN} equal to itself and {@code -0.0} below {@code 0.0}, consistent\n")
+            .add("with {@link #equals(Object)}, which compares their bits.\n")
+            .add("<p>\nInstances of this class are compared field by field, without calling the accessors.\n")
+            .add("@param other the other object, must not be null\n")
+            .add("@return a negative number, zero or a positive number if this object is less than, equal to or greater\n")
+            .add("        than the provided one\n")
+            .build())
+        .build();
+  }
 
-      case ARRAY:
-        return "!java.util.Arrays.equals(" + a + ", " + b + ")";
+  private TypeName objectType() {
+    final List<? extends TypeParameterElement> typeParameters = element.typeElement().getTypeParameters();
 
-      default:
-        return a + " != " + b;
+    if (typeParameters.isEmpty()) {
+      return objectClass();
     }
+
+    return ParameterizedTypeName.get(objectClass(), typeParameters
+        .stream()
+        .map((t) -> WildcardTypeName.subtypeOf(Object.class))
+        .toArray(TypeName[]::new));
+  }
+
+  private static List<ImmuProperty> cheapestFirst(List<ImmuProperty> properties) {
+    return properties
+        .stream()
+        .sorted(Comparator.comparingInt(ImmuObjectClasser::comparisonCost))
+        .collect(Collectors.toList());
+  }
+
+  private static int comparisonCost(ImmuProperty property) {
+    final TypeKind kind = property.returnType().getKind();
+
+    if (kind.isPrimitive()) {
+      return 0;
+    }
+
+    return TypeKind.ARRAY.equals(kind) ? 2 : 1;
   }
 }
@@ -5,6 +5,7 @@ import immu.element.predicate.ImmuPredicate;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -33,8 +34,26 @@ public abstract class ImmuElement {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the abstract methods of the element, i.e. without {@code default} and {@code static} methods.
+   * @return the methods, never null
+   */
   protected final List<Element> methods() {
-    return filter(ElementKind.METHOD);
+    return filter(ElementKind.METHOD)
+        .stream()
+        .filter((m) -> !m.getModifiers().contains(Modifier.DEFAULT) && !m.getModifiers().contains(Modifier.STATIC))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the {@code default} methods of the element.
+   * @return the methods, never null
+   */
+  protected final List<Element> defaultMethods() {
+    return filter(ElementKind.METHOD)
+        .stream()
+        .filter((m) -> m.getModifiers().contains(Modifier.DEFAULT))
+        .collect(Collectors.toList());
   }
 
   private List<Element> filter(ElementKind kind) {
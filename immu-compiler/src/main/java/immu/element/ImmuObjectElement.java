@@ -2,15 +2,24 @@ package immu.element;
 
 import immu.Immu;
 import immu.Immutable;
+import immu.Lazy;
 import immu.SuperImmu;
 import immu.element.predicate.ImmuPredicate;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.io.Serializable;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -60,10 +69,237 @@ public class ImmuObjectElement extends ImmuElement {
         return bothAnnotations ? ImmuPredicate.Result.warning(ImmuValidationMessages.immuAndSuperImmu(element)) : ImmuPredicate.Result.success();
       };
 
+  /** Checks that all properties can be encoded by the generated codec, if one is requested. */
+  public static final ImmuPredicate<ImmuObjectElement> CODEC_PROPERTIES =
+      (env, element) -> {
+        if (!element.hasCodec()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        final List<ImmuProperty> properties = new ArrayList<>();
+        properties.addAll(element.properties());
+        properties.addAll(element.superProperties(env));
+
+        final List<String> errors = properties
+            .stream()
+            .filter((p) -> !isCodecSupported(env, p.returnType()))
+            .map((p) -> ImmuValidationMessages.codecUnsupportedProperty(element, p))
+            .reduce(new ArrayList<>(), (a, l) -> {
+              a.addAll(l);
+              return a;
+            });
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
+  /** Checks that all properties can be written by the generated JSON class, if one is requested. */
+  public static final ImmuPredicate<ImmuObjectElement> JSON_PROPERTIES =
+      (env, element) -> {
+        if (!element.hasJson()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        final List<ImmuProperty> properties = new ArrayList<>();
+        properties.addAll(element.properties());
+        properties.addAll(element.superProperties(env));
+
+        final List<String> errors = properties
+            .stream()
+            .filter((p) -> !isJsonSupported(env, p.returnType()))
+            .map((p) -> ImmuValidationMessages.jsonUnsupportedProperty(element, p))
+            .reduce(new ArrayList<>(), (a, l) -> {
+              a.addAll(l);
+              return a;
+            });
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
+  /** Checks that all properties can be added to the generated fingerprint, if one is requested. */
+  public static final ImmuPredicate<ImmuObjectElement> FINGERPRINT_PROPERTIES =
+      (env, element) -> {
+        if (!element.hasFingerprint()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        final List<ImmuProperty> properties = new ArrayList<>();
+        properties.addAll(element.properties());
+        properties.addAll(element.superProperties(env));
+
+        final List<String> errors = properties
+            .stream()
+            .filter((p) -> !isFingerprintSupported(env, p.returnType()))
+            .map((p) -> ImmuValidationMessages.fingerprintUnsupportedProperty(element, p))
+            .reduce(new ArrayList<>(), (a, l) -> {
+              a.addAll(l);
+              return a;
+            });
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
+  /** Checks that all properties can be serialized, if the implementation is serializable. */
+  public static final ImmuPredicate<ImmuObjectElement> SERIALIZABLE_PROPERTIES =
+      (env, element) -> {
+        if (!element.isSerializable()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        final List<ImmuProperty> properties = new ArrayList<>();
+        properties.addAll(element.properties());
+        properties.addAll(element.superProperties(env));
+
+        final List<String> errors = properties
+            .stream()
+            .filter((p) -> !isSerializable(env, p.returnType()))
+            .map((p) -> ImmuValidationMessages.serializableUnsupportedProperty(element, p))
+            .reduce(new ArrayList<>(), (a, l) -> {
+              a.addAll(l);
+              return a;
+            });
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
+  /** Checks that the properties named in {@link Immu#comparableBy()} exist and can be compared. */
+  public static final ImmuPredicate<ImmuObjectElement> COMPARABLE_PROPERTIES =
+      (env, element) -> {
+        final List<String> keys = element.comparableBy();
+
+        if (keys.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        final Map<String, ImmuProperty> properties = new HashMap<>();
+        element.properties().forEach((p) -> properties.put(p.name().toString(), p));
+        element.superProperties(env).forEach((p) -> properties.put(p.name().toString(), p));
+
+        final List<String> errors = new ArrayList<>();
+        final Set<String> seen = new HashSet<>();
+
+        for (String key : keys) {
+          final ImmuProperty property = properties.get(key);
+
+          if (null == property || !seen.add(key)) {
+            errors.addAll(ImmuValidationMessages.comparableByUnknownProperty(element, key));
+          } else if (!isComparable(env, property.returnType())) {
+            errors.addAll(ImmuValidationMessages.comparableByUnsupportedProperty(element, property));
+          }
+        }
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
+  /** Checks that only {@code default} methods are marked as {@link Lazy}. */
+  public static final ImmuPredicate<ImmuObjectElement> LAZY_DEFAULT_METHODS =
+      (env, element) -> {
+        final List<String> errors = element.properties()
+            .stream()
+            .filter((p) -> null != p.element().getAnnotation(Lazy.class))
+            .map((p) -> ImmuValidationMessages.lazyNotDefault(element, p))
+            .reduce(new ArrayList<>(), (a, l) -> {
+              a.addAll(l);
+              return a;
+            });
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
+  /** Checks that all properties are primitives, if a flyweight is requested. */
+  public static final ImmuPredicate<ImmuObjectElement> FLYWEIGHT_PROPERTIES =
+      (env, element) -> {
+        if (!element.hasFlyweight()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        final List<ImmuProperty> properties = new ArrayList<>();
+        properties.addAll(element.properties());
+        properties.addAll(element.superProperties(env));
+
+        final List<String> errors = properties
+            .stream()
+            .filter((p) -> !p.isPrimitive())
+            .map((p) -> ImmuValidationMessages.flyweightNonPrimitiveProperty(element, p))
+            .reduce(new ArrayList<>(), (a, l) -> {
+              a.addAll(l);
+              return a;
+            });
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
+  /**
+   * Checks that the interface is not generic and has no property named like the cursor's index, if a columns
+   * class is requested.
+   */
+  public static final ImmuPredicate<ImmuObjectElement> COLUMNS_PROPERTIES =
+      (env, element) -> {
+        if (!element.hasColumns()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        final List<String> errors = new ArrayList<>();
+
+        if (!element.typeElement().getTypeParameters().isEmpty()) {
+          errors.addAll(ImmuValidationMessages.columnsGenericInterface(element));
+        }
+
+        final List<ImmuProperty> properties = new ArrayList<>();
+        properties.addAll(element.properties());
+        properties.addAll(element.superProperties(env));
+
+        properties
+            .stream()
+            .filter((p) -> p.name().contentEquals("index"))
+            .forEach((p) -> errors.addAll(ImmuValidationMessages.columnsIndexProperty(element, p)));
+
+        if (errors.isEmpty()) {
+          return ImmuPredicate.Result.success();
+        }
+
+        return ImmuPredicate.Result.error(errors);
+      };
+
   public static final List<ImmuPredicate<ImmuObjectElement>> PREDICATES = Arrays.asList(
       OBJECT_IS_INTERFACE,
       EMPTY_SUPERINTERFACES,
-      IMMU_AND_SUPER_IMMU);
+      IMMU_AND_SUPER_IMMU,
+      CODEC_PROPERTIES,
+      FLYWEIGHT_PROPERTIES,
+      COLUMNS_PROPERTIES,
+      JSON_PROPERTIES,
+      FINGERPRINT_PROPERTIES,
+      SERIALIZABLE_PROPERTIES,
+      COMPARABLE_PROPERTIES,
+      LAZY_DEFAULT_METHODS);
 
   /**
    * Create a new object element from the provided element.
@@ -94,6 +330,11 @@ public class ImmuObjectElement extends ImmuElement {
         .map((p) -> p.validate(environment))
         .forEach(results::addAll);
 
+    lazyProperties()
+        .stream()
+        .map((p) -> p.validate(environment))
+        .forEach(results::addAll);
+
     return results;
   }
 
@@ -116,6 +357,34 @@ public class ImmuObjectElement extends ImmuElement {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns a list of the immediate {@code default} methods marked as {@link Lazy}.
+   * @see #allLazyProperties(ProcessingEnvironment)
+   * @return the lazy properties, never null
+   */
+  public List<ImmuProperty> lazyProperties() {
+    return defaultMethods()
+        .stream()
+        .filter((m) -> null != m.getAnnotation(Lazy.class))
+        .map(ImmuProperty::from)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns a list of all {@code default} methods marked as {@link Lazy}, including the inherited ones
+   * that are not overridden.
+   * @param env the environment, must not be null
+   * @return the lazy properties, never null
+   */
+  public List<ImmuProperty> allLazyProperties(ProcessingEnvironment env) {
+    return ElementFilter.methodsIn(env.getElementUtils().getAllMembers(typeElement()))
+        .stream()
+        .filter((m) -> m.getModifiers().contains(Modifier.DEFAULT))
+        .filter((m) -> null != m.getAnnotation(Lazy.class))
+        .map(ImmuProperty::from)
+        .collect(Collectors.toList());
+  }
+
   /**
    * Returns a list of all of the super properties of this element in order starting from the most super type.
    * @param env the environment, must not be null
@@ -153,7 +422,7 @@ public class ImmuObjectElement extends ImmuElement {
     }
 
     for (Element element : ifaceElement.getEnclosedElements()) {
-      if (ElementKind.METHOD.equals(element.getKind())) {
+      if (ElementKind.METHOD.equals(element.getKind()) && element.getModifiers().contains(Modifier.ABSTRACT)) {
         properties.add(ImmuProperty.from(element));
       }
     }
@@ -169,6 +438,313 @@ public class ImmuObjectElement extends ImmuElement {
     return (TypeElement) element;
   }
 
+  /**
+   * Checks if instances of this element should be interned.
+   * @see Immu#intern()
+   * @return if instances should be interned
+   */
+  public boolean isInterned() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.intern();
+  }
+
+  /**
+   * Returns the hashing strategy for this element.
+   * @see Immu#hashing()
+   * @return the strategy, never null
+   */
+  public Immu.Hashing hashing() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu ? immu.hashing() : Immu.Hashing.XOR;
+  }
+
+  /**
+   * Returns the caching strategy for this element.
+   * @see Immu#caching()
+   * @return the strategy, never null
+   */
+  public Immu.Caching caching() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu ? immu.caching() : Immu.Caching.VOLATILE;
+  }
+
+  /**
+   * Returns the limit of elements written in string representations of this element.
+   * @see Immu#toStringLimit()
+   * @return the limit, negative if not specified on the element
+   */
+  public int toStringLimit() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu ? immu.toStringLimit() : -1;
+  }
+
+  /**
+   * Checks if a codec should be generated for this element.
+   * @see Immu#codec()
+   * @return if a codec should be generated
+   */
+  public boolean hasCodec() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.codec();
+  }
+
+  /**
+   * Checks if a flyweight should be generated for this element.
+   * @see Immu#flyweight()
+   * @return if a flyweight should be generated
+   */
+  public boolean hasFlyweight() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.flyweight();
+  }
+
+  /**
+   * Checks if a columns class should be generated for this element.
+   * @see Immu#columns()
+   * @return if a columns class should be generated
+   */
+  public boolean hasColumns() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.columns();
+  }
+
+  /**
+   * Checks if a JSON class should be generated for this element.
+   * @see Immu#json()
+   * @return if a JSON class should be generated
+   */
+  public boolean hasJson() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.json();
+  }
+
+  /**
+   * Checks if the builder should have a thread-local instance.
+   * @see Immu#threadLocalBuilder()
+   * @return if a thread-local builder should be generated
+   */
+  public boolean hasThreadLocalBuilder() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.threadLocalBuilder();
+  }
+
+  /**
+   * Checks if small primitive properties should be packed into shared fields.
+   * @see Immu#packed()
+   * @return if properties should be packed
+   */
+  public boolean isPacked() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.packed();
+  }
+
+  /**
+   * Checks if a comparators class should be generated for this element.
+   * @see Immu#comparators()
+   * @return if a comparators class should be generated
+   */
+  public boolean hasComparators() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.comparators();
+  }
+
+  /**
+   * Checks if a diff class should be generated for this element.
+   * @see Immu#diff()
+   * @return if a diff class should be generated
+   */
+  public boolean hasDiff() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.diff();
+  }
+
+  /**
+   * Checks if a meta class should be generated for this element.
+   * @see Immu#meta()
+   * @return if a meta class should be generated
+   */
+  public boolean hasMeta() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.meta();
+  }
+
+  /**
+   * Checks if the implementation of this element should be serializable.
+   * @see Immu#serializable()
+   * @return if the implementation should be serializable
+   */
+  public boolean isSerializable() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.serializable();
+  }
+
+  /**
+   * Checks if a fingerprint class should be generated for this element.
+   * @see Immu#fingerprint()
+   * @return if a fingerprint class should be generated
+   */
+  public boolean hasFingerprint() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.fingerprint();
+  }
+
+  /**
+   * Checks if exceptions for missing values of this element should be thrown without a stack trace.
+   * @see Immu#stacklessExceptions()
+   * @return if exceptions for missing values should be stackless
+   */
+  public boolean hasStacklessExceptions() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu && immu.stacklessExceptions();
+  }
+
+  /**
+   * Returns the names of the properties by which the implementation is ordered.
+   * @see Immu#comparableBy()
+   * @return the names, empty if the implementation is not comparable, never null
+   */
+  public List<String> comparableBy() {
+    final Immu immu = element.getAnnotation(Immu.class);
+
+    return null != immu ? Arrays.asList(immu.comparableBy()) : Collections.emptyList();
+  }
+
+  /**
+   * Checks if values of the type can be ordered, i.e. if it is a primitive or {@link Comparable}.
+   * @param env the environment, must not be null
+   * @param type the type, must not be null
+   * @return if the type is supported
+   */
+  public static boolean isComparable(ProcessingEnvironment env, TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return true;
+    }
+
+    if (!TypeKind.DECLARED.equals(type.getKind())) {
+      return false;
+    }
+
+    final Types types = env.getTypeUtils();
+
+    return types.isAssignable(types.erasure(type), types.erasure(env.getElementUtils().getTypeElement(Comparable.class.getCanonicalName()).asType()));
+  }
+
+  /**
+   * Checks if values of the type can be encoded by a generated codec.
+   * @param env the environment, must not be null
+   * @param type the type, must not be null
+   * @return if the type is supported
+   */
+  public static boolean isCodecSupported(ProcessingEnvironment env, TypeMirror type) {
+    return isEncodable(env, type, ImmuObjectElement::hasCodec);
+  }
+
+  /**
+   * Checks if values of the type can be written by a generated JSON class.
+   * @param env the environment, must not be null
+   * @param type the type, must not be null
+   * @return if the type is supported
+   */
+  public static boolean isJsonSupported(ProcessingEnvironment env, TypeMirror type) {
+    return isEncodable(env, type, ImmuObjectElement::hasJson);
+  }
+
+  /**
+   * Checks if values of the type can be added to a generated fingerprint.
+   * @param env the environment, must not be null
+   * @param type the type, must not be null
+   * @return if the type is supported
+   */
+  public static boolean isFingerprintSupported(ProcessingEnvironment env, TypeMirror type) {
+    return isEncodable(env, type, ImmuObjectElement::hasFingerprint);
+  }
+
+  /**
+   * Checks if values of the type may be serialized. Only final classes that are not {@link Serializable},
+   * and {@link Immu} interfaces that are not serializable, are known to fail; other types are checked at
+   * runtime by the stream.
+   * @param env the environment, must not be null
+   * @param type the type, must not be null
+   * @return if the type is supported
+   */
+  public static boolean isSerializable(ProcessingEnvironment env, TypeMirror type) {
+    switch (type.getKind()) {
+      case ARRAY:
+        return isSerializable(env, ((ArrayType) type).getComponentType());
+
+      case DECLARED:
+        final Element typeElement = ((DeclaredType) type).asElement();
+
+        if (null != typeElement.getAnnotation(Immu.class)) {
+          return ImmuObjectElement.from(typeElement).isSerializable();
+        }
+
+        if (!ElementKind.CLASS.equals(typeElement.getKind()) || !typeElement.getModifiers().contains(Modifier.FINAL)) {
+          return true;
+        }
+
+        final Types types = env.getTypeUtils();
+
+        return types.isAssignable(types.erasure(type), env.getElementUtils().getTypeElement(Serializable.class.getCanonicalName()).asType());
+
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Checks if the type is a primitive, string, enum, array of these, or an {@link Immu} interface
+   * for which the nested predicate holds.
+   */
+  private static boolean isEncodable(ProcessingEnvironment env, TypeMirror type, Predicate<ImmuObjectElement> nested) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case CHAR:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+
+      case ARRAY:
+        return isEncodable(env, ((ArrayType) type).getComponentType(), nested);
+
+      case DECLARED:
+        final Element typeElement = ((DeclaredType) type).asElement();
+
+        if (ElementKind.ENUM.equals(typeElement.getKind())) {
+          return true;
+        }
+
+        if (null != typeElement.getAnnotation(Immu.class)) {
+          return nested.test(ImmuObjectElement.from(typeElement));
+        }
+
+        return env.getTypeUtils().isSameType(type, env.getElementUtils().getTypeElement(String.class.getCanonicalName()).asType());
+
+      default:
+        return false;
+    }
+  }
+
   /**
    * Recursively check the superinterfaces of the provided interface.
    * @param env the environment, must not be null
@@ -194,7 +770,7 @@ public class ImmuObjectElement extends ImmuElement {
     final List<String> errors = new LinkedList<>();
 
     for (Element enclosedElement : ifaceElement.getEnclosedElements()) {
-      if (ElementKind.METHOD.equals(enclosedElement.getKind())) {
+      if (ElementKind.METHOD.equals(enclosedElement.getKind()) && enclosedElement.getModifiers().contains(Modifier.ABSTRACT)) {
         errors.addAll(ImmuValidationMessages.nonImmuInterfaceHasMethod(extendingIFaceElement, ifaceElement, enclosedElement));
       }
     }
@@ -1,15 +1,23 @@
 package immu.element;
 
+import immu.Copies;
+import immu.Copy;
 import immu.Required;
 import immu.element.predicate.ImmuPredicate;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * An @Immu property. This is typically a method without parameters, type variables or exceptions.
@@ -44,12 +52,27 @@ public class ImmuProperty extends ImmuElement {
         return isVoid ? ImmuPredicate.Result.error(ImmuValidationMessages.propertyReturnsVoid(prop)) : ImmuPredicate.Result.success();
       };
 
+  /** Checks that only array and collection properties are marked as {@link Copy}. */
+  public static final ImmuPredicate<ImmuProperty> COPY_ONLY_ARRAYS_AND_COLLECTIONS =
+      (env, prop) -> {
+        final boolean isCopyable = TypeKind.ARRAY.equals(prop.returnType().getKind()) || prop.isCopyableCollection();
+        final boolean isCopiedOther = null != prop.element().getAnnotation(Copy.class) && !isCopyable;
+        return isCopiedOther ? ImmuPredicate.Result.error(ImmuValidationMessages.copyNotSupported(prop)) : ImmuPredicate.Result.success();
+      };
+
+  private static final List<String> COPYABLE_COLLECTIONS = Arrays.asList(
+      List.class.getName(),
+      Set.class.getName(),
+      Map.class.getName(),
+      Collection.class.getName());
+
   /** A collection of all of the predicates that need to be applied to a property during validation. */
   public static final List<ImmuPredicate<ImmuProperty>> PREDICATES = Arrays.asList(
       NO_PARAMETERS,
       NO_TYPE_VARIABLES,
       NO_THROWS,
-      NO_RETURN_VOID);
+      NO_RETURN_VOID,
+      COPY_ONLY_ARRAYS_AND_COLLECTIONS);
 
   /**
    * Create a property from the element.
@@ -93,6 +116,50 @@ public class ImmuProperty extends ImmuElement {
     return returnType().getKind().isPrimitive();
   }
 
+  /**
+   * Checks if the return type of the property is a {@link Collection}.
+   * @param env the environment, must not be null
+   * @return if it is a collection
+   */
+  public boolean isCollection(ProcessingEnvironment env) {
+    return isAssignableTo(env, Collection.class);
+  }
+
+  /**
+   * Checks if the return type of the property is a {@link Map}.
+   * @param env the environment, must not be null
+   * @return if it is a map
+   */
+  public boolean isMap(ProcessingEnvironment env) {
+    return isAssignableTo(env, Map.class);
+  }
+
+  private boolean isAssignableTo(ProcessingEnvironment env, Class<?> klass) {
+    if (!TypeKind.DECLARED.equals(returnType().getKind())) {
+      return false;
+    }
+
+    final Types types = env.getTypeUtils();
+    final TypeMirror target = env.getElementUtils().getTypeElement(klass.getCanonicalName()).asType();
+
+    return types.isAssignable(types.erasure(returnType()), types.erasure(target));
+  }
+
+  /**
+   * Checks if the return type of the property is exactly {@link List}, {@link Set}, {@link Map} or
+   * {@link Collection}, so that it can hold the unmodifiable copies of {@link Copies}.
+   * @return if it is one of these collections
+   */
+  public boolean isCopyableCollection() {
+    if (!TypeKind.DECLARED.equals(returnType().getKind())) {
+      return false;
+    }
+
+    final TypeElement typeElement = (TypeElement) ((DeclaredType) returnType()).asElement();
+
+    return COPYABLE_COLLECTIONS.contains(typeElement.getQualifiedName().toString());
+  }
+
   /**
    * Checks if the property is marked as {@link Required}.
    * @return if it is marked as {@link Required}
@@ -100,4 +167,14 @@ public class ImmuProperty extends ImmuElement {
   public boolean isRequired() {
     return null != element.getAnnotation(Required.class);
   }
+
+  /**
+   * Returns the {@link Copy} policy of the property.
+   * @return the policy, {@link Copy.Policy#TRUSTED} if the property is not marked as {@link Copy}
+   */
+  public Copy.Policy copyPolicy() {
+    final Copy copy = element.getAnnotation(Copy.class);
+
+    return null == copy ? Copy.Policy.TRUSTED : copy.value();
+  }
 }
@@ -49,6 +49,10 @@ public final class ImmuValidationMessages {
     return Collections.singletonList(formatInterface(property, "has method %s that returns void; @Immu or @SuperImmu interfaces must not have methods that return void", property.name()));
   }
 
+  public static List<String> copyNotSupported(ImmuProperty property) {
+    return Collections.singletonList(formatInterface(property, "has method %s marked as @Copy that does not return an array, List, Set, Map or Collection; only these properties can be copied", property.name()));
+  }
+
   public static List<String> elementNotInterface(ImmuObjectElement object) {
     final String immuName;
 
@@ -65,6 +69,46 @@ public final class ImmuValidationMessages {
     return Collections.singletonList(String.format((Locale) null, "%s extends %s, a non-@Immu interface with a method %s#%s(...); @Immu or @SuperImmu interfaces may only extend non-@Immu interfaces without methods", extendingIface.getSimpleName(), iface.getSimpleName(), iface.getSimpleName(), method.getSimpleName()));
   }
 
+  public static List<String> codecUnsupportedProperty(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s has a codec, but its property %s of type %s can not be encoded; codecs support primitives, strings, enums, @Immu interfaces with a codec and arrays of these", element.name(), property.name(), property.returnType()));
+  }
+
+  public static List<String> columnsGenericInterface(ImmuObjectElement element) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s has a columns class, but it declares type variables; columns classes only support interfaces without type variables", element.name()));
+  }
+
+  public static List<String> columnsIndexProperty(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s has a columns class, but its property %s clashes with the index() method of the cursor; rename the property", element.name(), property.name()));
+  }
+
+  public static List<String> jsonUnsupportedProperty(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s has a JSON class, but its property %s of type %s can not be written as JSON; JSON classes support primitives, strings, enums, @Immu interfaces with a JSON class and arrays of these", element.name(), property.name(), property.returnType()));
+  }
+
+  public static List<String> fingerprintUnsupportedProperty(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s has a fingerprint, but its property %s of type %s can not be fingerprinted; fingerprints support primitives, strings, enums, @Immu interfaces with a fingerprint and arrays of these", element.name(), property.name(), property.returnType()));
+  }
+
+  public static List<String> serializableUnsupportedProperty(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s is serializable, but its property %s of type %s can not be serialized; final classes must be Serializable and @Immu interfaces must be serializable", element.name(), property.name(), property.returnType()));
+  }
+
+  public static List<String> flyweightNonPrimitiveProperty(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s has a flyweight, but its property %s of type %s is not a primitive; flyweights only support primitive properties", element.name(), property.name(), property.returnType()));
+  }
+
+  public static List<String> comparableByUnknownProperty(ImmuObjectElement element, String name) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s is comparable by %s, which is not a property or is named more than once; comparableBy must name each property at most once", element.name(), name));
+  }
+
+  public static List<String> comparableByUnsupportedProperty(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s is comparable by %s, but its type %s can not be ordered; only primitives and Comparable types can be ordered", element.name(), property.name(), property.returnType()));
+  }
+
+  public static List<String> lazyNotDefault(ImmuObjectElement element, ImmuProperty property) {
+    return Collections.singletonList(String.format((Locale) null, "@Immu interface %s has method %s marked as @Lazy that is not a default method; only default methods can be lazy", element.name(), property.name()));
+  }
+
   public static List<String> immuAndSuperImmu(ImmuObjectElement element) {
     return Collections.singletonList(String.format((Locale) null, "%s is annotated with @Immu and @SuperImmu at the same time, consider using one of them", element.name()));
   }
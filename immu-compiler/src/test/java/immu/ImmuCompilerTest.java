@@ -25,7 +25,7 @@ public class ImmuCompilerTest {
 
   @Test
   public void getSupportedOptions() throws Exception {
-    assertTrue("Supported options is empty", compiler.getSupportedOptions().isEmpty());
+    assertTrue("immu.toStringLimit is supported", compiler.getSupportedOptions().contains("immu.toStringLimit"));
   }
 
   @Test
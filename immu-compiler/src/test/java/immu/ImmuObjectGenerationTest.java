@@ -4,11 +4,16 @@ import com.google.testing.compile.Compilation;
 import com.google.testing.compile.JavaFileObjects;
 import org.junit.Test;
 
+import javax.lang.model.SourceVersion;
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static com.google.testing.compile.Compiler.javac;
+import static org.junit.Assume.assumeTrue;
 
 /**
  * Tests the generation of the immutable object.
@@ -158,6 +163,858 @@ public class ImmuObjectGenerationTest {
     assertMainOutline("OuterClass.Empty", compilation);
   }
 
+  @Test
+  public void generateInternedImmutableObject() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Interned",
+            "import immu.Immu;",
+            "@Immu(intern = true)",
+            "public interface Interned {",
+            "int property();",
+            "}"));
+
+    assertMainOutline("Interned", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableInterned").contentsAsUtf8String().containsMatch("static\\s+ImmutableInterned\\s+intern\\s*\\(\\s*ImmutableInterned\\s+instance\\s*\\)");
+    assertThat(compilation).generatedSourceFile("InternedBuilder").contentsAsUtf8String().containsMatch("return\\s+ImmutableInterned\\.intern\\(");
+  }
+
+  @Test
+  public void generateInternedImmutableObjectForNoProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("InternedEmpty",
+            "import immu.Immu;",
+            "@Immu(intern = true)",
+            "public interface InternedEmpty {}"));
+
+    assertMainOutline("InternedEmpty", compilation);
+    assertThat(compilation).generatedSourceFile("InternedEmptyBuilder").contentsAsUtf8String().containsMatch("return\\s+ImmutableInternedEmpty\\.INSTANCE\\s*;");
+  }
+
+  @Test
+  public void generateImmutableObjectWithMixedHashing() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Mixed",
+            "import immu.Immu;",
+            "@Immu(hashing = Immu.Hashing.MIXED)",
+            "public interface Mixed {",
+            "int propertyInt();",
+            "long propertyLong();",
+            "}"));
+
+    final String seed = "0x" + Integer.toHexString("Mixed".hashCode());
+
+    assertMainOutline("Mixed", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableMixed").contentsAsUtf8String().containsMatch("int\\s+hashCode\\s*=\\s*" + seed + "\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableMixed").contentsAsUtf8String().containsMatch("hashCode\\s*=\\s*HashMixer\\.mix\\(\\s*hashCode\\s*,\\s*this\\.propertyLong\\s*\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableMixed").contentsAsUtf8String().containsMatch("hashCode\\s*=\\s*HashMixer\\.finish\\(\\s*hashCode\\s*,\\s*2\\s*\\)");
+  }
+
+  @Test
+  public void generateImmutableObjectWithCachingStrategies() throws Exception {
+    for (String caching : Arrays.asList("VOLATILE", "RACY", "EAGER", "NONE")) {
+      Compilation compilation = javac()
+          .withProcessors(new ImmuCompiler())
+          .withOptions("-Aimmu.records=false")
+          .compile(JavaFileObjects.forSourceLines("Cached",
+              "import immu.Immu;",
+              "@Immu(caching = Immu.Caching." + caching + ")",
+              "public interface Cached {",
+              "int property();",
+              "}"));
+
+      assertMainOutline("Cached", compilation);
+      assertThat(compilation).generatedSourceFile("ImmutableCached").contentsAsUtf8String().containsMatch("@Override\\s+public\\s+void\\s+clear\\s*\\(\\s*\\)\\s*\\{");
+    }
+  }
+
+  @Test
+  public void generateImmutableObjectWithToStringLimit() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .withOptions("-Aimmu.toStringLimit=16")
+        .compile(JavaFileObjects.forSourceLines("Limited",
+            "import immu.Immu;",
+            "@Immu",
+            "public interface Limited {",
+            "int[] property();",
+            "}"));
+
+    assertMainOutline("Limited", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableLimited").contentsAsUtf8String().containsMatch("public\\s+<A\\s+extends\\s+Appendable>\\s+A\\s+appendTo\\s*\\(\\s*A\\s+appendable\\s*\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableLimited").contentsAsUtf8String().containsMatch("public\\s+StringBuilder\\s+appendTo\\s*\\(\\s*StringBuilder\\s+builder\\s*\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableLimited").contentsAsUtf8String().containsMatch("Appendables\\.appendArray\\(\\s*appendable\\s*,\\s*this\\.property\\s*,\\s*16\\s*\\)");
+  }
+
+  @Test
+  public void generateCodec() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("Nested",
+                "import immu.Immu;",
+                "@Immu(codec = true)",
+                "public interface Nested {",
+                "long property();",
+                "int buffer();",
+                "}"),
+            JavaFileObjects.forSourceLines("Encoded",
+                "import immu.Immu;",
+                "import immu.Required;",
+                "@Immu(codec = true)",
+                "public interface Encoded {",
+                "int property();",
+                "String name();",
+                "@Required Nested nested();",
+                "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Encoded", compilation);
+    assertThat(compilation).generatedSourceFile("EncodedCodec").contentsAsUtf8String().containsMatch("public\\s+final\\s+class\\s+EncodedCodec\\s*\\{");
+    assertThat(compilation).generatedSourceFile("EncodedCodec").contentsAsUtf8String().containsMatch("public\\s+static\\s+int\\s+encodedSize\\s*\\(\\s*Encoded\\s+immutable\\s*\\)\\s*\\{\\s*int\\s+size\\s*=\\s*4\\s*;");
+    assertThat(compilation).generatedSourceFile("EncodedCodec").contentsAsUtf8String().containsMatch("public\\s+static\\s+void\\s+writeTo\\s*\\(\\s*Encoded\\s+immutable\\s*,\\s*ByteBuffer\\s+buffer\\s*\\)");
+    assertThat(compilation).generatedSourceFile("EncodedCodec").contentsAsUtf8String().containsMatch("public\\s+static\\s+Encoded\\s+readFrom\\s*\\(\\s*ByteBuffer\\s+buffer\\s*\\)");
+    assertThat(compilation).generatedSourceFile("EncodedCodec").contentsAsUtf8String().containsMatch("NestedCodec\\.writeTo\\(\\s*immutable\\.nested\\(\\)\\s*,\\s*buffer\\s*\\)");
+    assertThat(compilation).generatedSourceFile("EncodedCodec").contentsAsUtf8String().containsMatch("return\\s+new\\s+ImmutableEncoded\\(\\s*property\\d+\\s*,\\s*name\\d+\\s*,\\s*nested\\d+\\s*\\)");
+    assertThat(compilation).generatedSourceFile("NestedCodec").contentsAsUtf8String().containsMatch("public\\s+static\\s+int\\s+encodedSize\\s*\\(\\s*Nested\\s+immutable\\s*\\)\\s*\\{\\s*return\\s+12\\s*;");
+    assertThat(compilation).generatedSourceFile("NestedCodec").contentsAsUtf8String().containsMatch("final\\s+int\\s+buffer\\d+\\s*=\\s*buffer\\.getInt\\(\\)\\s*;");
+  }
+
+  @Test
+  public void generateFlyweight() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Record",
+            "import immu.Immu;",
+            "@Immu(flyweight = true)",
+            "public interface Record {",
+            "byte small();",
+            "long large();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Record", compilation);
+    assertThat(compilation).generatedSourceFile("RecordFlyweight").contentsAsUtf8String().containsMatch("public\\s+final\\s+class\\s+RecordFlyweight\\s+implements\\s+Record\\s*\\{");
+    assertThat(compilation).generatedSourceFile("RecordFlyweight").contentsAsUtf8String().containsMatch("public\\s+static\\s+final\\s+int\\s+SIZE\\s*=\\s*9\\s*;");
+    assertThat(compilation).generatedSourceFile("RecordFlyweight").contentsAsUtf8String().containsMatch("public\\s+RecordFlyweight\\s+wrap\\s*\\(\\s*ByteBuffer\\s+buffer\\s*,\\s*int\\s+offset\\s*\\)");
+    assertThat(compilation).generatedSourceFile("RecordFlyweight").contentsAsUtf8String().containsMatch("public\\s+byte\\s+small\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+this\\.buffer\\.get\\(\\s*this\\.offset\\s*\\+\\s*8\\s*\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("RecordFlyweight").contentsAsUtf8String().containsMatch("public\\s+long\\s+large\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+this\\.buffer\\.getLong\\(\\s*this\\.offset\\s*\\+\\s*0\\s*\\)\\s*;");
+  }
+
+  @Test
+  public void generateColumns() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Row",
+            "import immu.Immu;",
+            "import java.util.List;",
+            "@Immu(columns = true)",
+            "public interface Row {",
+            "int id();",
+            "List<String> names();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Row", compilation);
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("public\\s+final\\s+class\\s+RowColumns\\s*\\{");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("private\\s+int\\[\\]\\s+idColumn\\s*;");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("private\\s+List<\\?>\\[\\]\\s+namesColumn\\s*;");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("public\\s+List<\\?>\\[\\]\\s+namesColumn\\s*\\(\\s*\\)");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("@SuppressWarnings\\(\"unchecked\"\\)\\s+public\\s+List<String>\\s+namesAt\\s*\\(\\s*int\\s+index\\s*\\)");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().doesNotContainMatch("@SuppressWarnings\\(\"unchecked\"\\)\\s+public\\s+(final\\s+)?class");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("public\\s+int\\[\\]\\s+idColumn\\s*\\(\\s*\\)");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("public\\s+Row\\s+get\\s*\\(\\s*int\\s+index\\s*\\)");
+    assertThat(compilation).generatedSourceFile("RowColumns").contentsAsUtf8String().containsMatch("public\\s+static\\s+final\\s+class\\s+Cursor\\s+implements\\s+Row\\s*\\{");
+  }
+
+  @Test
+  public void generateJson() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Message",
+            "import immu.Immu;",
+            "@Immu(json = true)",
+            "public interface Message {",
+            "int id();",
+            "String[] parts();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Message", compilation);
+    assertThat(compilation).generatedSourceFile("MessageJson").contentsAsUtf8String().containsMatch("public\\s+final\\s+class\\s+MessageJson\\s*\\{");
+    assertThat(compilation).generatedSourceFile("MessageJson").contentsAsUtf8String().containsMatch("public\\s+static\\s+<A\\s+extends\\s+Appendable>\\s+A\\s+write\\s*\\(\\s*Message\\s+immutable\\s*,\\s*A\\s+appendable\\s*\\)");
+    assertThat(compilation).generatedSourceFile("MessageJson").contentsAsUtf8String().containsMatch("public\\s+static\\s+Message\\s+read\\s*\\(\\s*JsonReader\\s+reader\\s*\\)");
+    assertThat(compilation).generatedSourceFile("MessageJson").contentsAsUtf8String().containsMatch("switch\\s*\\(\\s*name\\s*\\.\\s*hashCode\\s*\\(\\s*\\)\\s*\\)");
+    assertThat(compilation).generatedSourceFile("MessageJson").contentsAsUtf8String().containsMatch("case\\s+" + "id".hashCode() + "\\s*:");
+    assertThat(compilation).generatedSourceFile("MessageJson").contentsAsUtf8String().containsMatch("private\\s+static\\s+String\\[\\]\\s+readStringArray\\s*\\(\\s*JsonReader\\s+reader\\s*\\)");
+  }
+
+  @Test
+  public void generateWithers() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Account",
+            "import immu.Immu;",
+            "@Immu",
+            "public interface Account {",
+            "double balance();",
+            "String owner();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Account", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableAccount").contentsAsUtf8String().containsMatch("public\\s+ImmutableAccount\\s+withBalance\\s*\\(\\s*final\\s+double\\s+balance\\s*\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableAccount").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*owner\\s*==\\s*this\\.owner\\s*\\|\\|");
+    assertThat(compilation).generatedSourceFile("ImmutableAccount").contentsAsUtf8String().containsMatch("return\\s+new\\s+ImmutableAccount\\s*\\(\\s*this\\.balance\\s*,\\s*owner\\s*\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("AccountBuilder").contentsAsUtf8String().containsMatch("public\\s+static\\s+Account\\s+withOwner\\s*\\(\\s*Account\\s+immutable\\s*,\\s*final\\s+String\\s+owner\\s*\\)");
+  }
+
+  @Test
+  public void generateThreadLocalBuilder() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Event",
+            "import immu.Immu;",
+            "import immu.Required;",
+            "@Immu(threadLocalBuilder = true)",
+            "public interface Event {",
+            "@Required long id();",
+            "String name();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Event", compilation);
+    assertThat(compilation).generatedSourceFile("EventBuilder").contentsAsUtf8String().containsMatch("private\\s+static\\s+final\\s+ThreadLocal<EventBuilder>\\s+THREAD_LOCAL\\s*=");
+    assertThat(compilation).generatedSourceFile("EventBuilder").contentsAsUtf8String().containsMatch("public\\s+static\\s+EventBuilder\\s+threadLocal\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+THREAD_LOCAL\\s*\\.\\s*get\\s*\\(\\s*\\)\\s*\\.\\s*reset\\s*\\(\\s*\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("EventBuilder").contentsAsUtf8String().containsMatch("public\\s+EventBuilder\\s+reset\\s*\\(\\s*\\)\\s*\\{\\s*this\\.id\\s*=\\s*0\\s*;\\s*this\\.name\\s*=\\s*null\\s*;\\s*this\\.checked0\\s*=\\s*0xfffffffffffffffeL\\s*;");
+  }
+
+  @Test
+  public void generateBuilderWithManyRequiredPrimitives() throws Exception {
+    final String[] lines = new String[65 + 4];
+
+    lines[0] = "import immu.Immu;";
+    lines[1] = "import immu.Required;";
+    lines[2] = "@Immu public interface Wide {";
+
+    for (int i = 0; i < 65; i++) {
+      lines[3 + i] = "@Required int property" + i + "();";
+    }
+
+    lines[lines.length - 1] = "}";
+
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Wide", lines));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Wide", compilation);
+    assertThat(compilation).generatedSourceFile("WideBuilder").contentsAsUtf8String().containsMatch("private\\s+transient\\s+long\\s+checked0\\s*;\\s*private\\s+transient\\s+long\\s+checked1\\s*;");
+    assertThat(compilation).generatedSourceFile("WideBuilder").contentsAsUtf8String().containsMatch("this\\.checked1\\s*=\\s*0xfffffffffffffffeL\\s*;");
+    assertThat(compilation).generatedSourceFile("WideBuilder").contentsAsUtf8String().containsMatch("this\\.checked0\\s*\\|=\\s*1L\\s*<<\\s*63\\s*;");
+    assertThat(compilation).generatedSourceFile("WideBuilder").contentsAsUtf8String().containsMatch("this\\.checked1\\s*\\|=\\s*1L\\s*<<\\s*0\\s*;");
+    assertThat(compilation).generatedSourceFile("WideBuilder").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*\\(~0L\\)\\s*!=\\s*this\\.checked1\\s*\\)\\s*\\{\\s*throw\\s+ValueNotProvidedException\\.forProperties\\(\"property64\"\\)");
+  }
+
+  @Test
+  public void generateEqualsComparingFieldsCheapestFirst() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Order",
+            "import immu.Immu;",
+            "@Immu",
+            "public interface Order {",
+            "int[] legs();",
+            "String symbol();",
+            "long id();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Order", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableOrder").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*object\\s+instanceof\\s+ImmutableOrder\\s*\\)\\s*\\{\\s*return\\s+equalFields\\s*\\(\\s*\\(\\s*ImmutableOrder\\s*\\)\\s*object\\s*\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableOrder").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*0\\s*!=\\s*hashCode\\s*&&\\s*0\\s*!=\\s*otherHashCode\\s*&&\\s*hashCode\\s*!=\\s*otherHashCode\\s*\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableOrder").contentsAsUtf8String().containsMatch("this\\.id\\s*!=\\s*immutable\\.id[\\s\\S]+Objects\\.equals\\(this\\.symbol,\\s*immutable\\.symbol\\)[\\s\\S]+Arrays\\.equals\\(this\\.legs,\\s*immutable\\.legs\\)");
+  }
+
+  @Test
+  public void generateComparatorsAndComparable() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Order",
+            "import immu.Immu;",
+            "@Immu(comparators = true, comparableBy = { \"symbol\", \"price\" })",
+            "public interface Order {",
+            "double price();",
+            "String symbol();",
+            "int[] legs();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("OrderComparators").contentsAsUtf8String().containsMatch("public\\s+static\\s+Comparator<Order>\\s+byPrice\\s*\\(\\s*\\)");
+    assertThat(compilation).generatedSourceFile("OrderComparators").contentsAsUtf8String().containsMatch("public\\s+static\\s+Comparator<Order>\\s+bySymbol\\s*\\(\\s*final\\s+Comparator<\\?\\s+super\\s+Order>\\s+then\\s*\\)");
+    assertThat(compilation).generatedSourceFile("OrderComparators").contentsAsUtf8String().containsMatch("return\\s+Double\\.compare\\s*\\(\\s*immutableA\\.price\\(\\)\\s*,\\s*immutableB\\.price\\(\\)\\s*\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("OrderComparators").contentsAsUtf8String().doesNotContainMatch("byLegs");
+    assertThat(compilation).generatedSourceFile("ImmutableOrder").contentsAsUtf8String().containsMatch("class\\s+ImmutableOrder\\s+implements\\s+Order\\s*,\\s*Immutable\\s*,\\s*Comparable<Order>");
+    assertThat(compilation).generatedSourceFile("ImmutableOrder").contentsAsUtf8String().containsMatch("int\\s+comparison\\s*=\\s*Comparisons\\.compare\\s*\\(\\s*this\\.symbol\\s*,\\s*immutable\\.symbol\\s*\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableOrder").contentsAsUtf8String().containsMatch("return\\s+Double\\.compare\\s*\\(\\s*this\\.price\\s*,\\s*other\\.price\\(\\)\\s*\\)\\s*;");
+  }
+
+  @Test
+  public void generateLazyMethods() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("Named",
+                "import immu.Lazy;",
+                "import immu.SuperImmu;",
+                "@SuperImmu",
+                "public interface Named {",
+                "String name();",
+                "@Lazy default String key() { return name().toLowerCase(); }",
+                "}"),
+            JavaFileObjects.forSourceLines("Instrument",
+                "import immu.Immu;",
+                "import immu.Lazy;",
+                "@Immu",
+                "public interface Instrument extends Named {",
+                "int lot();",
+                "@Lazy default long weight() { return (long) lot() * name().length(); }",
+                "default boolean isEmpty() { return 0 == lot(); }",
+                "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Instrument", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().containsMatch("private\\s+transient\\s+volatile\\s+String\\s+computedKey\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().containsMatch("private\\s+transient\\s+long\\s+computedWeight\\s*;\\s*private\\s+transient\\s+volatile\\s+boolean\\s+hasComputedWeight\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*null\\s*==\\s*value\\s*\\)\\s*\\{\\s*synchronized\\s*\\(\\s*this\\s*\\)\\s*\\{\\s*value\\s*=\\s*this\\.computedKey\\s*;\\s*if\\s*\\(\\s*null\\s*==\\s*value\\s*\\)\\s*\\{\\s*value\\s*=\\s*Instrument\\.super\\.key\\(\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().containsMatch("this\\.computedWeight\\s*=\\s*Instrument\\.super\\.weight\\(\\)\\s*;\\s*this\\.hasComputedWeight\\s*=\\s*true\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().containsMatch("public\\s+void\\s+clear\\s*\\(\\s*\\)\\s*\\{\\s*this\\.computedToString\\s*=\\s*null\\s*;\\s*this\\.computedKey\\s*=\\s*null\\s*;\\s*\\}");
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().doesNotContainMatch("isEmpty");
+    assertThat(compilation).generatedSourceFile("InstrumentBuilder").contentsAsUtf8String().doesNotContainMatch("isEmpty|weight|key");
+  }
+
+  @Test
+  public void generateRacyLazyMethods() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Instrument",
+            "import immu.Immu;",
+            "import immu.Lazy;",
+            "@Immu(caching = Immu.Caching.RACY)",
+            "public interface Instrument {",
+            "String name();",
+            "@Lazy default String key() { return name().toLowerCase(); }",
+            "@Lazy default double weight() { return name().length(); }",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Instrument", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().containsMatch("private\\s+transient\\s+String\\s+computedKey\\s*;\\s*private\\s+transient\\s+volatile\\s+double\\s+computedWeight\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().containsMatch("double\\s+value\\s*=\\s*this\\.computedWeight\\s*;\\s*if\\s*\\(\\s*0\\s*==\\s*value\\s*\\)\\s*\\{\\s*value\\s*=\\s*Instrument\\.super\\.weight\\(\\)\\s*;\\s*this\\.computedWeight\\s*=\\s*value\\s*;\\s*\\}\\s*return\\s+value\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableInstrument").contentsAsUtf8String().doesNotContainMatch("synchronized");
+  }
+
+  @Test
+  public void generatePackedProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Status",
+            "import immu.Immu;",
+            "@Immu(packed = true)",
+            "public interface Status {",
+            "boolean open();",
+            "byte level();",
+            "boolean halted();",
+            "long sequence();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Status", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableStatus").contentsAsUtf8String().containsMatch("private\\s+final\\s+int\\s+packed0\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableStatus").contentsAsUtf8String().containsMatch("this\\.packed0\\s*=\\s*\\(level\\s*&\\s*0xff\\)\\s*\\|\\s*\\(open\\s*\\?\\s*0x100\\s*:\\s*0\\)\\s*\\|\\s*\\(halted\\s*\\?\\s*0x200\\s*:\\s*0\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableStatus").contentsAsUtf8String().containsMatch("public\\s+boolean\\s+halted\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+0\\s*!=\\s*\\(this\\.packed0\\s*&\\s*0x200\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableStatus").contentsAsUtf8String().containsMatch("public\\s+byte\\s+level\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+\\(byte\\)\\s*this\\.packed0\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableStatus").contentsAsUtf8String().containsMatch("this\\.open\\(\\)\\s*!=\\s*immutable\\.open\\(\\)[\\s\\S]+this\\.sequence\\s*!=\\s*immutable\\.sequence\\s*\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableStatus").contentsAsUtf8String().containsMatch("estimated\\s+to\\s+take\\s+32\\s+bytes\\s+instead\\s+of\\s+32\\s+bytes");
+  }
+
+  @Test
+  public void generateCopiedArrays() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Series",
+            "import immu.Copy;",
+            "import immu.Immu;",
+            "@Immu",
+            "public interface Series {",
+            "@Copy int[] values();",
+            "@Copy(Copy.Policy.ON_CONSTRUCTION_AND_ACCESS) long[] times();",
+            "@Copy int[][] matrix();",
+            "int[] trusted();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Series", compilation);
+    assertHasProperties("Series", compilation, "int[] values", "int[][] matrix", "int[] trusted");
+    assertThat(compilation).generatedSourceFile("ImmutableSeries").contentsAsUtf8String().containsMatch("public\\s+long\\[\\]\\s+times\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+immu\\.Copies\\.copy\\(this\\.times\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableSeries").contentsAsUtf8String().containsMatch("(?<!public\\s)IntBuffer\\s+valuesView\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+null\\s*==\\s*this\\.values\\s*\\?\\s*null\\s*:\\s*IntBuffer\\.wrap\\(this\\.values\\)\\.asReadOnlyBuffer\\(\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableSeries").contentsAsUtf8String().containsMatch("new\\s+ImmutableSeries\\(immu\\.Copies\\.copy\\(values\\),\\s*this\\.times,\\s*this\\.matrix,\\s*this\\.trusted\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableSeries").contentsAsUtf8String().containsMatch("Arrays\\.deepHashCode\\(this\\.matrix\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableSeries").contentsAsUtf8String().containsMatch("!java\\.util\\.Arrays\\.deepEquals\\(this\\.matrix,\\s*immutable\\.matrix\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableSeries").contentsAsUtf8String().doesNotContainMatch("matrixView|trustedView");
+    assertThat(compilation).generatedSourceFile("SeriesBuilder").contentsAsUtf8String().containsMatch("new\\s+ImmutableSeries\\(immu\\.Copies\\.copy\\(values\\),\\s*immu\\.Copies\\.copy\\(times\\),\\s*immu\\.Copies\\.copy\\(matrix\\),\\s*trusted\\)");
+    assertThat(compilation).generatedSourceFile("SeriesBuilder").contentsAsUtf8String().containsMatch("public\\s+static\\s+LongBuffer\\s+timesView\\s*\\(\\s*Series\\s+immutable\\s*\\)");
+  }
+
+  @Test
+  public void generateCopiedCollections() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Settings",
+            "import immu.Copy;",
+            "import immu.Immu;",
+            "import java.util.List;",
+            "import java.util.Map;",
+            "@Immu",
+            "public interface Settings {",
+            "@Copy List<? extends CharSequence> names();",
+            "@Copy(Copy.Policy.ON_CONSTRUCTION_AND_ACCESS) Map<String, Integer> limits();",
+            "List<String> trusted();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Settings", compilation);
+    assertHasProperties("Settings", compilation, "List<String> trusted");
+    assertThat(compilation).generatedSourceFile("ImmutableSettings").contentsAsUtf8String().containsMatch("public\\s+Map<String,\\s*Integer>\\s+limits\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+this\\.limits\\s*;");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().containsMatch("new\\s+ImmutableSettings\\(immu\\.Copies\\.copy\\(names\\),\\s*immu\\.Copies\\.copy\\(limits\\),\\s*trusted\\)");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().containsMatch("private\\s+transient\\s+ArrayList<CharSequence>\\s+namesAccumulator\\s*;");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().containsMatch("public\\s+SettingsBuilder\\s+addNames\\s*\\(\\s*final\\s+CharSequence\\s+element\\s*\\)\\s*\\{\\s*namesAccumulator\\(\\)\\.add\\(element\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().containsMatch("public\\s+SettingsBuilder\\s+addAllNames\\s*\\(\\s*final\\s+Collection<\\?\\s+extends\\s+CharSequence>\\s+elements\\s*\\)");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().containsMatch("public\\s+SettingsBuilder\\s+putLimits\\s*\\(\\s*final\\s+String\\s+key\\s*,\\s*final\\s+Integer\\s+value\\s*\\)");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().containsMatch("public\\s+SettingsBuilder\\s+putAllLimits\\s*\\(\\s*final\\s+Map<\\?\\s+extends\\s+String,\\s*\\?\\s+extends\\s+Integer>\\s+entries\\s*\\)");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().containsMatch("this\\.limits\\s*=\\s*limits\\s*;\\s*this\\.limitsAccumulator\\s*=\\s*null\\s*;");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().doesNotContainMatch("trustedAccumulator|addTrusted");
+    assertThat(compilation).generatedSourceFile("SettingsBuilder").contentsAsUtf8String().doesNotContainMatch("View\\s*\\(");
+  }
+
+  @Test
+  public void generateDiff() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Position",
+            "import immu.Immu;",
+            "import immu.Required;",
+            "@Immu(diff = true)",
+            "public interface Position {",
+            "@Required String account();",
+            "long quantity();",
+            "double averagePrice();",
+            "int[][] lots();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Position", compilation);
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("public\\s+static\\s+final\\s+long\\s+AVERAGE_PRICE\\s*=\\s*0x4L\\s*;");
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("public\\s+static\\s+long\\s+mask\\s*\\(\\s*Position\\s+a\\s*,\\s*Position\\s+b\\s*\\)");
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*!a\\.account\\(\\)\\.equals\\(b\\.account\\(\\)\\)\\s*\\)\\s*\\{\\s*mask\\s*\\|=\\s*ACCOUNT\\s*;");
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*!java\\.util\\.Arrays\\.deepEquals\\(a\\.lots\\(\\),\\s*b\\.lots\\(\\)\\)\\s*\\)\\s*\\{\\s*mask\\s*\\|=\\s*LOTS\\s*;");
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("private\\s+static\\s+long\\s+mask\\s*\\(\\s*ImmutablePosition\\s+a\\s*,\\s*ImmutablePosition\\s+b\\s*\\)");
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("public\\s+static\\s+Position\\s+apply\\s*\\(\\s*Position\\s+base\\s*,\\s*long\\s+mask\\s*,\\s*Position\\s+source\\s*\\)");
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("if\\s*\\(\\s*0L\\s*==\\s*\\(mask\\s*&\\s*0xfL\\)\\s*\\)\\s*\\{\\s*return\\s+base\\s*;");
+    assertThat(compilation).generatedSourceFile("PositionDiff").contentsAsUtf8String().containsMatch("new\\s+ImmutablePosition\\(0L\\s*!=\\s*\\(mask\\s*&\\s*ACCOUNT\\)\\s*\\?\\s*source\\.account\\(\\)\\s*:\\s*base\\.account\\(\\),");
+  }
+
+  @Test
+  public void generateDiffWithBitSet() throws Exception {
+    final List<String> lines = new ArrayList<>();
+
+    lines.add("import immu.Immu;");
+    lines.add("@Immu(diff = true)");
+    lines.add("public interface Wide {");
+
+    for (int i = 0; i < 65; i++) {
+      lines.add("int property" + i + "();");
+    }
+
+    lines.add("}");
+
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Wide", lines));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("WideDiff").contentsAsUtf8String().containsMatch("public\\s+static\\s+final\\s+int\\s+PROPERTY64\\s*=\\s*64\\s*;");
+    assertThat(compilation).generatedSourceFile("WideDiff").contentsAsUtf8String().containsMatch("public\\s+static\\s+BitSet\\s+mask\\s*\\(\\s*Wide\\s+a\\s*,\\s*Wide\\s+b\\s*\\)");
+    assertThat(compilation).generatedSourceFile("WideDiff").contentsAsUtf8String().containsMatch("mask\\.set\\(PROPERTY64\\)");
+    assertThat(compilation).generatedSourceFile("WideDiff").contentsAsUtf8String().containsMatch("mask\\.get\\(PROPERTY0\\)\\s*\\?\\s*source\\.property0\\(\\)\\s*:\\s*base\\.property0\\(\\)");
+  }
+
+  @Test
+  public void generateMeta() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Metric",
+            "import immu.Immu;",
+            "import immu.Required;",
+            "@Immu(meta = true)",
+            "public interface Metric {",
+            "@Required String metricName();",
+            "long count();",
+            "double sum();",
+            "long max();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Metric", compilation);
+    assertThat(compilation).generatedSourceFile("MetricMeta").contentsAsUtf8String().containsMatch("public\\s+static\\s+final\\s+int\\s+METRIC_NAME\\s*=\\s*0\\s*;");
+    assertThat(compilation).generatedSourceFile("MetricMeta").contentsAsUtf8String().containsMatch("private\\s+static\\s+final\\s+String\\[\\]\\s+NAMES\\s*=\\s*\\{\\s*\"metricName\",\\s*\"count\",\\s*\"sum\",\\s*\"max\"\\s*\\}\\s*;");
+    assertThat(compilation).generatedSourceFile("MetricMeta").contentsAsUtf8String().containsMatch("private\\s+static\\s+final\\s+boolean\\[\\]\\s+REQUIRED\\s*=\\s*\\{\\s*true,\\s*false,\\s*false,\\s*false\\s*\\}\\s*;");
+    assertThat(compilation).generatedSourceFile("MetricMeta").contentsAsUtf8String().containsMatch("public\\s+static\\s+long\\s+getLong\\s*\\(\\s*Metric\\s+immutable\\s*,\\s*int\\s+index\\s*\\)\\s*\\{\\s*switch\\s*\\(index\\)\\s*\\{\\s*case\\s+COUNT:\\s*return\\s+immutable\\.count\\(\\)\\s*;\\s*case\\s+MAX:\\s*return\\s+immutable\\.max\\(\\)\\s*;\\s*\\}");
+    assertThat(compilation).generatedSourceFile("MetricMeta").contentsAsUtf8String().containsMatch("public\\s+static\\s+int\\s+getInt\\s*\\(\\s*Metric\\s+immutable\\s*,\\s*int\\s+index\\s*\\)\\s*\\{\\s*throw\\s+new\\s+IllegalArgumentException");
+    assertThat(compilation).generatedSourceFile("MetricMeta").contentsAsUtf8String().containsMatch("private\\s+static\\s+void\\s+accept\\s*\\(\\s*ImmutableMetric\\s+immutable\\s*,\\s*PropertyVisitor\\s+visitor\\s*\\)");
+    assertThat(compilation).generatedSourceFile("MetricMeta").contentsAsUtf8String().containsMatch("visitor\\.visitObject\\(METRIC_NAME,\\s*\"metricName\",\\s*immutable\\.metricName\\(\\)\\);\\s*visitor\\.visitLong\\(COUNT,\\s*\"count\",\\s*immutable\\.count\\(\\)\\);\\s*visitor\\.visitDouble\\(SUM,");
+  }
+
+  @Test
+  public void generateFingerprint() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "@Immu(fingerprint = true)",
+            "public interface Sample {",
+            "enum Unit { SECONDS, MINUTES }",
+            "String name();",
+            "Unit unit();",
+            "long[] values();",
+            "Sample[] children();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Sample", compilation);
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("private\\s+transient\\s+volatile\\s+long\\s+computedFingerprint\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("long\\s+fingerprint64\\s*\\(\\s*\\)\\s*\\{\\s*long\\s+fingerprint\\s*=\\s*this\\.computedFingerprint\\s*;\\s*if\\s*\\(0L\\s*==\\s*fingerprint\\)\\s*\\{\\s*fingerprint\\s*=\\s*SampleFingerprint\\.compute\\(this\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleFingerprint").contentsAsUtf8String().containsMatch("public\\s+static\\s+long\\s+fingerprint64\\s*\\(\\s*final\\s+Sample\\s+immutable\\s*\\)");
+    assertThat(compilation).generatedSourceFile("SampleFingerprint").contentsAsUtf8String().containsMatch("long\\s+state\\s*=\\s*Fingerprints\\.SEED\\s*;\\s*state\\s*=\\s*Fingerprints\\.add\\(state,\\s*immutable\\.name\\(\\)\\)\\s*;\\s*final\\s+Sample\\.Unit\\s+constant0\\s*=\\s*immutable\\.unit\\(\\)\\s*;\\s*state\\s*=\\s*Fingerprints\\.add\\(state,\\s*null\\s*==\\s*constant0\\s*\\?\\s*null\\s*:\\s*constant0\\.name\\(\\)\\)\\s*;\\s*state\\s*=\\s*Fingerprints\\.add\\(state,\\s*immutable\\.values\\(\\)\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleFingerprint").contentsAsUtf8String().containsMatch("state\\s*=\\s*Fingerprints\\.add\\(state,\\s*SampleFingerprint\\.fingerprint64\\(component2\\)\\)\\s*;\\s*state\\s*=\\s*Fingerprints\\.add\\(state,\\s*1L\\)\\s*;");
+  }
+
+  @Test
+  public void generateFingerprintWithoutCaching() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "@Immu(fingerprint = true, caching = Immu.Caching.NONE)",
+            "public interface Sample {",
+            "int count();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().doesNotContainMatch("computedFingerprint");
+    assertThat(compilation).generatedSourceFile("SampleFingerprint").contentsAsUtf8String().containsMatch("return\\s+compute\\(\\(ImmutableSample\\)\\s*immutable\\)\\s*;");
+  }
+
+  @Test
+  public void generateSerializable() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "import immu.Required;",
+            "import java.util.List;",
+            "@Immu(serializable = true, intern = true)",
+            "public interface Sample {",
+            "@Required String name();",
+            "long count();",
+            "List<String> tags();",
+            "int in();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("final\\s+class\\s+ImmutableSample\\s+implements\\s+Sample\\s*,\\s*Immutable\\s*,\\s*Serializable\\s*\\{");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("private\\s+Object\\s+writeReplace\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+new\\s+SerializationProxy\\(this\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("private\\s+void\\s+readObject\\s*\\(\\s*ObjectInputStream\\s+stream\\s*\\)\\s*throws\\s+InvalidObjectException\\s*\\{\\s*throw\\s+new\\s+InvalidObjectException");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("static\\s+final\\s+class\\s+SerializationProxy\\s+implements\\s+Externalizable\\s*\\{");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("out\\.writeObject\\(this\\.immutable\\.name\\(\\)\\)\\s*;\\s*out\\.writeLong\\(this\\.immutable\\.count\\(\\)\\)\\s*;\\s*out\\.writeObject\\(this\\.immutable\\.tags\\(\\)\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("this\\.immutable\\s*=\\s*ImmutableSample\\.intern\\(new\\s+ImmutableSample\\(\\(String\\)\\s*in\\.readObject\\(\\),\\s*in\\.readLong\\(\\),\\s*[\\w.]*\\(?\\(List<String>\\)\\s*in\\.readObject\\(\\)\\)?,\\s*in\\.readInt\\(\\)\\)\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().doesNotContainMatch("final\\s+List\\s");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("private\\s+Object\\s+readResolve\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+this\\.immutable\\s*;");
+  }
+
+  @Test
+  public void generateIncrementalHashCode() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "import immu.Required;",
+            "@Immu",
+            "public interface Sample {",
+            "@Required String name();",
+            "int count();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("ImmutableSample\\(String\\s+name,\\s*int\\s+count,\\s*int\\s+computedHashCode\\)\\s*\\{");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("int\\s+cachedHashCode\\s*\\(\\s*\\)\\s*\\{\\s*return\\s+this\\.computedHashCode\\s*;");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("int\\s+hashCode\\s*=\\s*existingHashCode\\s*;\\s*hashCode\\s*\\^=\\s*this\\.count\\s*;\\s*hashCode\\s*\\^=\\s*count\\s*;\\s*return\\s+new\\s+ImmutableSample\\(this\\.name,\\s*count,\\s*hashCode\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("builder\\.source\\s*=\\s*\\(ImmutableSample\\)\\s*immutable\\s*;\\s*builder\\.sourceHashCode\\s*=\\s*builder\\.source\\.cachedHashCode\\(\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("if\\s*\\(this\\.name\\s*!=\\s*source\\.name\\(\\)\\)\\s*\\{\\s*hashCode\\s*\\^=\\s*source\\.name\\(\\)\\.hashCode\\(\\)\\s*;\\s*hashCode\\s*\\^=\\s*Objects\\.hashCode\\(this\\.name\\)\\s*;\\s*\\}");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("return\\s+new\\s+ImmutableSample\\(name,\\s*count,\\s*hashCode\\)\\s*;");
+  }
+
+  @Test
+  public void generateNoIncrementalHashCodeWithoutCacheOrXor() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("Uncached",
+                "import immu.Immu;",
+                "@Immu(caching = Immu.Caching.NONE)",
+                "public interface Uncached {",
+                "int count();",
+                "}"),
+            JavaFileObjects.forSourceLines("Mixed",
+                "import immu.Immu;",
+                "@Immu(hashing = Immu.Hashing.MIXED)",
+                "public interface Mixed {",
+                "int count();",
+                "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("UncachedBuilder").contentsAsUtf8String().doesNotContainMatch("sourceHashCode");
+    assertThat(compilation).generatedSourceFile("MixedBuilder").contentsAsUtf8String().doesNotContainMatch("sourceHashCode");
+    assertThat(compilation).generatedSourceFile("ImmutableMixed").contentsAsUtf8String().doesNotContainMatch("cachedHashCode");
+  }
+
+  @Test
+  public void generateBuilderReturningUnchangedSource() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "@Immu(caching = Immu.Caching.NONE)",
+            "public interface Sample {",
+            "String name();",
+            "double ratio();",
+            "int[] values();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("if\\s*\\(immutable\\s+instanceof\\s+ImmutableSample\\)\\s*\\{\\s*builder\\.source\\s*=\\s*\\(ImmutableSample\\)\\s*immutable\\s*;\\s*\\}");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("final\\s+ImmutableSample\\s+source\\s*=\\s*this\\.source\\s*;\\s*if\\s*\\(null\\s*!=\\s*source\\)\\s*\\{\\s*if\\s*\\(isUnchangedFrom\\(source\\)\\)\\s*\\{\\s*return\\s+source\\s*;\\s*\\}\\s*\\}");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("this\\.name\\s*==\\s*source\\.name\\(\\)\\s*\\|\\|\\s*\\(null\\s*!=\\s*this\\.name\\s*&&\\s*this\\.name\\.equals\\(source\\.name\\(\\)\\)\\)");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("Double\\.doubleToLongBits\\(this\\.ratio\\)\\s*==\\s*Double\\.doubleToLongBits\\(source\\.ratio\\(\\)\\)");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("this\\.values\\s*==\\s*source\\.values\\(\\)");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("this\\.source\\s*=\\s*null\\s*;\\s*return\\s+this\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().doesNotContainMatch("sourceHashCode");
+  }
+
+  @Test
+  public void generateTryBuildAndStacklessExceptions() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "import immu.Required;",
+            "@Immu(stacklessExceptions = true)",
+            "public interface Sample {",
+            "@Required String name();",
+            "@Required int count();",
+            "@Required long total();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("throw\\s+ValueNotProvidedException\\.stacklessForProperty\\(\"name\"\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("private\\s+static\\s+final\\s+String\\[\\]\\s+CHECKED_PROPERTIES0\\s*=\\s*\\{\\s*\"count\",\\s*\"total\"\\s*\\}\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("throw\\s+ValueNotProvidedException\\.stacklessForProperties\\(CHECKED_PROPERTIES0,\\s*~this\\.checked0\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("public\\s+Sample\\s+tryBuild\\(\\)\\s*\\{\\s*if\\s*\\(\\(~0L\\)\\s*!=\\s*this\\.checked0\\)\\s*\\{\\s*return\\s+null\\s*;\\s*\\}\\s*if\\s*\\(null\\s*==\\s*this\\.name\\)\\s*\\{\\s*return\\s+null\\s*;\\s*\\}\\s*return\\s+build\\(\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("if\\s*\\(null\\s*==\\s*this\\.name\\)\\s*\\{\\s*missing\\s*\\|=\\s*0x1L\\s*;\\s*\\}\\s*if\\s*\\(0L\\s*==\\s*\\(this\\.checked0\\s*&\\s*\\(1L\\s*<<\\s*0\\)\\)\\)\\s*\\{\\s*missing\\s*\\|=\\s*0x2L\\s*;");
+  }
+
+  @Test
+  public void generateTryBuildWithoutRequiredProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "@Immu",
+            "public interface Sample {",
+            "String name();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("public\\s+Sample\\s+tryBuild\\(\\)\\s*\\{\\s*return\\s+build\\(\\)\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().doesNotContainMatch("missingRequired\\(\\)\\s*\\{");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().doesNotContainMatch("stackless");
+  }
+
+  @Test
+  public void generateRecord() throws Exception {
+    assumeTrue(SourceVersion.latestSupported().ordinal() >= 16);
+
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .withOptions("-Aimmu.records=true")
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "import immu.Required;",
+            "import java.util.List;",
+            "@Immu(caching = Immu.Caching.NONE, intern = true, serializable = true)",
+            "public interface Sample {",
+            "@Required String name();",
+            "int count();",
+            "List<String> tags();",
+            "int[] values();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("(?m)^record\\s+ImmutableSample\\(java\\.lang\\.String\\s+name,\\s*int\\s+count,\\s*java\\.util\\.List<java\\.lang\\.String>\\s+tags,\\s*int\\[\\]\\s+values\\)\\s+implements\\s+Sample\\s*,\\s*Immutable\\s*,\\s*Serializable\\s*\\{");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("ImmutableSample\\(String\\s+name,\\s*int\\s+count,\\s*List<String>\\s+tags,\\s*int\\[\\]\\s+values\\)\\s*\\{\\s*if\\s*\\(null\\s*==\\s*name\\)");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("private\\s+static\\s+final\\s+Interner<ImmutableSample>\\s+INTERNER");
+    assertThat(compilation).generatedSourceFile("ImmutableSample").contentsAsUtf8String().doesNotContainMatch("private\\s+final\\s+(String|int)\\s+");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("new\\s+ImmutableSample\\(");
+  }
+
+  @Test
+  public void generateRecordForSourceVersion() throws Exception {
+    assumeTrue(SourceVersion.latestSupported().ordinal() >= 16);
+
+    final JavaFileObject source = JavaFileObjects.forSourceLines("Sample",
+        "import immu.Immu;",
+        "@Immu(caching = Immu.Caching.NONE)",
+        "public interface Sample {",
+        "int count();",
+        "}");
+
+    final Compilation modern = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(source);
+
+    final Compilation old = javac()
+        .withProcessors(new ImmuCompiler())
+        .withOptions("--release", "11")
+        .compile(source);
+
+    assertThat(modern).succeeded();
+    assertThat(modern).generatedSourceFile("ImmutableSample").contentsAsUtf8String().containsMatch("(?m)^record\\s+ImmutableSample\\(int\\s+count\\)");
+    assertThat(old).succeeded();
+    assertMainOutline("Sample", old);
+  }
+
+  @Test
+  public void generateNoRecordForOldSourceVersion() throws Exception {
+    assumeTrue(SourceVersion.latestSupported().ordinal() >= 16);
+
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .withOptions("--release", "11", "-Aimmu.records=true")
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Immu;",
+            "@Immu(caching = Immu.Caching.NONE)",
+            "public interface Sample {",
+            "int count();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).hadWarningContaining("Option immu.records requires source version 16 or later, ignoring it for source version RELEASE_11");
+    assertMainOutline("Sample", compilation);
+  }
+
+  @Test
+  public void generateNoRecordWithStateBesidesProperties() throws Exception {
+    assumeTrue(SourceVersion.latestSupported().ordinal() >= 16);
+
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .withOptions("-Aimmu.records=true")
+        .compile(
+            JavaFileObjects.forSourceLines("Cached",
+                "import immu.Immu;",
+                "@Immu",
+                "public interface Cached {",
+                "int count();",
+                "}"),
+            JavaFileObjects.forSourceLines("Packed",
+                "import immu.Immu;",
+                "@Immu(caching = Immu.Caching.NONE, packed = true)",
+                "public interface Packed {",
+                "boolean flag();",
+                "byte count();",
+                "}"),
+            JavaFileObjects.forSourceLines("Memoized",
+                "import immu.Immu;",
+                "import immu.Lazy;",
+                "@Immu(caching = Immu.Caching.NONE)",
+                "public interface Memoized {",
+                "int count();",
+                "@Lazy default int twice() { return 2 * count(); }",
+                "}"),
+            JavaFileObjects.forSourceLines("Disabled",
+                "import immu.Immu;",
+                "@Immu(caching = Immu.Caching.NONE)",
+                "public interface Disabled {",
+                "int count();",
+                "}"));
+
+    assertThat(compilation).succeeded();
+    assertMainOutline("Cached", compilation);
+    assertMainOutline("Packed", compilation);
+    assertMainOutline("Memoized", compilation);
+    assertThat(compilation).hadNoteContaining("Implementation of Cached is generated as a class instead of a record, since its caching is");
+    assertThat(compilation).hadNoteContaining("Implementation of Packed is generated as a class instead of a record, since it is packed");
+    assertThat(compilation).hadNoteContaining("Implementation of Memoized is generated as a class instead of a record, since it has @Lazy methods");
+    assertThat(compilation).generatedSourceFile("ImmutableDisabled").contentsAsUtf8String().containsMatch("(?m)^record\\s+ImmutableDisabled\\(");
+    assertMainOutline("Disabled", javac()
+        .withProcessors(new ImmuCompiler())
+        .withOptions("-Aimmu.records=false")
+        .compile(JavaFileObjects.forSourceLines("Disabled",
+            "import immu.Immu;",
+            "@Immu(caching = Immu.Caching.NONE)",
+            "public interface Disabled {",
+            "int count();",
+            "}")));
+  }
+
+  @Test
+  public void generateGenericInterface() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Pair",
+            "import immu.Immu;",
+            "@Immu(intern = true, serializable = true, diff = true, meta = true, comparators = true)",
+            "public interface Pair<A, B extends Comparable<B>> {",
+            "A first();",
+            "B second();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("PairBuilder").contentsAsUtf8String().containsMatch("public\\s+static\\s+<A,\\s*B\\s+extends\\s+Comparable<B>>\\s+Pair<A,\\s*B>\\s+withFirst\\(Pair<A,\\s*B>\\s+immutable,\\s*final\\s+A\\s+first\\)");
+  }
+
+  @Test
+  public void generateBuilderWithSourceProperty() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("Sample",
+            "import immu.Copy;",
+            "import immu.Immu;",
+            "import java.util.List;",
+            "@Immu",
+            "public interface Sample {",
+            "@Copy List<String> source();",
+            "int sourceHashCode();",
+            "}"));
+
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("private\\s+transient\\s+ImmutableSample\\s+source_\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("private\\s+transient\\s+int\\s+sourceHashCode_\\s*;");
+    assertThat(compilation).generatedSourceFile("SampleBuilder").contentsAsUtf8String().containsMatch("if\\s*\\(this\\.source\\s*!=\\s*source_\\.source\\(\\)\\)");
+  }
+
   private static void assertMainOutline(String immu, Compilation compilation) throws Exception {
     final String object = "Immutable" + immu.replaceAll("\\.", "");
 
@@ -1,5 +1,12 @@
 package immu;
 
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.Test;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
 /**
  * Tests validations for {@link Immu}.
  */
@@ -7,5 +14,209 @@ public class ImmuValidationTest extends AbstractImmuValidationTest {
   public ImmuValidationTest() {
     super("Immu");
   }
-}
 
+  @Test
+  public void notAllowedCodecForUnsupportedProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("WithoutCodec",
+                "import immu.Immu;",
+                "@Immu",
+                "public interface WithoutCodec {",
+                "int property();",
+                "}"),
+            JavaFileObjects.forSourceLines("InvalidInterface",
+                "import immu.Immu;",
+                "import java.util.List;",
+                "@Immu(codec = true)",
+                "public interface InvalidInterface {",
+                "long property();",
+                "String[][] names();",
+                "List<String> propertyA();",
+                "WithoutCodec propertyB();",
+                "Integer propertyC();",
+                "}"));
+
+    assertThat(compilation).hadErrorCount(1);
+    assertThat(compilation).hadErrorContainingMatch("property propertyA .* can not be encoded");
+    assertThat(compilation).hadErrorContainingMatch("property propertyB .* can not be encoded");
+    assertThat(compilation).hadErrorContainingMatch("property propertyC .* can not be encoded");
+  }
+
+  @Test
+  public void notAllowedFlyweightForNonPrimitiveProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("InvalidInterface",
+            "import immu.Immu;",
+            "@Immu(flyweight = true)",
+            "public interface InvalidInterface {",
+            "long property();",
+            "String propertyA();",
+            "int[] propertyB();",
+            "}"));
+
+    assertThat(compilation).hadErrorContainingMatch("property propertyA .* is not a primitive");
+    assertThat(compilation).hadErrorContainingMatch("property propertyB .* is not a primitive");
+  }
+
+  @Test
+  public void notAllowedColumnsForGenericInterfacesOrIndexProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("GenericInterface",
+                "import immu.Immu;",
+                "@Immu(columns = true)",
+                "public interface GenericInterface<A> {",
+                "A first();",
+                "}"),
+            JavaFileObjects.forSourceLines("IndexInterface",
+                "import immu.Immu;",
+                "@Immu(columns = true)",
+                "public interface IndexInterface {",
+                "int index();",
+                "}"));
+
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContainingMatch("GenericInterface has a columns class, but it declares type variables");
+    assertThat(compilation).hadErrorContainingMatch("property index clashes with the index\\(\\) method of the cursor");
+  }
+
+  @Test
+  public void notAllowedJsonForUnsupportedProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("WithCodec",
+                "import immu.Immu;",
+                "@Immu(codec = true)",
+                "public interface WithCodec {",
+                "int property();",
+                "}"),
+            JavaFileObjects.forSourceLines("InvalidInterface",
+                "import immu.Immu;",
+                "import java.util.Map;",
+                "@Immu(json = true)",
+                "public interface InvalidInterface {",
+                "double[] property();",
+                "Map<String, String> propertyA();",
+                "WithCodec[] propertyB();",
+                "}"));
+
+    assertThat(compilation).hadErrorCount(1);
+    assertThat(compilation).hadErrorContainingMatch("property propertyA .* can not be written as JSON");
+    assertThat(compilation).hadErrorContainingMatch("property propertyB .* can not be written as JSON");
+  }
+
+  @Test
+  public void notAllowedLazyOnAbstractOrParameterizedMethods() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("InvalidInterface",
+            "import immu.Immu;",
+            "import immu.Lazy;",
+            "@Immu",
+            "public interface InvalidInterface {",
+            "@Lazy int property();",
+            "@Lazy default int propertyA(int a) { return a; }",
+            "}"));
+
+    assertThat(compilation).hadErrorCount(1);
+    assertThat(compilation).hadErrorContainingMatch("method property marked as @Lazy that is not a default method");
+    assertThat(compilation).hadErrorContainingMatch("method propertyA with parameters");
+  }
+
+  @Test
+  public void notAllowedComparableByUnknownOrUnsupportedProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("InvalidInterface",
+            "import immu.Immu;",
+            "@Immu(comparableBy = { \"property\", \"propertyA\", \"propertyB\", \"property\" })",
+            "public interface InvalidInterface {",
+            "int property();",
+            "double[] propertyA();",
+            "}"));
+
+    assertThat(compilation).hadErrorCount(1);
+    assertThat(compilation).hadErrorContainingMatch("comparable by propertyA, but its type double\\[\\] can not be ordered");
+    assertThat(compilation).hadErrorContainingMatch("comparable by propertyB, which is not a property");
+    assertThat(compilation).hadErrorContainingMatch("comparable by property, which is not a property or is named more than once");
+  }
+
+  @Test
+  public void notAllowedCopyOnOtherTypes() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(JavaFileObjects.forSourceLines("InvalidInterface",
+            "import immu.Copy;",
+            "import immu.Immu;",
+            "@Immu",
+            "public interface InvalidInterface {",
+            "@Copy int[] property();",
+            "@Copy String propertyA();",
+            "@Copy java.util.ArrayList<String> propertyB();",
+            "@Copy java.util.List<String> propertyC();",
+            "}"));
+
+    assertThat(compilation).hadErrorCount(1);
+    assertThat(compilation).hadErrorContainingMatch("method propertyA marked as @Copy that does not return an array, List, Set, Map or Collection");
+    assertThat(compilation).hadErrorContainingMatch("method propertyB marked as @Copy that does not return an array, List, Set, Map or Collection");
+  }
+
+  @Test
+  public void notAllowedFingerprintForUnsupportedProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("WithCodec",
+                "import immu.Immu;",
+                "@Immu(codec = true)",
+                "public interface WithCodec {",
+                "int property();",
+                "}"),
+            JavaFileObjects.forSourceLines("InvalidInterface",
+                "import immu.Immu;",
+                "import java.util.List;",
+                "@Immu(fingerprint = true)",
+                "public interface InvalidInterface {",
+                "String[][] property();",
+                "List<String> propertyA();",
+                "WithCodec propertyB();",
+                "}"));
+
+    assertThat(compilation).hadErrorCount(1);
+    assertThat(compilation).hadErrorContainingMatch("property propertyA .* can not be fingerprinted");
+    assertThat(compilation).hadErrorContainingMatch("property propertyB .* can not be fingerprinted");
+  }
+
+  @Test
+  public void notAllowedSerializableForUnsupportedProperties() throws Exception {
+    Compilation compilation = javac()
+        .withProcessors(new ImmuCompiler())
+        .compile(
+            JavaFileObjects.forSourceLines("NotSerializable",
+                "import immu.Immu;",
+                "@Immu",
+                "public interface NotSerializable {",
+                "int property();",
+                "}"),
+            JavaFileObjects.forSourceLines("InvalidInterface",
+                "import immu.Immu;",
+                "import java.util.List;",
+                "@Immu(serializable = true)",
+                "public interface InvalidInterface {",
+                "List<Object> property();",
+                "Object propertyA();",
+                "NotSerializable propertyB();",
+                "Thread[] propertyC();",
+                "java.util.Optional<String> propertyD();",
+                "}"));
+
+    assertThat(compilation).hadErrorCount(1);
+    assertThat(compilation).hadErrorContainingMatch("property propertyB .* can not be serialized");
+    assertThat(compilation).hadErrorContainingMatch("property propertyD .* can not be serialized");
+  }
+}
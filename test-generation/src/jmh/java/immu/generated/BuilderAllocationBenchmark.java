@@ -0,0 +1,96 @@
+package immu.generated;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that the {@code create().a(..).b(..).build()} pattern allocates nothing but the resulting
+ * object, i.e. that the builder, including its bitmap of provided {@link immu.Required} properties,
+ * is scalar-replaced.
+ * <p>
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} of both benchmarks, or run
+ * {@link #main(String[])}, which does so and fails if the builder allocates more than the constructor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuilderAllocationBenchmark {
+
+  private long orderId = 1;
+  private int quantity = 100;
+  private double price = 187.5;
+
+  @Benchmark
+  public Fill builder() {
+    return FillBuilder.create()
+        .orderId(orderId++)
+        .quantity(quantity)
+        .price(price)
+        .maker(true)
+        .build();
+  }
+
+  @Benchmark
+  public Fill constructor() {
+    return new ImmutableFill(orderId++, quantity, price, true);
+  }
+
+  public static void main(String[] args) throws Exception {
+    final Collection<RunResult> results = new Runner(new OptionsBuilder()
+        .include(BuilderAllocationBenchmark.class.getSimpleName())
+        .addProfiler(GCProfiler.class)
+        .build())
+        .run();
+
+    double builder = Double.NaN;
+    double constructor = Double.NaN;
+
+    for (RunResult result : results) {
+      final double allocated = allocatedBytes(result.getSecondaryResults());
+
+      if (result.getParams().getBenchmark().endsWith(".builder")) {
+        builder = allocated;
+      } else {
+        constructor = allocated;
+      }
+    }
+
+    System.out.println(String.format((Locale) null, "bytes per operation: builder %.1f, constructor %.1f", builder, constructor));
+
+    // allow for measurement noise, but not for a single extra object
+    if (!(builder <= constructor + 8)) {
+      throw new AssertionError("The builder is not scalar-replaced");
+    }
+  }
+
+  private static double allocatedBytes(Map<String, Result> secondaryResults) {
+    for (Map.Entry<String, Result> entry : secondaryResults.entrySet()) {
+      // the key is prefixed with a middle dot in older versions of JMH
+      if (entry.getKey().endsWith("gc.alloc.rate.norm")) {
+        return entry.getValue().getScore();
+      }
+    }
+
+    throw new IllegalStateException("No allocation rate reported by the GC profiler");
+  }
+}
@@ -0,0 +1,122 @@
+package immu.generated;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link immu.Immu.Hashing#XOR} and {@link immu.Immu.Hashing#MIXED} hashing on
+ * market-tick-like keys: a few symbols and venues, with bids and asks close to each other.
+ * <p>
+ * The bucket distribution of each key set in a {@link HashMap} is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashCodeBenchmark {
+
+  private static final String[] SYMBOLS = { "AAPL", "MSFT", "GOOG", "AMZN", "META", "NFLX", "NVDA", "TSLA" };
+
+  @Param({ "XOR", "MIXED" })
+  public String hashing;
+
+  @Param({ "16384" })
+  public int size;
+
+  private Map<Object, Object> map;
+  private Object[] probes;
+
+  @Setup
+  public void setUp() {
+    final List<Object> keys = keys(hashing, size);
+
+    map = new HashMap<Object, Object>();
+
+    for (Object key : keys) {
+      map.put(key, key);
+    }
+
+    // equal, but not identical keys
+    probes = keys(hashing, size).toArray();
+
+    System.out.println();
+    System.out.println(distribution(hashing, keys));
+  }
+
+  @Benchmark
+  public int lookup() {
+    int found = 0;
+
+    for (Object probe : probes) {
+      if (null != map.get(probe)) {
+        found++;
+      }
+    }
+
+    return found;
+  }
+
+  private static List<Object> keys(String hashing, int size) {
+    final List<Object> keys = new ArrayList<Object>(size);
+
+    for (int i = 0; keys.size() < size; i++) {
+      final String symbol = SYMBOLS[i % SYMBOLS.length];
+      final int venue = (i / SYMBOLS.length) % 4;
+      final int bid = 10000 + (i / (SYMBOLS.length * 4));
+      final int ask = bid + 1 + (i % 3);
+
+      if ("MIXED".equals(hashing)) {
+        keys.add(MixedTickBuilder.create().symbol(symbol).venue(venue).bid(bid).ask(ask).build());
+      } else {
+        keys.add(TickBuilder.create().symbol(symbol).venue(venue).bid(bid).ask(ask).build());
+      }
+    }
+
+    return keys;
+  }
+
+  /**
+   * Describes how the keys are spread over the buckets of a {@link HashMap} holding them.
+   */
+  static String distribution(String hashing, List<Object> keys) {
+    int buckets = 1;
+
+    while (buckets * 0.75 < keys.size()) {
+      buckets <<= 1;
+    }
+
+    final int[] chains = new int[buckets];
+
+    for (Object key : keys) {
+      final int h = key.hashCode();
+      // same spreading as HashMap
+      chains[(h ^ (h >>> 16)) & (buckets - 1)]++;
+    }
+
+    int used = 0;
+    int longest = 0;
+
+    for (int chain : chains) {
+      if (chain > 0) {
+        used++;
+      }
+
+      longest = Math.max(longest, chain);
+    }
+
+    return String.format((Locale) null, "%s: %d keys in %d buckets, %d buckets used (%.1f%%), longest chain %d, average chain %.2f",
+        hashing, keys.size(), buckets, used, 100.0 * used / buckets, longest, (double) keys.size() / used);
+  }
+}
@@ -0,0 +1,29 @@
+package immu.generated;
+
+import immu.Copy;
+import immu.Immu;
+import immu.Required;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Immu(serializable = true)
+public interface Config {
+
+  @Required
+  String name();
+
+  @Copy
+  List<String> hosts();
+
+  @Copy
+  Set<Integer> ports();
+
+  @Copy
+  Map<String, String> settings();
+
+  @Copy
+  Collection<? extends Number> weights();
+}
@@ -0,0 +1,15 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu(caching = Immu.Caching.EAGER)
+public interface EagerCachedProperties {
+
+  @Required
+  String name();
+
+  int count();
+
+  double[] values();
+}
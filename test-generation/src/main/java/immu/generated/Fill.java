@@ -0,0 +1,19 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu
+public interface Fill {
+
+  @Required
+  long orderId();
+
+  @Required
+  int quantity();
+
+  @Required
+  double price();
+
+  boolean maker();
+}
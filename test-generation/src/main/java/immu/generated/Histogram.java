@@ -0,0 +1,23 @@
+package immu.generated;
+
+import immu.Copy;
+import immu.Immu;
+import immu.Required;
+
+@Immu(columns = true)
+public interface Histogram {
+
+  @Required
+  String name();
+
+  @Copy
+  long[] counts();
+
+  @Copy(Copy.Policy.ON_CONSTRUCTION_AND_ACCESS)
+  double[] bounds();
+
+  @Copy
+  int[][] cells();
+
+  int[] trusted();
+}
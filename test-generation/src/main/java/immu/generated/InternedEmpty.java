@@ -0,0 +1,7 @@
+package immu.generated;
+
+import immu.Immu;
+
+@Immu(intern = true)
+public interface InternedEmpty {
+}
@@ -0,0 +1,15 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu(intern = true)
+public interface InternedProperties {
+
+  @Required
+  String symbol();
+
+  int venue();
+
+  long[] prices();
+}
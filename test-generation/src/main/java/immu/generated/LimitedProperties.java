@@ -0,0 +1,16 @@
+package immu.generated;
+
+import immu.Immu;
+
+import java.util.List;
+import java.util.Map;
+
+@Immu(toStringLimit = 3)
+public interface LimitedProperties {
+
+  int[] values();
+
+  List<String> names();
+
+  Map<String, Integer> counts();
+}
@@ -0,0 +1,19 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu(stacklessExceptions = true)
+public interface Message {
+
+  @Required
+  String type();
+
+  @Required
+  long sequence();
+
+  @Required
+  int length();
+
+  String body();
+}
@@ -0,0 +1,17 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu(hashing = Immu.Hashing.MIXED)
+public interface MixedTick {
+
+  @Required
+  String symbol();
+
+  int venue();
+
+  int bid();
+
+  int ask();
+}
@@ -0,0 +1,37 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu(packed = true)
+public interface OrderFlags {
+
+  @Required
+  String symbol();
+
+  boolean buy();
+
+  boolean hidden();
+
+  boolean postOnly();
+
+  boolean reduceOnly();
+
+  boolean immediateOrCancel();
+
+  boolean fillOrKill();
+
+  boolean allOrNone();
+
+  boolean marketable();
+
+  byte venue();
+
+  byte tif();
+
+  short lot();
+
+  char currency();
+
+  int quantity();
+}
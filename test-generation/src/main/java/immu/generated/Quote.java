@@ -0,0 +1,25 @@
+package immu.generated;
+
+import immu.Immu;
+
+@Immu(flyweight = true)
+public interface Quote {
+
+  boolean firm();
+
+  byte flags();
+
+  char side();
+
+  short venue();
+
+  int bid();
+
+  int ask();
+
+  float spread();
+
+  long timestamp();
+
+  double mid();
+}
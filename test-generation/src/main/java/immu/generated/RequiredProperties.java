@@ -3,7 +3,7 @@ package immu.generated;
 import immu.Immu;
 import immu.Required;
 
-@Immu
+@Immu(threadLocalBuilder = true)
 public interface RequiredProperties {
 
   @Required
@@ -0,0 +1,23 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+import java.util.List;
+
+@Immu(columns = true)
+public interface Sample {
+
+  @Required
+  String sensor();
+
+  long timestamp();
+
+  double value();
+
+  boolean valid();
+
+  int[] tags();
+
+  List<String> labels();
+}
@@ -0,0 +1,53 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu(codec = true, json = true, comparators = true, comparableBy = { "symbol", "price", "timestamp" }, diff = true, meta = true, fingerprint = true, serializable = true)
+public interface Trade {
+
+  enum Side {
+    BUY,
+    SELL
+  }
+
+  @Required
+  String symbol();
+
+  Side side();
+
+  boolean cancelled();
+
+  byte flags();
+
+  short lot();
+
+  char currency();
+
+  int quantity();
+
+  long timestamp();
+
+  float fee();
+
+  double price();
+
+  String comment();
+
+  byte[] payload();
+
+  long[] fills();
+
+  String[] tags();
+
+  int[][] matrix();
+
+  Side[] legs();
+
+  @Required
+  Venue venue();
+
+  Venue routedVenue();
+
+  Venue[] venues();
+}
@@ -0,0 +1,13 @@
+package immu.generated;
+
+import immu.Immu;
+import immu.Required;
+
+@Immu(codec = true, json = true, intern = true, fingerprint = true, serializable = true)
+public interface Venue {
+
+  @Required
+  String mic();
+
+  short id();
+}
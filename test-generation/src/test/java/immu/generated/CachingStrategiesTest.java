@@ -0,0 +1,114 @@
+package immu.generated;
+
+import immu.Immutable;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class CachingStrategiesTest {
+
+  private static Field field(Object object, String name) {
+    for (Field field : object.getClass().getDeclaredFields()) {
+      if (name.equals(field.getName())) {
+        return field;
+      }
+    }
+
+    return null;
+  }
+
+  @Test
+  public void racyUsesPlainFields() throws Exception {
+    final RacyCachedProperties a = RacyCachedPropertiesBuilder.create().name("a").count(1).values(new double[] { 1.0 }).build();
+    final RacyCachedProperties b = RacyCachedPropertiesBuilder.from(a).build();
+
+    assertFalse(Modifier.isVolatile(field(a, "computedHashCode").getModifiers()));
+    assertFalse(Modifier.isVolatile(field(a, "computedToString").getModifiers()));
+
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertEquals(a.hashCode(), a.hashCode());
+
+    final String toString = a.toString();
+    assertTrue(toString == a.toString());
+
+    ((Immutable) a).clear();
+    assertNotSame(toString, a.toString());
+    assertEquals(toString, a.toString());
+  }
+
+  @Test
+  public void equalsSkipsFieldsWhenCachedHashCodesDiffer() throws Exception {
+    final RacyCachedProperties a = RacyCachedPropertiesBuilder.create().name("a").count(1).values(new double[] { 1.0 }).build();
+    final RacyCachedProperties b = RacyCachedPropertiesBuilder.create().name("a").count(1).values(a.values()).build();
+
+    a.hashCode();
+    assertEquals(a, b);
+
+    final Field hashCode = field(b, "computedHashCode");
+    hashCode.setAccessible(true);
+    hashCode.setInt(b, a.hashCode() + 1);
+
+    // only possible with a corrupted cache, but shows that the fields were not compared
+    assertFalse(a.equals(b));
+    assertFalse(b.equals(a));
+
+    ((Immutable) b).clear();
+    hashCode.setInt(b, 0);
+    assertEquals(a, b);
+  }
+
+  @Test
+  public void eagerComputesHashCodeInConstructor() throws Exception {
+    final EagerCachedProperties a = EagerCachedPropertiesBuilder.create().name("a").count(1).values(new double[] { 1.0 }).build();
+    final EagerCachedProperties b = EagerCachedPropertiesBuilder.from(a).build();
+
+    final Field hashCode = field(a, "computedHashCode");
+
+    assertTrue(Modifier.isFinal(hashCode.getModifiers()));
+    assertEquals(null, field(a, "computedToString"));
+
+    hashCode.setAccessible(true);
+    assertEquals(a.hashCode(), hashCode.getInt(a));
+
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertEquals(a.toString(), a.toString());
+
+    ((Immutable) a).clear();
+    assertEquals(b.hashCode(), a.hashCode());
+  }
+
+  @Test
+  public void noneHasNoCacheFields() throws Exception {
+    final NoneCachedProperties a = NoneCachedPropertiesBuilder.create().name("a").count(1).values(new double[] { 1.0 }).build();
+    final NoneCachedProperties b = NoneCachedPropertiesBuilder.from(a).build();
+
+    assertEquals(null, field(a, "computedHashCode"));
+    assertEquals(null, field(a, "computedToString"));
+
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertNotSame(a.toString(), a.toString());
+
+    ((Immutable) a).clear();
+    assertEquals(b.hashCode(), a.hashCode());
+  }
+
+  @Test
+  public void strategiesComputeTheSameHashCode() throws Exception {
+    final EagerCachedProperties eager = EagerCachedPropertiesBuilder.create().name("a").count(1).build();
+    final NoneCachedProperties none = NoneCachedPropertiesBuilder.create().name("a").count(1).build();
+
+    final int eagerSeed = EagerCachedProperties.class.getCanonicalName().hashCode();
+    final int noneSeed = NoneCachedProperties.class.getCanonicalName().hashCode();
+
+    assertEquals(eager.hashCode() ^ eagerSeed, none.hashCode() ^ noneSeed);
+  }
+}
@@ -0,0 +1,109 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ConfigCopyTest {
+
+  @Test
+  public void copiedOnConstruction() throws Exception {
+    final List<String> hosts = new ArrayList<String>(Arrays.asList("a", "b", "c"));
+    final Map<String, String> settings = new HashMap<String, String>();
+    settings.put("timeout", "10");
+
+    final Config config = ConfigBuilder.create()
+        .name("config")
+        .hosts(hosts)
+        .settings(settings)
+        .build();
+
+    hosts.add("d");
+    settings.clear();
+
+    assertEquals(Arrays.asList("a", "b", "c"), config.hosts());
+    assertEquals(Collections.singletonMap("timeout", "10"), config.settings());
+    assertNull(config.ports());
+    assertSame(config.hosts(), ConfigBuilder.from(config).build().hosts());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void copiesAreUnmodifiable() throws Exception {
+    ConfigBuilder.create()
+        .name("config")
+        .hosts(new ArrayList<String>(Arrays.asList("a", "b", "c")))
+        .build()
+        .hosts()
+        .add("d");
+  }
+
+  @Test
+  public void accumulators() throws Exception {
+    final List<String> hosts = new ArrayList<String>(Collections.singletonList("a"));
+
+    final Config config = ConfigBuilder.create()
+        .name("config")
+        .hosts(hosts)
+        .addHosts("b")
+        .addAllHosts(Arrays.asList("c", "d"))
+        .addPorts(80)
+        .addPorts(443)
+        .addPorts(80)
+        .putSettings("a", "1")
+        .putAllSettings(Collections.singletonMap("b", "2"))
+        .addWeights(1.5)
+        .addWeights(2)
+        .build();
+
+    assertEquals(Collections.singletonList("a"), hosts);
+    assertEquals(Arrays.asList("a", "b", "c", "d"), config.hosts());
+    assertEquals(new LinkedHashSet<Integer>(Arrays.asList(80, 443)), config.ports());
+    assertEquals("[80, 443]", config.ports().toString());
+    assertEquals("{a=1, b=2}", config.settings().toString());
+    assertEquals(Arrays.<Number>asList(1.5, 2), config.weights());
+  }
+
+  @Test
+  public void settersReplaceAccumulatedElements() throws Exception {
+    final ConfigBuilder builder = ConfigBuilder.create()
+        .name("config")
+        .addHosts("a")
+        .hosts(Collections.singletonList("b"))
+        .addHosts("c");
+
+    final Config config = builder.build();
+
+    builder.addHosts("d");
+
+    assertEquals(Arrays.asList("b", "c"), config.hosts());
+    assertEquals(Arrays.asList("b", "c", "d"), builder.build().hosts());
+    assertNull(builder.reset().name("config").build().hosts());
+  }
+
+  @Test
+  public void equalsOtherCollections() throws Exception {
+    final Config config = ConfigBuilder.create()
+        .name("config")
+        .addHosts("a")
+        .addHosts("b")
+        .build();
+
+    final Config other = ConfigBuilder.create()
+        .name("config")
+        .hosts(Arrays.asList("a", "b"))
+        .build();
+
+    assertEquals(config, other);
+    assertEquals(config.hashCode(), other.hashCode());
+  }
+}
@@ -0,0 +1,129 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static immu.generated.Trades.XNAS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CopyOnWriteBuilderTest {
+
+  private static Trade trade() {
+    return TradeBuilder.create()
+        .symbol("AAPL")
+        .side(Trade.Side.BUY)
+        .quantity(100)
+        .price(Double.NaN)
+        .comment("first")
+        .fills(new long[] { 1, 2 })
+        .venue(XNAS)
+        .build();
+  }
+
+  @Test
+  public void unchangedReturnsSource() throws Exception {
+    final Trade trade = trade();
+
+    assertSame(trade, TradeBuilder.from(trade).build());
+  }
+
+  @Test
+  public void equalValuesReturnSource() throws Exception {
+    final Trade trade = trade();
+
+    final Trade same = TradeBuilder.from(trade)
+        .symbol(new String("AAPL"))
+        .quantity(100)
+        .price(Double.NaN)
+        .venue(VenueBuilder.from(XNAS).mic(new String("XNAS")).build())
+        .build();
+
+    assertSame(trade, same);
+  }
+
+  @Test
+  public void changedValueBuildsNewObject() throws Exception {
+    final Trade trade = trade();
+
+    final Trade changed = TradeBuilder.from(trade).quantity(200).build();
+    assertNotSame(trade, changed);
+    assertEquals(200, changed.quantity());
+
+    final Trade negativeZero = TradeBuilder.from(TradeBuilder.from(trade).price(0.0).build()).price(-0.0).build();
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(negativeZero.price()));
+  }
+
+  @Test
+  public void arraysAreComparedByIdentity() throws Exception {
+    final Trade trade = trade();
+
+    assertSame(trade, TradeBuilder.from(trade).fills(trade.fills()).build());
+    assertNotSame(trade, TradeBuilder.from(trade).fills(new long[] { 1, 2 }).build());
+  }
+
+  @Test
+  public void copiedArraysReturnSource() throws Exception {
+    final Histogram histogram = HistogramBuilder.create()
+        .name("latency")
+        .bounds(new double[] { 1.0 })
+        .build();
+
+    // the builder holds the array of the source, not the copy its accessor returns
+    assertSame(histogram, HistogramBuilder.from(histogram).build());
+    assertNotSame(histogram, HistogramBuilder.from(histogram).bounds(histogram.bounds()).build());
+
+    final Histogram renamed = HistogramBuilder.from(histogram).name("renamed").build();
+    assertNotSame(histogram, renamed);
+    assertArrayEquals(histogram.bounds(), renamed.bounds(), 0.0);
+    final Histogram fresh = HistogramBuilder.create()
+        .name("renamed")
+        .bounds(new double[] { 1.0 })
+        .build();
+
+    assertEquals(fresh, renamed);
+    assertEquals(fresh.hashCode(), renamed.hashCode());
+  }
+
+  @Test
+  public void copiedCollectionsReturnSource() throws Exception {
+    final Config config = ConfigBuilder.create()
+        .name("config")
+        .hosts(new ArrayList<String>(Arrays.asList("a", "b")))
+        .build();
+
+    assertSame(config, ConfigBuilder.from(config).build());
+    assertSame(config, ConfigBuilder.from(config).hosts(new ArrayList<String>(Arrays.asList("a", "b"))).build());
+  }
+
+  @Test
+  public void resetForgetsSource() throws Exception {
+    final Trade trade = trade();
+
+    final Trade rebuilt = TradeBuilder.from(trade)
+        .reset()
+        .symbol("AAPL")
+        .side(Trade.Side.BUY)
+        .quantity(100)
+        .price(Double.NaN)
+        .comment("first")
+        .fills(trade.fills())
+        .venue(XNAS)
+        .build();
+
+    assertNotSame(trade, rebuilt);
+  }
+
+  @Test
+  public void otherImplementationsBuildNewObject() throws Exception {
+    final Properties properties = new PropertiesImpl();
+    final Properties copy = PropertiesBuilder.from(properties).build();
+
+    assertNotSame(properties, copy);
+    assertSame(copy, PropertiesBuilder.from(copy).build());
+  }
+}
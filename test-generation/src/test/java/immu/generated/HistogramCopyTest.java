@@ -0,0 +1,113 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramCopyTest {
+
+  private final long[] counts = new long[] { 1, 2, 3 };
+  private final double[] bounds = new double[] { 0.5, 1.5, 2.5 };
+  private final int[][] cells = new int[][] { { 1, 2 }, { 3, 4 } };
+  private final int[] trusted = new int[] { 7 };
+
+  private Histogram histogram() {
+    return HistogramBuilder.create()
+        .name("latency")
+        .counts(counts)
+        .bounds(bounds)
+        .cells(cells)
+        .trusted(trusted)
+        .build();
+  }
+
+  @Test
+  public void copiedOnConstruction() throws Exception {
+    final Histogram histogram = histogram();
+    final int hashCode = histogram.hashCode();
+
+    counts[0] = 100;
+    bounds[0] = 100;
+    cells[0][0] = 100;
+
+    assertEquals(1, histogram.counts()[0]);
+    assertEquals(0.5, histogram.bounds()[0], 0);
+    assertEquals(1, histogram.cells()[0][0]);
+    assertEquals(hashCode, histogram.hashCode());
+  }
+
+  @Test
+  public void trustedIsShared() throws Exception {
+    final Histogram histogram = histogram();
+
+    assertSame(trusted, histogram.trusted());
+  }
+
+  @Test
+  public void copiedOnAccess() throws Exception {
+    final Histogram histogram = histogram();
+
+    assertSame(histogram.counts(), histogram.counts());
+    assertNotSame(histogram.bounds(), histogram.bounds());
+
+    histogram.bounds()[1] = 100;
+
+    assertArrayEquals(new double[] { 0.5, 1.5, 2.5 }, histogram.bounds(), 0);
+  }
+
+  @Test
+  public void copiedByWithers() throws Exception {
+    final long[] other = new long[] { 4, 5, 6 };
+    final Histogram histogram = HistogramBuilder.withCounts(histogram(), other);
+
+    other[0] = 100;
+
+    assertEquals(4, histogram.counts()[0]);
+  }
+
+  @Test
+  public void readOnlyViews() throws Exception {
+    final Histogram histogram = histogram();
+    final LongBuffer counts = HistogramBuilder.countsView(histogram);
+    final DoubleBuffer bounds = HistogramBuilder.boundsView(histogram);
+
+    assertTrue(counts.isReadOnly());
+    assertEquals(3, counts.remaining());
+    assertEquals(2, counts.get(1));
+    assertEquals(1.5, bounds.get(1), 0);
+    assertNull(HistogramBuilder.countsView(HistogramBuilder.create().name("empty").build()));
+  }
+
+  @Test(expected = ReadOnlyBufferException.class)
+  public void viewsCanNotBeWritten() throws Exception {
+    HistogramBuilder.countsView(histogram()).put(0, 100);
+  }
+
+  @Test
+  public void nestedArraysAreComparedByContent() throws Exception {
+    final Histogram histogram = histogram();
+    final Histogram other = HistogramBuilder.withCells(histogram, new int[][] { { 1, 2 }, { 3, 4 } });
+
+    assertNotSame(histogram, other);
+    assertEquals(histogram, other);
+    assertEquals(histogram.hashCode(), other.hashCode());
+  }
+
+  @Test
+  public void columnsCopyOnAccess() throws Exception {
+    final HistogramColumns columns = new HistogramColumns(1).append(histogram());
+
+    assertNotSame(columns.boundsAt(0), columns.boundsAt(0));
+    assertNotSame(columns.cursor().moveTo(0).bounds(), columns.cursor().moveTo(0).bounds());
+    assertEquals(histogram(), columns.get(0));
+  }
+}
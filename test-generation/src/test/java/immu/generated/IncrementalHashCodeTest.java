@@ -0,0 +1,130 @@
+package immu.generated;
+
+import immu.ValueNotProvidedException;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static immu.generated.Trades.XNAS;
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalHashCodeTest {
+
+  private static int cachedHashCode(Object object) throws Exception {
+    final Field field = object.getClass().getDeclaredField("computedHashCode");
+    field.setAccessible(true);
+
+    return field.getInt(object);
+  }
+
+  private static TradeBuilder trade() {
+    return TradeBuilder.create()
+        .symbol("AAPL")
+        .side(Trade.Side.BUY)
+        .quantity(100)
+        .price(187.5)
+        .comment("first")
+        .fills(new long[] { 1, 2 })
+        .matrix(new int[][] { { 1 }, { 2 } })
+        .venue(XNAS);
+  }
+
+  @Test
+  public void builderUpdatesCachedHashCode() throws Exception {
+    final Trade trade = trade().build();
+    trade.hashCode();
+
+    final Trade changed = TradeBuilder.from(trade)
+        .price(-0.0)
+        .fee(Float.NaN)
+        .comment(null)
+        .tags(new String[] { "late" })
+        .matrix(new int[][] { { 3 } })
+        .build();
+
+    final Trade expected = trade()
+        .price(-0.0)
+        .fee(Float.NaN)
+        .comment(null)
+        .tags(new String[] { "late" })
+        .matrix(new int[][] { { 3 } })
+        .build();
+
+    assertEquals(expected.hashCode(), cachedHashCode(changed));
+  }
+
+  @Test
+  public void builderWithoutCachedHashCodeComputesItLater() throws Exception {
+    final Trade trade = trade().build();
+    final Trade changed = TradeBuilder.from(trade).quantity(200).build();
+
+    assertEquals(0, cachedHashCode(changed));
+    assertEquals(trade().quantity(200).build().hashCode(), changed.hashCode());
+  }
+
+  @Test
+  public void resetForgetsTheSource() throws Exception {
+    final Trade trade = trade().build();
+    trade.hashCode();
+
+    final Trade other = TradeBuilder.from(trade).reset().symbol("MSFT").venue(XNAS).build();
+
+    assertEquals(0, cachedHashCode(other));
+  }
+
+  @Test
+  public void witherUpdatesCachedHashCode() throws Exception {
+    final ImmutableTrade trade = (ImmutableTrade) trade().build();
+    trade.hashCode();
+
+    final ImmutableTrade changed = trade.withFills(new long[] { 3 });
+
+    assertEquals(trade().fills(new long[] { 3 }).build().hashCode(), cachedHashCode(changed));
+  }
+
+  @Test
+  public void copiedValuesAreHashedAfterCopying() throws Exception {
+    final Config config = ConfigBuilder.create()
+        .name("primary")
+        .hosts(Arrays.asList("a", "b"))
+        .build();
+    config.hashCode();
+
+    final Config changed = ConfigBuilder.from(config)
+        .addHosts("c")
+        .weights(new ArrayDeque<Integer>(Arrays.asList(1, 2)))
+        .build();
+
+    final Config expected = ConfigBuilder.create()
+        .name("primary")
+        .hosts(Arrays.asList("a", "b", "c"))
+        .weights(Arrays.asList(1, 2))
+        .build();
+
+    assertEquals(expected.hashCode(), cachedHashCode(changed));
+  }
+
+  @Test
+  public void eagerCaching() throws Exception {
+    final EagerCachedProperties properties = EagerCachedPropertiesBuilder.create()
+        .name("a")
+        .count(1)
+        .values(new double[] { 1.0 })
+        .build();
+
+    final EagerCachedProperties changed = EagerCachedPropertiesBuilder.from(properties).count(2).build();
+
+    assertEquals(EagerCachedPropertiesBuilder.create().name("a").count(2).values(new double[] { 1.0 }).build().hashCode(), changed.hashCode());
+  }
+
+  @Test(expected = ValueNotProvidedException.class)
+  public void missingRequiredValue() throws Exception {
+    final EagerCachedProperties properties = EagerCachedPropertiesBuilder.create()
+        .name("a")
+        .build();
+
+    EagerCachedPropertiesBuilder.from(properties).name(null).build();
+  }
+}
@@ -0,0 +1,79 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InternedPropertiesTest {
+
+  @Test
+  public void equalValuesAreSame() throws Exception {
+    final InternedProperties a = InternedPropertiesBuilder.create()
+        .symbol(new String("AAPL"))
+        .venue(3)
+        .prices(new long[] { 1, 2, 3 })
+        .build();
+
+    final InternedProperties b = InternedPropertiesBuilder.create()
+        .symbol(new String("AAPL"))
+        .venue(3)
+        .prices(new long[] { 1, 2, 3 })
+        .build();
+
+    assertSame(a, b);
+    assertSame(a, InternedPropertiesBuilder.from(a).build());
+  }
+
+  @Test
+  public void differentValuesAreNotSame() throws Exception {
+    final InternedProperties a = InternedPropertiesBuilder.create()
+        .symbol("AAPL")
+        .venue(3)
+        .build();
+
+    final InternedProperties b = InternedPropertiesBuilder.create()
+        .symbol("AAPL")
+        .venue(4)
+        .build();
+
+    assertNotSame(a, b);
+    assertNotEquals(a, b);
+    assertNotEquals(b, a);
+  }
+
+  @Test
+  public void equalsOtherImplementations() throws Exception {
+    final InternedProperties a = InternedPropertiesBuilder.create()
+        .symbol("MSFT")
+        .build();
+
+    final InternedProperties other = new InternedProperties() {
+      public String symbol() {
+        return "MSFT";
+      }
+
+      public int venue() {
+        return 0;
+      }
+
+      public long[] prices() {
+        return null;
+      }
+    };
+
+    assertTrue(a.equals(other));
+    assertFalse(a.equals(null));
+    assertFalse(a.equals("MSFT"));
+  }
+
+  @Test
+  public void emptyIsSingleton() throws Exception {
+    assertSame(InternedEmptyBuilder.create().build(), InternedEmptyBuilder.create().build());
+    assertEquals(InternedEmptyBuilder.create().build(), InternedEmptyBuilder.create().build());
+  }
+}
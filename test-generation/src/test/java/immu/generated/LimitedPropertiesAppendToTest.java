@@ -0,0 +1,63 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LimitedPropertiesAppendToTest {
+
+  @Test
+  public void appendToMatchesToString() throws Exception {
+    final Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+    counts.put("a", 1);
+
+    final LimitedProperties properties = LimitedPropertiesBuilder.create()
+        .values(new int[] { 1, 2 })
+        .names(Arrays.asList("x", "y"))
+        .counts(counts)
+        .build();
+
+    final StringWriter writer = new StringWriter();
+
+    assertEquals(properties.toString(), ((ImmutableLimitedProperties) properties).appendTo(new StringBuilder()).toString());
+    assertEquals(properties.toString(), ((ImmutableLimitedProperties) properties).appendTo(writer).toString());
+  }
+
+  @Test
+  public void truncatesLargeProperties() throws Exception {
+    final Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+    for (int i = 0; i < 10; i++) {
+      counts.put("k" + i, i);
+    }
+
+    final String toString = LimitedPropertiesBuilder.create()
+        .values(new int[1000000])
+        .names(Collections.nCopies(5, "n"))
+        .counts(counts)
+        .build()
+        .toString();
+
+    assertTrue(toString, toString.contains("values = <[0, 0, 0, ... (999997 more)]>@"));
+    assertTrue(toString, toString.contains("names = <[n, n, n, ... (2 more)]>@"));
+    assertTrue(toString, toString.contains("counts = <{k0=0, k1=1, k2=2, ... (7 more)}>@"));
+    assertTrue(toString, toString.length() < 300);
+  }
+
+  @Test
+  public void doesNotTruncateSmallProperties() throws Exception {
+    final String toString = LimitedPropertiesBuilder.create()
+        .values(new int[] { 1, 2, 3 })
+        .build()
+        .toString();
+
+    assertTrue(toString, toString.contains("values = <[1, 2, 3]>@"));
+    assertTrue(toString, toString.contains("names = @null"));
+  }
+}
@@ -0,0 +1,67 @@
+package immu.generated;
+
+import immu.ValueNotProvidedException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class MessageTryBuildTest {
+
+  @Test
+  public void tryBuildComplete() throws Exception {
+    final MessageBuilder builder = MessageBuilder.create()
+        .type("quote")
+        .sequence(7)
+        .length(0);
+
+    assertEquals(0L, builder.missingRequired());
+    assertEquals(builder.build(), builder.tryBuild());
+  }
+
+  @Test
+  public void tryBuildMissing() throws Exception {
+    assertNull(MessageBuilder.create().sequence(7).length(0).tryBuild());
+    assertNull(MessageBuilder.create().type("quote").length(0).tryBuild());
+    assertNull(MessageBuilder.create().type("quote").sequence(7).body("body").tryBuild());
+  }
+
+  @Test
+  public void missingRequired() throws Exception {
+    assertEquals(0x7L, MessageBuilder.create().body("body").missingRequired());
+    assertEquals(0x1L, MessageBuilder.create().sequence(7).length(0).missingRequired());
+    assertEquals(0x4L, MessageBuilder.create().type("quote").sequence(7).missingRequired());
+    assertEquals(0x7L, MessageBuilder.create().type("quote").sequence(7).length(0).reset().missingRequired());
+  }
+
+  @Test
+  public void stacklessPrimitives() throws Exception {
+    try {
+      MessageBuilder.create().type("quote").build();
+      fail();
+    } catch (ValueNotProvidedException e) {
+      assertEquals(0, e.getStackTrace().length);
+      assertEquals("Not all values for the properties sequence, length were provided", e.getMessage());
+    }
+
+    try {
+      MessageBuilder.create().type("quote").sequence(7).build();
+      fail();
+    } catch (ValueNotProvidedException e) {
+      assertEquals(0, e.getStackTrace().length);
+      assertEquals("Value for property length was not provided", e.getMessage());
+    }
+  }
+
+  @Test
+  public void stacklessReferences() throws Exception {
+    try {
+      MessageBuilder.create().sequence(7).length(0).build();
+      fail();
+    } catch (ValueNotProvidedException e) {
+      assertEquals(0, e.getStackTrace().length);
+      assertEquals("Value for property type was not provided", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package immu.generated;
+
+import immu.HashMixer;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MixedTickHashCodeTest {
+
+  @Test
+  public void hashCodeIsDocumentedMix() throws Exception {
+    final MixedTick tick = MixedTickBuilder.create()
+        .symbol("AAPL")
+        .venue(1)
+        .bid(2)
+        .ask(3)
+        .build();
+
+    int hash = MixedTick.class.getCanonicalName().hashCode();
+    hash = HashMixer.mix(hash, "AAPL".hashCode());
+    hash = HashMixer.mix(hash, 1);
+    hash = HashMixer.mix(hash, 2);
+    hash = HashMixer.mix(hash, 3);
+
+    assertEquals(HashMixer.finish(hash, 4), tick.hashCode());
+  }
+
+  @Test
+  public void swappedPropertiesDoNotCollide() throws Exception {
+    final MixedTick a = MixedTickBuilder.create().symbol("AAPL").bid(1).ask(2).build();
+    final MixedTick b = MixedTickBuilder.create().symbol("AAPL").bid(2).ask(1).build();
+
+    assertNotEquals(a.hashCode(), b.hashCode());
+  }
+
+  @Test
+  public void equalPropertiesDoNotCancelOut() throws Exception {
+    final MixedTick a = MixedTickBuilder.create().symbol("AAPL").bid(7).ask(7).build();
+    final MixedTick b = MixedTickBuilder.create().symbol("AAPL").bid(9).ask(9).build();
+
+    assertNotEquals(a.hashCode(), b.hashCode());
+  }
+
+  @Test
+  public void fewerCollisionsThanXor() throws Exception {
+    final Set<Integer> xorHashes = new HashSet<Integer>();
+    final Set<Integer> mixedHashes = new HashSet<Integer>();
+
+    int count = 0;
+
+    for (String symbol : new String[] { "AAPL", "MSFT", "GOOG", "AMZN" }) {
+      for (int venue = 0; venue < 8; venue++) {
+        for (int bid = 100; bid < 132; bid++) {
+          for (int ask = bid; ask < bid + 4; ask++) {
+            xorHashes.add(TickBuilder.create().symbol(symbol).venue(venue).bid(bid).ask(ask).build().hashCode());
+            mixedHashes.add(MixedTickBuilder.create().symbol(symbol).venue(venue).bid(bid).ask(ask).build().hashCode());
+            count++;
+          }
+        }
+      }
+    }
+
+    assertTrue("XOR collides for " + (count - xorHashes.size()) + " of " + count, xorHashes.size() < count / 4);
+    assertEquals(count, mixedHashes.size());
+  }
+}
@@ -0,0 +1,96 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OrderFlagsPackingTest {
+
+  private static OrderFlags flags() {
+    return OrderFlagsBuilder.create()
+        .symbol("AAPL")
+        .buy(true)
+        .hidden(false)
+        .postOnly(true)
+        .reduceOnly(false)
+        .immediateOrCancel(false)
+        .fillOrKill(true)
+        .allOrNone(false)
+        .marketable(true)
+        .venue((byte) -1)
+        .tif(Byte.MIN_VALUE)
+        .lot(Short.MIN_VALUE)
+        .currency('\uffff')
+        .quantity(-5)
+        .build();
+  }
+
+  @Test
+  public void smallPrimitivesArePacked() throws Exception {
+    final List<String> fields = new ArrayList<String>();
+
+    for (Field field : flags().getClass().getDeclaredFields()) {
+      fields.add(field.getType() + " " + field.getName());
+    }
+
+    assertTrue(fields.contains("long packed0"));
+    assertFalse(fields.contains("boolean buy"));
+    assertFalse(fields.contains("byte venue"));
+    assertFalse(fields.contains("short lot"));
+    assertFalse(fields.contains("char currency"));
+    assertTrue(fields.contains("int quantity"));
+  }
+
+  @Test
+  public void valuesRoundTrip() throws Exception {
+    final OrderFlags flags = flags();
+
+    assertEquals("AAPL", flags.symbol());
+    assertTrue(flags.buy());
+    assertFalse(flags.hidden());
+    assertTrue(flags.postOnly());
+    assertFalse(flags.reduceOnly());
+    assertFalse(flags.immediateOrCancel());
+    assertTrue(flags.fillOrKill());
+    assertFalse(flags.allOrNone());
+    assertTrue(flags.marketable());
+    assertEquals((byte) -1, flags.venue());
+    assertEquals(Byte.MIN_VALUE, flags.tif());
+    assertEquals(Short.MIN_VALUE, flags.lot());
+    assertEquals('\uffff', flags.currency());
+    assertEquals(-5, flags.quantity());
+  }
+
+  @Test
+  public void equalsAndWithers() throws Exception {
+    final OrderFlags flags = flags();
+
+    assertEquals(flags, flags());
+    assertEquals(flags.hashCode(), flags().hashCode());
+    assertEquals(flags.toString().replaceAll("@[0-9a-f]+", ""), flags().toString().replaceAll("@[0-9a-f]+", ""));
+
+    assertSame(flags, OrderFlagsBuilder.withHidden(flags, false));
+
+    final OrderFlags hidden = OrderFlagsBuilder.withHidden(flags, true);
+
+    assertTrue(hidden.hidden());
+    assertFalse(flags.equals(hidden));
+    assertEquals(flags.lot(), hidden.lot());
+    assertEquals(flags.currency(), hidden.currency());
+    assertEquals(flags.venue(), hidden.venue());
+    assertEquals(flags, OrderFlagsBuilder.withHidden(hidden, false));
+
+    final OrderFlags lot = OrderFlagsBuilder.withLot(flags, (short) 100);
+
+    assertEquals(100, lot.lot());
+    assertEquals(Byte.MIN_VALUE, lot.tif());
+    assertEquals('\uffff', lot.currency());
+  }
+}
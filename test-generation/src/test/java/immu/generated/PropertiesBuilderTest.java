@@ -7,6 +7,7 @@ import java.util.Collection;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class PropertiesBuilderTest {
 
@@ -28,8 +29,12 @@ public class PropertiesBuilderTest {
 
     final Properties copy = PropertiesBuilder.from(properties).build();
 
-    assertNotSame(properties, copy);
-    assertEquals(properties, copy);
+    assertSame(properties, copy);
+
+    final Properties changed = PropertiesBuilder.from(properties).propertyInt(0xE).build();
+
+    assertNotSame(properties, changed);
+    assertEquals(PropertiesBuilder.from(properties).propertyInt(0xE).build(), changed);
   }
 
 }
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -41,6 +42,29 @@ public class PropertiesEqualsTest {
     assertFalse("V != Properties", properties.equals(new PropertiesImpl()));
   }
 
+  @Test
+  public void exerciseEqualsForSignedZeroBeforeAndAfterHashCode() throws Exception {
+    final Fill positive = FillBuilder.create().orderId(1).quantity(10).price(0.0).build();
+    final Fill negative = FillBuilder.create().orderId(1).quantity(10).price(-0.0).build();
+
+    assertFalse("0.0 != -0.0", positive.equals(negative));
+
+    positive.hashCode();
+    negative.hashCode();
+
+    assertFalse("0.0 != -0.0 after hashCode()", positive.equals(negative));
+  }
+
+  @Test
+  public void exerciseEqualsForNaN() throws Exception {
+    final Fill a = FillBuilder.create().orderId(1).quantity(10).price(Double.NaN).build();
+    final Fill b = FillBuilder.create().orderId(1).quantity(10).price(Double.NaN).build();
+
+    assertTrue("NaN == NaN", a.equals(b));
+    assertEquals(a.hashCode(), b.hashCode());
+    assertTrue("NaN == NaN after hashCode()", a.equals(b));
+  }
+
   @Test
   public void exerciseEqualsWithNulls() throws Exception {
     final Properties propertiesA = PropertiesBuilder.create().build();
@@ -71,15 +95,17 @@ public class PropertiesEqualsTest {
 
   @Test
   public void exerciseEqualsForIntMatrix() throws Exception {
-    // testing the use of Arrays.equals NOT Arrays.deepEquals
+    // testing the use of Arrays.deepEquals NOT Arrays.equals
 
     final int[][] a = new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 9 } };
     final int[][] copyOfA = new int[][] { a[0], a[1], a[2] };
-    final int[][] b = new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 9 } };
+    final int[][] b = new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 0 } };
+    final int[][] equalToA = new int[][] { { 1, 2, 3 }, { 4, 5, 6 }, { 7, 8, 9 } };
 
     final Properties propertiesA = PropertiesBuilder.create().propertyIntMatrix(a).build();
     final Properties propertiesCopyOfA = PropertiesBuilder.create().propertyIntMatrix(copyOfA).build();
     final Properties propertiesB = PropertiesBuilder.create().propertyIntMatrix(b).build();
+    final Properties propertiesEqualToA = PropertiesBuilder.create().propertyIntMatrix(equalToA).build();
     final Properties propertiesNull = PropertiesBuilder.create().build();
 
     assertTrue("A == copy(A)", propertiesA.equals(propertiesCopyOfA));
@@ -88,6 +114,9 @@ public class PropertiesEqualsTest {
     assertFalse("null != V", propertiesNull.equals(propertiesA));
     assertFalse("A != B", propertiesA.equals(propertiesB));
     assertFalse("B != A", propertiesB.equals(propertiesA));
+    assertTrue("A == equal(A)", propertiesA.equals(propertiesEqualToA));
+    assertTrue("equal(A) == A", propertiesEqualToA.equals(propertiesA));
+    assertEquals(propertiesA.hashCode(), propertiesEqualToA.hashCode());
   }
 
   @Test
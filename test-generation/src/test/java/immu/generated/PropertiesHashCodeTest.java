@@ -51,7 +51,7 @@ public class PropertiesHashCodeTest {
         .propertyIntMatrix(matrix)
         .build();
 
-    assertEquals(defaultHashCode(Properties.class) ^ Arrays.hashCode(matrix), properties.hashCode());
+    assertEquals(defaultHashCode(Properties.class) ^ Arrays.deepHashCode(matrix), properties.hashCode());
   }
 
   @Test
@@ -0,0 +1,120 @@
+package immu.generated;
+
+import immu.ValueNotProvidedException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class PropertiesWithTest {
+
+  private static final int[] ARRAY = { 1, 2, 3 };
+
+  private static ImmutableProperties properties() {
+    return (ImmutableProperties) PropertiesBuilder.create()
+        .propertyIntArray(ARRAY)
+        .propertyInt(7)
+        .propertyDouble(0.0)
+        .propertyFloat(1.5f)
+        .propertyListOfWildcardCollection(new ArrayList<Collection>())
+        .build();
+  }
+
+  @Test
+  public void unchangedReturnsThis() throws Exception {
+    final ImmutableProperties properties = properties();
+
+    assertSame(properties, properties.withPropertyInt(7));
+    assertSame(properties, properties.withPropertyFloat(1.5f));
+    assertSame(properties, properties.withPropertyIntArray(ARRAY));
+    assertSame(properties, properties.withPropertyIntMatrix(null));
+    assertSame(properties, properties.withPropertyListOfWildcardCollection(new ArrayList<Collection>()));
+  }
+
+  @Test
+  public void changedCopiesOtherValues() throws Exception {
+    final ImmutableProperties properties = properties();
+    final ImmutableProperties changed = properties.withPropertyInt(8).withPropertyChar('x');
+
+    assertEquals(8, changed.propertyInt());
+    assertEquals('x', changed.propertyChar());
+    assertSame(ARRAY, changed.propertyIntArray());
+    assertEquals(PropertiesBuilder.from(properties).propertyInt(8).propertyChar('x').build(), changed);
+  }
+
+  @Test
+  public void negativeZeroIsAChange() throws Exception {
+    final ImmutableProperties properties = properties();
+    final ImmutableProperties changed = properties.withPropertyDouble(-0.0);
+
+    assertNotSame(properties, changed);
+    assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(changed.propertyDouble()));
+  }
+
+  @Test
+  public void sameNaNIsUnchanged() throws Exception {
+    final ImmutableProperties properties = properties().withPropertyFloat(Float.NaN);
+
+    assertSame(properties, properties.withPropertyFloat(Float.NaN));
+  }
+
+  @Test
+  public void arraysCompareByIdentity() throws Exception {
+    final ImmutableProperties properties = properties();
+    final int[] equalArray = ARRAY.clone();
+
+    final ImmutableProperties changed = properties.withPropertyIntArray(equalArray);
+
+    assertNotSame(properties, changed);
+    assertSame(equalArray, changed.propertyIntArray());
+  }
+
+  @Test
+  public void builderWithUsesImplementation() throws Exception {
+    final Properties properties = properties();
+
+    assertSame(properties, PropertiesBuilder.withPropertyInt(properties, 7));
+    assertEquals(9, PropertiesBuilder.withPropertyInt(properties, 9).propertyInt());
+  }
+
+  @Test
+  public void builderWithForeignImplementation() throws Exception {
+    final Properties properties = new PropertiesImpl();
+    final Properties changed = PropertiesBuilder.withPropertyLong(properties, 42);
+
+    assertEquals(42, changed.propertyLong());
+    assertArrayEquals(properties.propertyIntArray(), changed.propertyIntArray());
+  }
+
+  @Test(expected = ValueNotProvidedException.class)
+  public void requiredNull() throws Exception {
+    final RequiredProperties properties = RequiredPropertiesBuilder.create()
+        .propertyReference("a")
+        .propertyPrimitive(1)
+        .propertyArray(new int[0])
+        .build();
+
+    RequiredPropertiesBuilder.withPropertyReference(properties, null);
+  }
+
+  @Test
+  public void internedReturnsCanonical() throws Exception {
+    final InternedProperties a = InternedPropertiesBuilder.create()
+        .symbol("A")
+        .venue(1)
+        .build();
+
+    final InternedProperties b = InternedPropertiesBuilder.create()
+        .symbol("A")
+        .venue(2)
+        .build();
+
+    assertSame(b, ((ImmutableInternedProperties) a).withVenue(2));
+    assertSame(a, InternedPropertiesBuilder.withVenue(b, 1));
+  }
+}
@@ -0,0 +1,90 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class QuoteFlyweightTest {
+
+  private static Quote quote(int i) {
+    return QuoteBuilder.create()
+        .firm(0 == i % 2)
+        .flags((byte) i)
+        .side(0 == i % 3 ? 'B' : 'S')
+        .venue((short) (i * 7))
+        .bid(100 + i)
+        .ask(101 + i)
+        .spread(i / 4f)
+        .timestamp(1000000000000L + i)
+        .mid(100.5 + i)
+        .build();
+  }
+
+  @Test
+  public void layoutIsPacked() throws Exception {
+    assertEquals(1 + 1 + 2 + 2 + 4 + 4 + 4 + 8 + 8, QuoteFlyweight.SIZE);
+  }
+
+  @Test
+  public void readsRecordsInDirectMemory() throws Exception {
+    final int count = 100;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(3 + count * QuoteFlyweight.SIZE)
+        .order(ByteOrder.nativeOrder());
+
+    for (int i = 0; i < count; i++) {
+      QuoteFlyweight.put(quote(i), buffer, 3 + i * QuoteFlyweight.SIZE);
+    }
+
+    assertEquals(0, buffer.position());
+
+    final QuoteFlyweight flyweight = new QuoteFlyweight();
+
+    for (int i = 0; i < count; i++) {
+      final Quote expected = quote(i);
+
+      assertSame(flyweight, flyweight.wrap(buffer, 3 + i * QuoteFlyweight.SIZE));
+
+      assertEquals(expected.firm(), flyweight.firm());
+      assertEquals(expected.flags(), flyweight.flags());
+      assertEquals(expected.side(), flyweight.side());
+      assertEquals(expected.venue(), flyweight.venue());
+      assertEquals(expected.bid(), flyweight.bid());
+      assertEquals(expected.ask(), flyweight.ask());
+      assertEquals(expected.spread(), flyweight.spread(), 0f);
+      assertEquals(expected.timestamp(), flyweight.timestamp());
+      assertEquals(expected.mid(), flyweight.mid(), 0.0);
+    }
+  }
+
+  @Test
+  public void interchangeableWithImmutable() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(2 * QuoteFlyweight.SIZE);
+
+    QuoteFlyweight.put(quote(5), buffer, 0);
+    QuoteFlyweight.put(quote(6), buffer, QuoteFlyweight.SIZE);
+
+    final QuoteFlyweight flyweight = new QuoteFlyweight().wrap(buffer, 0);
+
+    assertEquals(quote(5), flyweight);
+    assertEquals(flyweight, quote(5));
+    assertEquals(quote(5).hashCode(), flyweight.hashCode());
+    assertEquals(quote(5), QuoteBuilder.from(flyweight).build());
+    assertTrue(flyweight.toString().matches("Quote@@[0-9a-f]{8}\\{ firm = <false>, flags = <5>, .* mid = <105\\.5> \\}"));
+
+    flyweight.wrap(buffer, QuoteFlyweight.SIZE);
+
+    assertNotEquals(quote(5), flyweight);
+    assertEquals(quote(6), flyweight);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void wrapOutsideOfLimit() throws Exception {
+    new QuoteFlyweight().wrap(ByteBuffer.allocate(QuoteFlyweight.SIZE), 1);
+  }
+}
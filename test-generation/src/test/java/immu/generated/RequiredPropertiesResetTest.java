@@ -0,0 +1,110 @@
+package immu.generated;
+
+import immu.ValueNotProvidedException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class RequiredPropertiesResetTest {
+
+  private static RequiredPropertiesBuilder provideAll(RequiredPropertiesBuilder builder) {
+    return builder
+        .propertyReference("a")
+        .propertyPrimitive(3)
+        .propertyArray(new int[] { 1 });
+  }
+
+  @Test
+  public void resetMarksRequiredAsNotProvided() throws Exception {
+    final RequiredPropertiesBuilder builder = provideAll(RequiredPropertiesBuilder.create());
+
+    builder.build();
+
+    try {
+      builder.reset()
+          .propertyReference("b")
+          .propertyArray(new int[0])
+          .build();
+
+      fail();
+    } catch (ValueNotProvidedException e) {
+      assertEquals("Value for property propertyPrimitive was not provided", e.getMessage());
+    }
+  }
+
+  @Test
+  public void resetClearsValues() throws Exception {
+    final RequiredPropertiesBuilder builder = provideAll(RequiredPropertiesBuilder.create());
+
+    builder.reset().propertyPrimitive(7);
+
+    try {
+      builder.build();
+      fail();
+    } catch (ValueNotProvidedException e) {
+      assertEquals("Value for property propertyReference was not provided", e.getMessage());
+    }
+  }
+
+  @Test
+  public void resetBuilderBuildsEqualObjects() throws Exception {
+    final RequiredPropertiesBuilder builder = RequiredPropertiesBuilder.create();
+
+    final RequiredProperties first = provideAll(builder).build();
+    final RequiredProperties second = provideAll(builder.reset()).build();
+
+    assertNotSame(first, second);
+    assertEquals(first.propertyReference(), second.propertyReference());
+    assertEquals(first.propertyPrimitive(), second.propertyPrimitive());
+  }
+
+  @Test
+  public void threadLocalIsReusedAndReset() throws Exception {
+    final RequiredPropertiesBuilder builder = RequiredPropertiesBuilder.threadLocal();
+
+    provideAll(builder);
+
+    assertSame(builder, RequiredPropertiesBuilder.threadLocal());
+
+    try {
+      builder.build();
+      fail();
+    } catch (ValueNotProvidedException e) {
+      // reset by threadLocal()
+    }
+  }
+
+  @Test
+  public void threadLocalPerThread() throws Exception {
+    final RequiredPropertiesBuilder builder = RequiredPropertiesBuilder.threadLocal();
+    final RequiredPropertiesBuilder[] other = new RequiredPropertiesBuilder[1];
+
+    final Thread thread = new Thread() {
+      @Override
+      public void run() {
+        other[0] = RequiredPropertiesBuilder.threadLocal();
+      }
+    };
+
+    thread.start();
+    thread.join();
+
+    assertNotSame(builder, other[0]);
+  }
+
+  @Test
+  public void resetWithoutRequired() throws Exception {
+    final Properties properties = PropertiesBuilder.create()
+        .propertyInt(1)
+        .propertyIntArray(new int[0])
+        .reset()
+        .build();
+
+    assertEquals(0, properties.propertyInt());
+    assertNull(properties.propertyIntArray());
+  }
+}
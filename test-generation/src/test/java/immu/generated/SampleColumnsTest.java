@@ -0,0 +1,134 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SampleColumnsTest {
+
+  private static Sample sample(int i) {
+    return SampleBuilder.create()
+        .sensor("sensor-" + (i % 3))
+        .timestamp(1000L + i)
+        .value(i * 0.5)
+        .valid(0 == i % 2)
+        .tags(0 == i % 4 ? null : new int[] { i })
+        .labels(Collections.singletonList("label-" + i))
+        .build();
+  }
+
+  private static List<Sample> samples(int count) {
+    final List<Sample> samples = new ArrayList<Sample>();
+
+    for (int i = 0; i < count; i++) {
+      samples.add(sample(i));
+    }
+
+    return samples;
+  }
+
+  @Test
+  public void appendGrowsAndKeepsOrder() throws Exception {
+    final SampleColumns columns = new SampleColumns(0);
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(columns, columns.append(sample(i)));
+    }
+
+    assertEquals(100, columns.size());
+
+    for (int i = 0; i < 100; i++) {
+      final Sample expected = sample(i);
+
+      assertEquals(expected.sensor(), columns.get(i).sensor());
+      assertEquals(expected.timestamp(), columns.timestampAt(i));
+      assertEquals(expected.value(), columns.valueAt(i), 0.0);
+      assertEquals(expected.valid(), columns.validAt(i));
+      assertArrayEquals(expected.tags(), columns.tagsAt(i));
+      assertEquals(expected.labels(), columns.labelsAt(i));
+    }
+  }
+
+  @Test
+  public void fromIterable() throws Exception {
+    final List<Sample> samples = samples(10);
+    final SampleColumns columns = SampleColumns.from(samples);
+
+    assertEquals(10, columns.size());
+    assertEquals(10, columns.timestampColumn().length);
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(samples.get(i), columns.get(i));
+    }
+  }
+
+  @Test
+  public void columnScan() throws Exception {
+    final SampleColumns columns = SampleColumns.from(samples(9));
+
+    final double[] values = columns.valueColumn();
+    double sum = 0;
+
+    for (int i = 0; i < columns.size(); i++) {
+      sum += values[i];
+    }
+
+    assertEquals(18.0, sum, 0.0);
+  }
+
+  @Test
+  public void trimToSize() throws Exception {
+    final SampleColumns columns = new SampleColumns(64).appendAll(samples(3));
+
+    assertEquals(64, columns.sensorColumn().length);
+
+    columns.trimToSize();
+
+    assertEquals(3, columns.sensorColumn().length);
+    assertEquals(sample(2), columns.get(2));
+
+    columns.append(sample(3));
+
+    assertEquals(sample(3), columns.get(3));
+  }
+
+  @Test
+  public void cursorIsInterchangeable() throws Exception {
+    final SampleColumns columns = SampleColumns.from(samples(5));
+    final SampleColumns.Cursor cursor = columns.cursor();
+
+    for (int i = 0; i < columns.size(); i++) {
+      assertSame(cursor, cursor.moveTo(i));
+
+      final Sample expected = sample(i);
+
+      assertEquals(i, cursor.index());
+      assertEquals(expected, cursor);
+      assertEquals(cursor, expected);
+      assertEquals(expected.hashCode(), cursor.hashCode());
+      assertTrue(cursor.toString().startsWith("Sample@@"));
+    }
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getOutOfBounds() throws Exception {
+    new SampleColumns().append(sample(0)).get(1);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void cursorOutOfBounds() throws Exception {
+    new SampleColumns(16).cursor().moveTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeCapacity() throws Exception {
+    new SampleColumns(-1);
+  }
+}
@@ -0,0 +1,134 @@
+package immu.generated;
+
+import immu.ValueNotProvidedException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static immu.generated.Trades.XNAS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SerializationProxyTest {
+
+  @Test
+  public void roundTrip() throws Exception {
+    final Trade trade = TradeBuilder.create()
+        .symbol("AAPL")
+        .side(Trade.Side.SELL)
+        .cancelled(true)
+        .currency('$')
+        .quantity(200)
+        .timestamp(1234567890123L)
+        .price(187.5)
+        .fills(new long[] { 1, 2 })
+        .tags(new String[] { "a", null })
+        .matrix(new int[][] { { 1 }, { 2, 3 } })
+        .venue(XNAS)
+        .venues(new Venue[] { XNAS, null })
+        .build();
+
+    final Trade read = (Trade) read(write(trade));
+
+    assertNotSame(trade, read);
+    assertEquals(trade, read);
+    assertArrayEquals(trade.fills(), read.fills());
+  }
+
+  @Test
+  public void readsCanonicalInstances() throws Exception {
+    final Trade trade = TradeBuilder.create()
+        .symbol("AAPL")
+        .venue(XNAS)
+        .build();
+
+    final Trade read = (Trade) read(write(trade));
+
+    assertSame(XNAS, read.venue());
+    assertSame(XNAS, read(write(XNAS)));
+  }
+
+  @Test
+  public void roundTripCollections() throws Exception {
+    final Config config = ConfigBuilder.create()
+        .name("primary")
+        .hosts(Arrays.asList("a", "b", "c"))
+        .ports(new LinkedHashSet<Integer>(Arrays.asList(80, 443)))
+        .settings(Collections.singletonMap("mode", "fast"))
+        .build();
+
+    final Config read = (Config) read(write(config));
+
+    assertEquals(config, read);
+    assertEquals(Arrays.asList("a", "b", "c"), read.hosts());
+  }
+
+  @Test
+  public void checksRequiredProperties() throws Exception {
+    final byte[] bytes = write(XNAS);
+
+    // replace the string "XNAS" with null, as a corrupted or forged stream could
+    final byte[] string = new byte[] { 0x74, 0, 4, 'X', 'N', 'A', 'S' };
+    final int index = indexOf(bytes, string);
+
+    final byte[] forged = new byte[bytes.length - string.length + 1];
+    System.arraycopy(bytes, 0, forged, 0, index);
+    forged[index] = 0x70;
+    System.arraycopy(bytes, index + string.length, forged, index + 1, bytes.length - index - string.length);
+
+    try {
+      read(forged);
+      fail("Forged stream was read");
+    } catch (InvalidObjectException e) {
+      assertTrue(e.getCause() instanceof ValueNotProvidedException);
+      assertEquals("Value for property mic was not provided", e.getMessage());
+    }
+  }
+
+  private static byte[] write(Object object) throws Exception {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final ObjectOutputStream out = new ObjectOutputStream(bytes);
+
+    out.writeObject(object);
+    out.close();
+
+    return bytes.toByteArray();
+  }
+
+  private static Object read(byte[] bytes) throws Exception {
+    final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+
+    try {
+      return in.readObject();
+    } finally {
+      in.close();
+    }
+  }
+
+  private static int indexOf(byte[] bytes, byte[] sequence) {
+    for (int i = 0; i + sequence.length <= bytes.length; i++) {
+      boolean found = true;
+
+      for (int j = 0; j < sequence.length && found; j++) {
+        found = bytes[i + j] == sequence[j];
+      }
+
+      if (found) {
+        return i;
+      }
+    }
+
+    throw new AssertionError("Sequence not found");
+  }
+}
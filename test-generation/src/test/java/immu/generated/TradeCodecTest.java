@@ -0,0 +1,132 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static immu.generated.Trades.XNAS;
+import static immu.generated.Trades.trade;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TradeCodecTest {
+
+  private static Trade roundTrip(Trade trade, ByteBuffer buffer) {
+    final int size = TradeCodec.encodedSize(trade);
+
+    buffer.position(5);
+    TradeCodec.writeTo(trade, buffer);
+
+    assertEquals(5 + size, buffer.position());
+
+    buffer.flip();
+    buffer.position(5);
+
+    final Trade read = TradeCodec.readFrom(buffer);
+
+    assertEquals(0, buffer.remaining());
+
+    return read;
+  }
+
+  private static void assertTrade(Trade expected, Trade actual) {
+    assertEquals(expected.symbol(), actual.symbol());
+    assertEquals(expected.side(), actual.side());
+    assertEquals(expected.cancelled(), actual.cancelled());
+    assertEquals(expected.flags(), actual.flags());
+    assertEquals(expected.lot(), actual.lot());
+    assertEquals(expected.currency(), actual.currency());
+    assertEquals(expected.quantity(), actual.quantity());
+    assertEquals(expected.timestamp(), actual.timestamp());
+    assertEquals(expected.fee(), actual.fee(), 0f);
+    assertEquals(expected.price(), actual.price(), 0.0);
+    assertEquals(expected.comment(), actual.comment());
+    assertArrayEquals(expected.payload(), actual.payload());
+    assertArrayEquals(expected.fills(), actual.fills());
+    assertArrayEquals(expected.tags(), actual.tags());
+    assertTrue(Arrays.deepEquals(expected.matrix(), actual.matrix()));
+    assertArrayEquals(expected.legs(), actual.legs());
+    assertEquals(expected.venue(), actual.venue());
+    assertEquals(expected.routedVenue(), actual.routedVenue());
+    assertArrayEquals(expected.venues(), actual.venues());
+  }
+
+  @Test
+  public void roundTripHeap() throws Exception {
+    final Trade trade = trade().build();
+
+    assertTrade(trade, roundTrip(trade, ByteBuffer.allocate(5 + TradeCodec.encodedSize(trade))));
+  }
+
+  @Test
+  public void roundTripDirectLittleEndian() throws Exception {
+    final Trade trade = trade().build();
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(5 + TradeCodec.encodedSize(trade))
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    assertTrade(trade, roundTrip(trade, buffer));
+  }
+
+  @Test
+  public void roundTripNulls() throws Exception {
+    final Trade trade = TradeBuilder.create()
+        .symbol("MSFT")
+        .venue(XNAS)
+        .build();
+
+    final Trade read = roundTrip(trade, ByteBuffer.allocate(5 + TradeCodec.encodedSize(trade)));
+
+    assertEquals(trade, read);
+    assertNull(read.side());
+    assertNull(read.comment());
+    assertNull(read.matrix());
+    assertNull(read.routedVenue());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void readUnknownOrdinal() throws Exception {
+    final ByteBuffer buffer = encoded(TradeBuilder.create().symbol("MSFT").venue(XNAS).build());
+
+    // the side follows the length and bytes of the symbol
+    buffer.putInt(8, Trade.Side.values().length);
+
+    TradeCodec.readFrom(buffer);
+  }
+
+  @Test(expected = BufferUnderflowException.class)
+  public void readCorruptArrayLength() throws Exception {
+    final ByteBuffer buffer = encoded(TradeBuilder.create().symbol("MSFT").venue(XNAS).build());
+
+    // the tags follow the symbol, the side, 30 bytes of primitives, and the null comment, payload and fills
+    assertEquals(-1, buffer.getInt(54));
+    buffer.putInt(54, Integer.MAX_VALUE);
+
+    TradeCodec.readFrom(buffer);
+  }
+
+  private static ByteBuffer encoded(Trade trade) {
+    final ByteBuffer buffer = ByteBuffer.allocate(TradeCodec.encodedSize(trade));
+
+    TradeCodec.writeTo(trade, buffer);
+    buffer.flip();
+
+    return buffer;
+  }
+
+  @Test
+  public void readsCanonicalInterned() throws Exception {
+    final ByteBuffer buffer = ByteBuffer.allocate(VenueCodec.encodedSize(XNAS));
+
+    VenueCodec.writeTo(XNAS, buffer);
+    buffer.flip();
+
+    assertSame(XNAS, VenueCodec.readFrom(buffer));
+  }
+}
@@ -0,0 +1,86 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import static immu.generated.Trades.XNAS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TradeComparatorsTest {
+
+  private static Trade trade(String symbol, double price, long timestamp, String comment) {
+    return TradeBuilder.create()
+        .symbol(symbol)
+        .price(price)
+        .timestamp(timestamp)
+        .comment(comment)
+        .venue(XNAS)
+        .build();
+  }
+
+  private final Trade a = trade("MSFT", 10.5, 3, "c");
+  private final Trade b = trade("AAPL", 10.5, 1, null);
+  private final Trade c = trade("AAPL", 9.25, 2, "a");
+  private final Trade d = trade("AAPL", Double.NaN, 4, "b");
+
+  @Test
+  public void byPrimitive() throws Exception {
+    final List<Trade> trades = new ArrayList<Trade>(Arrays.asList(a, b, c, d));
+
+    Collections.sort(trades, TradeComparators.byTimestamp());
+    assertEquals(Arrays.asList(b, c, a, d), trades);
+
+    // NaN is greater than all other values, like with Double.compare
+    Collections.sort(trades, TradeComparators.byPrice());
+    assertEquals(Arrays.asList(c, b, a, d), trades);
+
+    assertSame(TradeComparators.byPrice(), TradeComparators.byPrice());
+  }
+
+  @Test
+  public void byComparableWithNullsFirst() throws Exception {
+    final List<Trade> trades = new ArrayList<Trade>(Arrays.asList(a, b, c, d));
+
+    Collections.sort(trades, TradeComparators.byComment());
+    assertEquals(Arrays.asList(b, c, d, a), trades);
+  }
+
+  @Test
+  public void chained() throws Exception {
+    final List<Trade> trades = new ArrayList<Trade>(Arrays.asList(a, b, c, d));
+
+    Collections.sort(trades, TradeComparators.bySymbol(TradeComparators.byPrice(Collections.reverseOrder(TradeComparators.byTimestamp()))));
+    assertEquals(Arrays.asList(c, b, d, a), trades);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void chainedWithNull() throws Exception {
+    TradeComparators.bySymbol(null);
+  }
+
+  @Test
+  public void comparable() throws Exception {
+    final Trade[] trades = new Trade[] { a, b, c, d };
+
+    Arrays.sort(trades);
+    assertEquals(Arrays.asList(c, b, d, a), Arrays.asList(trades));
+
+    final TreeSet<Trade> set = new TreeSet<Trade>(Arrays.asList(a, b, c, d));
+    assertEquals(Arrays.asList(c, b, d, a), new ArrayList<Trade>(set));
+
+    assertTrue(trade("AAPL", 9.25, 2, "other").equals(trade("AAPL", 9.25, 2, "other")));
+    assertEquals(0, ((ImmutableTrade) c).compareTo(trade("AAPL", 9.25, 2, "other")));
+
+    // compareTo orders like Double.compare, and equals compares the bits, so NaN equals itself in both
+    final Trade nan = trade("AAPL", Double.NaN, 4, "b");
+    assertEquals(0, ((ImmutableTrade) d).compareTo(nan));
+    assertTrue(d.equals(nan));
+  }
+}
@@ -0,0 +1,157 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import static immu.generated.Trades.XNAS;
+import static immu.generated.Trades.trade;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TradeDiffTest {
+
+  private static final Venue XNYS = VenueBuilder.create()
+      .mic("XNYS")
+      .id((short) 13)
+      .build();
+
+  @Test
+  public void equalObjectsHaveNoDifferences() throws Exception {
+    final Trade trade = trade().build();
+
+    assertEquals(0L, TradeDiff.mask(trade, trade));
+    assertEquals(0L, TradeDiff.mask(trade, trade().build()));
+    assertEquals(0L, TradeDiff.mask(trade, new TradeImpl(trade)));
+  }
+
+  @Test
+  public void maskHasTheDifferentProperties() throws Exception {
+    final Trade a = trade().build();
+    final Trade b = trade()
+        .price(188)
+        .fills(new long[] { 1, 3 })
+        .matrix(new int[][] { { 1 }, { 3 } })
+        .venue(XNYS)
+        .comment("late")
+        .build();
+
+    final long expected = TradeDiff.PRICE | TradeDiff.FILLS | TradeDiff.MATRIX | TradeDiff.VENUE | TradeDiff.COMMENT;
+
+    assertEquals(expected, TradeDiff.mask(a, b));
+    assertEquals(expected, TradeDiff.mask(b, a));
+    assertEquals(expected, TradeDiff.mask(new TradeImpl(a), b));
+  }
+
+  @Test
+  public void applyCopiesTheMaskedProperties() throws Exception {
+    final Trade base = trade().build();
+    final Trade source = trade()
+        .price(188)
+        .quantity(200)
+        .comment("late")
+        .build();
+
+    final Trade applied = TradeDiff.apply(base, TradeDiff.PRICE | TradeDiff.COMMENT, source);
+
+    assertEquals(188, applied.price(), 0);
+    assertEquals("late", applied.comment());
+    assertEquals(base.quantity(), applied.quantity());
+    assertEquals(TradeDiff.QUANTITY, TradeDiff.mask(applied, source));
+    assertEquals(source, TradeDiff.apply(base, TradeDiff.mask(base, source), source));
+  }
+
+  @Test
+  public void applyReturnsExistingObjects() throws Exception {
+    final Trade base = trade().build();
+    final Trade source = trade().price(188).build();
+
+    assertSame(base, TradeDiff.apply(base, 0L, source));
+    assertSame(source, TradeDiff.apply(base, ~0L, source));
+    assertNotSame(source, TradeDiff.apply(base, ~0L, new TradeImpl(source)));
+    assertEquals(source, TradeDiff.apply(base, ~0L, new TradeImpl(source)));
+  }
+
+  private static final class TradeImpl implements Trade {
+    private final Trade trade;
+
+    private TradeImpl(Trade trade) {
+      this.trade = trade;
+    }
+
+    public String symbol() {
+      return trade.symbol();
+    }
+
+    public Side side() {
+      return trade.side();
+    }
+
+    public boolean cancelled() {
+      return trade.cancelled();
+    }
+
+    public byte flags() {
+      return trade.flags();
+    }
+
+    public short lot() {
+      return trade.lot();
+    }
+
+    public char currency() {
+      return trade.currency();
+    }
+
+    public int quantity() {
+      return trade.quantity();
+    }
+
+    public long timestamp() {
+      return trade.timestamp();
+    }
+
+    public float fee() {
+      return trade.fee();
+    }
+
+    public double price() {
+      return trade.price();
+    }
+
+    public String comment() {
+      return trade.comment();
+    }
+
+    public byte[] payload() {
+      return trade.payload();
+    }
+
+    public long[] fills() {
+      return trade.fills();
+    }
+
+    public String[] tags() {
+      return trade.tags();
+    }
+
+    public int[][] matrix() {
+      return trade.matrix();
+    }
+
+    public Side[] legs() {
+      return trade.legs();
+    }
+
+    public Venue venue() {
+      return trade.venue();
+    }
+
+    public Venue routedVenue() {
+      return trade.routedVenue();
+    }
+
+    public Venue[] venues() {
+      return trade.venues();
+    }
+  }
+}
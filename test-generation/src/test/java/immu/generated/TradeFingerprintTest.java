@@ -0,0 +1,57 @@
+package immu.generated;
+
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static immu.generated.Trades.XNAS;
+import static immu.generated.Trades.trade;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TradeFingerprintTest {
+
+  @Test
+  public void equalObjectsHaveEqualFingerprints() throws Exception {
+    final Trade trade = trade().build();
+
+    assertEquals(TradeFingerprint.fingerprint64(trade), TradeFingerprint.fingerprint64(trade().build()));
+    assertEquals(TradeFingerprint.fingerprint64(trade), TradeFingerprint.fingerprint64(delegate(trade)));
+    assertEquals(TradeFingerprint.fingerprint64(trade().price(0.0).build()), TradeFingerprint.fingerprint64(trade().price(-0.0).build()));
+  }
+
+  @Test
+  public void differentObjectsHaveDifferentFingerprints() throws Exception {
+    final long fingerprint = TradeFingerprint.fingerprint64(trade().build());
+
+    assertFalse(fingerprint == TradeFingerprint.fingerprint64(trade().quantity(101).build()));
+    assertFalse(fingerprint == TradeFingerprint.fingerprint64(trade().comment(null).build()));
+    assertFalse(fingerprint == TradeFingerprint.fingerprint64(trade().legs(new Trade.Side[] { Trade.Side.BUY }).build()));
+    assertFalse(fingerprint == TradeFingerprint.fingerprint64(trade().matrix(new int[][] { { 1, 2 } }).build()));
+    assertFalse(fingerprint == TradeFingerprint.fingerprint64(trade().routedVenue(XNAS).build()));
+    assertFalse(fingerprint == TradeFingerprint.fingerprint64(trade().venues(new Venue[] { null, XNAS }).build()));
+  }
+
+  @Test
+  public void stable() throws Exception {
+    // fingerprints are persisted, so they must not change between versions
+    assertEquals(STABLE, TradeFingerprint.fingerprint64(trade().build()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void nullObject() throws Exception {
+    TradeFingerprint.fingerprint64(null);
+  }
+
+  private static final long STABLE = 0xf24ff89413a380c6L;
+
+  private static Trade delegate(final Trade trade) {
+    return (Trade) Proxy.newProxyInstance(Trade.class.getClassLoader(), new Class<?>[] { Trade.class }, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        return method.invoke(trade, args);
+      }
+    });
+  }
+}
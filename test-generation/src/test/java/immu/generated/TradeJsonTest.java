@@ -0,0 +1,114 @@
+package immu.generated;
+
+import immu.ValueNotProvidedException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static immu.generated.Trades.XNAS;
+import static immu.generated.Trades.trade;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TradeJsonTest {
+
+  @Test
+  public void write() throws Exception {
+    final Trade trade = TradeBuilder.create()
+        .symbol("MSFT")
+        .side(Trade.Side.BUY)
+        .venue(XNAS)
+        .legs(new Trade.Side[] { Trade.Side.SELL })
+        .build();
+
+    assertEquals("{\"symbol\":\"MSFT\",\"side\":\"BUY\",\"cancelled\":false,\"flags\":0,\"lot\":0,\"currency\":\"\\u0000\","
+        + "\"quantity\":0,\"timestamp\":0,\"fee\":0.0,\"price\":0.0,\"comment\":null,\"payload\":null,\"fills\":null,"
+        + "\"tags\":null,\"matrix\":null,\"legs\":[\"SELL\"],\"venue\":{\"mic\":\"XNAS\",\"id\":12},\"routedVenue\":null,"
+        + "\"venues\":null}", TradeJson.toJson(trade));
+  }
+
+  @Test
+  public void roundTrip() throws Exception {
+    final Trade trade = trade()
+        .currency('"')
+        .price(Double.NaN)
+        .comment("caf\u00e9\n")
+        .build();
+    final Trade read = TradeJson.fromJson(TradeJson.toJson(trade));
+
+    assertEquals(trade.symbol(), read.symbol());
+    assertEquals(trade.side(), read.side());
+    assertEquals(trade.cancelled(), read.cancelled());
+    assertEquals(trade.flags(), read.flags());
+    assertEquals(trade.lot(), read.lot());
+    assertEquals(trade.currency(), read.currency());
+    assertEquals(trade.quantity(), read.quantity());
+    assertEquals(trade.timestamp(), read.timestamp());
+    assertEquals(trade.fee(), read.fee(), 0f);
+    assertTrue(Double.isNaN(read.price()));
+    assertEquals(trade.comment(), read.comment());
+    assertArrayEquals(trade.payload(), read.payload());
+    assertArrayEquals(trade.fills(), read.fills());
+    assertArrayEquals(trade.tags(), read.tags());
+    assertTrue(Arrays.deepEquals(trade.matrix(), read.matrix()));
+    assertArrayEquals(trade.legs(), read.legs());
+    assertSame(XNAS, read.venue());
+    assertNull(read.routedVenue());
+    assertArrayEquals(trade.venues(), read.venues());
+  }
+
+  @Test
+  public void roundTripWriterAndReader() throws Exception {
+    final Trade trade = TradeBuilder.create()
+        .symbol("MSFT")
+        .price(-1.5e-10)
+        .venue(XNAS)
+        .build();
+
+    final StringWriter writer = TradeJson.write(trade, new StringWriter());
+
+    assertEquals(trade, TradeJson.read(new StringReader(writer.toString())));
+  }
+
+  @Test
+  public void readAnyOrderSkippingUnknown() throws Exception {
+    final Trade read = TradeJson.fromJson(
+        " { \"unknown\" : [1, {\"a\": [\"}\"]}], \"venue\": {\"id\": 12, \"mic\": \"XNAS\"}, \"quantity\": 7, \"symbol\": \"X\" } ");
+
+    assertEquals("X", read.symbol());
+    assertEquals(7, read.quantity());
+    assertSame(XNAS, read.venue());
+    assertNull(read.tags());
+  }
+
+  @Test(expected = ValueNotProvidedException.class)
+  public void readMissingRequired() throws Exception {
+    TradeJson.fromJson("{\"symbol\": \"X\"}");
+  }
+
+  @Test(expected = IOException.class)
+  public void readMalformed() throws Exception {
+    TradeJson.fromJson("{\"symbol\": \"X\",}");
+  }
+
+  @Test(expected = IOException.class)
+  public void readByteOutOfRange() throws Exception {
+    TradeJson.fromJson("{\"symbol\": \"X\", \"flags\": 300, \"venue\": {\"id\": 12, \"mic\": \"XNAS\"}}");
+  }
+
+  @Test(expected = IOException.class)
+  public void readShortOutOfRange() throws Exception {
+    TradeJson.fromJson("{\"symbol\": \"X\", \"lot\": 40000, \"venue\": {\"id\": 12, \"mic\": \"XNAS\"}}");
+  }
+
+  @Test(expected = IOException.class)
+  public void readUnknownEnumConstant() throws Exception {
+    TradeJson.fromJson("{\"symbol\": \"X\", \"side\": \"HOLD\", \"venue\": {\"id\": 12, \"mic\": \"XNAS\"}}");
+  }
+}
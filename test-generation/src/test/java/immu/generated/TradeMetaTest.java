@@ -0,0 +1,120 @@
+package immu.generated;
+
+import immu.PropertyKind;
+import immu.PropertyVisitor;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static immu.generated.Trades.XNAS;
+import static immu.generated.Trades.trade;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TradeMetaTest {
+
+  private static final Trade TRADE = trade().build();
+
+  @Test
+  public void describesProperties() throws Exception {
+    assertEquals(19, TradeMeta.size());
+    assertEquals("routedVenue", TradeMeta.name(TradeMeta.ROUTED_VENUE));
+    assertEquals(TradeMeta.ROUTED_VENUE, TradeMeta.indexOf("routedVenue"));
+    assertEquals(-1, TradeMeta.indexOf("missing"));
+    assertEquals(-1, TradeMeta.indexOf(null));
+    assertEquals(PropertyKind.CHAR, TradeMeta.kind(TradeMeta.CURRENCY));
+    assertEquals(PropertyKind.OBJECT, TradeMeta.kind(TradeMeta.MATRIX));
+    assertSame(int[][].class, TradeMeta.type(TradeMeta.MATRIX));
+    assertSame(Trade.Side.class, TradeMeta.type(TradeMeta.SIDE));
+    assertSame(long.class, TradeMeta.type(TradeMeta.TIMESTAMP));
+    assertTrue(TradeMeta.isRequired(TradeMeta.SYMBOL));
+    assertFalse(TradeMeta.isRequired(TradeMeta.COMMENT));
+  }
+
+  @Test
+  public void getters() throws Exception {
+    assertTrue(TradeMeta.getBoolean(TRADE, TradeMeta.CANCELLED));
+    assertEquals(-3, TradeMeta.getByte(TRADE, TradeMeta.FLAGS));
+    assertEquals(100, TradeMeta.getShort(TRADE, TradeMeta.LOT));
+    assertEquals('$', TradeMeta.getChar(TRADE, TradeMeta.CURRENCY));
+    assertEquals(1500, TradeMeta.getInt(TRADE, TradeMeta.QUANTITY));
+    assertEquals(1234567890123L, TradeMeta.getLong(TRADE, TradeMeta.TIMESTAMP));
+    assertEquals(0.25f, TradeMeta.getFloat(TRADE, TradeMeta.FEE), 0);
+    assertEquals(187.5, TradeMeta.getDouble(TRADE, TradeMeta.PRICE), 0);
+    assertEquals("AAPL", TradeMeta.getObject(TRADE, TradeMeta.SYMBOL));
+    assertSame(XNAS, TradeMeta.getObject(TRADE, TradeMeta.VENUE));
+    assertEquals(1500, TradeMeta.getObject(TRADE, TradeMeta.QUANTITY));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getterOfOtherKind() throws Exception {
+    TradeMeta.getInt(TRADE, TradeMeta.TIMESTAMP);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getterOfMissingProperty() throws Exception {
+    TradeMeta.getObject(TRADE, TradeMeta.size());
+  }
+
+  @Test
+  public void acceptVisitsInOrder() throws Exception {
+    final List<String> visited = new ArrayList<String>();
+
+    TradeMeta.accept(TRADE, new PropertyVisitor() {
+      public void visitBoolean(int index, String name, boolean value) {
+        visited.add(index + " " + name + " boolean " + value);
+      }
+
+      public void visitByte(int index, String name, byte value) {
+        visited.add(index + " " + name + " byte " + value);
+      }
+
+      public void visitShort(int index, String name, short value) {
+        visited.add(index + " " + name + " short " + value);
+      }
+
+      public void visitChar(int index, String name, char value) {
+        visited.add(index + " " + name + " char " + value);
+      }
+
+      public void visitInt(int index, String name, int value) {
+        visited.add(index + " " + name + " int " + value);
+      }
+
+      public void visitLong(int index, String name, long value) {
+        visited.add(index + " " + name + " long " + value);
+      }
+
+      public void visitFloat(int index, String name, float value) {
+        visited.add(index + " " + name + " float " + value);
+      }
+
+      public void visitDouble(int index, String name, double value) {
+        visited.add(index + " " + name + " double " + value);
+      }
+
+      public void visitObject(int index, String name, Object value) {
+        visited.add(index + " " + name + " object " + (value instanceof Object[] ? Arrays.deepToString((Object[]) value) : value));
+      }
+    });
+
+    assertEquals(19, visited.size());
+    assertEquals(Arrays.asList(
+        "0 symbol object AAPL",
+        "1 side object SELL",
+        "2 cancelled boolean true",
+        "3 flags byte -3",
+        "4 lot short 100",
+        "5 currency char $",
+        "6 quantity int 1500",
+        "7 timestamp long 1234567890123",
+        "8 fee float 0.25",
+        "9 price double 187.5",
+        "10 comment object caf\u00e9"), visited.subList(0, 11));
+    assertEquals("14 matrix object [[1, 2], null, []]", visited.get(14));
+  }
+}
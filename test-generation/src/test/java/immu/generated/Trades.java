@@ -0,0 +1,40 @@
+package immu.generated;
+
+/**
+ * Data shared by the tests of the {@link Trade} companions.
+ */
+final class Trades {
+
+  static final Venue XNAS = VenueBuilder.create()
+      .mic("XNAS")
+      .id((short) 12)
+      .build();
+
+  private Trades() {
+  }
+
+  /**
+   * Returns a builder with every property but the routed venue set, for tests to override the ones they check.
+   */
+  static TradeBuilder trade() {
+    return TradeBuilder.create()
+        .symbol("AAPL")
+        .side(Trade.Side.SELL)
+        .cancelled(true)
+        .flags((byte) -3)
+        .lot((short) 100)
+        .currency('$')
+        .quantity(1500)
+        .timestamp(1234567890123L)
+        .fee(0.25f)
+        .price(187.5)
+        .comment("caf\u00e9")
+        .payload(new byte[] { 1, 2, 3 })
+        .fills(new long[] { 7, 8 })
+        .tags(new String[] { "a", null, "b" })
+        .matrix(new int[][] { { 1, 2 }, null, { } })
+        .legs(new Trade.Side[] { Trade.Side.BUY, null })
+        .venue(XNAS)
+        .venues(new Venue[] { XNAS, null });
+  }
+}